@@ -366,6 +366,11 @@ public class MessageHandler {
 
             JsonObject json = valueMap.cast();
 
+            if (isResynchronize(valueMap)) {
+                // The server sends the full state, discard the current one
+                registry.getStateTree().prepareForResync();
+            }
+
             if (json.hasKey("constants")) {
                 ConstantPool constantPool = registry.getConstantPool();
                 JsonObject constants = json.getObject("constants");
@@ -376,6 +381,12 @@ public class MessageHandler {
                 processChanges(json);
             }
 
+            if (json.hasKey(JsonConstants.UIDL_KEY_EVICTED_CONSTANTS)) {
+                // Evicted constants are no longer used by the updated nodes
+                registry.getConstantPool().removeFromJson(json
+                        .getArray(JsonConstants.UIDL_KEY_EVICTED_CONSTANTS));
+            }
+
             if (json.hasKey(JsonConstants.UIDL_KEY_EXECUTE)) {
                 // Invoke JS only after all tree changes have been
                 // propagated and after post flush listeners added during
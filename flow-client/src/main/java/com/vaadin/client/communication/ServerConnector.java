@@ -87,6 +87,35 @@ public class ServerConnector {
         sendEventMessage(node.getId(), eventType, eventData);
     }
 
+    /**
+     * Sends an event message to the server, optionally allowing it to be
+     * coalesced with a queued event message of the same type for the same
+     * node.
+     *
+     * @see ServerRpcQueue#addCoalescing(JsonObject)
+     *
+     * @param node
+     *            the node that listened to the event
+     * @param eventType
+     *            the type of event
+     * @param eventData
+     *            extra data associated with the event
+     * @param coalesce
+     *            <code>true</code> to allow coalescing the event,
+     *            <code>false</code> to always send it separately
+     */
+    public void sendEventMessage(StateNode node, String eventType,
+            JsonObject eventData, boolean coalesce) {
+        if (!coalesce) {
+            sendEventMessage(node, eventType, eventData);
+            return;
+        }
+        ServerRpcQueue rpcQueue = registry.getServerRpcQueue();
+        rpcQueue.addCoalescing(
+                createEventMessage(node.getId(), eventType, eventData));
+        rpcQueue.flush();
+    }
+
     /**
      * Sends an event message to the server.
      *
@@ -99,6 +128,11 @@ public class ServerConnector {
      */
     public void sendEventMessage(int nodeId, String eventType,
             JsonObject eventData) {
+        sendMessage(createEventMessage(nodeId, eventType, eventData));
+    }
+
+    private static JsonObject createEventMessage(int nodeId, String eventType,
+            JsonObject eventData) {
         JsonObject message = Json.createObject();
         message.put(JsonConstants.RPC_TYPE, JsonConstants.RPC_TYPE_EVENT);
         message.put(JsonConstants.RPC_NODE, nodeId);
@@ -107,8 +141,7 @@ public class ServerConnector {
         if (eventData != null) {
             message.put(JsonConstants.RPC_EVENT_DATA, eventData);
         }
-
-        sendMessage(message);
+        return message;
     }
 
     /**
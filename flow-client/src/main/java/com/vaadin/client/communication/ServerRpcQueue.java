@@ -15,12 +15,16 @@
  */
 package com.vaadin.client.communication;
 
+import java.util.Objects;
+
 import com.google.gwt.core.client.Scheduler;
 import com.vaadin.client.Console;
 import com.vaadin.client.Registry;
+import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.Json;
 import elemental.json.JsonArray;
+import elemental.json.JsonObject;
 import elemental.json.JsonValue;
 
 /**
@@ -44,6 +48,12 @@ public class ServerRpcQueue {
 
     private Runnable doFlushStrategy = NO_OP;
 
+    /*
+     * Index of the last invocation added through addCoalescing, or -1. Only
+     * the last pending invocation can be coalesced.
+     */
+    private int coalescingIndex = -1;
+
     /**
      * Creates a new instance connected to the given registry.
      *
@@ -69,6 +79,65 @@ public class ServerRpcQueue {
         pendingInvocations.set(pendingInvocations.length(), invocation);
     }
 
+    /**
+     * Adds an event invocation to the send queue, coalescing it with the last
+     * pending invocation if that is an event of the same type for the same
+     * node in the same debounce phase that has also been added through this
+     * method.
+     * <p>
+     * A coalesced invocation carries the event data of the latest event and
+     * the number of events it represents.
+     *
+     * @param eventInvocation
+     *            event RPC invocation
+     */
+    public void addCoalescing(JsonObject eventInvocation) {
+        int lastIndex = pendingInvocations.length() - 1;
+        if (lastIndex >= 0 && lastIndex == coalescingIndex) {
+            JsonObject previous = pendingInvocations.getObject(lastIndex);
+            if (canCoalesce(previous, eventInvocation)) {
+                eventInvocation.put(JsonConstants.RPC_EVENT_COALESCED_COUNT,
+                        getCoalescedCount(previous) + 1);
+                pendingInvocations.set(lastIndex, eventInvocation);
+                return;
+            }
+        }
+
+        add(eventInvocation);
+        if (pendingInvocations.length() - 1 > lastIndex) {
+            coalescingIndex = pendingInvocations.length() - 1;
+        }
+    }
+
+    private static boolean canCoalesce(JsonObject previous,
+            JsonObject invocation) {
+        return previous.getNumber(JsonConstants.RPC_NODE) == invocation
+                .getNumber(JsonConstants.RPC_NODE)
+                && previous.getString(JsonConstants.RPC_EVENT_TYPE).equals(
+                        invocation.getString(JsonConstants.RPC_EVENT_TYPE))
+                && Objects.equals(getPhase(previous), getPhase(invocation));
+    }
+
+    private static String getPhase(JsonObject invocation) {
+        if (!invocation.hasKey(JsonConstants.RPC_EVENT_DATA)) {
+            return null;
+        }
+        JsonObject eventData = invocation
+                .getObject(JsonConstants.RPC_EVENT_DATA);
+        if (!eventData.hasKey(JsonConstants.EVENT_DATA_PHASE)) {
+            return null;
+        }
+        return eventData.getString(JsonConstants.EVENT_DATA_PHASE);
+    }
+
+    private static int getCoalescedCount(JsonObject invocation) {
+        if (invocation.hasKey(JsonConstants.RPC_EVENT_COALESCED_COUNT)) {
+            return (int) invocation
+                    .getNumber(JsonConstants.RPC_EVENT_COALESCED_COUNT);
+        }
+        return 1;
+    }
+
     /**
      * Clears the queue.
      */
@@ -76,6 +145,7 @@ public class ServerRpcQueue {
         pendingInvocations = Json.createArray();
         flushPending = false;
         doFlushStrategy = NO_OP;
+        coalescingIndex = -1;
     }
 
     /**
@@ -18,6 +18,7 @@ package com.vaadin.client.flow;
 import com.vaadin.client.flow.collection.JsCollections;
 import com.vaadin.client.flow.collection.JsMap;
 
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 import elemental.json.JsonType;
 import elemental.json.JsonValue;
@@ -42,7 +43,13 @@ public class ConstantPool {
         assert json != null;
 
         for (String key : json.keys()) {
-            assert !constants.has(key);
+            /*
+             * Keys are derived from the value, so a constant may be sent again
+             * when the server resynchronizes the full state.
+             */
+            if (constants.has(key)) {
+                continue;
+            }
             JsonValue value = json.get(key);
 
             assert value != null && value.getType() != JsonType.NULL;
@@ -50,6 +57,21 @@ public class ConstantPool {
         }
     }
 
+    /**
+     * Removes constants that the server has evicted from this pool.
+     *
+     * @param keys
+     *            a JSON array of the keys of the constants to remove, not
+     *            <code>null</code>
+     */
+    public void removeFromJson(JsonArray keys) {
+        assert keys != null;
+
+        for (int i = 0; i < keys.length(); i++) {
+            constants.delete(keys.getString(i));
+        }
+    }
+
     /**
      * Checks whether this constant pool contains a value for the given key.
      *
@@ -22,6 +22,7 @@ import com.vaadin.client.flow.collection.JsArray;
 import com.vaadin.client.flow.collection.JsCollections;
 import com.vaadin.client.flow.collection.JsMap;
 import com.vaadin.client.flow.nodefeature.MapProperty;
+import com.vaadin.client.flow.nodefeature.NodeList;
 import com.vaadin.client.flow.nodefeature.NodeMap;
 import com.vaadin.flow.internal.nodefeature.NodeFeatures;
 import com.vaadin.flow.internal.nodefeature.NodeProperties;
@@ -124,6 +125,36 @@ public class StateTree {
         node.unregister();
     }
 
+    /**
+     * Prepares this tree for receiving the full state from the server. All
+     * nodes except the root node are unregistered and the lists of the root
+     * node are emptied, since the server sends them again in full.
+     * Properties of the root node are kept as is and overwritten by the
+     * server.
+     */
+    public void prepareForResync() {
+        rootNode.forEachFeature((feature, featureId) -> {
+            if (feature instanceof NodeList) {
+                /*
+                 * Not using clear() since it would also remove DOM nodes that
+                 * the server doesn't know about, e.g. the loading indicator.
+                 */
+                NodeList list = (NodeList) feature;
+                list.splice(0, list.length());
+            }
+        });
+
+        JsArray<StateNode> nodes = JsCollections.array();
+        idToNode.forEach((node, id) -> {
+            if (node != rootNode) {
+                nodes.push(node);
+            }
+        });
+        for (int i = 0; i < nodes.length(); i++) {
+            unregisterNode(nodes.get(i));
+        }
+    }
+
     /**
      * Verifies that the provided node is not null and properly registered with
      * this state tree.
@@ -203,9 +234,29 @@ public class StateTree {
      */
     public void sendEventToServer(StateNode node, String eventType,
             JsonObject eventData) {
+        sendEventToServer(node, eventType, eventData, false);
+    }
+
+    /**
+     * Sends an event to the server, optionally allowing it to be coalesced
+     * with the previous event of the same type for the same node if that event
+     * has not yet been sent.
+     *
+     * @param node
+     *            the node that listened to the event
+     * @param eventType
+     *            the type of event
+     * @param eventData
+     *            extra data associated with the event
+     * @param coalesce
+     *            <code>true</code> to allow coalescing the event,
+     *            <code>false</code> to always send it separately
+     */
+    public void sendEventToServer(StateNode node, String eventType,
+            JsonObject eventData, boolean coalesce) {
         if (isValidNode(node)) {
             registry.getServerConnector().sendEventMessage(node, eventType,
-                    eventData);
+                    eventData, coalesce);
         }
     }
 
@@ -23,10 +23,12 @@ import com.vaadin.client.flow.nodefeature.MapProperty;
 import com.vaadin.client.flow.nodefeature.NodeList;
 import com.vaadin.client.flow.nodefeature.NodeMap;
 import com.vaadin.client.flow.util.ClientJsonCodec;
+import com.vaadin.flow.shared.CompactChangeLayout;
 import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.JsonArray;
 import elemental.json.JsonObject;
+import elemental.json.JsonType;
 import elemental.json.JsonValue;
 
 /**
@@ -36,6 +38,12 @@ import elemental.json.JsonValue;
  * @since 1.0
  */
 public class TreeChangeProcessor {
+    // Positions of the values in a compact change, see CompactChangeLayout
+    private static final int COMPACT_NODE = 1;
+    private static final int COMPACT_FEATURE = 2;
+    private static final int COMPACT_KEY = 3;
+    private static final int COMPACT_VALUE = 4;
+
     private TreeChangeProcessor() {
         // Only static helpers here
     }
@@ -46,7 +54,9 @@ public class TreeChangeProcessor {
      * @param tree
      *            the tree to update
      * @param changes
-     *            the JSON array of changes
+     *            the JSON array of changes, each either a JSON object or a JSON
+     *            array in the compact encoding described by
+     *            {@link CompactChangeLayout}
      * @return a set of updated nodes addressed by the {@code changes}
      */
     public static JsSet<StateNode> processChanges(StateTree tree,
@@ -61,22 +71,33 @@ public class TreeChangeProcessor {
 
             // Attach all nodes before doing anything else
             for (int i = 0; i < length; i++) {
-                JsonObject change = changes.getObject(i);
-                if (isAttach(change)) {
-                    int nodeId = (int) change
-                            .getNumber(JsonConstants.CHANGE_NODE);
-
-                    StateNode node = new StateNode(nodeId, tree);
-                    tree.registerNode(node);
-                    nodes.add(node);
+                if (isCompact(changes, i)) {
+                    JsonArray change = changes.getArray(i);
+                    if (isAttach(change)) {
+                        nodes.add(attachNode(tree,
+                                (int) change.getNumber(COMPACT_NODE)));
+                    }
+                } else {
+                    JsonObject change = changes.getObject(i);
+                    if (isAttach(change)) {
+                        nodes.add(attachNode(tree, (int) change
+                                .getNumber(JsonConstants.CHANGE_NODE)));
+                    }
                 }
             }
 
             // Then process all non-attach changes
             for (int i = 0; i < length; i++) {
-                JsonObject change = changes.getObject(i);
-                if (!isAttach(change)) {
-                    nodes.add(processChange(tree, change));
+                if (isCompact(changes, i)) {
+                    JsonArray change = changes.getArray(i);
+                    if (!isAttach(change)) {
+                        nodes.add(processCompactChange(tree, change));
+                    }
+                } else {
+                    JsonObject change = changes.getObject(i);
+                    if (!isAttach(change)) {
+                        nodes.add(processChange(tree, change));
+                    }
                 }
             }
             return nodes;
@@ -86,11 +107,92 @@ public class TreeChangeProcessor {
 
     }
 
+    private static StateNode attachNode(StateTree tree, int nodeId) {
+        StateNode node = new StateNode(nodeId, tree);
+        tree.registerNode(node);
+        return node;
+    }
+
+    private static boolean isCompact(JsonArray changes, int index) {
+        return changes.get(index).getType() == JsonType.ARRAY;
+    }
+
+    private static boolean isAttach(JsonArray compactChange) {
+        return CompactChangeLayout.get((int) compactChange
+                .getNumber(0)) == CompactChangeLayout.ATTACH;
+    }
+
     private static boolean isAttach(JsonObject change) {
         return JsonConstants.CHANGE_TYPE_ATTACH
                 .equals(change.getString(JsonConstants.CHANGE_TYPE));
     }
 
+    /**
+     * Update a state tree based on a change in the compact encoding described
+     * by {@link CompactChangeLayout}. The values are read directly from the
+     * compact array without converting it to a JSON object first.
+     *
+     * @param tree
+     *            the tree to update
+     * @param change
+     *            the compact JSON change
+     * @return the updated node addressed by the provided {@code change}
+     */
+    private static StateNode processCompactChange(StateTree tree,
+            JsonArray change) {
+        CompactChangeLayout layout = CompactChangeLayout
+                .get((int) change.getNumber(0));
+        int nodeId = (int) change.getNumber(COMPACT_NODE);
+
+        StateNode node = tree.getNode(nodeId);
+        assert node != null;
+
+        if (layout == CompactChangeLayout.DETACH) {
+            processDetachChange(node);
+            return node;
+        }
+
+        int featureId = (int) change.getNumber(COMPACT_FEATURE);
+        switch (layout) {
+        case EMPTY:
+            populateFeature(node, featureId, change.getBoolean(COMPACT_KEY));
+            break;
+        case PUT:
+            getProperty(node, featureId, change.getString(COMPACT_KEY))
+                    .setValue(ClientJsonCodec.decodeWithoutTypeInfo(
+                            change.get(COMPACT_VALUE)));
+            break;
+        case PUT_NODE:
+            putNode(node, featureId, change.getString(COMPACT_KEY),
+                    (int) change.getNumber(COMPACT_VALUE));
+            break;
+        case REMOVE:
+            getProperty(node, featureId, change.getString(COMPACT_KEY))
+                    .removeValue();
+            break;
+        case SPLICE_ADD:
+            node.getList(featureId).splice(
+                    (int) change.getNumber(COMPACT_KEY), 0,
+                    ClientJsonCodec.jsonArrayAsJsArray(
+                            change.getArray(COMPACT_VALUE)));
+            break;
+        case SPLICE_ADD_NODES:
+            spliceNodes(node, featureId, (int) change.getNumber(COMPACT_KEY),
+                    0, change.getArray(COMPACT_VALUE));
+            break;
+        case SPLICE_REMOVE:
+            node.getList(featureId).splice((int) change.getNumber(COMPACT_KEY),
+                    (int) change.getNumber(COMPACT_VALUE));
+            break;
+        case CLEAR:
+            node.getList(featureId).clear();
+            break;
+        default:
+            assert false : "Unsupported compact change layout: " + layout;
+        }
+        return node;
+    }
+
     /**
      * Update a state tree based on a JSON change. This method is public for
      * testing purposes.
@@ -142,7 +244,13 @@ public class TreeChangeProcessor {
         assert change.hasKey(
                 JsonConstants.CHANGE_FEATURE_TYPE) : "Change doesn't contain feature type. Don't know how to populate feature";
         int featureId = (int) change.getNumber(JsonConstants.CHANGE_FEATURE);
-        if (change.getBoolean(JsonConstants.CHANGE_FEATURE_TYPE)) {
+        populateFeature(node, featureId,
+                change.getBoolean(JsonConstants.CHANGE_FEATURE_TYPE));
+    }
+
+    private static void populateFeature(StateNode node, int featureId,
+            boolean isList) {
+        if (isList) {
             // list feature
             node.getList(featureId);
         } else {
@@ -160,17 +268,27 @@ public class TreeChangeProcessor {
         } else if (change.hasKey(JsonConstants.CHANGE_PUT_NODE_VALUE)) {
             int childId = (int) change
                     .getNumber(JsonConstants.CHANGE_PUT_NODE_VALUE);
-            StateNode child = node.getTree().getNode(childId);
-            assert child != null;
-            child.setParent(node);
-
-            property.setValue(child);
+            putNode(node, property, childId);
         } else {
             assert false : "Change should have either value or nodeValue property: "
                     + WidgetUtil.stringify(change);
         }
     }
 
+    private static void putNode(StateNode node, int featureId, String key,
+            int childId) {
+        putNode(node, getProperty(node, featureId, key), childId);
+    }
+
+    private static void putNode(StateNode node, MapProperty property,
+            int childId) {
+        StateNode child = node.getTree().getNode(childId);
+        assert child != null;
+        child.setParent(node);
+
+        property.setValue(child);
+    }
+
     private static void processRemoveChange(JsonObject change, StateNode node) {
         MapProperty property = findProperty(change, node);
 
@@ -179,9 +297,14 @@ public class TreeChangeProcessor {
 
     private static MapProperty findProperty(JsonObject change, StateNode node) {
         int nsId = (int) change.getNumber(JsonConstants.CHANGE_FEATURE);
-        NodeMap map = node.getMap(nsId);
         String key = change.getString(JsonConstants.CHANGE_MAP_KEY);
 
+        return getProperty(node, nsId, key);
+    }
+
+    private static MapProperty getProperty(StateNode node, int featureId,
+            String key) {
+        NodeMap map = node.getMap(featureId);
         return map.getProperty(key);
     }
 
@@ -208,24 +331,29 @@ public class TreeChangeProcessor {
         } else if (change.hasKey(JsonConstants.CHANGE_SPLICE_ADD_NODES)) {
             JsonArray addNodes = change
                     .getArray(JsonConstants.CHANGE_SPLICE_ADD_NODES);
-            int length = addNodes.length();
+            spliceNodes(node, nsId, index, remove, addNodes);
+        } else {
+            list.splice(index, remove);
+        }
+    }
 
-            JsArray<StateNode> add = JsCollections.array();
+    private static void spliceNodes(StateNode node, int featureId, int index,
+            int remove, JsonArray addNodes) {
+        int length = addNodes.length();
 
-            StateTree tree = node.getTree();
-            for (int i = 0; i < length; i++) {
-                int childId = (int) addNodes.getNumber(i);
-                StateNode child = tree.getNode(childId);
-                assert child != null : "No child node found with id " + childId;
-                child.setParent(node);
+        JsArray<StateNode> add = JsCollections.array();
 
-                add.set(i, child);
-            }
+        StateTree tree = node.getTree();
+        for (int i = 0; i < length; i++) {
+            int childId = (int) addNodes.getNumber(i);
+            StateNode child = tree.getNode(childId);
+            assert child != null : "No child node found with id " + childId;
+            child.setParent(node);
 
-            list.splice(index, remove, add);
-        } else {
-            list.splice(index, remove);
+            add.set(i, child);
         }
+
+        node.getList(featureId).splice(index, remove, add);
     }
 
     private static void processClearChange(JsonObject change, StateNode node) {
@@ -1217,18 +1217,29 @@ public class SimpleElementBindingStrategy implements BindingStrategy<Element> {
                 .getValue();
         assert expressionConstantKey != null;
 
-        assert constantPool.has(expressionConstantKey);
+        if (!constantPool.has(expressionConstantKey)) {
+            /*
+             * The server has evicted the constant since it no longer uses it,
+             * but the listener map of an inactive node is not yet updated.
+             */
+            return;
+        }
 
         JsonObject expressionSettings = constantPool.get(expressionConstantKey);
         String[] expressions = expressionSettings.keys();
+        boolean coalesce = expressionSettings
+                .hasKey(JsonConstants.EVENT_SETTINGS_COALESCE);
 
         JsonObject eventData;
-        if (expressions.length == 0) {
+        if (expressions.length == (coalesce ? 1 : 0)) {
             eventData = null;
         } else {
             eventData = Json.createObject();
 
             for (String expressionString : expressions) {
+                if (isSettingsKey(expressionString)) {
+                    continue;
+                }
                 EventExpression expression = getOrCreateExpression(
                         expressionString);
 
@@ -1240,16 +1251,20 @@ public class SimpleElementBindingStrategy implements BindingStrategy<Element> {
         }
 
         boolean sendNow = resolveFilters(element, node, type,
-                expressionSettings, eventData);
+                expressionSettings, eventData, coalesce);
 
         if (sendNow) {
             // Send if there were not filters or at least one matched
-            sendEventToServer(node, type, eventData, null);
+            sendEventToServer(node, type, eventData, null, coalesce);
         }
     }
 
+    private static boolean isSettingsKey(String key) {
+        return JsonConstants.EVENT_SETTINGS_COALESCE.equals(key);
+    }
+
     private static void sendEventToServer(StateNode node, String type,
-            JsonObject eventData, String debouncePhase) {
+            JsonObject eventData, String debouncePhase, boolean coalesce) {
         if (debouncePhase == null) {
             if (eventData != null) {
                 eventData.remove(JsonConstants.EVENT_DATA_PHASE);
@@ -1261,17 +1276,24 @@ public class SimpleElementBindingStrategy implements BindingStrategy<Element> {
             eventData.put(JsonConstants.EVENT_DATA_PHASE, debouncePhase);
         }
 
-        node.getTree().sendEventToServer(node, type, eventData);
+        if (coalesce) {
+            node.getTree().sendEventToServer(node, type, eventData, true);
+        } else {
+            node.getTree().sendEventToServer(node, type, eventData);
+        }
     }
 
     private static boolean resolveFilters(Node element, StateNode node,
             String eventType, JsonObject expressionSettings,
-            JsonObject eventData) {
+            JsonObject eventData, boolean coalesce) {
 
         boolean noFilters = true;
         boolean atLeastOneFilterMatched = false;
 
         for (String expression : expressionSettings.keys()) {
+            if (isSettingsKey(expression)) {
+                continue;
+            }
             JsonValue settings = expressionSettings.get(expression);
 
             boolean hasDebounce = settings.getType() == JsonType.ARRAY;
@@ -1290,7 +1312,7 @@ public class SimpleElementBindingStrategy implements BindingStrategy<Element> {
                 filterMatched = resolveDebounces(element, debouncerId,
                         (JsonArray) settings,
                         triggerdPhase -> sendEventToServer(node, eventType,
-                                eventData, triggerdPhase));
+                                eventData, triggerdPhase, coalesce));
             }
 
             atLeastOneFilterMatched |= filterMatched;
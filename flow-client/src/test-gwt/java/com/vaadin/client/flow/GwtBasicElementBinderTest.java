@@ -32,6 +32,7 @@ import com.vaadin.client.flow.reactive.Reactive;
 import com.vaadin.client.flow.util.NativeFunction;
 import com.vaadin.flow.internal.nodefeature.NodeFeatures;
 import com.vaadin.flow.internal.nodefeature.NodeProperties;
+import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.client.Browser;
 import elemental.dom.Element;
@@ -685,6 +686,33 @@ public class GwtBasicElementBinderTest extends GwtPropertyElementBinderTest {
         assertEquals(1, tree.collectedNodes.length());
     }
 
+    public void testCoalescingEventFired() {
+        Binder.bind(node, element);
+
+        String constantPoolKey = "expressionsKey";
+
+        JsonObject expressions = Json.createObject();
+        expressions.put("element.tagName", false);
+        expressions.put(JsonConstants.EVENT_SETTINGS_COALESCE, true);
+
+        addToConstantPool(constantPoolKey, expressions);
+
+        node.getMap(NodeFeatures.ELEMENT_LISTENERS).getProperty("click")
+                .setValue(constantPoolKey);
+        Reactive.flush();
+        Browser.getDocument().getBody().appendChild(element);
+
+        element.click();
+
+        assertEquals(1, tree.collectedNodes.length());
+        assertEquals(1, tree.coalescedNodes.length());
+
+        // The settings key is not evaluated as an expression
+        JsonObject eventData = tree.collectedEventData.get(0);
+        assertEquals(1, eventData.keys().length);
+        assertEquals("DIV", eventData.getString("element.tagName"));
+    }
+
     private void addToConstantPool(String key, JsonValue value) {
         // https://github.com/gwtproject/gwt/issues/9225
         value = Json.instance().parse(value.toJson());
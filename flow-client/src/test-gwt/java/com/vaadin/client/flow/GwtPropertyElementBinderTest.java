@@ -81,6 +81,7 @@ public abstract class GwtPropertyElementBinderTest
     protected static class CollectingStateTree extends StateTree {
         JsArray<StateNode> collectedNodes = JsCollections.array();
         JsArray<JsonObject> collectedEventData = JsCollections.array();
+        JsArray<StateNode> coalescedNodes = JsCollections.array();
         JsMap<StateNode, JsMap<String, Object>> synchronizedProperties = JsCollections
                 .map();
         List<Object> existingElementRpcArgs = new ArrayList<>();
@@ -98,6 +99,15 @@ public abstract class GwtPropertyElementBinderTest
             collectedEventData.push(eventData);
         }
 
+        @Override
+        public void sendEventToServer(StateNode node, String eventType,
+                JsonObject eventData, boolean coalesce) {
+            sendEventToServer(node, eventType, eventData);
+            if (coalesce) {
+                coalescedNodes.push(node);
+            }
+        }
+
         @Override
         public void sendNodePropertySyncToServer(MapProperty property) {
             StateNode node = property.getMap().getNode();
@@ -26,6 +26,7 @@ import com.vaadin.client.Registry;
 import com.vaadin.client.communication.ServerConnector;
 import com.vaadin.client.flow.binding.Binder;
 import com.vaadin.client.flow.nodefeature.MapProperty;
+import com.vaadin.client.flow.nodefeature.NodeList;
 import com.vaadin.client.flow.nodefeature.NodeMap;
 import com.vaadin.flow.internal.nodefeature.NodeFeatures;
 import com.vaadin.flow.internal.nodefeature.NodeProperties;
@@ -105,6 +106,27 @@ public class StateTreeTest {
         Assert.assertSame(node, foundNode);
     }
 
+    @Test
+    public void prepareForResync_nodesUnregisteredRootListsEmptied() {
+        tree.registerNode(node);
+        NodeList children = tree.getRootNode()
+                .getList(NodeFeatures.ELEMENT_CHILDREN);
+        children.add(0, node);
+        tree.getRootNode().getMap(NodeFeatures.ELEMENT_PROPERTIES)
+                .getProperty("foo").setValue("bar");
+
+        tree.prepareForResync();
+
+        Assert.assertTrue(node.isUnregistered());
+        Assert.assertNull(tree.getNode(node.getId()));
+        Assert.assertSame(tree.getRootNode(), tree.getNode(1));
+        Assert.assertFalse(tree.getRootNode().isUnregistered());
+        Assert.assertEquals(0, children.length());
+        Assert.assertEquals("bar",
+                tree.getRootNode().getMap(NodeFeatures.ELEMENT_PROPERTIES)
+                        .getProperty("foo").getValue());
+    }
+
     @Test(expected = AssertionError.class)
     public void testRegisterExistingThrows() {
         tree.registerNode(node);
@@ -28,6 +28,7 @@ import com.vaadin.client.flow.nodefeature.MapProperty;
 import com.vaadin.client.flow.nodefeature.NodeList;
 import com.vaadin.flow.internal.JsonUtils;
 import com.vaadin.flow.internal.nodefeature.NodeFeatures;
+import com.vaadin.flow.shared.CompactChangeLayout;
 import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.Json;
@@ -187,6 +188,49 @@ public class TreeChangeProcessorTest {
         Assert.assertTrue(updatedNodes.has(tree.getNode(nodeId)));
     }
 
+    @Test
+    public void processChanges_compactChanges_sameAsObjectChanges() {
+        int nodeId = 2;
+        JsonArray changes = toArray(
+                compactChange(CompactChangeLayout.PUT, nodeId, ns,
+                        Json.create(myKey), Json.create(myValue)),
+                compactChange(CompactChangeLayout.ATTACH, nodeId),
+                compactChange(CompactChangeLayout.SPLICE_ADD_NODES, rootId, ns,
+                        Json.create(0), toArray(Json.create(nodeId))));
+
+        JsSet<StateNode> updatedNodes = TreeChangeProcessor.processChanges(tree,
+                changes);
+
+        StateNode node = tree.getNode(nodeId);
+        Assert.assertEquals(myValue,
+                node.getMap(ns).getProperty(myKey).getValue());
+        Assert.assertSame(node, tree.getRootNode().getList(ns).get(0));
+        Assert.assertEquals(2, updatedNodes.size());
+    }
+
+    @Test
+    public void processChanges_compactAndObjectChanges_allProcessed() {
+        int nodeId = 2;
+        MapProperty property = tree.getRootNode().getMap(ns).getProperty(myKey);
+        property.setValue(myValue);
+
+        JsonArray changes = toArray(attachChange(nodeId),
+                compactChange(CompactChangeLayout.REMOVE, rootId, ns,
+                        Json.create(myKey)),
+                nodeSpliceChange(rootId, ns + 1, 0, 0, nodeId),
+                compactChange(CompactChangeLayout.EMPTY, nodeId, ns,
+                        Json.create(true)));
+
+        JsSet<StateNode> updatedNodes = TreeChangeProcessor.processChanges(tree,
+                changes);
+
+        StateNode node = tree.getNode(nodeId);
+        Assert.assertFalse(property.hasValue());
+        Assert.assertSame(node, tree.getRootNode().getList(ns + 1).get(0));
+        Assert.assertTrue(node.hasFeature(ns));
+        Assert.assertEquals(2, updatedNodes.size());
+    }
+
     @Test
     public void testDetachRemovesNode() {
         AtomicInteger unregisterCount = new AtomicInteger(0);
@@ -320,6 +364,21 @@ public class TreeChangeProcessorTest {
         return Arrays.stream(changes).collect(JsonUtils.asArray());
     }
 
+    private static JsonArray compactChange(CompactChangeLayout layout,
+            int node) {
+        return toArray(Json.create(layout.ordinal()), Json.create(node));
+    }
+
+    private static JsonArray compactChange(CompactChangeLayout layout,
+            int node, int ns, JsonValue... values) {
+        JsonArray json = compactChange(layout, node);
+        json.set(json.length(), ns);
+        for (JsonValue value : values) {
+            json.set(json.length(), value);
+        }
+        return json;
+    }
+
     private static JsonObject baseChange(int node, String type) {
         JsonObject json = Json.createObject();
 
@@ -17,6 +17,7 @@ package com.vaadin.flow.data.binder;
 
 import java.beans.PropertyDescriptor;
 
+import com.vaadin.flow.function.ValueProvider;
 import com.vaadin.flow.internal.ReflectTools;
 import com.vaadin.flow.shared.util.SharedUtil;
 
@@ -38,6 +39,13 @@ public abstract class AbstractBeanPropertyDefinition<T, V>
     private final BeanPropertySet<T> propertySet;
     private final Class<?> propertyHolderType;
 
+    /*
+     * Generated accessors are created on first use and shared by all getters
+     * and setters of this property definition.
+     */
+    private transient volatile ValueProvider<Object, Object> readAccessor;
+    private transient volatile Setter<Object, Object> writeAccessor;
+
     /**
      * Constructor for setting the immutable descriptor, property set and
      * property holder type used by this instance.
@@ -98,4 +106,39 @@ public abstract class AbstractBeanPropertyDefinition<T, V>
     public Class<?> getPropertyHolderType() {
         return propertyHolderType;
     }
+
+    /**
+     * Reads the value of this property from the given property holder.
+     *
+     * @param propertyHolder
+     *            the object to read the value from
+     * @return the property value
+     */
+    Object readValue(Object propertyHolder) {
+        ValueProvider<Object, Object> accessor = readAccessor;
+        if (accessor == null) {
+            accessor = BeanPropertyAccessors
+                    .createGetter(descriptor.getReadMethod());
+            readAccessor = accessor;
+        }
+        return accessor.apply(propertyHolder);
+    }
+
+    /**
+     * Writes the value of this property to the given property holder.
+     *
+     * @param propertyHolder
+     *            the object to write the value to
+     * @param value
+     *            the value to write
+     */
+    void writeValue(Object propertyHolder, Object value) {
+        Setter<Object, Object> accessor = writeAccessor;
+        if (accessor == null) {
+            accessor = BeanPropertyAccessors
+                    .createSetter(descriptor.getWriteMethod());
+            writeAccessor = accessor;
+        }
+        accessor.accept(propertyHolder, value);
+    }
 }
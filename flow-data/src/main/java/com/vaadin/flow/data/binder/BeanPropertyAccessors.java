@@ -0,0 +1,239 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.binder;
+
+import java.io.Serializable;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.function.ValueProvider;
+import com.vaadin.flow.internal.ReflectTools;
+
+/**
+ * Creates accessors for bean property getters and setters.
+ * <p>
+ * When possible, the accessors are generated with {@link LambdaMetafactory} so
+ * that they call the getter or setter directly without going through
+ * {@link Method#invoke(Object, Object...)}. Otherwise, e.g. for methods of
+ * non-public classes or classes not visible to the class loader of this class,
+ * the accessors fall back to reflection.
+ * <p>
+ * The accessors are not serializable and must be stored in transient fields.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+final class BeanPropertyAccessors implements Serializable {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private BeanPropertyAccessors() {
+        // Only static methods
+    }
+
+    /**
+     * Creates an accessor for the given getter method.
+     *
+     * @param readMethod
+     *            the getter method, not <code>null</code>
+     * @return a function which returns the value of the getter for a bean
+     */
+    @SuppressWarnings("unchecked")
+    static ValueProvider<Object, Object> createGetter(Method readMethod) {
+        if (canGenerate(readMethod)) {
+            try {
+                MethodHandle handle = LOOKUP.unreflect(readMethod);
+                MethodType instantiatedType = MethodType.methodType(
+                        ReflectTools.convertPrimitiveType(
+                                readMethod.getReturnType()),
+                        readMethod.getDeclaringClass());
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply",
+                        MethodType.methodType(ValueProvider.class),
+                        MethodType.methodType(Object.class, Object.class),
+                        handle, instantiatedType);
+                return new GeneratedGetter(readMethod,
+                        (ValueProvider<Object, Object>) site.getTarget()
+                                .invokeExact());
+            } catch (Throwable e) {
+                logFallback(readMethod, e);
+            }
+        }
+        return bean -> invokeWrapExceptions(readMethod, bean);
+    }
+
+    /**
+     * Creates an accessor for the given setter method.
+     *
+     * @param writeMethod
+     *            the setter method, not <code>null</code>
+     * @return a consumer which calls the setter for a bean and a value
+     */
+    @SuppressWarnings("unchecked")
+    static Setter<Object, Object> createSetter(Method writeMethod) {
+        if (canGenerate(writeMethod)) {
+            try {
+                MethodHandle handle = LOOKUP.unreflect(writeMethod);
+                MethodType instantiatedType = MethodType.methodType(void.class,
+                        writeMethod.getDeclaringClass(),
+                        ReflectTools.convertPrimitiveType(
+                                writeMethod.getParameterTypes()[0]));
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept",
+                        MethodType.methodType(Setter.class),
+                        MethodType.methodType(void.class, Object.class,
+                                Object.class),
+                        handle, instantiatedType);
+                return new GeneratedSetter(writeMethod,
+                        (Setter<Object, Object>) site.getTarget()
+                                .invokeExact());
+            } catch (Throwable e) {
+                logFallback(writeMethod, e);
+            }
+        }
+        return (bean, value) -> invokeWrapExceptions(writeMethod, bean, value);
+    }
+
+    /*
+     * The generated class is defined in the context of this class, so it can
+     * only call public methods of public classes that this class can see.
+     * Bridge methods only cast and delegate, so they are left to reflection.
+     */
+    private static boolean canGenerate(Method method) {
+        Class<?> type = method.getDeclaringClass();
+        if (!Modifier.isPublic(method.getModifiers())
+                || Modifier.isStatic(method.getModifiers())
+                || method.isBridge()) {
+            return false;
+        }
+        for (Class<?> c = type; c != null; c = c.getEnclosingClass()) {
+            if (!Modifier.isPublic(c.getModifiers())) {
+                return false;
+            }
+        }
+        try {
+            return Class.forName(type.getName(), false,
+                    BeanPropertyAccessors.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Getter which calls a function generated with {@link LambdaMetafactory}.
+     */
+    static final class GeneratedGetter
+            implements ValueProvider<Object, Object> {
+        private final transient Method readMethod;
+        private final transient ValueProvider<Object, Object> getter;
+
+        private GeneratedGetter(Method readMethod,
+                ValueProvider<Object, Object> getter) {
+            this.readMethod = readMethod;
+            this.getter = getter;
+        }
+
+        @Override
+        public Object apply(Object bean) {
+            if (bean == null) {
+                // Same failure as when invoking through reflection
+                return invokeWrapExceptions(readMethod, bean);
+            }
+            try {
+                return getter.apply(bean);
+            } catch (Throwable e) {
+                throw wrapException(e);
+            }
+        }
+
+        /**
+         * Gets the generated function called by this getter.
+         *
+         * @return the generated function
+         */
+        ValueProvider<Object, Object> getGenerated() {
+            return getter;
+        }
+    }
+
+    /**
+     * Setter which calls a function generated with {@link LambdaMetafactory}.
+     */
+    static final class GeneratedSetter implements Setter<Object, Object> {
+        private final transient Method writeMethod;
+        private final transient Setter<Object, Object> setter;
+        private final boolean primitive;
+
+        private GeneratedSetter(Method writeMethod,
+                Setter<Object, Object> setter) {
+            this.writeMethod = writeMethod;
+            this.setter = setter;
+            primitive = writeMethod.getParameterTypes()[0].isPrimitive();
+        }
+
+        @Override
+        public void accept(Object bean, Object value) {
+            if (bean == null || (primitive && value == null)) {
+                // Same failure as when invoking through reflection
+                invokeWrapExceptions(writeMethod, bean, value);
+                return;
+            }
+            try {
+                setter.accept(bean, value);
+            } catch (Throwable e) {
+                throw wrapException(e);
+            }
+        }
+
+        /**
+         * Gets the generated function called by this setter.
+         *
+         * @return the generated function
+         */
+        Setter<Object, Object> getGenerated() {
+            return setter;
+        }
+    }
+
+    private static void logFallback(Method method, Throwable cause) {
+        LoggerFactory.getLogger(BeanPropertyAccessors.class).debug(
+                "Using reflection to access {} since an accessor could not be generated",
+                method, cause);
+    }
+
+    /*
+     * Exceptions thrown by the getter or setter are wrapped the same way as
+     * when invoking through reflection.
+     */
+    private static RuntimeException wrapException(Throwable exception) {
+        return new RuntimeException(new InvocationTargetException(exception));
+    }
+
+    static Object invokeWrapExceptions(Method method, Object target,
+            Object... parameters) {
+        try {
+            return method.invoke(target, parameters);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
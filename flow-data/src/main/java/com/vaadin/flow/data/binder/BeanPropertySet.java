@@ -19,7 +19,6 @@ import java.beans.IntrospectionException;
 import java.beans.PropertyDescriptor;
 import java.io.IOException;
 import java.io.Serializable;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.List;
@@ -115,11 +114,7 @@ public class BeanPropertySet<T> implements PropertySet<T> {
 
         @Override
         public ValueProvider<T, V> getGetter() {
-            return bean -> {
-                Method readMethod = getDescriptor().getReadMethod();
-                Object value = invokeWrapExceptions(readMethod, bean);
-                return getType().cast(value);
-            };
+            return bean -> getType().cast(readValue(bean));
         }
 
         @Override
@@ -128,14 +123,7 @@ public class BeanPropertySet<T> implements PropertySet<T> {
                 return Optional.empty();
             }
 
-            Setter<T, V> setter = (bean, value) -> {
-                // Do not "optimize" this getter call,
-                // if its done outside the code block, that will produce
-                // NotSerializableException because of some lambda compilation
-                // magic
-                Method innerSetter = getDescriptor().getWriteMethod();
-                invokeWrapExceptions(innerSetter, bean, value);
-            };
+            Setter<T, V> setter = this::writeValue;
             return Optional.of(setter);
         }
 
@@ -195,12 +183,8 @@ public class BeanPropertySet<T> implements PropertySet<T> {
 
         @Override
         public ValueProvider<T, V> getGetter() {
-            return bean -> {
-                Method readMethod = getDescriptor().getReadMethod();
-                Object value = invokeWrapExceptions(readMethod,
-                        parent.getGetter().apply(bean));
-                return getType().cast(value);
-            };
+            return bean -> getType()
+                    .cast(readValue(parent.getGetter().apply(bean)));
         }
 
         @Override
@@ -209,15 +193,8 @@ public class BeanPropertySet<T> implements PropertySet<T> {
                 return Optional.empty();
             }
 
-            Setter<T, V> setter = (bean, value) -> {
-                // Do not "optimize" this getter call,
-                // if its done outside the code block, that will produce
-                // NotSerializableException because of some lambda compilation
-                // magic
-                Method innerSetter = getDescriptor().getWriteMethod();
-                invokeWrapExceptions(innerSetter,
-                        parent.getGetter().apply(bean), value);
-            };
+            Setter<T, V> setter = (bean, value) -> writeValue(
+                    parent.getGetter().apply(bean), value);
             return Optional.of(setter);
         }
 
@@ -510,15 +487,6 @@ public class BeanPropertySet<T> implements PropertySet<T> {
                 && readMethod.getDeclaringClass() != Object.class;
     }
 
-    private static Object invokeWrapExceptions(Method method, Object target,
-            Object... parameters) {
-        try {
-            return method.invoke(target, parameters);
-        } catch (IllegalAccessException | InvocationTargetException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
     @Override
     public String toString() {
         return "Property set for bean " + instanceKey.type.getName();
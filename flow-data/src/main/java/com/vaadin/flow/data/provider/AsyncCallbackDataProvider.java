@@ -0,0 +1,96 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.provider;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import com.vaadin.flow.data.provider.CallbackDataProvider.CountCallback;
+import com.vaadin.flow.data.provider.CallbackDataProvider.FetchCallback;
+import com.vaadin.flow.function.SerializableSupplier;
+
+/**
+ * Asynchronous data provider that runs one callback for fetching items from a
+ * back end and another callback for counting the number of available items
+ * using an executor.
+ * <p>
+ * Executors are typically not serializable, so the executor is looked up
+ * through a supplier for each query. The supplier should return a shared
+ * executor, e.g. one managed by the application or the container, rather than
+ * create a new one.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ *
+ * @param <T>
+ *            data provider data type
+ * @param <F>
+ *            data provider filter type
+ */
+public class AsyncCallbackDataProvider<T, F> extends AbstractDataProvider<T, F>
+        implements AsyncDataProvider<T, F> {
+
+    private final FetchCallback<T, F> fetchCallback;
+    private final CountCallback<T, F> countCallback;
+    private final SerializableSupplier<Executor> executorSupplier;
+
+    /**
+     * Constructs a new asynchronous data provider that runs the given
+     * callbacks using the executor returned by the given supplier.
+     *
+     * @param fetchCallback
+     *            function that returns a stream of items from the back end for
+     *            a query
+     * @param countCallback
+     *            function that returns the number of items in the back end for
+     *            a query
+     * @param executorSupplier
+     *            supplier of the executor to run the callbacks with
+     */
+    public AsyncCallbackDataProvider(FetchCallback<T, F> fetchCallback,
+            CountCallback<T, F> countCallback,
+            SerializableSupplier<Executor> executorSupplier) {
+        Objects.requireNonNull(fetchCallback, "Request function can't be null");
+        Objects.requireNonNull(countCallback, "Count callback can't be null");
+        Objects.requireNonNull(executorSupplier,
+                "Executor supplier can't be null");
+        this.fetchCallback = fetchCallback;
+        this.countCallback = countCallback;
+        this.executorSupplier = executorSupplier;
+    }
+
+    @Override
+    public CompletionStage<Integer> sizeAsync(Query<T, F> query) {
+        return CompletableFuture.supplyAsync(() -> countCallback.count(query),
+                getExecutor());
+    }
+
+    @Override
+    public CompletionStage<List<T>> fetchAsync(Query<T, F> query) {
+        return CompletableFuture.supplyAsync(
+                () -> fetchCallback.fetch(query).collect(Collectors.toList()),
+                getExecutor());
+    }
+
+    private Executor getExecutor() {
+        return Objects.requireNonNull(executorSupplier.get(),
+                "Executor supplier returned null");
+    }
+}
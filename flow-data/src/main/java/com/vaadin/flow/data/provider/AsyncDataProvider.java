@@ -0,0 +1,175 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.provider;
+
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.data.provider.CallbackDataProvider.CountCallback;
+import com.vaadin.flow.data.provider.CallbackDataProvider.FetchCallback;
+import com.vaadin.flow.function.SerializableSupplier;
+import com.vaadin.flow.server.VaadinSession;
+
+/**
+ * A data provider that loads items from a back end asynchronously.
+ * <p>
+ * {@link DataCommunicator} starts the queries of an asynchronous data provider
+ * while holding the session lock, but the back end is queried outside the lock.
+ * The results are applied using {@link com.vaadin.flow.component.UI#access}
+ * when they are available. Results of queries that have been superseded by
+ * newer queries, e.g. because the user has scrolled further, are ignored. Push
+ * or polling should be enabled for the results to be shown without waiting for
+ * the next request from the client.
+ * <p>
+ * Components that do not support asynchronous data providers use
+ * {@link #fetch(Query)} and {@link #size(Query)}, which wait for the results
+ * of the asynchronous queries. Waiting is not allowed while holding the lock
+ * of a session or a UI, since it would block all other requests for it.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ *
+ * @param <T>
+ *            data provider data type
+ * @param <F>
+ *            data provider filter type
+ */
+public interface AsyncDataProvider<T, F> extends DataProvider<T, F> {
+
+    /**
+     * Asynchronously gets the amount of data in this data provider.
+     *
+     * @param query
+     *            query with sorting and filtering
+     * @return a completion stage for the size of the data provider
+     */
+    CompletionStage<Integer> sizeAsync(Query<T, F> query);
+
+    /**
+     * Asynchronously fetches data from this data provider using the given
+     * query.
+     *
+     * @param query
+     *            given query to request data, not <code>null</code>
+     * @return a completion stage for the list of data objects, not containing
+     *         more items than the limit of the query
+     */
+    CompletionStage<List<T>> fetchAsync(Query<T, F> query);
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Waits for the result of {@link #sizeAsync(Query)}.
+     *
+     * @throws IllegalStateException
+     *             if the current thread holds the lock of the current session
+     *             or UI
+     */
+    @Override
+    default int size(Query<T, F> query) {
+        UI ui = UI.getCurrent();
+        VaadinSession session = VaadinSession.getCurrent();
+        if ((session != null && session.hasLock()) || (ui != null
+                && ui.getSession() != null && ui.getSession().hasUILock(ui))) {
+            throw new IllegalStateException(
+                    "Use sizeAsync instead of size while holding the session or UI lock");
+        }
+        return sizeAsync(query).toCompletableFuture().join();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Waits for the result of {@link #fetchAsync(Query)}.
+     *
+     * @throws IllegalStateException
+     *             if the current thread holds the lock of the current session
+     *             or UI
+     */
+    @Override
+    default Stream<T> fetch(Query<T, F> query) {
+        UI ui = UI.getCurrent();
+        VaadinSession session = VaadinSession.getCurrent();
+        if ((session != null && session.hasLock()) || (ui != null
+                && ui.getSession() != null && ui.getSession().hasUILock(ui))) {
+            throw new IllegalStateException(
+                    "Use fetchAsync instead of fetch while holding the session or UI lock");
+        }
+        return fetchAsync(query).toCompletableFuture().join().stream();
+    }
+
+    @Override
+    default boolean isInMemory() {
+        return false;
+    }
+
+    /**
+     * Creates a new asynchronous data provider that runs the given callbacks
+     * using the executor returned by the given supplier. The callbacks receive
+     * a query with the filter type of the data provider.
+     *
+     * @param fetchCallback
+     *            function that returns a stream of items from the back end for
+     *            a query
+     * @param countCallback
+     *            function that returns the number of items in the back end for
+     *            a query
+     * @param executorSupplier
+     *            supplier of the executor to run the callbacks with
+     *
+     * @param <T>
+     *            data provider data type
+     * @param <F>
+     *            data provider filter type
+     * @return a new asynchronous callback data provider
+     */
+    static <T, F> AsyncCallbackDataProvider<T, F> fromFilteringCallbacks(
+            FetchCallback<T, F> fetchCallback,
+            CountCallback<T, F> countCallback,
+            SerializableSupplier<Executor> executorSupplier) {
+        return new AsyncCallbackDataProvider<>(fetchCallback, countCallback,
+                executorSupplier);
+    }
+
+    /**
+     * Creates a new asynchronous data provider that runs the given callbacks
+     * using the executor returned by the given supplier. The callbacks receive
+     * a query without a filter.
+     *
+     * @param fetchCallback
+     *            function that returns a stream of items from the back end for
+     *            a query
+     * @param countCallback
+     *            function that returns the number of items in the back end for
+     *            a query
+     * @param executorSupplier
+     *            supplier of the executor to run the callbacks with
+     *
+     * @param <T>
+     *            data provider data type
+     * @return a new asynchronous callback data provider
+     */
+    static <T> AsyncCallbackDataProvider<T, Void> fromCallbacks(
+            FetchCallback<T, Void> fetchCallback,
+            CountCallback<T, Void> countCallback,
+            SerializableSupplier<Executor> executorSupplier) {
+        return fromFilteringCallbacks(fetchCallback, countCallback,
+                executorSupplier);
+    }
+}
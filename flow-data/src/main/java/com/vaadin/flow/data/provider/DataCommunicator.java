@@ -19,7 +19,6 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
@@ -31,6 +30,8 @@ import java.util.stream.Stream;
 
 import org.slf4j.LoggerFactory;
 
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
 import com.vaadin.flow.data.provider.ArrayUpdater.Update;
 import com.vaadin.flow.data.provider.DataChangeEvent.DataRefreshEvent;
 import com.vaadin.flow.function.SerializableComparator;
@@ -39,6 +40,10 @@ import com.vaadin.flow.internal.ExecutionContext;
 import com.vaadin.flow.internal.JsonUtils;
 import com.vaadin.flow.internal.Range;
 import com.vaadin.flow.internal.StateNode;
+import com.vaadin.flow.internal.StateTree;
+import com.vaadin.flow.server.Command;
+import com.vaadin.flow.server.ErrorEvent;
+import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.shared.Registration;
 
 import elemental.json.Json;
@@ -62,7 +67,7 @@ public class DataCommunicator<T> implements Serializable {
     private final SerializableConsumer<JsonArray> dataUpdater;
     private final StateNode stateNode;
 
-    private DataKeyMapper<T> keyMapper = new KeyMapper<>();
+    private DataKeyMapper<T> keyMapper = new IntKeyMapper<>();
 
     // The range of items that the client wants to have
     private Range requestedRange = Range.between(0, 0);
@@ -82,10 +87,7 @@ public class DataCommunicator<T> implements Serializable {
     private int nextUpdateId = 0;
 
     // Keys that can be discarded once some specific update id gets confirmed
-    private final HashMap<Integer, Set<String>> passivatedByUpdate = new HashMap<>();
-
-    // Update ids that have been confirmed since the last flush
-    private final HashSet<Integer> confirmedUpdates = new HashSet<>();
+    private final PassivatedKeys passivatedKeys = new PassivatedKeys();
 
     private DataProvider<T, ?> dataProvider = DataProvider.ofItems();
 
@@ -98,6 +100,25 @@ public class DataCommunicator<T> implements Serializable {
     private Registration dataProviderUpdateRegistration;
     private HashSet<T> updatedData = new HashSet<>();
 
+    // Number of items to fetch in addition to the requested items
+    private int readAhead = 0;
+
+    // Direction of the latest range change, negative when scrolling up
+    private int scrollDirection = 1;
+
+    // Items fetched ahead of time, ArrayList or emptyList()
+    private List<T> prefetchedItems = Collections.emptyList();
+    private int prefetchedStart = 0;
+
+    // Size loaded from an asynchronous data provider, -1 if not yet loaded
+    private int asyncSize = -1;
+
+    // Identifies the latest asynchronous load, older results are ignored
+    private int asyncRequestId = 0;
+
+    // Range of the asynchronous load in progress, if any
+    private transient Range asyncPendingRange;
+
     private SerializableConsumer<ExecutionContext> flushRequest;
     private SerializableConsumer<ExecutionContext> flushUpdatedDataRequest;
 
@@ -159,6 +180,9 @@ public class DataCommunicator<T> implements Serializable {
      *            the end of the requested range
      */
     public void setRequestedRange(int start, int length) {
+        if (start != requestedRange.getStart()) {
+            scrollDirection = Integer.signum(start - requestedRange.getStart());
+        }
         requestedRange = Range.withLength(start, length);
 
         requestFlush();
@@ -173,6 +197,10 @@ public class DataCommunicator<T> implements Serializable {
         resendEntireRange = true;
         dataGenerator.destroyAllData();
         updatedData.clear();
+        clearPrefetchedItems();
+        asyncRequestId++;
+        asyncSize = -1;
+        asyncPendingRange = null;
         requestFlush();
     }
 
@@ -187,10 +215,50 @@ public class DataCommunicator<T> implements Serializable {
                 "DataCommunicator can not refresh null object");
         getKeyMapper().refresh(data);
         dataGenerator.refreshData(data);
+        clearPrefetchedItems();
         updatedData.add(data);
         requestFlushUpdatedData();
     }
 
+    /**
+     * Sets the number of items to fetch from the data provider in addition to
+     * the items requested by the client. The additional items are fetched
+     * after the requested range when the client has most recently scrolled
+     * down and before it when the client has scrolled up.
+     * <p>
+     * The additional items are kept in memory, so that subsequent requests for
+     * items within the same range can be served without querying the data
+     * provider again. At most the requested items and the read-ahead items
+     * from the latest query are kept. The items are discarded when the data is
+     * reset or refreshed.
+     * <p>
+     * The default value is <code>0</code>, which means that exactly the items
+     * requested by the client are fetched.
+     *
+     * @param readAhead
+     *            the number of additional items to fetch, not negative
+     */
+    public void setReadAhead(int readAhead) {
+        if (readAhead < 0) {
+            throw new IllegalArgumentException(
+                    "Read-ahead cannot be negative: " + readAhead);
+        }
+        this.readAhead = readAhead;
+        clearPrefetchedItems();
+    }
+
+    /**
+     * Gets the number of items that are fetched from the data provider in
+     * addition to the items requested by the client.
+     *
+     * @see #setReadAhead(int)
+     *
+     * @return the number of additional items to fetch
+     */
+    public int getReadAhead() {
+        return readAhead;
+    }
+
     /**
      * Confirm update with the given {@code updateId}.
      *
@@ -198,7 +266,7 @@ public class DataCommunicator<T> implements Serializable {
      *            the update identifier
      */
     public void confirmUpdate(int updateId) {
-        confirmedUpdates.add(Integer.valueOf(updateId));
+        passivatedKeys.confirmUpdate(updateId);
 
         // Not absolutely necessary, but doing it right away to release memory
         // earlier
@@ -220,6 +288,11 @@ public class DataCommunicator<T> implements Serializable {
      * The returned consumer can be used to set some other filter value that
      * should be included in queries sent to the data provider. It is only valid
      * until another data provider is set.
+     * <p>
+     * If the data provider is an {@link AsyncDataProvider}, the data is loaded
+     * without holding the session lock and sent to the client when it is
+     * available. Push or polling should be enabled in that case for the data to
+     * be shown without waiting for the next request from the client.
      *
      * @param dataProvider
      *            the data provider to set, not <code>null</code>
@@ -438,10 +511,15 @@ public class DataCommunicator<T> implements Serializable {
     }
 
     private void flush() {
+        if (isAsync() && !loadAsyncData()) {
+            // Flushed again when the data has been loaded
+            return;
+        }
+
         Set<String> oldActive = new HashSet<>(activeKeyOrder);
 
         if (resendEntireRange) {
-            assumedSize = getDataProviderSize();
+            assumedSize = isAsync() ? asyncSize : getDataProviderSize();
         }
 
         final Range previousActive = Range.withLength(activeStart,
@@ -488,22 +566,14 @@ public class DataCommunicator<T> implements Serializable {
          * Actually unregister anything that was removed in an update that the
          * client has confirmed that it has applied.
          */
-        if (!confirmedUpdates.isEmpty()) {
-            confirmedUpdates.forEach(this::doUnregister);
-            confirmedUpdates.clear();
-        }
+        passivatedKeys.unregisterConfirmed(this::doUnregister);
     }
 
-    private void doUnregister(Integer updateId) {
-        Set<String> passivated = passivatedByUpdate.remove(updateId);
-        if (passivated != null) {
-            passivated.forEach(key -> {
-                T item = keyMapper.get(key);
-                if (item != null) {
-                    dataGenerator.destroyData(item);
-                    keyMapper.remove(item);
-                }
-            });
+    private void doUnregister(String key) {
+        T item = keyMapper.get(key);
+        if (item != null) {
+            dataGenerator.destroyData(item);
+            keyMapper.remove(item);
         }
     }
 
@@ -522,7 +592,7 @@ public class DataCommunicator<T> implements Serializable {
             // Finally clear any passivated items that have now been confirmed
             oldActive.removeAll(newActiveKeyOrder);
             if (!oldActive.isEmpty()) {
-                passivatedByUpdate.put(Integer.valueOf(updateId), oldActive);
+                passivatedKeys.passivate(oldActive, updateId);
             }
         }
     }
@@ -621,18 +691,176 @@ public class DataCommunicator<T> implements Serializable {
 
         // XXX Explicitly refresh anything that is updated
         List<String> activeKeys = new ArrayList<>(range.length());
-        fetchFromProvider(range.getStart(), range.length()).forEach(bean -> {
+        fetchItems(range).forEach(bean -> {
             boolean mapperHasKey = keyMapper.has(bean);
             String key = keyMapper.key(bean);
             if (mapperHasKey) {
-                passivatedByUpdate.values().stream()
-                        .forEach(set -> set.remove(key));
+                passivatedKeys.activate(key);
             }
             activeKeys.add(key);
         });
         return activeKeys;
     }
 
+    private Stream<T> fetchItems(Range range) {
+        if (readAhead == 0 && !isAsync()) {
+            return fetchFromProvider(range.getStart(), range.length());
+        }
+
+        // Asynchronously loaded items are always available at this point
+        if (!isAsync() && !range.isSubsetOf(Range.withLength(prefetchedStart,
+                prefetchedItems.size()))) {
+            Range fetchRange = scrollDirection < 0 ? range.expand(readAhead, 0)
+                    : range.expand(0, readAhead);
+            fetchRange = fetchRange.restrictTo(Range.withLength(0,
+                    Math.max(assumedSize, range.getEnd())));
+
+            prefetchedItems = fetchFromProvider(fetchRange.getStart(),
+                    fetchRange.length()).collect(Collectors.toList());
+            prefetchedStart = fetchRange.getStart();
+        }
+
+        int from = Math.min(range.getStart() - prefetchedStart,
+                prefetchedItems.size());
+        int to = Math.min(from + range.length(), prefetchedItems.size());
+        return prefetchedItems.subList(from, to).stream();
+    }
+
+    private void clearPrefetchedItems() {
+        prefetchedItems = Collections.emptyList();
+        prefetchedStart = 0;
+    }
+
+    private boolean isAsync() {
+        return getDataProvider() instanceof AsyncDataProvider;
+    }
+
+    /**
+     * Checks whether the data needed for flushing has been loaded from the
+     * asynchronous data provider and starts loading it otherwise.
+     *
+     * @return <code>true</code> if the data is available, <code>false</code>
+     *         if it is being loaded
+     */
+    private boolean loadAsyncData() {
+        if (isAsyncDataLoaded()) {
+            return true;
+        }
+
+        if (asyncPendingRange == null
+                || !requestedRange.isSubsetOf(asyncPendingRange)) {
+            startAsyncLoad();
+        }
+        // The data provider may have completed the load right away
+        return isAsyncDataLoaded();
+    }
+
+    private boolean isAsyncDataLoaded() {
+        if (asyncSize < 0) {
+            return false;
+        }
+        Range requested = requestedRange
+                .restrictTo(Range.withLength(0, asyncSize));
+        Range loaded = Range.withLength(prefetchedStart,
+                prefetchedItems.size());
+        Range active = Range.withLength(activeStart, activeKeyOrder.size());
+        return requested.isEmpty() || requested.isSubsetOf(loaded)
+                || (!resendEntireRange && requested.isSubsetOf(active));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void startAsyncLoad() {
+        Range range = scrollDirection < 0 ? requestedRange.expand(readAhead, 0)
+                : requestedRange.expand(0, readAhead);
+        asyncPendingRange = Range.between(Math.max(0, range.getStart()),
+                range.getEnd());
+        int requestId = ++asyncRequestId;
+        UI ui = ((StateTree) stateNode.getOwner()).getUI();
+
+        if (asyncSize >= 0) {
+            fetchAsync(ui, requestId);
+        } else {
+            ((AsyncDataProvider<T, Object>) getDataProvider())
+                    .sizeAsync(new Query<>(filter))
+                    .whenComplete((size, error) -> applyAsync(ui, requestId,
+                            error, () -> {
+                                asyncSize = size.intValue();
+                                fetchAsync(ui, requestId);
+                            }));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void fetchAsync(UI ui, int requestId) {
+        Range range = asyncPendingRange
+                .restrictTo(Range.withLength(0, asyncSize));
+        if (range.isEmpty()) {
+            setAsyncItems(range, Collections.emptyList());
+            return;
+        }
+
+        ((AsyncDataProvider<T, Object>) getDataProvider())
+                .fetchAsync(new Query<>(range.getStart(), range.length(),
+                        new ArrayList<>(backEndSorting), inMemorySorting,
+                        filter))
+                .whenComplete((items, error) -> applyAsync(ui, requestId,
+                        error, () -> setAsyncItems(range, items)));
+    }
+
+    private void setAsyncItems(Range range, List<T> items) {
+        asyncPendingRange = null;
+        if (items.size() > range.length()) {
+            throw new IllegalStateException(String.format(
+                    "The number of items returned by "
+                            + "the data provider exceeds the limit specified by the query (%d).",
+                    range.length()));
+        }
+        if (items.size() < range.length()) {
+            // The size has decreased since it was loaded
+            asyncSize = range.getStart() + items.size();
+        }
+        prefetchedItems = new ArrayList<>(items);
+        prefetchedStart = range.getStart();
+        requestFlush();
+    }
+
+    /**
+     * Runs the given command with the result of an asynchronous query, unless
+     * the query has been superseded by a newer one.
+     */
+    private void applyAsync(UI ui, int requestId, Throwable error,
+            Command command) {
+        Command applyCommand = () -> {
+            if (requestId != asyncRequestId) {
+                // Superseded by a newer load or a reset
+                return;
+            }
+            if (error != null) {
+                asyncPendingRange = null;
+                throw new IllegalStateException(
+                        "Loading data from the data provider failed", error);
+            }
+            command.execute();
+        };
+
+        VaadinSession session = ui.getSession();
+        if (session != null && session == VaadinSession.getCurrent()
+                && session.hasLock()) {
+            // Completed while the query was started
+            try {
+                applyCommand.execute();
+            } catch (RuntimeException e) {
+                session.getErrorHandler().error(new ErrorEvent(e));
+            }
+            return;
+        }
+        try {
+            ui.access(applyCommand);
+        } catch (UIDetachedException e) {
+            // The component is no longer shown, the data is not needed
+        }
+    }
+
     private JsonValue generateJson(T item) {
         JsonObject json = Json.createObject();
         json.put("key", getKeyMapper().key(item));
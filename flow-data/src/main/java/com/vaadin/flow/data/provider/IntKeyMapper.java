@@ -0,0 +1,181 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.provider;
+
+import com.vaadin.flow.function.ValueProvider;
+import com.vaadin.flow.internal.OpenHashTable.IntObjectMap;
+import com.vaadin.flow.internal.OpenHashTable.ObjectIntMap;
+
+/**
+ * A {@link DataKeyMapper} that generates numeric keys for objects and stores
+ * them as primitive <code>int</code>s.
+ * <p>
+ * The keys are the same as the ones generated by {@link KeyMapper} by default,
+ * but the string form of a key is only created when it is sent to the client.
+ * The mappings are stored in open addressing hash maps without any entry
+ * objects, which makes the memory usage per mapped object considerably lower
+ * than with {@link KeyMapper}.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ *
+ * @param <V>
+ *            the type of mapped objects
+ */
+public class IntKeyMapper<V> implements DataKeyMapper<V> {
+
+    // Key 0 is never used, it marks missing mappings
+    private int lastKey = 0;
+
+    private final ObjectIntMap<Object> objectIdKeyMap = new ObjectIntMap<>();
+
+    private final IntObjectMap<V> keyObjectMap = new IntObjectMap<>();
+
+    private ValueProvider<V, Object> identifierGetter;
+
+    /**
+     * Constructs a new mapper.
+     *
+     * @param identifierGetter
+     *            has to return a unique key for every bean, and the returned
+     *            key has to follow general {@code hashCode()} and
+     *            {@code equals()} contract, see {@link Object#hashCode()} for
+     *            details.
+     */
+    public IntKeyMapper(ValueProvider<V, Object> identifierGetter) {
+        this.identifierGetter = identifierGetter;
+    }
+
+    /**
+     * Constructs a new mapper with trivial {@code identifierGetter}
+     */
+    public IntKeyMapper() {
+        this(v -> v);
+    }
+
+    @Override
+    public String key(V o) {
+        if (o == null) {
+            return "null";
+        }
+
+        Object id = identifierGetter.apply(o);
+        int key = objectIdKeyMap.get(id, 0);
+        if (key == 0) {
+            key = createKey();
+            objectIdKeyMap.put(id, key);
+            keyObjectMap.put(key, o);
+        }
+        return Integer.toString(key);
+    }
+
+    private int createKey() {
+        if (++lastKey == 0) {
+            // Wrapped around
+            ++lastKey;
+        }
+        return lastKey;
+    }
+
+    @Override
+    public boolean has(V o) {
+        return objectIdKeyMap.containsKey(identifierGetter.apply(o));
+    }
+
+    @Override
+    public V get(String key) {
+        int intKey = parseKey(key);
+        return intKey == 0 ? null : keyObjectMap.get(intKey);
+    }
+
+    @Override
+    public void remove(V removeobj) {
+        int key = objectIdKeyMap.remove(identifierGetter.apply(removeobj), 0);
+        if (key != 0) {
+            keyObjectMap.remove(key);
+        }
+    }
+
+    @Override
+    public void removeAll() {
+        objectIdKeyMap.clear();
+        keyObjectMap.clear();
+    }
+
+    /**
+     * Checks if the given key is mapped to an object.
+     *
+     * @param key
+     *            the key to check
+     * @return <code>true</code> if the key is currently mapped,
+     *         <code>false</code> otherwise
+     */
+    public boolean containsKey(String key) {
+        int intKey = parseKey(key);
+        return intKey != 0 && keyObjectMap.containsKey(intKey);
+    }
+
+    @Override
+    public void refresh(V dataObject) {
+        int key = objectIdKeyMap.get(identifierGetter.apply(dataObject), 0);
+        if (key != 0) {
+            keyObjectMap.put(key, dataObject);
+        }
+    }
+
+    @Override
+    public void setIdentifierGetter(ValueProvider<V, Object> identifierGetter) {
+        if (this.identifierGetter != identifierGetter) {
+            this.identifierGetter = identifierGetter;
+            objectIdKeyMap.clear();
+            keyObjectMap.forEach((key, value) -> objectIdKeyMap
+                    .put(identifierGetter.apply(value), key));
+        }
+    }
+
+    /*
+     * Parses a key generated by this mapper. Only the canonical decimal form
+     * produced by Integer.toString is accepted, so that e.g. "05" or "+5" are
+     * not treated as the key "5". Returns 0 for any other string.
+     */
+    private static int parseKey(String key) {
+        if (key == null || !isCanonicalKey(key)) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(key);
+        } catch (NumberFormatException e) {
+            // Out of range, not a key generated by this mapper
+            return 0;
+        }
+    }
+
+    private static boolean isCanonicalKey(String key) {
+        // Keys are negative after the counter has wrapped around
+        int start = key.startsWith("-") ? 1 : 0;
+        int length = key.length();
+        if (length == start || key.charAt(start) == '0') {
+            return false;
+        }
+        for (int i = start; i < length; i++) {
+            char c = key.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.provider;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.vaadin.flow.internal.OpenHashTable.IntIntMap;
+import com.vaadin.flow.internal.OpenHashTable.ObjectIntMap;
+
+/**
+ * Keeps track of keys that have been removed from the client in some update
+ * and can be unregistered once the client has confirmed that update.
+ * <p>
+ * The update id of each passivated key is stored as a primitive value, so the
+ * memory used is proportional to the number of passivated keys, without any
+ * per update collections or boxed update ids. Numeric keys, such as the ones
+ * generated by {@link IntKeyMapper} and {@link KeyMapper}, are also stored as
+ * primitive values instead of strings.
+ * <p>
+ * This class is meant for internal use only.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+public final class PassivatedKeys implements Serializable {
+
+    // Keys longer than this might not fit in an int
+    private static final int MAX_NUMERIC_KEY_LENGTH = 9;
+
+    private final IntIntMap updateIdByNumericKey = new IntIntMap();
+
+    private final ObjectIntMap<String> updateIdByKey = new ObjectIntMap<>();
+
+    // Update ids that have been confirmed since the last unregistering
+    private int[] confirmedUpdates = new int[4];
+    private int confirmedCount;
+
+    /**
+     * Marks the given keys as passivated by the update with the given id.
+     *
+     * @param keys
+     *            the keys that the update removes from the client
+     * @param updateId
+     *            the update id
+     */
+    public void passivate(Collection<String> keys, int updateId) {
+        for (String key : keys) {
+            if (isNumeric(key)) {
+                updateIdByNumericKey.put(Integer.parseInt(key), updateId);
+            } else {
+                updateIdByKey.put(key, updateId);
+            }
+        }
+    }
+
+    /**
+     * Marks the given key as active again, so that it's not unregistered when
+     * the update that passivated it gets confirmed.
+     *
+     * @param key
+     *            the key to activate
+     */
+    public void activate(String key) {
+        if (isNumeric(key)) {
+            updateIdByNumericKey.remove(Integer.parseInt(key), 0);
+        } else {
+            updateIdByKey.remove(key, 0);
+        }
+    }
+
+    /**
+     * Marks the update with the given id as confirmed by the client.
+     *
+     * @param updateId
+     *            the update id
+     */
+    public void confirmUpdate(int updateId) {
+        if (confirmedCount == confirmedUpdates.length) {
+            confirmedUpdates = Arrays.copyOf(confirmedUpdates,
+                    confirmedCount * 2);
+        }
+        confirmedUpdates[confirmedCount++] = updateId;
+    }
+
+    /**
+     * Removes the keys passivated by the confirmed updates and passes them to
+     * the given consumer.
+     *
+     * @param unregister
+     *            the consumer that unregisters the keys
+     */
+    public void unregisterConfirmed(Consumer<String> unregister) {
+        if (confirmedCount == 0) {
+            return;
+        }
+        List<String> confirmed = new ArrayList<>();
+        updateIdByNumericKey.forEach((key, updateId) -> {
+            if (isConfirmed(updateId)) {
+                confirmed.add(Integer.toString(key));
+            }
+        });
+        updateIdByKey.forEach((key, updateId) -> {
+            if (isConfirmed(updateId)) {
+                confirmed.add(key);
+            }
+        });
+        confirmedCount = 0;
+        confirmed.forEach(key -> {
+            activate(key);
+            unregister.accept(key);
+        });
+    }
+
+    /**
+     * Gets the number of passivated keys that have not been unregistered yet.
+     *
+     * @return the number of passivated keys
+     */
+    public int size() {
+        return updateIdByNumericKey.size() + updateIdByKey.size();
+    }
+
+    private boolean isConfirmed(int updateId) {
+        for (int i = 0; i < confirmedCount; i++) {
+            if (confirmedUpdates[i] == updateId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Checks whether the key is the canonical decimal form of a non-negative
+     * int, so that it can be stored as a number and restored as the same
+     * string.
+     */
+    private static boolean isNumeric(String key) {
+        int length = key.length();
+        if (length == 0 || length > MAX_NUMERIC_KEY_LENGTH
+                || (length > 1 && key.charAt(0) == '0')) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = key.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -18,7 +18,6 @@ package com.vaadin.flow.data.provider.hierarchy;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -29,6 +28,7 @@ import java.util.stream.Stream;
 import com.vaadin.flow.data.provider.ArrayUpdater.Update;
 import com.vaadin.flow.data.provider.DataGenerator;
 import com.vaadin.flow.data.provider.DataKeyMapper;
+import com.vaadin.flow.data.provider.PassivatedKeys;
 import com.vaadin.flow.data.provider.hierarchy.HierarchicalArrayUpdater.HierarchicalUpdate;
 import com.vaadin.flow.function.SerializableBiFunction;
 import com.vaadin.flow.function.SerializableFunction;
@@ -73,10 +73,7 @@ public class HierarchicalCommunicationController<T> implements Serializable {
     private int nextUpdateId = 0;
 
     // Keys that can be discarded once some specific update id gets confirmed
-    private final HashMap<Integer, Set<String>> passivatedByUpdate = new HashMap<>();
-
-    // Update ids that have been confirmed since the last flush
-    private final HashSet<Integer> confirmedUpdates = new HashSet<>();
+    private final PassivatedKeys passivatedKeys = new PassivatedKeys();
 
     /**
      * Constructs communication controller with support for hierarchical data
@@ -145,7 +142,7 @@ public class HierarchicalCommunicationController<T> implements Serializable {
     }
 
     public void confirmUpdate(int updateId) {
-        confirmedUpdates.add(Integer.valueOf(updateId));
+        passivatedKeys.confirmUpdate(updateId);
     }
 
     public void setRequestRange(int start, int length) {
@@ -258,8 +255,7 @@ public class HierarchicalCommunicationController<T> implements Serializable {
             boolean mapperHasKey = keyMapper.has(bean);
             String key = keyMapper.key(bean);
             if (mapperHasKey) {
-                passivatedByUpdate.values()
-                        .forEach(set -> set.remove(key));
+                passivatedKeys.activate(key);
             }
             activeKeys.add(key);
         });
@@ -287,7 +283,7 @@ public class HierarchicalCommunicationController<T> implements Serializable {
             // Finally clear any passivated items that have now been confirmed
             oldActive.removeAll(newActiveKeyOrder);
             if (!oldActive.isEmpty()) {
-                passivatedByUpdate.put(Integer.valueOf(updateId), oldActive);
+                passivatedKeys.passivate(oldActive, updateId);
             }
         }
     }
@@ -297,22 +293,14 @@ public class HierarchicalCommunicationController<T> implements Serializable {
          * Actually unregister anything that was removed in an update that the
          * client has confirmed that it has applied.
          */
-        if (!confirmedUpdates.isEmpty()) {
-            confirmedUpdates.forEach(this::doUnregister);
-            confirmedUpdates.clear();
-        }
+        passivatedKeys.unregisterConfirmed(this::doUnregister);
     }
 
-    private void doUnregister(Integer updateId) {
-        Set<String> passivated = passivatedByUpdate.remove(updateId);
-        if (passivated != null) {
-            passivated.forEach(key -> {
-                T item = keyMapper.get(key);
-                if (item != null) {
-                    dataGenerator.destroyData(item);
-                    keyMapper.remove(item);
-                }
-            });
+    private void doUnregister(String key) {
+        T item = keyMapper.get(key);
+        if (item != null) {
+            dataGenerator.destroyData(item);
+            keyMapper.remove(item);
         }
     }
 
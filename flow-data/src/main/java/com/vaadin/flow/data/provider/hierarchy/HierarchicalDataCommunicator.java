@@ -146,6 +146,11 @@ public class HierarchicalDataCommunicator<T> extends DataCommunicator<T> {
     public void reset() {
         super.reset();
 
+        if (mapper != null) {
+            // The hierarchy might have changed
+            mapper.invalidateIndex();
+        }
+
         if (!dataControllers.isEmpty()) {
             dataControllers.values()
                     .forEach(HierarchicalCommunicationController::unregisterPassivatedKeys);
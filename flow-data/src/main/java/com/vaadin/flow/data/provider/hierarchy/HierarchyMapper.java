@@ -16,6 +16,7 @@
 package com.vaadin.flow.data.provider.hierarchy;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -64,6 +65,143 @@ public class HierarchyMapper<T, F> implements Serializable {
 
     private Set<Object> expandedItemIds = new HashSet<>();
 
+    /*
+     * Index of the currently visible items, built lazily from the data provider
+     * and then updated incrementally when items are expanded or collapsed.
+     * Discarded whenever the hierarchy might have changed.
+     */
+    private transient IndexNode<T> indexRoot;
+    private transient Map<Object, IndexNode<T>> indexedNodes;
+
+    /**
+     * A visible item in the flattened hierarchy. The subtree sizes of the
+     * children of an expanded item are kept in a Fenwick tree, so that the
+     * position of an item in the flattened hierarchy can be calculated and
+     * updated in logarithmic time for each level of the hierarchy.
+     */
+    private static class IndexNode<T> implements Serializable {
+        private final T item;
+        private final IndexNode<T> parent;
+        private final int position;
+
+        // null if the item is collapsed or has no children
+        private IndexNode<T>[] children;
+        private int[] sizeTree;
+        private int descendantCount;
+
+        private IndexNode(T item, IndexNode<T> parent, int position) {
+            this.item = item;
+            this.parent = parent;
+            this.position = position;
+        }
+
+        private void setChildren(IndexNode<T>[] children) {
+            this.children = children;
+            sizeTree = new int[children.length + 1];
+            descendantCount = 0;
+            for (int i = 1; i < sizeTree.length; i++) {
+                int size = children[i - 1].descendantCount + 1;
+                descendantCount += size;
+                sizeTree[i] += size;
+                int next = i + (i & -i);
+                if (next < sizeTree.length) {
+                    sizeTree[next] += sizeTree[i];
+                }
+            }
+        }
+
+        private void clearChildren() {
+            children = null;
+            sizeTree = null;
+            descendantCount = 0;
+        }
+
+        /**
+         * Gets the total size of the subtrees of the children before the given
+         * child position.
+         */
+        private int getSizeBefore(int childPosition) {
+            int sum = 0;
+            for (int i = childPosition; i > 0; i -= i & -i) {
+                sum += sizeTree[i];
+            }
+            return sum;
+        }
+
+        /**
+         * Updates the subtree sizes of the ancestors of this node after the
+         * number of descendants of this node has changed by the given amount.
+         */
+        private void updateAncestorSizes(int delta) {
+            IndexNode<T> child = this;
+            for (IndexNode<T> node = parent; node != null; node = node.parent) {
+                for (int i = child.position + 1; i < node.sizeTree.length; i += i
+                        & -i) {
+                    node.sizeTree[i] += delta;
+                }
+                node.descendantCount += delta;
+                child = node;
+            }
+        }
+
+        /**
+         * Gets the flattened hierarchy index of this node, the root node has
+         * index -1.
+         */
+        private int getIndex() {
+            int index = -1;
+            IndexNode<T> child = this;
+            for (IndexNode<T> node = parent; node != null; node = node.parent) {
+                index += node.getSizeBefore(child.position) + 1;
+                child = node;
+            }
+            return index;
+        }
+
+        /**
+         * Finds the descendant at the given offset in the flattened hierarchy
+         * below this node.
+         */
+        private IndexNode<T> getDescendant(int offset) {
+            IndexNode<T> node = this;
+            int remaining = offset;
+            while (true) {
+                // Find the last child with a size sum before it <= remaining
+                int childPosition = 0;
+                for (int step = Integer.highestOneBit(
+                        node.children.length); step > 0; step >>= 1) {
+                    int next = childPosition + step;
+                    if (next <= node.children.length
+                            && node.sizeTree[next] <= remaining) {
+                        childPosition = next;
+                        remaining -= node.sizeTree[next];
+                    }
+                }
+                node = node.children[childPosition];
+                if (remaining == 0) {
+                    return node;
+                }
+                remaining--;
+            }
+        }
+
+        /**
+         * Gets the node following this one in the flattened hierarchy, or
+         * {@code null} if this is the last node.
+         */
+        private IndexNode<T> getNext() {
+            if (children != null) {
+                return children[0];
+            }
+            for (IndexNode<T> node = this; node.parent != null; node = node.parent) {
+                if (node.position + 1 < node.parent.children.length) {
+                    return node.parent.children[node.position + 1];
+                }
+            }
+            return null;
+        }
+    }
+
     /**
      * Constructs a new HierarchyMapper.
      *
@@ -80,7 +218,7 @@ public class HierarchyMapper<T, F> implements Serializable {
      * @return the amount of available data
      */
     public int getTreeSize() {
-        return (int) getHierarchy(null).count();
+        return getIndexRoot().descendantCount;
     }
 
     /**
@@ -102,8 +240,9 @@ public class HierarchyMapper<T, F> implements Serializable {
      *
      */
     public Integer getParentIndex(T item) {
-        List<T> flatHierarchy = getHierarchy(null).collect(Collectors.toList());
-        return flatHierarchy.indexOf(getParentOfItem(item));
+        // Builds the index and thus registers the parents of visible items
+        getIndexRoot();
+        return getIndex(getParentOfItem(item));
     }
 
     /**
@@ -115,8 +254,8 @@ public class HierarchyMapper<T, F> implements Serializable {
      *
      */
     public Integer getIndex(T item) {
-        List<T> flatHierarchy = getHierarchy(null).collect(Collectors.toList());
-        return flatHierarchy.indexOf(item);
+        IndexNode<T> node = getIndexNode(item);
+        return node == null ? -1 : node.getIndex();
     }
 
     /**
@@ -157,8 +296,7 @@ public class HierarchyMapper<T, F> implements Serializable {
      */
     public Range expand(T item, Integer position) {
         if (doExpand(item) && position != null) {
-            return Range.withLength(position + 1,
-                    (int) getHierarchy(item, false).count());
+            return Range.withLength(position + 1, countDescendants(item));
         }
 
         return Range.withLength(0, 0);
@@ -178,6 +316,12 @@ public class HierarchyMapper<T, F> implements Serializable {
         if (!isExpanded(item) && hasChildren(item)) {
             expandedItemIds.add(getDataProvider().getId(item));
             expanded = true;
+
+            IndexNode<T> node = findIndexNode(item);
+            if (node != null && node.children == null) {
+                loadChildren(node);
+                node.updateAncestorSizes(node.descendantCount);
+            }
         }
         return expanded;
     }
@@ -193,7 +337,7 @@ public class HierarchyMapper<T, F> implements Serializable {
             return false;
         }
         if (isExpanded(item)) {
-            expandedItemIds.remove(getDataProvider().getId(item));
+            doCollapse(item);
             return true;
         }
         return false;
@@ -214,13 +358,27 @@ public class HierarchyMapper<T, F> implements Serializable {
         if (isExpanded(item)) {
             if (position != null) {
                 removedRows = Range.withLength(position + 1,
-                        (int) getHierarchy(item, false).count());
+                        countDescendants(item));
             }
-            expandedItemIds.remove(getDataProvider().getId(item));
+            doCollapse(item);
         }
         return removedRows;
     }
 
+    private void doCollapse(T item) {
+        expandedItemIds.remove(getDataProvider().getId(item));
+
+        IndexNode<T> node = findIndexNode(item);
+        if (node != null && node.children != null) {
+            int removed = node.descendantCount;
+            for (IndexNode<T> child : node.children) {
+                removeFromIndex(child);
+            }
+            node.clearChildren();
+            node.updateAncestorSizes(-removed);
+        }
+    }
+
 
     /**
      * Gets the current in-memory sorting.
@@ -240,6 +398,7 @@ public class HierarchyMapper<T, F> implements Serializable {
      */
     public void setInMemorySorting(Comparator<T> inMemorySorting) {
         this.inMemorySorting = inMemorySorting;
+        invalidateIndex();
     }
 
     /**
@@ -260,6 +419,7 @@ public class HierarchyMapper<T, F> implements Serializable {
      */
     public void setBackEndSorting(List<QuerySortOrder> backEndSorting) {
         this.backEndSorting = backEndSorting;
+        invalidateIndex();
     }
 
     /**
@@ -280,6 +440,7 @@ public class HierarchyMapper<T, F> implements Serializable {
      */
     public void setFilter(Object filter) {
         this.filter = (F) filter;
+        invalidateIndex();
     }
 
     /**
@@ -314,7 +475,7 @@ public class HierarchyMapper<T, F> implements Serializable {
      * @return the stream of items
      */
     public Stream<T> fetchHierarchyItems(Range range) {
-        return getHierarchy(null).skip(range.getStart()).limit(range.length());
+        return fetchIndexedItems(getIndexRoot(), range);
     }
 
     /**
@@ -328,8 +489,13 @@ public class HierarchyMapper<T, F> implements Serializable {
      * @return the stream of items
      */
     public Stream<T> fetchHierarchyItems(T parent, Range range) {
-        return getHierarchy(parent, false).skip(range.getStart())
-                .limit(range.length());
+        IndexNode<T> node = getIndexNode(parent);
+        if (node == null) {
+            // Not visible, the index only contains visible items
+            return getHierarchy(parent, false).skip(range.getStart())
+                    .limit(range.length());
+        }
+        return fetchIndexedItems(node, range);
     }
 
     /**
@@ -459,10 +625,109 @@ public class HierarchyMapper<T, F> implements Serializable {
             return Optional.empty();
         }
 
-        final List<Object> collect = getHierarchy(null).map(provider::getId)
+        IndexNode<T> node = getIndexNode(target);
+        return Optional.ofNullable(node == null ? null : node.getIndex());
+    }
+
+    /**
+     * Discards the index of the currently visible items. The index is built
+     * again from the data provider the next time it is needed. This should be
+     * called when the data in the data provider has changed.
+     */
+    public void invalidateIndex() {
+        indexRoot = null;
+        indexedNodes = null;
+    }
+
+    private IndexNode<T> getIndexRoot() {
+        if (indexRoot == null) {
+            indexedNodes = new HashMap<>();
+            IndexNode<T> root = new IndexNode<>(null, null, 0);
+            loadChildren(root);
+            indexRoot = root;
+        }
+        return indexRoot;
+    }
+
+    /**
+     * Gets the index node of the given item, or {@code null} if the item is
+     * not visible. The {@code null} item is the root of the hierarchy.
+     */
+    private IndexNode<T> getIndexNode(T item) {
+        getIndexRoot();
+        return findIndexNode(item);
+    }
+
+    /**
+     * Same as {@link #getIndexNode(Object)}, but returns {@code null} instead
+     * of building the index if it has not been built.
+     */
+    private IndexNode<T> findIndexNode(T item) {
+        if (indexRoot == null || item == null) {
+            return indexRoot;
+        }
+        return indexedNodes.get(getDataProvider().getId(item));
+    }
+
+    /**
+     * Fetches the children of an expanded item into the index, including the
+     * children of any expanded descendants. Mirrors
+     * {@link #getFlatChildrenStream(Object, boolean)}.
+     */
+    @SuppressWarnings("unchecked")
+    private void loadChildren(IndexNode<T> node) {
+        T parent = node.item;
+        if (!isExpanded(parent)) {
+            return;
+        }
+        List<T> childList = doFetchDirectChildren(parent)
                 .collect(Collectors.toList());
-        int index = collect.indexOf(getDataProvider().getId(target));
-        return Optional.ofNullable(index < 0 ? null : index);
+        if (childList.isEmpty()) {
+            removeChildren(
+                    parent == null ? null : getDataProvider().getId(parent));
+            return;
+        }
+        registerChildren(parent, childList);
+
+        IndexNode<T>[] children = new IndexNode[childList.size()];
+        for (int i = 0; i < children.length; i++) {
+            T child = childList.get(i);
+            children[i] = new IndexNode<>(child, node, i);
+            indexedNodes.put(getDataProvider().getId(child), children[i]);
+            loadChildren(children[i]);
+        }
+        node.setChildren(children);
+    }
+
+    private void removeFromIndex(IndexNode<T> node) {
+        indexedNodes.remove(getDataProvider().getId(node.item));
+        if (node.children != null) {
+            for (IndexNode<T> child : node.children) {
+                removeFromIndex(child);
+            }
+        }
+    }
+
+    private int countDescendants(T item) {
+        IndexNode<T> node = getIndexNode(item);
+        if (node == null) {
+            return (int) getHierarchy(item, false).count();
+        }
+        return node.descendantCount;
+    }
+
+    private Stream<T> fetchIndexedItems(IndexNode<T> parent, Range range) {
+        int end = Math.min(range.getEnd(), parent.descendantCount);
+        if (range.getStart() >= end) {
+            return Stream.empty();
+        }
+        List<T> items = new ArrayList<>(end - range.getStart());
+        IndexNode<T> node = parent.getDescendant(range.getStart());
+        for (int i = range.getStart(); i < end; i++) {
+            items.add(node.item);
+            node = node.getNext();
+        }
+        return items.stream();
     }
 
     /**
@@ -565,6 +830,8 @@ public class HierarchyMapper<T, F> implements Serializable {
             if (childList.isEmpty()) {
                 removeChildren(parent == null ? null
                         : getDataProvider().getId(parent));
+                // The item is no longer expanded
+                invalidateIndex();
             } else {
                 registerChildren(parent, childList);
             }
@@ -616,6 +883,7 @@ public class HierarchyMapper<T, F> implements Serializable {
         childMap.clear();
         parentIdMap.clear();
         expandedItemIds.clear();
+        invalidateIndex();
     }
 
     /**
@@ -21,12 +21,15 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -72,6 +75,197 @@ public class BeanPropertySetTest {
         }
     }
 
+    public static class PrimitiveBean {
+        private int value;
+
+        public int getValue() {
+            return value;
+        }
+
+        public void setValue(int value) {
+            this.value = value;
+        }
+
+        public String getFailing() {
+            throw new IllegalStateException("Failing getter");
+        }
+    }
+
+    static class NonPublicBean {
+        private String value;
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(String value) {
+            this.value = value;
+        }
+    }
+
+    public interface ValueHolder<V> {
+        V getValue();
+
+        void setValue(V value);
+    }
+
+    public static class StringValueHolder implements ValueHolder<String> {
+        private String value;
+
+        @Override
+        public String getValue() {
+            return value;
+        }
+
+        @Override
+        public void setValue(String value) {
+            this.value = value;
+        }
+    }
+
+    @Test
+    public void primitiveProperty_getAndSetThroughGeneratedAccessors() {
+        PropertyDefinition<PrimitiveBean, Integer> property = getProperty(
+                PrimitiveBean.class, "value");
+        PrimitiveBean bean = new PrimitiveBean();
+
+        property.getSetter().get().accept(bean, 42);
+
+        Assert.assertEquals(42, bean.getValue());
+        Assert.assertEquals(Integer.valueOf(42),
+                property.getGetter().apply(bean));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void primitiveProperty_setNull_throwsLikeReflection() {
+        PropertyDefinition<PrimitiveBean, Integer> property = getProperty(
+                PrimitiveBean.class, "value");
+
+        property.getSetter().get().accept(new PrimitiveBean(), null);
+    }
+
+    @Test
+    public void failingGetter_exceptionWrappedLikeReflection() {
+        PropertyDefinition<PrimitiveBean, String> property = getProperty(
+                PrimitiveBean.class, "failing");
+        try {
+            property.getGetter().apply(new PrimitiveBean());
+            Assert.fail("Getter should fail");
+        } catch (RuntimeException e) {
+            Assert.assertTrue(
+                    e.getCause() instanceof InvocationTargetException);
+            Assert.assertTrue(e.getCause()
+                    .getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void nonPublicBean_getAndSet() {
+        PropertyDefinition<NonPublicBean, String> property = getProperty(
+                NonPublicBean.class, "value");
+        NonPublicBean bean = new NonPublicBean();
+
+        property.getSetter().get().accept(bean, "foo");
+
+        Assert.assertEquals("foo", bean.getValue());
+        Assert.assertEquals("foo", property.getGetter().apply(bean));
+    }
+
+    @Test
+    public void publicBean_accessorsGeneratedWithLambdaMetafactory()
+            throws NoSuchMethodException {
+        ValueProvider<Object, Object> getter = BeanPropertyAccessors
+                .createGetter(PrimitiveBean.class.getMethod("getValue"));
+        Setter<Object, Object> setter = BeanPropertyAccessors.createSetter(
+                PrimitiveBean.class.getMethod("setValue", int.class));
+
+        Assert.assertTrue(
+                getter instanceof BeanPropertyAccessors.GeneratedGetter);
+        Assert.assertTrue(
+                setter instanceof BeanPropertyAccessors.GeneratedSetter);
+        assertGeneratedClass(
+                ((BeanPropertyAccessors.GeneratedGetter) getter)
+                        .getGenerated());
+        assertGeneratedClass(
+                ((BeanPropertyAccessors.GeneratedSetter) setter)
+                        .getGenerated());
+
+        PrimitiveBean bean = new PrimitiveBean();
+        setter.accept(bean, 42);
+        Assert.assertEquals(42, getter.apply(bean));
+    }
+
+    @Test
+    public void nonPublicBean_accessorsUseReflection()
+            throws NoSuchMethodException {
+        ValueProvider<Object, Object> getter = BeanPropertyAccessors
+                .createGetter(NonPublicBean.class.getMethod("getValue"));
+        Setter<Object, Object> setter = BeanPropertyAccessors.createSetter(
+                NonPublicBean.class.getMethod("setValue", String.class));
+
+        Assert.assertFalse(
+                getter instanceof BeanPropertyAccessors.GeneratedGetter);
+        Assert.assertFalse(
+                setter instanceof BeanPropertyAccessors.GeneratedSetter);
+
+        NonPublicBean bean = new NonPublicBean();
+        setter.accept(bean, "foo");
+        Assert.assertEquals("foo", getter.apply(bean));
+    }
+
+    @Test
+    public void bridgeMethods_accessorsUseReflection()
+            throws NoSuchMethodException {
+        Method readMethod = StringValueHolder.class.getMethod("getValue");
+        Method bridgeReadMethod = Stream
+                .of(StringValueHolder.class.getMethods())
+                .filter(method -> method.getName().equals("getValue")
+                        && method.isBridge())
+                .findFirst().get();
+        Method bridgeWriteMethod = StringValueHolder.class
+                .getMethod("setValue", Object.class);
+        Assert.assertFalse(readMethod.isBridge());
+        Assert.assertTrue(bridgeWriteMethod.isBridge());
+
+        ValueProvider<Object, Object> getter = BeanPropertyAccessors
+                .createGetter(bridgeReadMethod);
+        Setter<Object, Object> setter = BeanPropertyAccessors
+                .createSetter(bridgeWriteMethod);
+
+        Assert.assertFalse(
+                getter instanceof BeanPropertyAccessors.GeneratedGetter);
+        Assert.assertFalse(
+                setter instanceof BeanPropertyAccessors.GeneratedSetter);
+
+        StringValueHolder bean = new StringValueHolder();
+        setter.accept(bean, "foo");
+        Assert.assertEquals("foo", getter.apply(bean));
+        try {
+            setter.accept(bean, Integer.valueOf(1));
+            Assert.fail("Bridge method should reject values of wrong type");
+        } catch (RuntimeException e) {
+            Assert.assertTrue(
+                    e.getCause() instanceof InvocationTargetException);
+            Assert.assertTrue(e.getCause()
+                    .getCause() instanceof ClassCastException);
+        }
+    }
+
+    private static void assertGeneratedClass(Object accessor) {
+        Assert.assertTrue(
+                "Accessor should be generated by LambdaMetafactory, was "
+                        + accessor.getClass(),
+                accessor.getClass().isSynthetic()
+                        && accessor.getClass().getName().contains("$$Lambda$"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, V> PropertyDefinition<T, V> getProperty(
+            Class<T> beanType, String name) {
+        return (PropertyDefinition<T, V>) BeanPropertySet.get(beanType)
+                .getProperty(name).get();
+    }
+
     @Test
     public void testSerializeDeserialize_propertySet() throws Exception {
         PropertySet<Person> originalPropertySet = BeanPropertySet
@@ -15,10 +15,19 @@
  */
 package com.vaadin.flow.data.provider;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -34,7 +43,9 @@ import org.mockito.MockitoAnnotations;
 
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.internal.CurrentInstance;
 import com.vaadin.flow.internal.Range;
+import com.vaadin.flow.server.Command;
 import com.vaadin.flow.server.VaadinRequest;
 import com.vaadin.flow.server.VaadinService;
 import com.vaadin.flow.server.VaadinSession;
@@ -259,6 +270,223 @@ public class DataCommunicatorTest {
         });
     }
 
+    @Test
+    public void readAhead_scrollDown_itemsServedFromPrefetchedItems() {
+        List<Query<String, Object>> queries = new ArrayList<>();
+        dataCommunicator.setDataProvider(createDataProvider(queries), null);
+        dataCommunicator.setReadAhead(40);
+
+        dataCommunicator.setRequestedRange(0, 30);
+        fakeClientCommunication();
+
+        Assert.assertEquals(1, queries.size());
+        Assert.assertEquals(0, queries.get(0).getOffset());
+        Assert.assertEquals(70, queries.get(0).getLimit());
+        Assert.assertEquals(Range.withLength(0, 30), lastSet);
+
+        dataCommunicator.setRequestedRange(30, 30);
+        fakeClientCommunication();
+
+        Assert.assertEquals("Items should be served from memory", 1,
+                queries.size());
+        Assert.assertEquals(Range.withLength(30, 30), lastSet);
+        Assert.assertEquals("59",
+                dataCommunicator.getKeyMapper().get(dataCommunicator
+                        .getKeyMapper().key("59")));
+
+        dataCommunicator.setRequestedRange(60, 30);
+        fakeClientCommunication();
+
+        Assert.assertEquals(2, queries.size());
+        Assert.assertEquals(60, queries.get(1).getOffset());
+        Assert.assertEquals("Read-ahead should be limited by the size", 40,
+                queries.get(1).getLimit());
+        Assert.assertEquals(Range.withLength(60, 30), lastSet);
+    }
+
+    @Test
+    public void readAhead_scrollUp_itemsBeforeRangePrefetched() {
+        List<Query<String, Object>> queries = new ArrayList<>();
+        dataCommunicator.setDataProvider(createDataProvider(queries), null);
+        dataCommunicator.setReadAhead(20);
+
+        dataCommunicator.setRequestedRange(70, 30);
+        fakeClientCommunication();
+        queries.clear();
+
+        dataCommunicator.setRequestedRange(40, 30);
+        fakeClientCommunication();
+
+        Assert.assertEquals(1, queries.size());
+        Assert.assertEquals(20, queries.get(0).getOffset());
+        Assert.assertEquals(50, queries.get(0).getLimit());
+
+        dataCommunicator.setRequestedRange(25, 30);
+        fakeClientCommunication();
+
+        Assert.assertEquals("Items should be served from memory", 1,
+                queries.size());
+        Assert.assertEquals(Range.withLength(25, 15), lastSet);
+    }
+
+    @Test
+    public void readAhead_reset_prefetchedItemsDiscarded() {
+        List<Query<String, Object>> queries = new ArrayList<>();
+        dataCommunicator.setDataProvider(createDataProvider(queries), null);
+        dataCommunicator.setReadAhead(40);
+
+        dataCommunicator.setRequestedRange(0, 30);
+        fakeClientCommunication();
+
+        dataCommunicator.reset();
+        dataCommunicator.setRequestedRange(30, 30);
+        fakeClientCommunication();
+
+        Assert.assertEquals(2, queries.size());
+        Assert.assertEquals(30, queries.get(1).getOffset());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setReadAhead_negative_throws() {
+        dataCommunicator.setReadAhead(-1);
+    }
+
+    @Test
+    public void asyncDataProvider_nothingSentUntilDataLoaded() {
+        DeferredDataProvider dataProvider = setUpAsyncDataProvider();
+
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+
+        Assert.assertNull(lastSet);
+        Assert.assertEquals(1, dataProvider.sizes.size());
+        Assert.assertTrue(dataProvider.fetchQueries.isEmpty());
+
+        dataProvider.sizes.get(0).complete(100);
+        Assert.assertEquals(1, dataProvider.fetchQueries.size());
+        Assert.assertEquals(0, dataProvider.fetchQueries.get(0).getOffset());
+        Assert.assertEquals(50, dataProvider.fetchQueries.get(0).getLimit());
+
+        fakeClientCommunication();
+        Assert.assertNull(lastSet);
+
+        dataProvider.completeFetch(0);
+        fakeClientCommunication();
+        Assert.assertEquals(Range.withLength(0, 50), lastSet);
+    }
+
+    @Test
+    public void asyncDataProvider_rangeChangedBeforeDataLoaded_staleDataIgnored() {
+        DeferredDataProvider dataProvider = setUpAsyncDataProvider();
+
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+        dataProvider.sizes.get(0).complete(100);
+
+        dataCommunicator.setRequestedRange(60, 20);
+        fakeClientCommunication();
+
+        // Size is known, so it is not loaded again
+        Assert.assertEquals(1, dataProvider.sizes.size());
+        Assert.assertEquals(2, dataProvider.fetchQueries.size());
+        Assert.assertEquals(60, dataProvider.fetchQueries.get(1).getOffset());
+
+        dataProvider.completeFetch(0);
+        fakeClientCommunication();
+        Assert.assertNull(lastSet);
+
+        dataProvider.completeFetch(1);
+        fakeClientCommunication();
+        Assert.assertEquals(Range.withLength(60, 20), lastSet);
+    }
+
+    @Test
+    public void asyncDataProvider_resetBeforeDataLoaded_staleDataIgnored() {
+        DeferredDataProvider dataProvider = setUpAsyncDataProvider();
+
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+
+        dataCommunicator.reset();
+        fakeClientCommunication();
+        Assert.assertEquals(2, dataProvider.sizes.size());
+
+        dataProvider.sizes.get(0).complete(100);
+        Assert.assertTrue(dataProvider.fetchQueries.isEmpty());
+
+        dataProvider.sizes.get(1).complete(10);
+        dataProvider.completeFetch(0);
+        fakeClientCommunication();
+        Assert.assertEquals(Range.withLength(0, 10), lastSet);
+    }
+
+    @Test
+    public void asyncCallbackDataProvider_completedRightAway_dataSent() {
+        setUpAsyncSession();
+        List<Query<String, Void>> fetchQueries = new ArrayList<>();
+        dataCommunicator.setDataProvider(
+                AsyncDataProvider.fromCallbacks(query -> {
+                    fetchQueries.add(query);
+                    return IntStream
+                            .range(query.getOffset(),
+                                    query.getOffset() + query.getLimit())
+                            .mapToObj(Integer::toString);
+                }, query -> 100, () -> Runnable::run), null);
+
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+
+        Assert.assertEquals(Range.withLength(0, 50), lastSet);
+        Assert.assertEquals(1, fetchQueries.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void asyncDataProvider_blockingSizeWhileLocked_throws() {
+        DeferredDataProvider dataProvider = setUpAsyncDataProvider();
+
+        dataProvider.size(new Query<>());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void asyncCallbackDataProvider_serialized_executorResolvedAgain()
+            throws Exception {
+        AsyncCallbackDataProvider<String, Void> dataProvider = AsyncDataProvider
+                .fromCallbacks(query -> Stream.of("foo"), query -> 1,
+                        () -> Runnable::run);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(dataProvider);
+        }
+        AsyncCallbackDataProvider<String, Void> deserialized;
+        try (ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()))) {
+            deserialized = (AsyncCallbackDataProvider<String, Void>) in
+                    .readObject();
+        }
+
+        Assert.assertEquals(Integer.valueOf(1), deserialized
+                .sizeAsync(new Query<>()).toCompletableFuture().get());
+    }
+
+    private void setUpAsyncSession() {
+        ui = new MockUI(new DirectAccessVaadinSession());
+        element = new Element("div");
+        ui.getElement().appendChild(element);
+
+        dataCommunicator = new DataCommunicator<>(dataGenerator, arrayUpdater,
+                data -> {
+                }, element.getNode());
+    }
+
+    private DeferredDataProvider setUpAsyncDataProvider() {
+        setUpAsyncSession();
+        DeferredDataProvider dataProvider = new DeferredDataProvider();
+        dataCommunicator.setDataProvider(dataProvider, null);
+        return dataProvider;
+    }
+
     private void fakeClientCommunication() {
         ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
         ui.getInternals().getStateTree().collectChanges(ignore -> {
@@ -266,6 +494,11 @@ public class DataCommunicatorTest {
     }
 
     private AbstractDataProvider<String, Object> createDataProvider() {
+        return createDataProvider(new ArrayList<>());
+    }
+
+    private AbstractDataProvider<String, Object> createDataProvider(
+            List<Query<String, Object>> fetchQueries) {
         return new AbstractDataProvider<String, Object>() {
             @Override
             public boolean isInMemory() {
@@ -279,6 +512,7 @@ public class DataCommunicatorTest {
 
             @Override
             public Stream<String> fetch(Query<String, Object> query) {
+                fetchQueries.add(query);
                 return IntStream
                         .range(query.getOffset(),
                                 query.getLimit() + query.getOffset())
@@ -313,6 +547,63 @@ public class DataCommunicatorTest {
         }
     }
 
+    private static class DeferredDataProvider
+            extends AbstractDataProvider<String, Object>
+            implements AsyncDataProvider<String, Object> {
+
+        private final List<CompletableFuture<Integer>> sizes = new ArrayList<>();
+        private final List<Query<String, Object>> fetchQueries = new ArrayList<>();
+        private final List<CompletableFuture<List<String>>> fetches = new ArrayList<>();
+
+        @Override
+        public CompletionStage<Integer> sizeAsync(Query<String, Object> query) {
+            CompletableFuture<Integer> size = new CompletableFuture<>();
+            sizes.add(size);
+            return size;
+        }
+
+        @Override
+        public CompletionStage<List<String>> fetchAsync(
+                Query<String, Object> query) {
+            CompletableFuture<List<String>> items = new CompletableFuture<>();
+            fetchQueries.add(query);
+            fetches.add(items);
+            return items;
+        }
+
+        private void completeFetch(int index) {
+            Query<String, Object> query = fetchQueries.get(index);
+            fetches.get(index).complete(IntStream
+                    .range(query.getOffset(),
+                            query.getOffset() + query.getLimit())
+                    .mapToObj(Integer::toString).collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * Runs access tasks right away, as if they were run by a background thread
+     * after the session has been unlocked.
+     */
+    private static class DirectAccessVaadinSession
+            extends AlwaysLockedVaadinSession {
+
+        private DirectAccessVaadinSession() {
+            super(null);
+        }
+
+        @Override
+        public Future<Void> access(Command command) {
+            Map<Class<?>, CurrentInstance> old = CurrentInstance.getInstances();
+            CurrentInstance.clearAll();
+            try {
+                command.execute();
+            } finally {
+                CurrentInstance.restoreInstances(old);
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
     public static class AlwaysLockedVaadinSession extends MockVaadinSession {
 
         public AlwaysLockedVaadinSession(VaadinService service) {
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.provider;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IntKeyMapperTest {
+
+    private final IntKeyMapper<StrBean> mapper = new IntKeyMapper<>();
+
+    @Test
+    public void key_sameObject_sameKey() {
+        StrBean bean = new StrBean("a", 1, 0);
+
+        String key = mapper.key(bean);
+
+        Assert.assertEquals("1", key);
+        Assert.assertEquals(key, mapper.key(bean));
+        Assert.assertSame(bean, mapper.get(key));
+        Assert.assertTrue(mapper.has(bean));
+        Assert.assertTrue(mapper.containsKey(key));
+    }
+
+    @Test
+    public void get_unknownOrInvalidKey_null() {
+        mapper.key(new StrBean("a", 1, 0));
+
+        Assert.assertNull(mapper.get("2"));
+        Assert.assertNull(mapper.get("null"));
+        Assert.assertNull(mapper.get(""));
+        Assert.assertNull(mapper.get(null));
+        Assert.assertFalse(mapper.containsKey("foo"));
+    }
+
+    @Test
+    public void get_nonCanonicalKey_null() {
+        for (int i = 1; i <= 5; i++) {
+            mapper.key(new StrBean("a", i, 0));
+        }
+
+        Assert.assertNull(mapper.get("05"));
+        Assert.assertNull(mapper.get("+5"));
+        Assert.assertNull(mapper.get("5 "));
+        Assert.assertNull(mapper.get("-0"));
+        Assert.assertNull(mapper.get("0"));
+        Assert.assertNull(mapper.get("-"));
+        Assert.assertNull(mapper.get("99999999999"));
+        Assert.assertNotNull(mapper.get("5"));
+    }
+
+    @Test
+    public void key_null_notMapped() {
+        Assert.assertEquals("null", mapper.key(null));
+        Assert.assertNull(mapper.get("null"));
+    }
+
+    @Test
+    public void remove_manyObjects_remainingObjectsFound() {
+        List<StrBean> beans = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            StrBean bean = new StrBean("bean" + i, i, 0);
+            beans.add(bean);
+            keys.add(mapper.key(bean));
+        }
+        Set<String> uniqueKeys = new HashSet<>(keys);
+        Assert.assertEquals(beans.size(), uniqueKeys.size());
+
+        for (int i = 0; i < beans.size(); i += 3) {
+            mapper.remove(beans.get(i));
+        }
+
+        for (int i = 0; i < beans.size(); i++) {
+            StrBean bean = beans.get(i);
+            if (i % 3 == 0) {
+                Assert.assertFalse(mapper.has(bean));
+                Assert.assertNull(mapper.get(keys.get(i)));
+            } else {
+                Assert.assertTrue(mapper.has(bean));
+                Assert.assertSame(bean, mapper.get(keys.get(i)));
+                Assert.assertEquals(keys.get(i), mapper.key(bean));
+            }
+        }
+    }
+
+    @Test
+    public void removeAll_keysNotReused() {
+        StrBean bean = new StrBean("a", 1, 0);
+        mapper.key(bean);
+
+        mapper.removeAll();
+
+        Assert.assertFalse(mapper.has(bean));
+        Assert.assertNull(mapper.get("1"));
+        Assert.assertEquals("2", mapper.key(bean));
+    }
+
+    @Test
+    public void refresh_sameId_newInstanceReturned() {
+        IntKeyMapper<StrBean> idMapper = new IntKeyMapper<>(StrBean::getId);
+        StrBean bean = new StrBean("a", 1, 0);
+        String key = idMapper.key(bean);
+
+        StrBean updated = new StrBean("b", 1, 0);
+        idMapper.refresh(updated);
+
+        Assert.assertSame(updated, idMapper.get(key));
+        Assert.assertEquals(key, idMapper.key(updated));
+    }
+
+    @Test
+    public void setIdentifierGetter_existingKeysRemapped() {
+        StrBean bean = new StrBean("a", 1, 0);
+        String key = mapper.key(bean);
+
+        mapper.setIdentifierGetter(StrBean::getId);
+
+        Assert.assertEquals(key, mapper.key(new StrBean("b", 1, 0)));
+        Assert.assertSame(bean, mapper.get(key));
+    }
+}
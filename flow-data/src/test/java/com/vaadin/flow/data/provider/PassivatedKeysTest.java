@@ -0,0 +1,97 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.provider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PassivatedKeysTest {
+
+    private final PassivatedKeys passivatedKeys = new PassivatedKeys();
+    private final List<String> unregistered = new ArrayList<>();
+
+    @Test
+    public void unregisterConfirmed_onlyKeysOfConfirmedUpdates() {
+        passivatedKeys.passivate(Arrays.asList("1", "2"), 0);
+        passivatedKeys.passivate(Arrays.asList("3"), 1);
+
+        passivatedKeys.confirmUpdate(0);
+        passivatedKeys.unregisterConfirmed(unregistered::add);
+
+        Assert.assertEquals(new HashSet<>(Arrays.asList("1", "2")),
+                new HashSet<>(unregistered));
+        Assert.assertEquals(1, passivatedKeys.size());
+
+        unregistered.clear();
+        passivatedKeys.unregisterConfirmed(unregistered::add);
+        Assert.assertTrue(unregistered.isEmpty());
+
+        passivatedKeys.confirmUpdate(1);
+        passivatedKeys.unregisterConfirmed(unregistered::add);
+        Assert.assertEquals(Arrays.asList("3"), unregistered);
+        Assert.assertEquals(0, passivatedKeys.size());
+    }
+
+    @Test
+    public void activate_keyNotUnregistered() {
+        passivatedKeys.passivate(Arrays.asList("1", "2"), 0);
+        passivatedKeys.activate("1");
+
+        passivatedKeys.confirmUpdate(0);
+        passivatedKeys.unregisterConfirmed(unregistered::add);
+
+        Assert.assertEquals(Arrays.asList("2"), unregistered);
+    }
+
+    @Test
+    public void passivate_keyPassivatedAgain_unregisteredWithLatestUpdate() {
+        passivatedKeys.passivate(Arrays.asList("1"), 0);
+        passivatedKeys.activate("1");
+        passivatedKeys.passivate(Arrays.asList("1"), 1);
+
+        passivatedKeys.confirmUpdate(0);
+        passivatedKeys.unregisterConfirmed(unregistered::add);
+        Assert.assertTrue(unregistered.isEmpty());
+
+        passivatedKeys.confirmUpdate(1);
+        passivatedKeys.unregisterConfirmed(unregistered::add);
+        Assert.assertEquals(Arrays.asList("1"), unregistered);
+    }
+
+    @Test
+    public void numericAndOtherKeys_unregisteredAsPassivated() {
+        List<String> keys = Arrays.asList("0", "7", "123456789", "01",
+                "1234567890", "-1", "a", "");
+        passivatedKeys.passivate(keys, 0);
+        passivatedKeys.activate("7");
+        passivatedKeys.activate("a");
+        Assert.assertEquals(keys.size() - 2, passivatedKeys.size());
+
+        passivatedKeys.confirmUpdate(0);
+        passivatedKeys.unregisterConfirmed(unregistered::add);
+
+        Assert.assertEquals(
+                new HashSet<>(Arrays.asList("0", "123456789", "01",
+                        "1234567890", "-1", "")),
+                new HashSet<>(unregistered));
+        Assert.assertEquals(0, passivatedKeys.size());
+    }
+}
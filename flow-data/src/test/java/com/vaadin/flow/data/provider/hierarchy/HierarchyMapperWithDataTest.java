@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -225,6 +226,65 @@ public class HierarchyMapperWithDataTest {
         verifyFetchIsCorrect(expectedResult, range);
     }
 
+    @Test
+    public void expandAndCollapse_indexMatchesFlattenedHierarchy() {
+        expand(testData.get(1));
+        expand(roots.get(2));
+        expand(testData.get(0));
+        verifyIndexes();
+
+        collapse(testData.get(0));
+        verifyIndexes();
+
+        expand(testData.get(0));
+        expand(testData.get(1 + LEAF_COUNT + 1));
+        verifyIndexes();
+
+        collapse(roots.get(2));
+        expand(roots.get(4));
+        verifyIndexes();
+    }
+
+    @Test
+    public void invalidateIndex_dataChanged_hierarchyUpdated() {
+        expand(testData.get(0));
+        Node newNode = new Node(testData.size(), testData.get(0));
+        data.addItem(testData.get(0), newNode);
+
+        mapper.invalidateIndex();
+
+        assertEquals(ROOT_COUNT + PARENT_COUNT + 1, mapper.getTreeSize());
+        assertEquals(Integer.valueOf(PARENT_COUNT + 1),
+                mapper.getIndexOf(newNode).get());
+    }
+
+    private void verifyIndexes() {
+        List<Node> expected = new ArrayList<>();
+        roots.forEach(root -> addVisibleItems(root, expected));
+
+        assertEquals(expected.size(), mapper.getTreeSize());
+        assertEquals(expected,
+                mapper.fetchHierarchyItems(Range.between(0, expected.size()))
+                        .collect(Collectors.toList()));
+        for (int i = 0; i < expected.size(); i++) {
+            Node node = expected.get(i);
+            assertEquals(Integer.valueOf(i), mapper.getIndexOf(node).get());
+            assertEquals(Integer.valueOf(expected.indexOf(node.getParent())),
+                    mapper.getParentIndex(node));
+        }
+        testData.stream().filter(node -> !expected.contains(node))
+                .forEach(node -> assertEquals(Optional.empty(),
+                        mapper.getIndexOf(node)));
+    }
+
+    private void addVisibleItems(Node node, List<Node> items) {
+        items.add(node);
+        if (mapper.isExpanded(node)) {
+            data.getChildren(node)
+                    .forEach(child -> addVisibleItems(child, items));
+        }
+    }
+
     private void expand(Node node) {
         insertRows(mapper.expand(node, mapper.getIndexOf(node).orElse(null)));
     }
@@ -77,6 +77,24 @@ public class HierarchyMapperWithNumerousDataTest {
         checkMapSize();
     }
 
+    /**
+     * Index lookups of visible items are done for every expand, collapse and
+     * scroll, so they should not need to go through the whole flattened
+     * hierarchy.
+     */
+    @Test(timeout = 2000)
+    public void expandRootNode_indexLookupsForAllItems() {
+        expand(testData.get(0));
+
+        for (int i = 0; i < testData.size(); i += 100) {
+            assertEquals(Integer.valueOf(i),
+                    mapper.getIndexOf(testData.get(i)).get());
+        }
+        assertEquals(testData.get(PARENT_COUNT), mapper
+                .fetchHierarchyItems(Range.withLength(PARENT_COUNT, 1))
+                .findFirst().get());
+    }
+
     private void expand(Node node) {
         insertRows(mapper.expand(node, mapper.getIndexOf(node).orElse(null)));
     }
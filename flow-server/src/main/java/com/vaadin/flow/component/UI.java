@@ -284,9 +284,7 @@ public class UI extends Component
             // the UI is detached and cleaned up.
 
             // Can't use UI.push() directly since it checks for a valid session
-            if (getSession() != null) {
-                getSession().getService().runPendingAccessTasks(getSession());
-            }
+            getInternals().runPendingAccessTasks();
             pushConnection.push();
         }
 
@@ -354,6 +352,13 @@ public class UI extends Component
      * to be available whereas {@link #access(Command)} defers the task to a
      * later point in time.</li>
      * </ul>
+     * <p>
+     * If {@link VaadinSession#isUiLocking() UIs are locked separately}, only
+     * the lock of this UI is acquired. The lock of another UI in the same
+     * session may then only be held by the current thread if it also holds the
+     * session lock, since two threads locking the same UIs in different order
+     * could otherwise block each other forever. An exception is thrown if this
+     * is detected.
      *
      *
      * @param command
@@ -362,7 +367,9 @@ public class UI extends Component
      *             if the UI is not attached to a session (and locking can
      *             therefore not be done)
      * @throws IllegalStateException
-     *             if the current thread holds the lock for another session
+     *             if the current thread holds the lock for another session, or
+     *             for another UI in the same session without holding the
+     *             session lock
      *
      * @see #access(Command)
      * @see VaadinSession#accessSynchronously(Command)
@@ -378,8 +385,14 @@ public class UI extends Component
         }
 
         VaadinService.verifyNoOtherSessionLocked(session);
+        VaadinService.verifyNoOtherUILocked(this);
 
-        session.lock();
+        boolean uiLocking = session.isUiLocking();
+        if (uiLocking) {
+            internals.lock();
+        } else {
+            session.lock();
+        }
         try {
             if (getSession() == null) {
                 // UI was detached after fetching the session but before we
@@ -389,7 +402,11 @@ public class UI extends Component
             old = CurrentInstance.setCurrent(this);
             command.execute();
         } finally {
-            session.unlock();
+            if (uiLocking) {
+                internals.unlock();
+            } else {
+                session.unlock();
+            }
             if (old != null) {
                 CurrentInstance.restoreInstances(old);
             }
@@ -447,7 +464,7 @@ public class UI extends Component
             throw new UIDetachedException();
         }
 
-        return session.access(new ErrorHandlingCommand() {
+        ErrorHandlingCommand accessCommand = new ErrorHandlingCommand() {
             @Override
             public void execute() {
                 accessSynchronously(command);
@@ -467,7 +484,12 @@ public class UI extends Component
                     getLogger().error(e.getMessage(), e);
                 }
             }
-        });
+        };
+
+        if (session.isUiLocking()) {
+            return internals.access(accessCommand);
+        }
+        return session.access(accessCommand);
     }
 
     /**
@@ -539,7 +561,7 @@ public class UI extends Component
         if (session == null) {
             throw new UIDetachedException("Cannot push a detached UI");
         }
-        session.checkHasLock();
+        session.checkHasUILock(this);
 
         if (!getPushConfiguration().getPushMode().isEnabled()) {
             throw new IllegalStateException("Push not enabled");
@@ -553,7 +575,7 @@ public class UI extends Component
          * when the push would otherwise be ignored because there are no changes
          * to push.
          */
-        session.getService().runPendingAccessTasks(session);
+        getInternals().runPendingAccessTasks();
 
         if (!getInternals().isDirty()) {
             // Do not push if there is nothing to push
@@ -15,6 +15,8 @@
  */
 package com.vaadin.flow.component.internal;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -23,6 +25,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -51,6 +58,7 @@ import com.vaadin.flow.dom.Element;
 import com.vaadin.flow.dom.impl.BasicElementStateProvider;
 import com.vaadin.flow.internal.AnnotationReader;
 import com.vaadin.flow.internal.ConstantPool;
+import com.vaadin.flow.internal.CurrentInstance;
 import com.vaadin.flow.internal.ReflectTools;
 import com.vaadin.flow.internal.StateTree;
 import com.vaadin.flow.internal.nodefeature.LoadingIndicatorConfigurationMap;
@@ -62,6 +70,8 @@ import com.vaadin.flow.router.BeforeLeaveEvent.ContinueNavigationAction;
 import com.vaadin.flow.router.internal.AfterNavigationHandler;
 import com.vaadin.flow.router.internal.BeforeEnterHandler;
 import com.vaadin.flow.router.internal.BeforeLeaveHandler;
+import com.vaadin.flow.server.Command;
+import com.vaadin.flow.server.FutureAccess;
 import com.vaadin.flow.server.VaadinService;
 import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.server.WebBrowser;
@@ -142,6 +152,15 @@ public class UIInternals implements Serializable {
      */
     private long lastHeartbeatTimestamp = System.currentTimeMillis();
 
+    /**
+     * Timestamp of the last UIDL request received for the related UI.
+     */
+    private long lastRequestTimestamp = System.currentTimeMillis();
+
+    private transient boolean pushScheduled;
+
+    private transient long lastScheduledPushTimestamp;
+
     private List<JavaScriptInvocation> pendingJsInvocations = new ArrayList<>();
 
     /**
@@ -182,6 +201,19 @@ public class UIInternals implements Serializable {
 
     private String appId;
 
+    /*
+     * The lock and access queue are only used when the UI is locked
+     * separately from its session, see VaadinSession.isUiLocking().
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /*
+     * Pending tasks can't be serialized and the queue should be empty when the
+     * UI is serialized as long as it doesn't happen while some other thread
+     * has the lock.
+     */
+    private transient ConcurrentLinkedQueue<FutureAccess> pendingAccessQueue = new ConcurrentLinkedQueue<>();
+
     /**
      * Creates a new instance for the given UI.
      *
@@ -308,6 +340,87 @@ public class UIInternals implements Serializable {
         lastHeartbeatTimestamp = lastHeartbeat;
     }
 
+    /**
+     * Returns the timestamp of the last UIDL request received for the related
+     * UI. Heartbeat requests do not update the timestamp.
+     *
+     * @see com.vaadin.flow.function.DeploymentConfiguration#getUIPassivationTimeout()
+     *
+     * @return the time the last UIDL request occurred, in milliseconds since
+     *         the epoch
+     */
+    public long getLastRequestTimestamp() {
+        return lastRequestTimestamp;
+    }
+
+    /**
+     * Sets the timestamp of the last UIDL request received for the related
+     * UI. Called by the framework whenever a UIDL request for the UI is
+     * handled.
+     *
+     * @param lastRequest
+     *            the time the last UIDL request occurred, in milliseconds
+     *            since the epoch
+     */
+    public void setLastRequestTimestamp(long lastRequest) {
+        lastRequestTimestamp = lastRequest;
+    }
+
+    /**
+     * Checks whether a push for the related UI has been scheduled by the
+     * {@link com.vaadin.flow.server.communication.PushScheduler} but not yet
+     * run.
+     * <p>
+     * This method is for internal use by the framework and should only be
+     * called while holding the lock of the UI.
+     *
+     * @return <code>true</code> if a push is scheduled, <code>false</code>
+     *         otherwise
+     */
+    public boolean isPushScheduled() {
+        return pushScheduled;
+    }
+
+    /**
+     * Sets whether a push for the related UI has been scheduled.
+     * <p>
+     * This method is for internal use by the framework and should only be
+     * called while holding the lock of the UI.
+     *
+     * @param pushScheduled
+     *            <code>true</code> if a push is scheduled, <code>false</code>
+     *            when the scheduled push is run
+     */
+    public void setPushScheduled(boolean pushScheduled) {
+        this.pushScheduled = pushScheduled;
+    }
+
+    /**
+     * Gets the time when the last scheduled push for the related UI was run.
+     * <p>
+     * This method is for internal use by the framework and should only be
+     * called while holding the lock of the UI.
+     *
+     * @return the time of the last scheduled push in milliseconds since the
+     *         epoch, or 0 if no push has been scheduled
+     */
+    public long getLastScheduledPushTimestamp() {
+        return lastScheduledPushTimestamp;
+    }
+
+    /**
+     * Sets the time when the last scheduled push for the related UI was run.
+     * <p>
+     * This method is for internal use by the framework and should only be
+     * called while holding the lock of the UI.
+     *
+     * @param timestamp
+     *            the time of the push in milliseconds since the epoch
+     */
+    public void setLastScheduledPushTimestamp(long timestamp) {
+        lastScheduledPushTimestamp = timestamp;
+    }
+
     @SuppressWarnings("unchecked")
     private static Class<? extends NodeFeature>[] getRootNodeFeatures() {
         // Start with all element features
@@ -463,7 +576,7 @@ public class UIInternals implements Serializable {
 
     private <E> Registration addNavigationListener(Class<E> navigationHandler,
             E listener) {
-        session.checkHasLock();
+        session.checkHasUILock(ui);
         List<E> list = (List<E>) listeners.computeIfAbsent(navigationHandler,
                 key -> new ArrayList<>());
         list.add(listener);
@@ -510,7 +623,7 @@ public class UIInternals implements Serializable {
      */
     public ExecutionCanceler addJavaScriptInvocation(
             JavaScriptInvocation invocation) {
-        session.checkHasLock();
+        session.checkHasUILock(ui);
         pendingJsInvocations.add(invocation);
         return () -> pendingJsInvocations.remove(invocation);
     }
@@ -747,6 +860,141 @@ public class UIInternals implements Serializable {
         return session;
     }
 
+    /**
+     * Locks the UI when it is locked separately from its session. Should
+     * always be followed by {@link #unlock()} in a finally block.
+     * <p>
+     * This method is for internal use by the framework. The lock is only used
+     * when {@link VaadinSession#isUiLocking()} is <code>true</code>,
+     * otherwise the session lock is used for all UIs in the session.
+     *
+     * @see UI#accessSynchronously(Command)
+     */
+    public void lock() {
+        lock.lock();
+    }
+
+    /**
+     * Unlocks the UI when it is locked separately from its session.
+     * <p>
+     * When the lock is ultimately released, pending access tasks for the UI
+     * are run and pending changes are pushed to the client if the push mode
+     * of the UI is {@link PushMode#AUTOMATIC automatic}.
+     *
+     * @see #lock()
+     */
+    public void unlock() {
+        boolean ultimateRelease = false;
+        try {
+            if (lock.getHoldCount() == 1) {
+                ultimateRelease = true;
+                runPendingAccessTasks();
+
+                if (session != null && ui.getPushConfiguration()
+                        .getPushMode() == PushMode.AUTOMATIC) {
+                    Map<Class<?>, CurrentInstance> oldCurrent = CurrentInstance
+                            .setCurrent(ui);
+                    try {
+                        session.getService().pushAutomatically(ui);
+                    } finally {
+                        CurrentInstance.restoreInstances(oldCurrent);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // Tasks might have been enqueued after the queue was purged
+        if (ultimateRelease && !pendingAccessQueue.isEmpty()) {
+            ensureAccessQueuePurged();
+        }
+    }
+
+    /**
+     * Checks if the current thread holds the lock of the UI. Holding the
+     * session lock does not count, use {@link VaadinSession#hasLock()} to
+     * check whether the current thread has access to the UI.
+     *
+     * @return <code>true</code> if the current thread holds the UI lock,
+     *         <code>false</code> otherwise
+     */
+    public boolean hasLock() {
+        return lock.isHeldByCurrentThread();
+    }
+
+    /**
+     * Enqueues a command to run while holding the UI lock. If the lock is not
+     * held by any thread, the command is run right away. Otherwise it is run
+     * when the lock is released.
+     * <p>
+     * This method is for internal use by the framework, use
+     * {@link UI#access(Command)} instead.
+     *
+     * @param command
+     *            the command to run
+     * @return a future that can be used to check for task completion and to
+     *         cancel the task
+     */
+    public Future<Void> access(Command command) {
+        FutureAccess future = new FutureAccess(session, command);
+        pendingAccessQueue.add(future);
+
+        ensureAccessQueuePurged();
+
+        return future;
+    }
+
+    /**
+     * Gets the queue of tasks submitted using {@link #access(Command)}. It is
+     * safe to call this method and access the returned queue without holding
+     * the UI lock.
+     *
+     * @return the queue of pending access tasks
+     */
+    public Queue<FutureAccess> getPendingAccessQueue() {
+        return pendingAccessQueue;
+    }
+
+    /**
+     * Runs the pending access tasks that might produce changes to the UI.
+     * These are the tasks enqueued for the UI if it is locked separately and
+     * the tasks enqueued for the session otherwise.
+     */
+    public void runPendingAccessTasks() {
+        VaadinSession currentSession = session;
+        if (currentSession == null) {
+            return;
+        }
+        VaadinService service = currentSession.getService();
+        if (currentSession.isUiLocking()) {
+            service.runPendingAccessTasks(ui);
+        } else {
+            service.runPendingAccessTasks(currentSession);
+        }
+    }
+
+    private void ensureAccessQueuePurged() {
+        /*
+         * Same approach as VaadinService.ensureAccessQueuePurged: if the lock
+         * is held by some thread, the queue is purged once it is released.
+         */
+        try {
+            if (lock.tryLock(0, TimeUnit.SECONDS)) {
+                // unlock triggers runPendingAccessTasks
+                unlock();
+            }
+        } catch (InterruptedException e) {
+            // Just ignore
+        }
+    }
+
+    private void readObject(ObjectInputStream stream)
+            throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        pendingAccessQueue = new ConcurrentLinkedQueue<>();
+    }
+
     private static Logger getLogger() {
         return LoggerFactory.getLogger(UIInternals.class.getName());
     }
@@ -20,7 +20,9 @@ import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
@@ -33,6 +35,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.vaadin.flow.component.dependency.HtmlImport;
+import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.internal.AnnotationReader;
 import com.vaadin.flow.internal.ReflectionCache;
 import com.vaadin.flow.server.DependencyFilter;
@@ -50,6 +53,9 @@ import com.vaadin.flow.shared.ui.Dependency.Type;
  * class and tries to find the one that contains template definition using the
  * tag name.
  * <p>
+ * In development mode, template files are parsed only once and then again
+ * only after they have been modified.
+ * <p>
  * The class is Singleton. Use {@link DefaultTemplateParser#getInstance()} to
  * get its instance.
  *
@@ -65,6 +71,8 @@ public final class DefaultTemplateParser implements TemplateParser {
 
     private static final TemplateParser INSTANCE = new DefaultTemplateParser();
 
+    private static final Map<VaadinService, TemplateFileCache> FILE_CACHES = new ConcurrentHashMap<>();
+
     private DefaultTemplateParser() {
         // Doesn't allow external instantiation
     }
@@ -92,37 +100,34 @@ public final class DefaultTemplateParser implements TemplateParser {
                     filterContext);
         }
 
+        DeploymentConfiguration configuration = service
+                .getDeploymentConfiguration();
+        boolean useFileCache = configuration != null
+                && !configuration.isProductionMode();
+
         for (Dependency dependency : dependencies) {
             if (dependency.getType() != Type.HTML_IMPORT) {
                 continue;
             }
 
             String url = dependency.getUrl();
-            try (InputStream content = service.getResourceAsStream(url, browser,
-                    null)) {
-                if (content == null) {
-                    throw new IllegalStateException(
-                            String.format("Can't find resource '%s' "
-                                    + "via the servlet context", url));
-                }
-                Element templateElement = parseHtmlImport(content, url, tag);
-                if (logEnabled && templateElement != null) {
-                    getLogger().debug(
-                            "Found a template file containing template "
-                                    + "definition for the tag '{}' by the path '{}'",
-                            tag, url);
-                }
-
-                if (templateElement != null) {
-                    return new TemplateData(url, templateElement);
-
-                }
-            } catch (IOException exception) {
-                // ignore exception on close()
-                if (logEnabled) {
-                    getLogger().warn("Couldn't close template input stream",
-                            exception);
-                }
+            Element templateElement;
+            if (useFileCache) {
+                templateElement = getCachedTemplate(service, browser, url,
+                        tag);
+            } else {
+                templateElement = readTemplate(service, browser, url, tag,
+                        logEnabled);
+            }
+            if (logEnabled && templateElement != null) {
+                getLogger().debug(
+                        "Found a template file containing template "
+                                + "definition for the tag '{}' by the path '{}'",
+                        tag, url);
+            }
+
+            if (templateElement != null) {
+                return new TemplateData(url, templateElement);
             }
         }
         throw new IllegalStateException(String.format("Couldn't find the "
@@ -135,6 +140,68 @@ public final class DefaultTemplateParser implements TemplateParser {
                 HtmlImport.class.getSimpleName()));
     }
 
+    private Element readTemplate(VaadinService service, WebBrowser browser,
+            String url, String tag, boolean logEnabled) {
+        try (InputStream content = service.getResourceAsStream(url, browser,
+                null)) {
+            if (content == null) {
+                throw new IllegalStateException(String.format(
+                        "Can't find resource '%s' via the servlet context",
+                        url));
+            }
+            return parseHtmlImport(content, url, tag);
+        } catch (IOException exception) {
+            // ignore exception on close()
+            if (logEnabled) {
+                getLogger().warn("Couldn't close template input stream",
+                        exception);
+            }
+            return null;
+        }
+    }
+
+    /*
+     * Each service has its own file cache, which is closed when the service is
+     * destroyed so that the file watching resources are released.
+     */
+    private static TemplateFileCache getFileCache(VaadinService service) {
+        return FILE_CACHES.computeIfAbsent(service, ignore -> {
+            service.addServiceDestroyListener(
+                    event -> FILE_CACHES.remove(service).close());
+            return new TemplateFileCache();
+        });
+    }
+
+    /*
+     * In development mode, template files are parsed only once and again after
+     * they have been modified. Each template gets its own copy of the cached
+     * dom-module element.
+     */
+    private static Element getCachedTemplate(VaadinService service,
+            WebBrowser browser, String url, String tag) {
+        try {
+            Document document = getFileCache(service).getDocument(url,
+                    service.getResource(url, browser, null),
+                    () -> service.getResourceAsStream(url, browser, null));
+            if (document == null) {
+                throw new IllegalStateException(String.format(
+                        "Can't find resource '%s' via the servlet context",
+                        url));
+            }
+            Optional<Element> optionalDomModule = getDomModule(document, tag);
+            if (!optionalDomModule.isPresent()) {
+                return null;
+            }
+            Element domModule = optionalDomModule.get().clone();
+            removeCommentsRecursively(domModule);
+            return domModule;
+        } catch (IOException exception) {
+            throw new RuntimeException(String.format(
+                    "Can't parse the template declared using '%s' path", url),
+                    exception);
+        }
+    }
+
     private static Element parseHtmlImport(InputStream content, String path,
             String tag) {
         assert content != null;
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.polymertemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.internal.MessageDigestUtil;
+
+/**
+ * Cache of parsed template files used in development mode, where template
+ * parse results are not cached per template class.
+ * <p>
+ * Files in the file system are watched through a {@link WatchService} and
+ * parsed again only after they have changed. Other resources, e.g. files in
+ * JAR files, are read on each use but parsed again only if their content has
+ * changed.
+ * <p>
+ * The cached documents are shared and must not be modified by callers. The
+ * cache should be closed with {@link #close()} when it is no longer used, to
+ * release the watch service.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+final class TemplateFileCache {
+
+    private static final class CachedFile {
+        private final Document document;
+        private final Path path;
+        private final byte[] contentHash;
+
+        private CachedFile(Document document, Path path, byte[] contentHash) {
+            this.document = document;
+            this.path = path;
+            this.contentHash = contentHash;
+        }
+    }
+
+    private final Map<String, CachedFile> files = new ConcurrentHashMap<>();
+
+    private final Map<Path, WatchKey> watchedDirectories = new ConcurrentHashMap<>();
+
+    private WatchService watchService;
+
+    private boolean watchServiceUnavailable;
+
+    /*
+     * Incremented for each processed file change, so that a document read
+     * before a change is not cached after the change has been processed.
+     */
+    private long changeCount;
+
+    private boolean closed;
+
+    /**
+     * Gets the parsed document for the given template file. The file is parsed
+     * only if it has not been parsed before or has changed since.
+     *
+     * @param path
+     *            the path of the template file, not <code>null</code>
+     * @param resource
+     *            the URL of the template file, or <code>null</code> if not
+     *            known
+     * @param contentSupplier
+     *            supplier for reading the template file if it cannot be
+     *            watched for changes, not <code>null</code>
+     * @return the parsed document, or <code>null</code> if the template file
+     *         cannot be found
+     * @throws IOException
+     *             if the template file cannot be read
+     */
+    Document getDocument(String path, URL resource,
+            Supplier<InputStream> contentSupplier) throws IOException {
+        processFileChanges();
+
+        Path file = resource == null ? null : getWatchablePath(resource);
+        if (file != null) {
+            String key = file.toString();
+            CachedFile cached = files.get(key);
+            if (cached != null) {
+                return cached.document;
+            }
+            // The directory is watched before reading so no change is missed
+            long readChangeCount = getChangeCount();
+            Document document = parse(readFully(Files.newInputStream(file)));
+            cacheIfUnchanged(key, new CachedFile(document, file, null),
+                    readChangeCount);
+            return document;
+        }
+
+        InputStream stream = contentSupplier.get();
+        if (stream == null) {
+            return null;
+        }
+        byte[] content = readFully(stream);
+        byte[] contentHash = MessageDigestUtil.sha256(content);
+        CachedFile cached = files.get(path);
+        if (cached != null && Arrays.equals(contentHash, cached.contentHash)) {
+            return cached.document;
+        }
+
+        Document document = parse(content);
+        files.put(path, new CachedFile(document, null, contentHash));
+        return document;
+    }
+
+    /*
+     * Gets the file system path of the resource if it is a file in a
+     * directory that is watched for changes, or null if changes to the
+     * resource cannot be watched.
+     */
+    private Path getWatchablePath(URL resource) {
+        if (!"file".equals(resource.getProtocol())) {
+            return null;
+        }
+        Path path;
+        try {
+            path = Paths.get(resource.toURI()).toAbsolutePath();
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+        Path directory = path.getParent();
+        if (directory == null || !Files.isRegularFile(path)
+                || !watch(directory)) {
+            return null;
+        }
+        return path;
+    }
+
+    private synchronized boolean watch(Path directory) {
+        if (watchedDirectories.containsKey(directory)) {
+            return true;
+        }
+        if (watchServiceUnavailable || closed) {
+            return false;
+        }
+        try {
+            if (watchService == null) {
+                watchService = FileSystems.getDefault().newWatchService();
+            }
+            watchedDirectories.put(directory, directory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE));
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            getLogger().debug(
+                    "Unable to watch '{}' for template file changes, "
+                            + "comparing file contents instead",
+                    directory, e);
+            if (watchService == null) {
+                watchServiceUnavailable = true;
+            }
+            return false;
+        }
+    }
+
+    /*
+     * Drains the events collected by the watch service without blocking and
+     * evicts the changed files.
+     */
+    private synchronized void processFileChanges() {
+        if (watchService == null) {
+            return;
+        }
+        WatchKey key;
+        while ((key = watchService.poll()) != null) {
+            Path directory = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                changeCount++;
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    evict(path -> directory.equals(path.getParent()));
+                } else {
+                    Path changed = directory.resolve((Path) event.context());
+                    evict(changed::equals);
+                }
+            }
+            if (!key.reset()) {
+                watchedDirectories.remove(directory);
+                evict(path -> directory.equals(path.getParent()));
+            }
+        }
+    }
+
+    private synchronized long getChangeCount() {
+        return changeCount;
+    }
+
+    /*
+     * Caches the file unless a file change has been processed since the file
+     * was read, since the change might not be included in the read content.
+     */
+    private synchronized void cacheIfUnchanged(String key, CachedFile file,
+            long readChangeCount) {
+        if (changeCount == readChangeCount && !closed) {
+            files.put(key, file);
+        }
+    }
+
+    /**
+     * Closes the watch service and clears the cache. Template files are still
+     * parsed after closing, but they are compared by content instead of being
+     * watched for changes.
+     */
+    synchronized void close() {
+        closed = true;
+        files.clear();
+        watchedDirectories.clear();
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                getLogger().debug("Unable to close template file watch service",
+                        e);
+            }
+            watchService = null;
+        }
+    }
+
+    private void evict(Predicate<Path> changed) {
+        files.values().removeIf(
+                file -> file.path != null && changed.test(file.path));
+    }
+
+    private static Document parse(byte[] content) throws IOException {
+        return Jsoup.parse(new ByteArrayInputStream(content),
+                StandardCharsets.UTF_8.name(), "");
+    }
+
+    private static byte[] readFully(InputStream stream) throws IOException {
+        try (InputStream input = stream) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) >= 0) {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        }
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(TemplateFileCache.class.getName());
+    }
+}
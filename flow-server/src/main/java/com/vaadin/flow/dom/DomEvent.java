@@ -36,6 +36,8 @@ public class DomEvent extends EventObject {
 
     private final DebouncePhase phase;
 
+    private final int coalescedCount;
+
     /**
      * Creates a new DOM event.
      *
@@ -48,13 +50,39 @@ public class DomEvent extends EventObject {
      *            additional data related to the event, not <code>null</code>
      */
     public DomEvent(Element source, String eventType, JsonObject eventData) {
+        this(source, eventType, eventData, 1);
+    }
+
+    /**
+     * Creates a new DOM event representing a number of coalesced browser
+     * events.
+     *
+     * @param source
+     *            the element for which the event is fired, not
+     *            <code>null</code>
+     * @param eventType
+     *            the type of the event, not <code>null</code>
+     * @param eventData
+     *            additional data related to the latest of the coalesced
+     *            events, not <code>null</code>
+     * @param coalescedCount
+     *            the number of browser events represented by this event, at
+     *            least 1
+     */
+    public DomEvent(Element source, String eventType, JsonObject eventData,
+            int coalescedCount) {
         super(source);
         assert source != null;
         assert eventType != null;
         assert eventData != null;
+        if (coalescedCount < 1) {
+            throw new IllegalArgumentException(
+                    "Coalesced count must be at least 1");
+        }
 
         this.eventType = eventType;
         this.eventData = eventData;
+        this.coalescedCount = coalescedCount;
 
         phase = extractPhase(eventData);
     }
@@ -105,4 +133,17 @@ public class DomEvent extends EventObject {
     public DebouncePhase getPhase() {
         return phase;
     }
+
+    /**
+     * Gets the number of browser events represented by this event. Events
+     * for listeners configured through {@link DomListenerRegistration#coalesce()}
+     * may be merged in the browser while waiting to be sent to the server, in
+     * which case this event carries the event data of the latest merged event.
+     *
+     * @return the number of browser events represented by this event, at least
+     *         1
+     */
+    public int getCoalescedCount() {
+        return coalescedCount;
+    }
 }
@@ -160,4 +160,19 @@ public interface DomListenerRegistration extends Registration {
         return debounce(period, DebouncePhase.LEADING,
                 DebouncePhase.INTERMEDIATE);
     }
+
+    /**
+     * Configures this listener to accept coalesced events. While events are
+     * waiting in the browser to be sent to the server, consecutive events of
+     * this type for this element are then merged into one event carrying the
+     * event data of the latest event. The number of merged events is available
+     * through {@link DomEvent#getCoalescedCount()}.
+     * <p>
+     * This is useful for high-frequency events such as pointer moves, scrolling
+     * or resizing where only the latest state is relevant. Events are coalesced
+     * only if all listeners for the event type on the element accept it.
+     *
+     * @return this registration, for chaining
+     */
+    DomListenerRegistration coalesce();
 }
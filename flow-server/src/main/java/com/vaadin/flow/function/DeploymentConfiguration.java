@@ -271,6 +271,210 @@ public interface DeploymentConfiguration extends Serializable {
         return !getBooleanProperty(Constants.DISABLE_WEBJARS, useCompiledFrontendResources());
     }
 
+    /**
+     * Determines if UIDL responses should be streamed directly to the response
+     * instead of being fully built in memory before writing. Streaming keeps
+     * memory usage independent of the response size, but a failure while
+     * writing the response cannot be reported to the client as a proper UIDL
+     * message.
+     * <p>
+     * Streaming is enabled by setting the
+     * {@link Constants#SERVLET_PARAMETER_STREAMING_UIDL} property to
+     * {@code true}.
+     *
+     * @return {@code true} if UIDL responses should be streamed,
+     *         {@code false} otherwise
+     */
+    default boolean isStreamingUidl() {
+        return getBooleanProperty(Constants.SERVLET_PARAMETER_STREAMING_UIDL,
+                false);
+    }
+
+    /**
+     * Gets the maximum number of constants to keep in the constant pool of a
+     * UI before evicting constants that are no longer used by any component.
+     * Evicted constants are also removed from the client and sent again if
+     * they are needed later on.
+     * <p>
+     * The limit is set using the
+     * {@link Constants#SERVLET_PARAMETER_MAX_CONSTANT_POOL_SIZE} property.
+     *
+     * @return the maximum constant pool size, or <code>0</code> if constants
+     *         should never be evicted
+     */
+    default int getMaxConstantPoolSize() {
+        return getApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_MAX_CONSTANT_POOL_SIZE, 0,
+                Integer::parseInt);
+    }
+
+    /**
+     * Determines if state tree changes should be sent to the client as compact
+     * JSON arrays instead of JSON objects. The compact encoding leaves out the
+     * key names and uses numeric change types, which reduces the size of
+     * responses with lots of changes.
+     * <p>
+     * The compact encoding is enabled by setting the
+     * {@link Constants#SERVLET_PARAMETER_COMPACT_CHANGE_ENCODING} property to
+     * {@code true}.
+     *
+     * @return {@code true} if the compact change encoding should be used,
+     *         {@code false} otherwise
+     */
+    default boolean isCompactChangeEncoding() {
+        return getBooleanProperty(
+                Constants.SERVLET_PARAMETER_COMPACT_CHANGE_ENCODING, false);
+    }
+
+    /**
+     * Determines if each UI should have its own lock. When enabled, requests
+     * and {@link com.vaadin.flow.component.UI#access(com.vaadin.flow.server.Command)
+     * access tasks} for different UIs in the same session are run concurrently
+     * and the session lock is only held for short periods when session scoped
+     * state is accessed.
+     * <p>
+     * A thread holding the lock of one UI may not lock another UI of the same
+     * session through {@link com.vaadin.flow.component.UI#accessSynchronously(com.vaadin.flow.server.Command)}
+     * unless it also holds the session lock, since that could deadlock with a
+     * thread locking the same UIs in the opposite order. Use
+     * {@link com.vaadin.flow.component.UI#access(com.vaadin.flow.server.Command)}
+     * to change another UI instead.
+     * <p>
+     * Per-UI locking is enabled by setting the
+     * {@link Constants#SERVLET_PARAMETER_UI_LOCKING} property to
+     * {@code true}.
+     *
+     * @return {@code true} if each UI should be locked separately,
+     *         {@code false} to lock the whole session
+     */
+    default boolean isUiLocking() {
+        return getBooleanProperty(Constants.SERVLET_PARAMETER_UI_LOCKING,
+                false);
+    }
+
+    /**
+     * Determines if the state trees of UIs should be serialized using a
+     * compact format. The format writes map and list features by their
+     * {@link com.vaadin.flow.internal.nodefeature.NodeFeatureRegistry} id
+     * followed by their values, instead of as separate objects, which makes
+     * session replication and passivation produce less data. When disabled,
+     * the default serialized form is used. Data written in either format can
+     * always be read back, so the setting can be changed between restarts.
+     * <p>
+     * The compact format is enabled by setting the
+     * {@link Constants#SERVLET_PARAMETER_COMPACT_STATE_SERIALIZATION} property
+     * to {@code true}.
+     *
+     * @return {@code true} if state trees should be serialized using the
+     *         compact format, {@code false} to use default Java serialization
+     */
+    default boolean isCompactStateSerialization() {
+        return getBooleanProperty(
+                Constants.SERVLET_PARAMETER_COMPACT_STATE_SERIALIZATION,
+                false);
+    }
+
+    /**
+     * Returns the minimum interval in milliseconds between automatic pushes to
+     * the same UI. When the interval is positive, changes made while the
+     * session is locked are not pushed by the thread releasing the lock.
+     * Instead, the push is run by a shared scheduler at most once per interval
+     * for each UI, so that the changes of all access tasks run in between are
+     * sent to the client in one message.
+     * <p>
+     * The interval is set using the
+     * {@link Constants#SERVLET_PARAMETER_PUSH_INTERVAL} property.
+     *
+     * @return the minimum push interval in milliseconds, or 0 to push
+     *         immediately when the lock is released
+     */
+    default int getPushInterval() {
+        return getApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_PUSH_INTERVAL, 0,
+                Integer::parseInt);
+    }
+
+    /**
+     * Returns the number of seconds a UI may go without UIDL requests before
+     * it is passivated. A passivated UI is serialized to a temporary file and
+     * removed from the session, so that idle browser tabs do not keep their
+     * whole state tree in memory. The UI is restored when the next UIDL,
+     * heartbeat or push request for it arrives.
+     * <p>
+     * UIs with an open push connection, a poll interval or pending changes are
+     * never passivated. Passivation is not used when
+     * {@link #isUiLocking() UI locking} is enabled.
+     * <p>
+     * The timeout is set using the
+     * {@link Constants#SERVLET_PARAMETER_UI_PASSIVATION_TIMEOUT} property.
+     *
+     * @return the passivation timeout in seconds, or a negative number if UIs
+     *         are never passivated
+     */
+    default int getUIPassivationTimeout() {
+        return getApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_UI_PASSIVATION_TIMEOUT, -1,
+                Integer::parseInt);
+    }
+
+    /**
+     * Determines if the durations of the phases of handling a request and
+     * related counts, such as the number of dirty nodes and bytes written,
+     * are recorded. Unlike {@link #isRequestTiming()}, the measurements are
+     * kept on the server and made available through a
+     * {@link com.vaadin.flow.server.RequestMetrics} implementation.
+     * <p>
+     * Request metrics are enabled by setting the
+     * {@link Constants#SERVLET_PARAMETER_REQUEST_METRICS} property to
+     * {@code true}.
+     *
+     * @return {@code true} if request metrics are recorded, {@code false}
+     *         otherwise
+     */
+    default boolean isRequestMetrics() {
+        return getBooleanProperty(Constants.SERVLET_PARAMETER_REQUEST_METRICS,
+                false);
+    }
+
+    /**
+     * Determines if the static parts of bootstrap pages should be rendered
+     * once and reused for subsequent initial requests with the same UI class,
+     * navigation target, theme, browser capabilities, language and request
+     * path. Only the page title, the initial UIDL and the dependencies of the
+     * UI are rendered for each request. The cache is only used in production
+     * mode and when there are no bootstrap listeners or page configurators
+     * that could modify the page.
+     * <p>
+     * The cache is enabled by setting the
+     * {@link Constants#SERVLET_PARAMETER_BOOTSTRAP_PAGE_CACHE} property to
+     * {@code true}.
+     *
+     * @return {@code true} if bootstrap page skeletons should be cached,
+     *         {@code false} otherwise
+     */
+    default boolean isBootstrapPageCacheEnabled() {
+        return getBooleanProperty(
+                Constants.SERVLET_PARAMETER_BOOTSTRAP_PAGE_CACHE, false);
+    }
+
+    /**
+     * Gets the maximum number of uploads that are received concurrently for
+     * one session. Uploads exceeding the limit are rejected with the status
+     * code 429 (Too Many Requests) so that one user cannot tie up an unbounded
+     * number of request threads.
+     * <p>
+     * The limit is set using the
+     * {@link Constants#SERVLET_PARAMETER_MAX_CONCURRENT_UPLOADS} property.
+     *
+     * @return the maximum number of concurrent uploads per session, or
+     *         <code>0</code> if the number is not limited
+     */
+    default int getMaxConcurrentUploads() {
+        return getApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_MAX_CONCURRENT_UPLOADS, 0,
+                Integer::parseInt);
+    }
+
     /**
      * Determines if Flow should use compiled or original frontend resources.
      *
@@ -16,24 +16,35 @@
 package com.vaadin.flow.internal;
 
 import java.io.Serializable;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.vaadin.flow.internal.OpenHashTable.LongSet;
+import com.vaadin.flow.internal.nodefeature.NodeMap;
 
 import elemental.json.Json;
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 
 /**
  * Keeps track of {@link ConstantPoolKey} values that have already been sent to
  * the client.
+ * <p>
+ * Only the numeric hashes of the sent values are tracked. The number of tracked
+ * values can be limited using
+ * {@link #evictUnreferencedConstants(int, StateTree)}, which makes the client
+ * forget constants that are no longer used by any node.
  *
  * @author Vaadin Ltd
  * @since 1.0
  */
 public class ConstantPool implements Serializable {
 
-    private Set<String> knownValues = new HashSet<>();
+    private final LongSet knownValues = new LongSet();
+
+    private final List<ConstantPoolKey> newKeys = new ArrayList<>();
 
-    private Set<ConstantPoolKey> newKeys = new HashSet<>();
+    private int evictionThreshold;
 
     /**
      * Gets the id of a given constant, registering the constant with this
@@ -48,13 +59,82 @@ public class ConstantPool implements Serializable {
     public String getConstantId(ConstantPoolKey constant) {
         assert constant != null;
 
-        String id = constant.getId();
-
-        if (knownValues.add(id)) {
+        if (knownValues.add(constant.getHash())) {
             newKeys.add(constant);
         }
 
-        return id;
+        return constant.getId();
+    }
+
+    /**
+     * Forgets all constants that have been sent to the client, so that
+     * constants are sent again when they are next used. This is used when
+     * resynchronizing the client, which might have missed some messages.
+     */
+    public void prepareForResync() {
+        knownValues.clear();
+        newKeys.clear();
+        evictionThreshold = 0;
+    }
+
+    /**
+     * Evicts the constants that are not referenced by any node in the given
+     * state tree if more than the given number of constants have been sent to
+     * the client. The evicted constants are sent to the client again if they
+     * are used later on.
+     * <p>
+     * Constants that are still referenced are never evicted, so the number of
+     * tracked constants may exceed the limit. To avoid traversing the tree
+     * over and over again in that case, the next eviction is postponed until
+     * the number of constants has doubled.
+     * <p>
+     * This method should be called after all changes have been encoded so that
+     * the client has received the current values of all nodes.
+     *
+     * @param maxSize
+     *            the number of constants to allow before evicting, or
+     *            <code>0</code> to never evict any constants
+     * @param stateTree
+     *            the state tree to find referenced constants from, not
+     *            <code>null</code>
+     * @return a JSON array with the ids of the evicted constants, or
+     *         <code>null</code> if nothing was evicted
+     */
+    public JsonArray evictUnreferencedConstants(int maxSize,
+            StateTree stateTree) {
+        if (maxSize <= 0 || knownValues.size() <= Math.max(maxSize,
+                evictionThreshold)) {
+            return null;
+        }
+        assert newKeys.isEmpty() : "All constants should be dumped first";
+
+        LongSet referenced = new LongSet();
+        stateTree.getRootNode()
+                .visitNodeTree(node -> node.forEachFeature(feature -> {
+                    if (feature instanceof NodeMap) {
+                        ((NodeMap) feature).forEachConstantPoolKey(
+                                key -> referenced.add(key.getHash()));
+                    }
+                }));
+
+        List<Long> unreferenced = new ArrayList<>();
+        knownValues.forEach(hash -> {
+            if (!referenced.contains(hash)) {
+                unreferenced.add(Long.valueOf(hash));
+            }
+        });
+        evictionThreshold = (knownValues.size() - unreferenced.size()) * 2;
+
+        if (unreferenced.isEmpty()) {
+            return null;
+        }
+
+        JsonArray evicted = Json.createArray();
+        for (Long hash : unreferenced) {
+            knownValues.remove(hash.longValue());
+            evicted.set(evicted.length(), ConstantPoolKey.toId(hash));
+        }
+        return evicted;
     }
 
     /**
@@ -19,6 +19,9 @@ import java.io.Serializable;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import elemental.json.JsonObject;
 import elemental.json.JsonValue;
@@ -31,13 +34,28 @@ import elemental.json.JsonValue;
  * This is a way of deduplicating JSON values that are expected to be sent to
  * the same client multiple times, since all references to the same JSON
  * structure will be encoded as the same id.
+ * <p>
+ * Keys for values that are used by many UIs should be created using
+ * {@link #intern(JsonValue)} so that the same key instance and JSON value is
+ * shared by all UIs and the id of the value is only calculated once.
  *
  * @author Vaadin Ltd
  * @since 1.0
  */
 public class ConstantPoolKey implements Serializable {
-    // Only stored until delivered to the client
-    private JsonValue json;
+    /*
+     * Limits the memory used by interned keys if an application creates lots
+     * of distinct values. The least recently used keys are evicted when the
+     * limit has been reached.
+     */
+    private static final int MAX_INTERNED_KEYS = 10000;
+
+    private static final Map<JsonKey, ConstantPoolKey> INTERNED_KEYS = Collections
+            .synchronizedMap(new InternedKeys());
+
+    // Kept after delivery so that the value can be sent again on resync
+    private final JsonValue json;
+    private final long hash;
     private final String id;
 
     /**
@@ -52,7 +70,33 @@ public class ConstantPoolKey implements Serializable {
         assert json != null;
         this.json = json;
 
-        id = calculateHash(json);
+        hash = calculateHash(json.toJson());
+        id = toId(hash);
+    }
+
+    /**
+     * Gets a constant pool key for the given JSON value, reusing a previously
+     * created key for an equal value if possible. The value should not be
+     * modified after this method has been called since it might be shared by
+     * all UIs in the JVM.
+     *
+     * @param json
+     *            the JSON constant, not <code>null</code>
+     * @return a constant pool key for the value, not <code>null</code>
+     */
+    public static ConstantPoolKey intern(JsonValue json) {
+        assert json != null;
+
+        // Looked up by structure so that known values are not serialized
+        JsonKey lookupKey = new JsonKey(json);
+        ConstantPoolKey key = INTERNED_KEYS.get(lookupKey);
+        if (key != null) {
+            return key;
+        }
+
+        key = new ConstantPoolKey(json);
+        ConstantPoolKey existing = INTERNED_KEYS.putIfAbsent(lookupKey, key);
+        return existing != null ? existing : key;
     }
 
     /**
@@ -64,44 +108,121 @@ public class ConstantPoolKey implements Serializable {
         return id;
     }
 
+    /**
+     * Gets the numeric hash that the id of this key is derived from.
+     *
+     * @return the hash of the referenced JSON constant
+     */
+    long getHash() {
+        return hash;
+    }
+
     /**
      * Exports the this key into a JSON object to send to the client. This
-     * method should only be called once and only by the {@link ConstantPool}
-     * instance that manages this value.
+     * method should only be called by the {@link ConstantPool} instance that
+     * manages this value.
      *
      * @param clientConstantPoolUpdate
      *            the constant pool update that is to be sent to the client, not
      *            <code>null</code>
      */
     public void export(JsonObject clientConstantPoolUpdate) {
-        assert json != null : "Process can only be called once";
-        assert id.equals(calculateHash(json)) : "Json value has been changed";
+        assert hash == calculateHash(
+                json.toJson()) : "Json value has been changed";
 
         clientConstantPoolUpdate.put(id, json);
+    }
 
-        json = null;
+    /**
+     * Gets the id corresponding to the given hash.
+     *
+     * @param hash
+     *            the hash of a JSON constant
+     * @return the id of the constant
+     */
+    static String toId(long hash) {
+        ByteBuffer hashBytes = ByteBuffer.allocate(Long.BYTES);
+        hashBytes.putLong(0, hash);
+
+        ByteBuffer base64Bytes = Base64.getEncoder().encode(hashBytes);
+
+        return StandardCharsets.US_ASCII.decode(base64Bytes).toString();
     }
 
     /**
-     * Calculates the key of a JSON value by Base 64 encoding the first 64 bits
-     * of the SHA-256 digest of the JSON's string representation.
+     * Calculates the hash of a JSON value as the first 64 bits of the SHA-256
+     * digest of the JSON's string representation.
      *
-     * @param json
-     *            the JSON to get a hash of, not <code>null</code>
-     * @return the key uniquely identifying the given JSON value
+     * @param jsonString
+     *            the JSON string to get a hash of, not <code>null</code>
+     * @return the hash
      */
-    private static String calculateHash(JsonValue json) {
-        byte[] digest = MessageDigestUtil.sha256(json.toJson());
+    private static long calculateHash(String jsonString) {
+        byte[] digest = MessageDigestUtil.sha256(jsonString);
 
         /*
          * Only use first 64 bits to keep id string short (1 in 100 000 000
          * collision risk with 500 000 items). 64 bits base64 -> 11 ASCII chars
          */
-        ByteBuffer truncatedDigest = ByteBuffer.wrap(digest, 0, 8);
+        return ByteBuffer.wrap(digest, 0, 8).getLong();
+    }
 
-        ByteBuffer base64Bytes = Base64.getEncoder().encode(truncatedDigest);
+    private Object readResolve() {
+        // Share the instance with other UIs after deserialization
+        ConstantPoolKey interned = INTERNED_KEYS.get(new JsonKey(json));
+        if (interned != null && interned.hash == hash) {
+            return interned;
+        }
+        return this;
+    }
 
-        return StandardCharsets.US_ASCII.decode(base64Bytes).toString();
+    /**
+     * Wraps a JSON value so that it can be used as a hash map key, based on
+     * the structure of the value.
+     */
+    private static final class JsonKey implements Serializable {
+        private final JsonValue json;
+        private final int hashCode;
+
+        private JsonKey(JsonValue json) {
+            this.json = json;
+            hashCode = JsonUtils.jsonHashCode(json);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof JsonKey)) {
+                return false;
+            }
+            JsonKey other = (JsonKey) obj;
+            return hashCode == other.hashCode
+                    && JsonUtils.jsonEquals(json, other.json);
+        }
+    }
+
+    /**
+     * Interned keys in access order, evicting the least recently used key when
+     * there are too many.
+     */
+    private static final class InternedKeys
+            extends LinkedHashMap<JsonKey, ConstantPoolKey> {
+        private InternedKeys() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(
+                Map.Entry<JsonKey, ConstantPoolKey> eldest) {
+            return size() > MAX_INTERNED_KEYS;
+        }
     }
 
 }
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * An insertion ordered set of state nodes, optimized for repeatedly marking
+ * nodes as dirty and then collecting them.
+ * <p>
+ * Membership is tracked in a bit set indexed by node id and the insertion order
+ * in an array of nodes. Both are reused after {@link #clear()}, so adding nodes
+ * only allocates memory when the number of nodes or the largest node id
+ * exceeds what has been seen before.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+final class DirtyNodes implements Serializable {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private transient long[] ids = new long[1];
+    private transient StateNode[] nodes = new StateNode[INITIAL_CAPACITY];
+    private transient int size;
+
+    /*
+     * Nodes without an id are rare (only nodes owned by a tree but not yet
+     * attached) and tracked separately.
+     */
+    private transient Set<StateNode> nodesWithoutId;
+
+    /**
+     * Adds a node unless it is already in this set.
+     *
+     * @param node
+     *            the node to add, not <code>null</code>
+     * @return <code>true</code> if the node was added, <code>false</code> if
+     *         it was already in this set
+     */
+    boolean add(StateNode node) {
+        int id = node.getId();
+        if (id > 0) {
+            int word = id >>> 6;
+            long mask = 1L << id;
+            if (word >= ids.length) {
+                ids = Arrays.copyOf(ids,
+                        Math.max(word + 1, ids.length * 2));
+            } else if ((ids[word] & mask) != 0) {
+                return false;
+            }
+            if (nodesWithoutId != null && nodesWithoutId.contains(node)) {
+                // Added before an id was assigned
+                return false;
+            }
+            ids[word] |= mask;
+        } else {
+            if (nodesWithoutId == null) {
+                nodesWithoutId = new HashSet<>();
+            }
+            if (!nodesWithoutId.add(node)) {
+                return false;
+            }
+        }
+
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, size * 2);
+        }
+        nodes[size++] = node;
+        return true;
+    }
+
+    /**
+     * Performs the given action for each node in the order the nodes were
+     * added. The action must not modify this set.
+     *
+     * @param action
+     *            the action to perform
+     */
+    void forEach(Consumer<StateNode> action) {
+        int initialSize = size;
+        for (int i = 0; i < initialSize; i++) {
+            action.accept(nodes[i]);
+        }
+        assert size == initialSize : "Set was modified during iteration";
+    }
+
+    /**
+     * Adds all nodes in the given set to this set.
+     *
+     * @param other
+     *            the set to add nodes from
+     * @return <code>true</code> if any node was added
+     */
+    boolean addAll(DirtyNodes other) {
+        boolean added = false;
+        for (int i = 0; i < other.size; i++) {
+            added |= add(other.nodes[i]);
+        }
+        return added;
+    }
+
+    /**
+     * Removes all nodes from this set while retaining the allocated capacity.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            int id = nodes[i].getId();
+            if (id > 0 && (id >>> 6) < ids.length) {
+                ids[id >>> 6] &= ~(1L << id);
+            }
+            nodes[i] = null;
+        }
+        size = 0;
+        nodesWithoutId = null;
+    }
+
+    /**
+     * Checks whether this set is empty.
+     *
+     * @return <code>true</code> if there are no nodes in this set
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the number of nodes in this set.
+     *
+     * @return the number of nodes
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Copies the nodes of this set into a new insertion ordered set.
+     *
+     * @return a new set with the nodes of this set
+     */
+    Set<StateNode> toSet() {
+        Set<StateNode> set = new LinkedHashSet<>();
+        forEach(set::add);
+        return set;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeObject(nodes[i]);
+        }
+    }
+
+    private void readObject(ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        ids = new long[1];
+        nodes = new StateNode[INITIAL_CAPACITY];
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            add((StateNode) in.readObject());
+        }
+    }
+}
@@ -138,6 +138,48 @@ public final class JsonUtils {
         }
     }
 
+    /**
+     * Computes a hash code for a json value that is consistent with
+     * {@link #jsonEquals(JsonValue, JsonValue)}, so that json values can be
+     * used for hash based lookups without first serializing them.
+     *
+     * @param value
+     *            the json value to get a hash code for, may not be null
+     * @return the hash code of the json value
+     */
+    public static int jsonHashCode(JsonValue value) {
+        assert value != null;
+
+        JsonType type = value.getType();
+        switch (type) {
+        case NULL:
+            return 0;
+        case BOOLEAN:
+            return Boolean.hashCode(value.asBoolean());
+        case NUMBER:
+            return Long.hashCode(Double.doubleToRawLongBits(value.asNumber()));
+        case STRING:
+            return value.asString().hashCode();
+        case OBJECT:
+            JsonObject object = (JsonObject) value;
+            // Same as Map.hashCode, independent of the order of the keys
+            int objectHash = 0;
+            for (String key : object.keys()) {
+                objectHash += key.hashCode() ^ jsonHashCode(object.get(key));
+            }
+            return objectHash;
+        case ARRAY:
+            JsonArray array = (JsonArray) value;
+            int arrayHash = 1;
+            for (int i = 0; i < array.length(); i++) {
+                arrayHash = 31 * arrayHash + jsonHashCode(array.get(i));
+            }
+            return arrayHash;
+        default:
+            throw new IllegalArgumentException("Unsupported JsonType: " + type);
+        }
+    }
+
     private static boolean jsonObjectEquals(JsonObject a, JsonObject b) {
         assert a != null;
         assert b != null;
@@ -44,6 +44,18 @@ public class MessageDigestUtil {
         return getSha256().digest(string.getBytes(StandardCharsets.UTF_16));
     }
 
+    /**
+     * Calculates the SHA-256 hash of the given bytes.
+     *
+     * @param data
+     *            the bytes to hash
+     *
+     * @return 32 bytes making up the hash
+     */
+    public static byte[] sha256(byte[] data) {
+        return getSha256().digest(data);
+    }
+
     private static MessageDigest getSha256() {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
@@ -0,0 +1,794 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.function.LongConsumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Hash tables that store primitive keys or values directly in arrays, using
+ * open addressing with linear probing so that no entry objects or boxed
+ * primitives are allocated.
+ * <p>
+ * This class implements the probing, growing and removal logic shared by the
+ * concrete tables, which are defined as nested classes. Each concrete table
+ * stores its keys and values in parallel arrays and tells this class which
+ * slots are in use.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+public abstract class OpenHashTable implements Serializable {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int size;
+
+    private OpenHashTable() {
+        // Only the nested classes extend this class
+    }
+
+    /**
+     * Gets the number of entries in this table.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all entries and releases the allocated capacity.
+     */
+    public void clear() {
+        allocate(INITIAL_CAPACITY);
+        size = 0;
+    }
+
+    /**
+     * Gets the number of slots in the table arrays. This is always a power of
+     * two.
+     */
+    abstract int capacity();
+
+    /**
+     * Replaces the table arrays with empty arrays of the given capacity.
+     */
+    abstract void allocate(int capacity);
+
+    /**
+     * Checks whether the given slot holds an entry.
+     */
+    abstract boolean isUsed(int slot);
+
+    /**
+     * Gets the hash of the key in the given slot, which must be in use.
+     */
+    abstract int hashAt(int slot);
+
+    /**
+     * Moves the entry in one slot to another slot that is not in use.
+     */
+    abstract void move(int from, int to);
+
+    /**
+     * Marks the given slot as not in use.
+     */
+    abstract void free(int slot);
+
+    /**
+     * Allocates arrays with the given capacity and stores all entries in them
+     * again.
+     */
+    abstract void resize(int capacity);
+
+    /**
+     * Gets the slot where probing for a key with the given hash starts.
+     */
+    final int firstSlot(int hash) {
+        return hash & (capacity() - 1);
+    }
+
+    /**
+     * Gets the slot to probe after the given slot.
+     */
+    final int nextSlot(int slot) {
+        return (slot + 1) & (capacity() - 1);
+    }
+
+    /**
+     * Records that an entry has been stored in a slot that was not in use,
+     * growing the table if needed. Slot indices are not valid after this.
+     */
+    final void entryAdded() {
+        // Keep the load factor at most 0.75
+        if (++size * 4 > capacity() * 3) {
+            resize(capacity() * 2);
+        }
+    }
+
+    /**
+     * Removes the entry in the given slot. Following entries are moved back so
+     * that probing stays unbroken.
+     */
+    final void removeAt(int slot) {
+        int mask = capacity() - 1;
+        int hole = slot;
+        int next = (slot + 1) & mask;
+        while (isUsed(next)) {
+            int ideal = hashAt(next) & mask;
+            if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+                move(next, hole);
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        free(hole);
+        size--;
+    }
+
+    private static int hash(int value) {
+        int hash = value * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int hash(long value) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Receives the entries of an {@link IntIntMap}.
+     */
+    @FunctionalInterface
+    public interface IntIntConsumer extends Serializable {
+        /**
+         * Receives an entry.
+         *
+         * @param key
+         *            the key of the entry
+         * @param value
+         *            the value of the entry
+         */
+        void accept(int key, int value);
+    }
+
+    /**
+     * Receives the entries of an {@link IntObjectMap}.
+     *
+     * @param <V>
+     *            the value type
+     */
+    @FunctionalInterface
+    public interface IntObjectConsumer<V> extends Serializable {
+        /**
+         * Receives an entry.
+         *
+         * @param key
+         *            the key of the entry
+         * @param value
+         *            the value of the entry
+         */
+        void accept(int key, V value);
+    }
+
+    /**
+     * A set of primitive <code>long</code> values.
+     */
+    public static final class LongSet extends OpenHashTable {
+        private long[] keys;
+        private boolean[] used;
+
+        /**
+         * Creates an empty set.
+         */
+        public LongSet() {
+            allocate(INITIAL_CAPACITY);
+        }
+
+        /**
+         * Adds a value unless it is already in this set.
+         *
+         * @param value
+         *            the value to add
+         * @return <code>true</code> if the value was added, <code>false</code>
+         *         if it was already in this set
+         */
+        public boolean add(long value) {
+            int slot = findSlot(value);
+            if (used[slot]) {
+                return false;
+            }
+            keys[slot] = value;
+            used[slot] = true;
+            entryAdded();
+            return true;
+        }
+
+        /**
+         * Checks whether the given value is in this set.
+         *
+         * @param value
+         *            the value to check
+         * @return <code>true</code> if the value is in this set
+         */
+        public boolean contains(long value) {
+            return used[findSlot(value)];
+        }
+
+        /**
+         * Removes a value from this set.
+         *
+         * @param value
+         *            the value to remove
+         * @return <code>true</code> if the value was removed,
+         *         <code>false</code> if it wasn't in this set
+         */
+        public boolean remove(long value) {
+            int slot = findSlot(value);
+            if (!used[slot]) {
+                return false;
+            }
+            removeAt(slot);
+            return true;
+        }
+
+        /**
+         * Performs the given action for each value in this set, in no
+         * particular order. The action must not modify this set.
+         *
+         * @param action
+         *            the action to perform
+         */
+        public void forEach(LongConsumer action) {
+            for (int i = 0; i < used.length; i++) {
+                if (used[i]) {
+                    action.accept(keys[i]);
+                }
+            }
+        }
+
+        private int findSlot(long value) {
+            int slot = firstSlot(hash(value));
+            while (used[slot] && keys[slot] != value) {
+                slot = nextSlot(slot);
+            }
+            return slot;
+        }
+
+        @Override
+        int capacity() {
+            return keys.length;
+        }
+
+        @Override
+        void allocate(int capacity) {
+            keys = new long[capacity];
+            used = new boolean[capacity];
+        }
+
+        @Override
+        boolean isUsed(int slot) {
+            return used[slot];
+        }
+
+        @Override
+        int hashAt(int slot) {
+            return hash(keys[slot]);
+        }
+
+        @Override
+        void move(int from, int to) {
+            keys[to] = keys[from];
+            used[to] = true;
+            used[from] = false;
+        }
+
+        @Override
+        void free(int slot) {
+            used[slot] = false;
+        }
+
+        @Override
+        void resize(int capacity) {
+            long[] oldKeys = keys;
+            boolean[] oldUsed = used;
+            allocate(capacity);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    int slot = findSlot(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    used[slot] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * A map from primitive <code>int</code> keys to primitive
+     * <code>int</code> values.
+     */
+    public static final class IntIntMap extends OpenHashTable {
+        private int[] keys;
+        private int[] values;
+        private boolean[] used;
+
+        /**
+         * Creates an empty map.
+         */
+        public IntIntMap() {
+            allocate(INITIAL_CAPACITY);
+        }
+
+        /**
+         * Gets the value mapped to the given key.
+         *
+         * @param key
+         *            the key
+         * @param defaultValue
+         *            the value to return if the key is not mapped
+         * @return the mapped value, or the default value if the key is not
+         *         mapped
+         */
+        public int get(int key, int defaultValue) {
+            int slot = findSlot(key);
+            return used[slot] ? values[slot] : defaultValue;
+        }
+
+        /**
+         * Checks whether the given key is mapped.
+         *
+         * @param key
+         *            the key
+         * @return <code>true</code> if the key is mapped
+         */
+        public boolean containsKey(int key) {
+            return used[findSlot(key)];
+        }
+
+        /**
+         * Maps the given key to the given value.
+         *
+         * @param key
+         *            the key
+         * @param value
+         *            the value
+         */
+        public void put(int key, int value) {
+            int slot = findSlot(key);
+            values[slot] = value;
+            if (!used[slot]) {
+                keys[slot] = key;
+                used[slot] = true;
+                entryAdded();
+            }
+        }
+
+        /**
+         * Removes the mapping for the given key.
+         *
+         * @param key
+         *            the key
+         * @param defaultValue
+         *            the value to return if the key is not mapped
+         * @return the removed value, or the default value if the key was not
+         *         mapped
+         */
+        public int remove(int key, int defaultValue) {
+            int slot = findSlot(key);
+            if (!used[slot]) {
+                return defaultValue;
+            }
+            int previous = values[slot];
+            removeAt(slot);
+            return previous;
+        }
+
+        /**
+         * Passes all entries to the given consumer, in no particular order.
+         * The consumer must not modify this map.
+         *
+         * @param consumer
+         *            the consumer to pass the entries to
+         */
+        public void forEach(IntIntConsumer consumer) {
+            for (int i = 0; i < used.length; i++) {
+                if (used[i]) {
+                    consumer.accept(keys[i], values[i]);
+                }
+            }
+        }
+
+        private int findSlot(int key) {
+            int slot = firstSlot(hash(key));
+            while (used[slot] && keys[slot] != key) {
+                slot = nextSlot(slot);
+            }
+            return slot;
+        }
+
+        @Override
+        int capacity() {
+            return keys.length;
+        }
+
+        @Override
+        void allocate(int capacity) {
+            keys = new int[capacity];
+            values = new int[capacity];
+            used = new boolean[capacity];
+        }
+
+        @Override
+        boolean isUsed(int slot) {
+            return used[slot];
+        }
+
+        @Override
+        int hashAt(int slot) {
+            return hash(keys[slot]);
+        }
+
+        @Override
+        void move(int from, int to) {
+            keys[to] = keys[from];
+            values[to] = values[from];
+            used[to] = true;
+            used[from] = false;
+        }
+
+        @Override
+        void free(int slot) {
+            used[slot] = false;
+        }
+
+        @Override
+        void resize(int capacity) {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            boolean[] oldUsed = used;
+            allocate(capacity);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    int slot = findSlot(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                    used[slot] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * A map from primitive <code>int</code> keys to non-null values.
+     *
+     * @param <V>
+     *            the value type
+     */
+    public static final class IntObjectMap<V> extends OpenHashTable {
+        private int[] keys;
+        // A null value marks an unused slot
+        private Object[] values;
+
+        /**
+         * Creates an empty map.
+         */
+        public IntObjectMap() {
+            allocate(INITIAL_CAPACITY);
+        }
+
+        /**
+         * Gets the value mapped to the given key.
+         *
+         * @param key
+         *            the key
+         * @return the value, or <code>null</code> if the key is not mapped
+         */
+        @SuppressWarnings("unchecked")
+        public V get(int key) {
+            return (V) values[findSlot(key)];
+        }
+
+        /**
+         * Checks whether the given key is mapped.
+         *
+         * @param key
+         *            the key
+         * @return <code>true</code> if the key is mapped
+         */
+        public boolean containsKey(int key) {
+            return values[findSlot(key)] != null;
+        }
+
+        /**
+         * Maps the given key to the given value.
+         *
+         * @param key
+         *            the key
+         * @param value
+         *            the value, not <code>null</code>
+         * @return the previous value, or <code>null</code> if the key was not
+         *         mapped
+         */
+        @SuppressWarnings("unchecked")
+        public V put(int key, V value) {
+            assert value != null;
+            int slot = findSlot(key);
+            V previous = (V) values[slot];
+            keys[slot] = key;
+            values[slot] = value;
+            if (previous == null) {
+                entryAdded();
+            }
+            return previous;
+        }
+
+        /**
+         * Removes the mapping for the given key.
+         *
+         * @param key
+         *            the key
+         * @return the removed value, or <code>null</code> if the key was not
+         *         mapped
+         */
+        @SuppressWarnings("unchecked")
+        public V remove(int key) {
+            int slot = findSlot(key);
+            V previous = (V) values[slot];
+            if (previous != null) {
+                removeAt(slot);
+            }
+            return previous;
+        }
+
+        /**
+         * Passes all entries to the given consumer, in no particular order.
+         * The consumer must not modify this map.
+         *
+         * @param consumer
+         *            the consumer to pass the entries to
+         */
+        @SuppressWarnings("unchecked")
+        public void forEach(IntObjectConsumer<V> consumer) {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    consumer.accept(keys[i], (V) values[i]);
+                }
+            }
+        }
+
+        private int findSlot(int key) {
+            int slot = firstSlot(hash(key));
+            while (values[slot] != null && keys[slot] != key) {
+                slot = nextSlot(slot);
+            }
+            return slot;
+        }
+
+        @Override
+        int capacity() {
+            return keys.length;
+        }
+
+        @Override
+        void allocate(int capacity) {
+            keys = new int[capacity];
+            values = new Object[capacity];
+        }
+
+        @Override
+        boolean isUsed(int slot) {
+            return values[slot] != null;
+        }
+
+        @Override
+        int hashAt(int slot) {
+            return hash(keys[slot]);
+        }
+
+        @Override
+        void move(int from, int to) {
+            keys[to] = keys[from];
+            values[to] = values[from];
+            values[from] = null;
+        }
+
+        @Override
+        void free(int slot) {
+            values[slot] = null;
+        }
+
+        @Override
+        void resize(int capacity) {
+            int[] oldKeys = keys;
+            Object[] oldValues = values;
+            allocate(capacity);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    int slot = findSlot(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * A map from non-null keys to primitive <code>int</code> values.
+     *
+     * @param <K>
+     *            the key type
+     */
+    public static final class ObjectIntMap<K> extends OpenHashTable {
+        // A null key marks an unused slot
+        private Object[] keys;
+        private int[] values;
+
+        /**
+         * Creates an empty map.
+         */
+        public ObjectIntMap() {
+            allocate(INITIAL_CAPACITY);
+        }
+
+        /**
+         * Gets the value mapped to the given key.
+         *
+         * @param key
+         *            the key, not <code>null</code>
+         * @param defaultValue
+         *            the value to return if the key is not mapped
+         * @return the mapped value, or the default value if the key is not
+         *         mapped
+         */
+        public int get(Object key, int defaultValue) {
+            int slot = findSlot(key);
+            return keys[slot] == null ? defaultValue : values[slot];
+        }
+
+        /**
+         * Checks whether the given key is mapped.
+         *
+         * @param key
+         *            the key, not <code>null</code>
+         * @return <code>true</code> if the key is mapped
+         */
+        public boolean containsKey(Object key) {
+            return keys[findSlot(key)] != null;
+        }
+
+        /**
+         * Maps the given key to the given value.
+         *
+         * @param key
+         *            the key, not <code>null</code>
+         * @param value
+         *            the value
+         */
+        public void put(K key, int value) {
+            assert key != null;
+            int slot = findSlot(key);
+            values[slot] = value;
+            if (keys[slot] == null) {
+                keys[slot] = key;
+                entryAdded();
+            }
+        }
+
+        /**
+         * Removes the mapping for the given key.
+         *
+         * @param key
+         *            the key, not <code>null</code>
+         * @param defaultValue
+         *            the value to return if the key is not mapped
+         * @return the removed value, or the default value if the key was not
+         *         mapped
+         */
+        public int remove(Object key, int defaultValue) {
+            int slot = findSlot(key);
+            if (keys[slot] == null) {
+                return defaultValue;
+            }
+            int previous = values[slot];
+            removeAt(slot);
+            return previous;
+        }
+
+        /**
+         * Passes all entries to the given consumer, in no particular order.
+         * The consumer must not modify this map.
+         *
+         * @param consumer
+         *            the consumer to pass the entries to
+         */
+        @SuppressWarnings("unchecked")
+        public void forEach(ObjIntConsumer<K> consumer) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != null) {
+                    consumer.accept((K) keys[i], values[i]);
+                }
+            }
+        }
+
+        private int findSlot(Object key) {
+            int slot = firstSlot(hash(key.hashCode()));
+            while (keys[slot] != null && !keys[slot].equals(key)) {
+                slot = nextSlot(slot);
+            }
+            return slot;
+        }
+
+        @Override
+        int capacity() {
+            return keys.length;
+        }
+
+        @Override
+        void allocate(int capacity) {
+            keys = new Object[capacity];
+            values = new int[capacity];
+        }
+
+        @Override
+        boolean isUsed(int slot) {
+            return keys[slot] != null;
+        }
+
+        @Override
+        int hashAt(int slot) {
+            return hash(keys[slot].hashCode());
+        }
+
+        @Override
+        void move(int from, int to) {
+            keys[to] = keys[from];
+            values[to] = values[from];
+            keys[from] = null;
+        }
+
+        @Override
+        void free(int slot) {
+            keys[slot] = null;
+        }
+
+        @Override
+        void resize(int capacity) {
+            Object[] oldKeys = keys;
+            int[] oldValues = values;
+            allocate(capacity);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    int slot = findSlot(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        private void readObject(ObjectInputStream in)
+                throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            // Hash codes of the keys may differ after deserialization
+            resize(keys.length);
+        }
+    }
+}
@@ -16,6 +16,10 @@
 
 package com.vaadin.flow.internal;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -131,6 +135,14 @@ public class StateNode implements Serializable {
      */
     private static final Map<FeatureSetKey, FeatureSet> featureSetCache = new ConcurrentHashMap<>();
 
+    /**
+     * Placeholder for the features of a node serialized in the compact format.
+     * The features are written after the default fields, see writeObject.
+     */
+    private enum CompactFeatures {
+        INSTANCE
+    }
+
     private final FeatureSet featureSet;
 
     /**
@@ -138,6 +150,12 @@ public class StateNode implements Serializable {
      */
     private Serializable features;
 
+    /*
+     * Directly read features of this node, created while it is deserialized
+     * in the compact format. See StateSerialization.
+     */
+    private transient Map<Class<? extends NodeFeature>, NodeFeature> deserializedFeatures;
+
     private Map<Class<? extends NodeFeature>, Serializable> changes;
 
     private List<Command> attachListeners;
@@ -318,7 +336,7 @@ public class StateNode implements Serializable {
         forEachFeature(n -> n.forEachChild(action));
     }
 
-    private void forEachFeature(Consumer<NodeFeature> action) {
+    void forEachFeature(Consumer<NodeFeature> action) {
         getInitializedFeatures().forEach(action::accept);
     }
 
@@ -539,6 +557,11 @@ public class StateNode implements Serializable {
         if (!isAttached()) {
             return;
         }
+        if (changes == null) {
+            // No feature has tracked changes, nothing to collect
+            isInitialChanges = false;
+            return;
+        }
         if (isInactive()) {
             if (isInitialChanges) {
                 // send only required (reported) features updates
@@ -571,6 +594,33 @@ public class StateNode implements Serializable {
         return changes != null && changes.containsKey(nodeFeature.getClass());
     }
 
+    /**
+     * Prepares this node for resynchronization with the client. If the node is
+     * attached, its full state is reported by the next
+     * {@link #collectChanges(Consumer)} as if the node had been attached for
+     * the first time. The root node of the tree is never reported as attached
+     * since the client always has it, but its full state is reported anyway.
+     * If the node is detached, no detach is reported since the client discards
+     * all nodes but the root when resynchronizing.
+     *
+     * @see StateTree#prepareForResync()
+     */
+    public void prepareForResync() {
+        if (!isAttached()) {
+            wasAttached = false;
+            return;
+        }
+        if (getParent() == null) {
+            // The tree root, which the client keeps during a resync
+            clearChanges();
+            forEachFeature(NodeFeature::generateChangesFromEmpty);
+        } else {
+            wasAttached = false;
+        }
+        isInitialChanges = true;
+        markAsDirty();
+    }
+
     /**
      * Clears all changes recorded for this node. This method is public only for
      * testing purposes.
@@ -806,6 +856,13 @@ public class StateNode implements Serializable {
      * @return whether the feature required by the client side
      */
     public boolean isReportedFeature(Class<? extends NodeFeature> featureType) {
+        if (featureSet == null) {
+            /*
+             * A feature referenced while this node is being deserialized, its
+             * state is read later
+             */
+            return false;
+        }
         return featureSet.reportedFeatures.contains(featureType);
     }
 
@@ -832,7 +889,7 @@ public class StateNode implements Serializable {
      * @see NodeFeature#allowsChanges()
      */
     public void updateActiveState() {
-        setInactive(getDisalowFeatures().count() != 0);
+        setInactive(hasDisalowFeatures());
     }
 
     /**
@@ -849,6 +906,21 @@ public class StateNode implements Serializable {
         return getParent().isInactive();
     }
 
+    // Same as getDisalowFeatures().count() != 0 without allocating a stream
+    private boolean hasDisalowFeatures() {
+        if (features == null) {
+            return false;
+        } else if (features instanceof NodeFeature) {
+            return !((NodeFeature) features).allowsChanges();
+        }
+        for (NodeFeature feature : (NodeFeature[]) features) {
+            if (feature != null && !feature.allowsChanges()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private Stream<NodeFeature> getDisalowFeatures() {
         return getInitializedFeatures()
                 .filter(feature -> !feature.allowsChanges());
@@ -1012,4 +1084,101 @@ public class StateNode implements Serializable {
     public boolean isEnabledSelf() {
         return enabled;
     }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        if (!StateSerialization.isCompact(this)) {
+            out.defaultWriteObject();
+            return;
+        }
+
+        Serializable initializedFeatures = features;
+        features = CompactFeatures.INSTANCE;
+        try {
+            out.defaultWriteObject();
+        } finally {
+            features = initializedFeatures;
+        }
+
+        List<NodeFeature> initialized = getInitializedFeatures()
+                .collect(Collectors.toList());
+        out.writeByte(initialized.size());
+        for (NodeFeature feature : initialized) {
+            Class<? extends NodeFeature> type = feature.getClass();
+            out.writeByte(NodeFeatureRegistry.getId(type));
+            if (StateSerialization.hasDirectValues(type)) {
+                feature.writeValues(out);
+            } else {
+                out.writeObject(feature);
+            }
+        }
+    }
+
+    private void readObject(ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (features != CompactFeatures.INSTANCE) {
+            return;
+        }
+
+        if (deserializedFeatures == null) {
+            deserializedFeatures = new HashMap<>();
+        }
+        int count = in.readByte();
+        NodeFeature[] featuresArray = new NodeFeature[featureSet.mappings
+                .size()];
+        int length = 0;
+        for (int i = 0; i < count; i++) {
+            Class<? extends NodeFeature> type = readFeatureType(in);
+            NodeFeature feature;
+            if (StateSerialization.hasDirectValues(type)) {
+                feature = getDeserializedFeature(type);
+                feature.readValues(in);
+            } else {
+                feature = type.cast(in.readObject());
+            }
+            int index = getFeatureIndex(type);
+            featuresArray[index] = feature;
+            length = Math.max(length, index + 1);
+        }
+        deserializedFeatures = null;
+
+        if (length == 0) {
+            features = null;
+        } else if (length == 1) {
+            features = featuresArray[0];
+        } else {
+            features = Arrays.copyOf(featuresArray, length);
+        }
+    }
+
+    /**
+     * Gets a feature of this node for a reference that is deserialized. While
+     * this node itself is being deserialized in the compact format, the
+     * feature is created and its values are read later by this node.
+     *
+     * @param featureType
+     *            the type of the feature, not <code>null</code>
+     * @return the feature instance
+     */
+    NodeFeature getDeserializedFeature(
+            Class<? extends NodeFeature> featureType) {
+        if (deserializedFeatures == null && featureSet != null) {
+            return getFeature(featureType);
+        }
+        if (deserializedFeatures == null) {
+            deserializedFeatures = new HashMap<>();
+        }
+        return deserializedFeatures.computeIfAbsent(featureType,
+                type -> NodeFeatureRegistry.create(type, this));
+    }
+
+    private static Class<? extends NodeFeature> readFeatureType(
+            ObjectInputStream in) throws IOException {
+        int id = in.readByte();
+        Class<? extends NodeFeature> type = NodeFeatureRegistry.getFeature(id);
+        if (type == null) {
+            throw new InvalidObjectException("Unknown node feature id " + id);
+        }
+        return type;
+    }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.vaadin.flow.function.DeploymentConfiguration;
+import com.vaadin.flow.internal.nodefeature.NodeFeature;
+import com.vaadin.flow.internal.nodefeature.NodeFeatureRegistry;
+import com.vaadin.flow.internal.nodefeature.NodeList;
+import com.vaadin.flow.internal.nodefeature.NodeMap;
+
+/**
+ * Helpers for the compact serialization format of state nodes.
+ * <p>
+ * In the compact format, a state node writes the registry id of each
+ * initialized feature followed by the values of the feature, instead of
+ * writing the feature as an object. This is done for map and list features
+ * whose state consists only of their values. Other features are still written
+ * as objects. References to a directly written feature from elsewhere, e.g.
+ * from an element style, are written as a reference to the node and the
+ * feature id, so that they point to the same feature instance after
+ * deserialization.
+ * <p>
+ * When the compact format is not enabled, state nodes and features use their
+ * default serialized form.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @see DeploymentConfiguration#isCompactStateSerialization()
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+public final class StateSerialization implements Serializable {
+
+    private static final Map<Class<?>, Boolean> directValues = new ConcurrentHashMap<>();
+
+    /**
+     * A serialized reference to a feature whose values are written by its
+     * node.
+     */
+    private static class FeatureReference implements Serializable {
+        private final StateNode node;
+        private final int featureId;
+
+        private FeatureReference(NodeFeature feature) {
+            node = feature.getNode();
+            featureId = NodeFeatureRegistry.getId(feature.getClass());
+        }
+
+        private Object readResolve() {
+            return node.getDeserializedFeature(
+                    NodeFeatureRegistry.getFeature(featureId));
+        }
+    }
+
+    private StateSerialization() {
+        // Static only
+    }
+
+    /**
+     * Checks whether the given node should be serialized using the compact
+     * format.
+     *
+     * @param node
+     *            the node to check, not <code>null</code>
+     * @return <code>true</code> to use the compact format, <code>false</code>
+     *         to use the default format
+     */
+    public static boolean isCompact(StateNode node) {
+        NodeOwner owner = node.getOwner();
+        return owner instanceof StateTree
+                && ((StateTree) owner).isCompactSerialization();
+    }
+
+    /**
+     * Checks whether the values of features of the given type are written
+     * directly by their node in the compact format. This is the case for map
+     * and list features that don't declare any serialized fields of their
+     * own.
+     *
+     * @param featureType
+     *            the feature type to check, not <code>null</code>
+     * @return <code>true</code> if the values are written directly,
+     *         <code>false</code> if the feature is written as an object
+     */
+    public static boolean hasDirectValues(
+            Class<? extends NodeFeature> featureType) {
+        return directValues.computeIfAbsent(featureType,
+                StateSerialization::onlyValueFields).booleanValue();
+    }
+
+    /**
+     * Gets the object to serialize instead of the given feature. A feature
+     * whose values are written directly by its node is replaced with a
+     * reference to it when the compact format is used.
+     *
+     * @param feature
+     *            the feature to serialize, not <code>null</code>
+     * @return the object to serialize
+     */
+    public static Object replaceFeature(NodeFeature feature) {
+        if (hasDirectValues(feature.getClass())
+                && isCompact(feature.getNode())) {
+            return new FeatureReference(feature);
+        }
+        return feature;
+    }
+
+    private static Boolean onlyValueFields(Class<?> featureType) {
+        for (Class<?> type = featureType; type != null; type = type
+                .getSuperclass()) {
+            if (type == NodeMap.class || type == NodeList.class) {
+                return Boolean.TRUE;
+            }
+            for (Field field : type.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (!Modifier.isStatic(modifiers)
+                        && !Modifier.isTransient(modifiers)) {
+                    return Boolean.FALSE;
+                }
+            }
+        }
+        return Boolean.FALSE;
+    }
+}
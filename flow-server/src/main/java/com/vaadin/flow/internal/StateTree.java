@@ -21,7 +21,6 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -30,6 +29,7 @@ import java.util.stream.Collectors;
 
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.internal.UIInternals;
+import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.function.SerializableConsumer;
 import com.vaadin.flow.internal.change.NodeChange;
 import com.vaadin.flow.internal.nodefeature.NodeFeature;
@@ -121,7 +121,14 @@ public class StateTree implements NodeOwner {
         void remove();
     }
 
-    private Set<StateNode> dirtyNodes = new LinkedHashSet<>();
+    private DirtyNodes dirtyNodes = new DirtyNodes();
+
+    /*
+     * Reused by collectChanges to avoid allocating new collections for each
+     * response. Always empty between invocations.
+     */
+    private DirtyNodes collectingNodes = new DirtyNodes();
+    private final DirtyNodes allDirtyNodes = new DirtyNodes();
 
     private final Map<Integer, StateNode> idToNode = new HashMap<>();
 
@@ -135,6 +142,8 @@ public class StateTree implements NodeOwner {
 
     private final UIInternals uiInternals;
 
+    private transient Boolean compactSerialization;
+
     /**
      * Creates a new state tree with a set of features defined for the root
      * node.
@@ -151,6 +160,33 @@ public class StateTree implements NodeOwner {
         rootNode = new RootNode(features);
     }
 
+    /**
+     * Checks whether the nodes of this tree should be serialized using the
+     * compact format.
+     *
+     * @see DeploymentConfiguration#isCompactStateSerialization()
+     *
+     * @return <code>true</code> to use the compact format, <code>false</code>
+     *         to use default Java serialization
+     */
+    public boolean isCompactSerialization() {
+        if (compactSerialization == null) {
+            VaadinSession session = uiInternals == null ? null
+                    : uiInternals.getSession();
+            DeploymentConfiguration configuration = session == null
+                    || session.getService() == null ? null
+                            : session.getService()
+                                    .getDeploymentConfiguration();
+            if (configuration == null) {
+                // Not known yet, don't cache
+                return false;
+            }
+            compactSerialization = Boolean
+                    .valueOf(configuration.isCompactStateSerialization());
+        }
+        return compactSerialization.booleanValue();
+    }
+
     /**
      * Gets the root node of this state tree. The root node is created together
      * with the tree and can't be detached.
@@ -236,20 +272,38 @@ public class StateTree implements NodeOwner {
      *            a consumer accepting node changes
      */
     public void collectChanges(Consumer<NodeChange> collector) {
-        Set<StateNode> allDirtyNodes = new LinkedHashSet<>();
         boolean evaluateNewDirtyNodes = true;
 
-        // The updateActiveState method can create new dirty nodes, so they need
-        // to be collected as well
-        while (evaluateNewDirtyNodes) {
-            Set<StateNode> dirtyNodesSet = collectDirtyNodes();
-            dirtyNodesSet.forEach(StateNode::updateActiveState);
-            evaluateNewDirtyNodes = allDirtyNodes.addAll(dirtyNodesSet);
-        }
+        try {
+            // The updateActiveState method can create new dirty nodes, so they
+            // need to be collected as well
+            while (evaluateNewDirtyNodes) {
+                DirtyNodes dirtyNodesSet = swapDirtyNodes();
+                dirtyNodesSet.forEach(StateNode::updateActiveState);
+                evaluateNewDirtyNodes = allDirtyNodes.addAll(dirtyNodesSet);
+                dirtyNodesSet.clear();
+            }
 
-        // TODO fire preCollect events
+            // TODO fire preCollect events
 
-        allDirtyNodes.forEach(node -> node.collectChanges(collector));
+            allDirtyNodes.forEach(node -> node.collectChanges(collector));
+        } finally {
+            collectingNodes.clear();
+            allDirtyNodes.clear();
+        }
+    }
+
+    /**
+     * Replaces the set of dirty nodes with an empty set that is reused between
+     * collections.
+     *
+     * @return the set of nodes that were dirty before this call
+     */
+    private DirtyNodes swapDirtyNodes() {
+        DirtyNodes collectedNodes = dirtyNodes;
+        dirtyNodes = collectingNodes;
+        collectingNodes = collectedNodes;
+        return collectedNodes;
     }
 
     @Override
@@ -260,6 +314,24 @@ public class StateTree implements NodeOwner {
         dirtyNodes.add(node);
     }
 
+    /**
+     * Prepares the tree for resynchronization with the client. The next
+     * {@link #collectChanges(Consumer)} reports the full state of all attached
+     * nodes, so that the client can rebuild its tree from scratch.
+     *
+     * @see StateNode#prepareForResync()
+     */
+    public void prepareForResync() {
+        checkHasLock();
+        // Nodes detached since the last response are unknown to the client
+        dirtyNodes.forEach(node -> {
+            if (!node.isAttached()) {
+                node.prepareForResync();
+            }
+        });
+        rootNode.visitNodeTree(StateNode::prepareForResync);
+    }
+
     /**
      * Gets all the nodes that have been marked as dirty since the last time
      * this method was invoked.
@@ -267,8 +339,8 @@ public class StateTree implements NodeOwner {
      * @return a set of dirty nodes, in the order they were marked dirty
      */
     public Set<StateNode> collectDirtyNodes() {
-        Set<StateNode> collectedNodes = dirtyNodes;
-        dirtyNodes = new LinkedHashSet<>();
+        Set<StateNode> collectedNodes = dirtyNodes.toSet();
+        dirtyNodes.clear();
         return collectedNodes;
     }
 
@@ -387,7 +459,7 @@ public class StateTree implements NodeOwner {
     private void checkHasLock() {
         VaadinSession session = uiInternals.getSession();
         if (session != null) {
-            session.checkHasLock();
+            session.checkHasUILock(uiInternals.getUI());
         }
     }
 }
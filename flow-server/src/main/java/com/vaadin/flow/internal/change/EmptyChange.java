@@ -18,9 +18,12 @@ package com.vaadin.flow.internal.change;
 import com.vaadin.flow.internal.ConstantPool;
 import com.vaadin.flow.internal.nodefeature.NodeFeature;
 import com.vaadin.flow.internal.nodefeature.NodeList;
+import com.vaadin.flow.shared.CompactChangeLayout;
 import com.vaadin.flow.shared.JsonConstants;
 
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
+import elemental.json.JsonValue;
 
 /**
  * Empty change for the feature to report its presence for the client (send the
@@ -45,12 +48,19 @@ public class EmptyChange extends NodeFeatureChange {
     @Override
     protected void populateJson(JsonObject json, ConstantPool constantPool) {
         json.put(JsonConstants.CHANGE_TYPE, JsonConstants.CHANGE_TYPE_NOOP);
-        if (NodeList.class.isAssignableFrom(getFeature())) {
-            json.put(JsonConstants.CHANGE_FEATURE_TYPE, true);
-        } else {
-            json.put(JsonConstants.CHANGE_FEATURE_TYPE, false);
-        }
+        json.put(JsonConstants.CHANGE_FEATURE_TYPE, isListFeature());
         super.populateJson(json, constantPool);
     }
 
+    @Override
+    public JsonValue toCompactJson(ConstantPool constantPool) {
+        JsonArray json = createCompactJson(CompactChangeLayout.EMPTY);
+        json.set(json.length(), isListFeature());
+        return json;
+    }
+
+    private boolean isListFeature() {
+        return NodeList.class.isAssignableFrom(getFeature());
+    }
+
 }
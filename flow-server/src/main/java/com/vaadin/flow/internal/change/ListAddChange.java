@@ -25,6 +25,7 @@ import com.vaadin.flow.internal.JsonCodec;
 import com.vaadin.flow.internal.JsonUtils;
 import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.internal.nodefeature.NodeList;
+import com.vaadin.flow.shared.CompactChangeLayout;
 import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.Json;
@@ -111,20 +112,31 @@ public class ListAddChange<T extends Serializable>
 
         json.put(JsonConstants.CHANGE_SPLICE_INDEX, getIndex());
 
+        String addKey = nodeValues ? JsonConstants.CHANGE_SPLICE_ADD_NODES
+                : JsonConstants.CHANGE_SPLICE_ADD;
+        json.put(addKey, encodeNewItems(constantPool));
+    }
+
+    @Override
+    public JsonValue toCompactJson(ConstantPool constantPool) {
+        JsonArray json = createCompactJson(
+                nodeValues ? CompactChangeLayout.SPLICE_ADD_NODES
+                        : CompactChangeLayout.SPLICE_ADD);
+        json.set(json.length(), getIndex());
+        json.set(json.length(), encodeNewItems(constantPool));
+        return json;
+    }
+
+    private JsonArray encodeNewItems(ConstantPool constantPool) {
         Function<Object, JsonValue> mapper;
-        String addKey;
         if (nodeValues) {
-            addKey = JsonConstants.CHANGE_SPLICE_ADD_NODES;
             mapper = item -> Json.create(((StateNode) item).getId());
         } else {
-            addKey = JsonConstants.CHANGE_SPLICE_ADD;
             mapper = item -> JsonCodec.encodeWithConstantPool(item,
                     constantPool);
         }
 
-        JsonArray newItemsJson = newItems.stream().map(mapper)
-                .collect(JsonUtils.asArray());
-        json.put(addKey, newItemsJson);
+        return newItems.stream().map(mapper).collect(JsonUtils.asArray());
     }
 
 }
@@ -19,9 +19,11 @@ import java.io.Serializable;
 
 import com.vaadin.flow.internal.ConstantPool;
 import com.vaadin.flow.internal.nodefeature.NodeList;
+import com.vaadin.flow.shared.CompactChangeLayout;
 import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.JsonObject;
+import elemental.json.JsonValue;
 
 /**
  * Change describing a clear operation in a {@link NodeList list} node feature.
@@ -57,4 +59,8 @@ public class ListClearChange<T extends Serializable>
         super.populateJson(json, constantPool);
     }
 
+    @Override
+    public JsonValue toCompactJson(ConstantPool constantPool) {
+        return createCompactJson(CompactChangeLayout.CLEAR);
+    }
 }
@@ -19,9 +19,12 @@ import java.io.Serializable;
 
 import com.vaadin.flow.internal.ConstantPool;
 import com.vaadin.flow.internal.nodefeature.NodeList;
+import com.vaadin.flow.shared.CompactChangeLayout;
 import com.vaadin.flow.shared.JsonConstants;
 
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
+import elemental.json.JsonValue;
 
 /**
  * Change describing a remove operation in a {@link NodeList list} node feature.
@@ -78,4 +81,12 @@ public class ListRemoveChange<T extends Serializable>
         json.put(JsonConstants.CHANGE_SPLICE_INDEX, getIndex());
         json.put(JsonConstants.CHANGE_SPLICE_REMOVE, 1);
     }
+
+    @Override
+    public JsonValue toCompactJson(ConstantPool constantPool) {
+        JsonArray json = createCompactJson(CompactChangeLayout.SPLICE_REMOVE);
+        json.set(json.length(), getIndex());
+        json.set(json.length(), 1);
+        return json;
+    }
 }
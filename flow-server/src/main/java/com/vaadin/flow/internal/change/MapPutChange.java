@@ -20,10 +20,13 @@ import com.vaadin.flow.internal.ConstantPool;
 import com.vaadin.flow.internal.JsonCodec;
 import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.internal.nodefeature.NodeFeature;
+import com.vaadin.flow.shared.CompactChangeLayout;
 import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.Json;
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
+import elemental.json.JsonValue;
 
 /**
  * Change describing a changed value in a map feature.
@@ -82,13 +85,26 @@ public class MapPutChange extends NodeFeatureChange {
 
         super.populateJson(json, constantPool);
 
+        String valueKey = value instanceof StateNode
+                ? JsonConstants.CHANGE_PUT_NODE_VALUE
+                : JsonConstants.CHANGE_PUT_VALUE;
+        json.put(valueKey, encodeValue(constantPool));
+    }
+
+    @Override
+    public JsonValue toCompactJson(ConstantPool constantPool) {
+        JsonArray json = createCompactJson(value instanceof StateNode
+                ? CompactChangeLayout.PUT_NODE
+                : CompactChangeLayout.PUT);
+        json.set(json.length(), key);
+        json.set(json.length(), encodeValue(constantPool));
+        return json;
+    }
+
+    private JsonValue encodeValue(ConstantPool constantPool) {
         if (value instanceof StateNode) {
-            StateNode node = (StateNode) value;
-            json.put(JsonConstants.CHANGE_PUT_NODE_VALUE,
-                    Json.create(node.getId()));
-        } else {
-            json.put(JsonConstants.CHANGE_PUT_VALUE,
-                    JsonCodec.encodeWithConstantPool(value, constantPool));
+            return Json.create(((StateNode) value).getId());
         }
+        return JsonCodec.encodeWithConstantPool(value, constantPool);
     }
 }
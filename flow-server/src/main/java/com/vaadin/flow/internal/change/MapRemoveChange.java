@@ -18,9 +18,12 @@ package com.vaadin.flow.internal.change;
 
 import com.vaadin.flow.internal.ConstantPool;
 import com.vaadin.flow.internal.nodefeature.NodeMap;
+import com.vaadin.flow.shared.CompactChangeLayout;
 import com.vaadin.flow.shared.JsonConstants;
 
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
+import elemental.json.JsonValue;
 
 /**
  * Change describing a value removed from a map.
@@ -65,4 +68,11 @@ public class MapRemoveChange extends NodeFeatureChange {
 
         json.put(JsonConstants.CHANGE_MAP_KEY, key);
     }
+
+    @Override
+    public JsonValue toCompactJson(ConstantPool constantPool) {
+        JsonArray json = createCompactJson(CompactChangeLayout.REMOVE);
+        json.set(json.length(), key);
+        return json;
+    }
 }
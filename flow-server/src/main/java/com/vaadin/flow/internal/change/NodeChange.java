@@ -20,10 +20,13 @@ import java.io.Serializable;
 
 import com.vaadin.flow.internal.ConstantPool;
 import com.vaadin.flow.internal.StateNode;
+import com.vaadin.flow.shared.CompactChangeLayout;
 import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.Json;
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
+import elemental.json.JsonValue;
 
 /**
  * Base class describing a change to a state node.
@@ -72,6 +75,37 @@ public abstract class NodeChange implements Serializable {
         return json;
     }
 
+    /**
+     * Serializes this change to JSON in the compact encoding described by
+     * {@link CompactChangeLayout}. Subclasses with a compact layout override
+     * this method, other changes are serialized as regular JSON objects using
+     * {@link #toJson(ConstantPool)}.
+     *
+     * @param constantPool
+     *            the constant pool to use for serializing constant pool
+     *            references
+     * @return a compact JSON array or a JSON object representing this change
+     */
+    public JsonValue toCompactJson(ConstantPool constantPool) {
+        return toJson(constantPool);
+    }
+
+    /**
+     * Creates a compact change JSON array for the given layout and populates
+     * the items that are common to all changes of this type. Subclasses append
+     * the rest of the values of the layout.
+     *
+     * @param layout
+     *            the compact layout of the change, not <code>null</code>
+     * @return a new compact change JSON array
+     */
+    protected JsonArray createCompactJson(CompactChangeLayout layout) {
+        JsonArray json = Json.createArray();
+        json.set(0, layout.ordinal());
+        json.set(1, node.getId());
+        return json;
+    }
+
     /**
      * Overridden by subclasses to populate a JSON object when serializing.
      *
@@ -18,9 +18,11 @@ package com.vaadin.flow.internal.change;
 
 import com.vaadin.flow.internal.ConstantPool;
 import com.vaadin.flow.internal.StateNode;
+import com.vaadin.flow.shared.CompactChangeLayout;
 import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.JsonObject;
+import elemental.json.JsonValue;
 
 /**
  * Change describing that a node has been detached.
@@ -43,4 +45,9 @@ public class NodeDetachChange extends NodeChange {
     protected void populateJson(JsonObject json, ConstantPool constantPool) {
         json.put(JsonConstants.CHANGE_TYPE, JsonConstants.CHANGE_TYPE_DETACH);
     }
+
+    @Override
+    public JsonValue toCompactJson(ConstantPool constantPool) {
+        return createCompactJson(CompactChangeLayout.DETACH);
+    }
 }
@@ -19,9 +19,11 @@ package com.vaadin.flow.internal.change;
 import com.vaadin.flow.internal.ConstantPool;
 import com.vaadin.flow.internal.nodefeature.NodeFeature;
 import com.vaadin.flow.internal.nodefeature.NodeFeatureRegistry;
+import com.vaadin.flow.shared.CompactChangeLayout;
 import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.Json;
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 
 /**
@@ -60,4 +62,11 @@ public abstract class NodeFeatureChange extends NodeChange {
         json.put(JsonConstants.CHANGE_FEATURE,
                 Json.create(NodeFeatureRegistry.getId(feature)));
     }
+
+    @Override
+    protected JsonArray createCompactJson(CompactChangeLayout layout) {
+        JsonArray json = super.createCompactJson(layout);
+        json.set(json.length(), NodeFeatureRegistry.getId(feature));
+        return json;
+    }
 }
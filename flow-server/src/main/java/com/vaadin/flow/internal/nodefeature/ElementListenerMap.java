@@ -36,6 +36,7 @@ import com.vaadin.flow.dom.DomListenerRegistration;
 import com.vaadin.flow.internal.ConstantPoolKey;
 import com.vaadin.flow.internal.JsonUtils;
 import com.vaadin.flow.internal.StateNode;
+import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.Json;
 import elemental.json.JsonObject;
@@ -109,6 +110,8 @@ public class ElementListenerMap extends NodeMap {
         private int debounceTimeout = 0;
         private EnumSet<DebouncePhase> debouncePhases = null;
 
+        private boolean coalesce;
+
         private DomEventListenerWrapper(ElementListenerMap listenerMap,
                 String type, DomEventListener origin) {
             this.listenerMap = listenerMap;
@@ -207,6 +210,15 @@ public class ElementListenerMap extends NodeMap {
             return this;
         }
 
+        @Override
+        public DomListenerRegistration coalesce() {
+            coalesce = true;
+
+            listenerMap.updateEventSettings(type);
+
+            return this;
+        }
+
         public boolean matchesPhase(DebouncePhase phase) {
             if (debouncePhases == null) {
                 return phase == DebouncePhase.LEADING;
@@ -335,8 +347,15 @@ public class ElementListenerMap extends NodeMap {
         JsonObject eventSettingsJson = JsonUtils.createObject(eventSettings,
                 ExpressionSettings::toJson);
 
-        ConstantPoolKey constantPoolKey = new ConstantPoolKey(
-                eventSettingsJson);
+        Collection<DomEventListenerWrapper> wrappers = getWrappers(eventType);
+        if (!wrappers.isEmpty()
+                && wrappers.stream().allMatch(wrapper -> wrapper.coalesce)) {
+            eventSettingsJson.put(JsonConstants.EVENT_SETTINGS_COALESCE,
+                    true);
+        }
+
+        ConstantPoolKey constantPoolKey = ConstantPoolKey
+                .intern(eventSettingsJson);
 
         put(eventType, constantPoolKey);
     }
@@ -16,10 +16,14 @@
 
 package com.vaadin.flow.internal.nodefeature;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.function.Consumer;
 
 import com.vaadin.flow.internal.StateNode;
+import com.vaadin.flow.internal.StateSerialization;
 import com.vaadin.flow.internal.StateTree;
 import com.vaadin.flow.internal.change.NodeChange;
 
@@ -141,4 +145,51 @@ public abstract class NodeFeature implements Serializable {
     public boolean allowsChanges() {
         return true;
     }
+
+    /**
+     * Writes the values of this feature directly to the given stream when the
+     * node of this feature is serialized using the compact format. Only called
+     * for features that support it, see
+     * {@link StateSerialization#hasDirectValues(Class)}.
+     * <p>
+     * For internal use only. May be renamed or removed in a future release.
+     *
+     * @param out
+     *            the stream to write to, not <code>null</code>
+     * @throws IOException
+     *             if writing fails
+     */
+    public void writeValues(ObjectOutputStream out) throws IOException {
+        throw new UnsupportedOperationException(
+                getClass().getName() + " cannot write its values directly");
+    }
+
+    /**
+     * Reads the values written by {@link #writeValues(ObjectOutputStream)}
+     * into this feature.
+     * <p>
+     * For internal use only. May be renamed or removed in a future release.
+     *
+     * @param in
+     *            the stream to read from, not <code>null</code>
+     * @throws IOException
+     *             if reading fails
+     * @throws ClassNotFoundException
+     *             if the class of a value cannot be found
+     */
+    public void readValues(ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        throw new UnsupportedOperationException(
+                getClass().getName() + " cannot read its values directly");
+    }
+
+    /**
+     * Replaces this feature with a reference to it if its values are written
+     * directly by its node.
+     *
+     * @return the object to serialize instead of this feature
+     */
+    protected Object writeReplace() {
+        return StateSerialization.replaceFeature(this);
+    }
 }
@@ -16,6 +16,9 @@
 
 package com.vaadin.flow.internal.nodefeature;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.AbstractSet;
 import java.util.ArrayList;
@@ -486,4 +489,35 @@ public abstract class NodeList<T extends Serializable> extends NodeFeature {
             isPopulated = false;
         }
     }
+
+    @Override
+    public void writeValues(ObjectOutputStream out) throws IOException {
+        out.writeBoolean(isPopulated);
+        out.writeBoolean(isRemoveAllCalled);
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.size());
+        for (T value : values) {
+            out.writeObject(value);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void readValues(ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        isPopulated = in.readBoolean();
+        isRemoveAllCalled = in.readBoolean();
+        int size = in.readInt();
+        if (size < 0) {
+            values = null;
+        } else {
+            values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add((T) in.readObject());
+            }
+        }
+    }
 }
@@ -16,6 +16,9 @@
 
 package com.vaadin.flow.internal.nodefeature;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -27,6 +30,7 @@ import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
+import com.vaadin.flow.internal.ConstantPoolKey;
 import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.internal.change.EmptyChange;
 import com.vaadin.flow.internal.change.MapPutChange;
@@ -463,6 +467,21 @@ public abstract class NodeMap extends NodeFeature {
                 .forEach(v -> action.accept((StateNode) v));
     }
 
+    /**
+     * Performs the given action for each {@link ConstantPoolKey} value in this
+     * map.
+     *
+     * @param action
+     *            the action to perform, not <code>null</code>
+     */
+    public void forEachConstantPoolKey(Consumer<ConstantPoolKey> action) {
+        if (values == null) {
+            return;
+        }
+        values.streamValues().filter(v -> v instanceof ConstantPoolKey)
+                .forEach(v -> action.accept((ConstantPoolKey) v));
+    }
+
     /**
      * Receives a value update from the client. The map value is updated without
      * creating a change record since the client already knows the current
@@ -506,4 +525,38 @@ public abstract class NodeMap extends NodeFeature {
         return values instanceof SingleValue;
     }
 
+    @Override
+    public void writeValues(ObjectOutputStream out) throws IOException {
+        out.writeBoolean(isPopulated);
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        // Plain key-value pairs instead of the structure of the values
+        out.writeInt(values.size());
+        for (String key : values.keySet()) {
+            out.writeObject(key);
+            out.writeObject(values.get(key));
+        }
+    }
+
+    @Override
+    public void readValues(ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        isPopulated = in.readBoolean();
+        int size = in.readInt();
+        if (size < 0) {
+            values = null;
+        } else if (size == 1) {
+            values = new SingleValue((String) in.readObject(),
+                    (Serializable) in.readObject());
+        } else {
+            HashMapValues map = new HashMapValues(null);
+            for (int i = 0; i < size; i++) {
+                map.set((String) in.readObject(),
+                        (Serializable) in.readObject());
+            }
+            values = map;
+        }
+    }
 }
@@ -24,10 +24,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.googlecode.gentyref.GenericTypeReflector;
 
 import com.vaadin.flow.internal.ReflectTools;
+import com.vaadin.flow.internal.ReflectionCache;
 
 /**
  * Parameter deserialization utility.
@@ -41,6 +43,17 @@ public final class ParameterDeserializer {
             .unmodifiableSet(new HashSet<>(Arrays.asList(Long.class,
                     Integer.class, String.class, Boolean.class)));
 
+    /*
+     * Parameter types and parameter annotations of navigation targets are
+     * looked up when routes are registered and then reused for every
+     * navigation.
+     */
+    private static final ReflectionCache<Object, Class<?>> PARAMETER_TYPES = new ReflectionCache<>(
+            ParameterDeserializer::findClassType);
+
+    private static final ReflectionCache<Object, Set<Class<? extends Annotation>>> PARAMETER_ANNOTATIONS = new ReflectionCache<>(
+            ParameterDeserializer::findParameterAnnotations);
+
     private ParameterDeserializer() {
     }
 
@@ -163,6 +176,13 @@ public final class ParameterDeserializer {
      * @return parameter type class
      */
     public static Class<?> getClassType(Class<?> navigationTarget) {
+        if (HasUrlParameter.class.isAssignableFrom(navigationTarget)) {
+            return PARAMETER_TYPES.get(navigationTarget);
+        }
+        return findClassType(navigationTarget);
+    }
+
+    private static Class<?> findClassType(Class<?> navigationTarget) {
         Type type = GenericTypeReflector.getTypeParameter(navigationTarget,
                 HasUrlParameter.class.getTypeParameters()[0]);
         if (!(type instanceof Class<?>)) {
@@ -187,6 +207,12 @@ public final class ParameterDeserializer {
         if (!HasUrlParameter.class.isAssignableFrom(navigationTarget)) {
             return false;
         }
+        return PARAMETER_ANNOTATIONS.get(navigationTarget)
+                .contains(parameterAnnotation);
+    }
+
+    private static Set<Class<? extends Annotation>> findParameterAnnotations(
+            Class<?> navigationTarget) {
         try {
             String methodName = "setParameter";
             assert methodName.equals(ReflectTools
@@ -200,12 +226,13 @@ public final class ParameterDeserializer {
 
             Method setParameter = navigationTarget.getMethod(methodName,
                     BeforeEvent.class, parameterClass);
-            return setParameter.getParameters()[1]
-                    .isAnnotationPresent(parameterAnnotation);
+            return Stream.of(setParameter.getParameters()[1].getAnnotations())
+                    .map(Annotation::annotationType)
+                    .collect(Collectors.toSet());
         } catch (NoSuchMethodException e) {
             String msg = String.format(
-                    "Failed to find HasUrlParameter::setParameter method when checking for @%s",
-                    parameterAnnotation.getSimpleName());
+                    "Failed to find HasUrlParameter::setParameter method of %s when checking for parameter annotations",
+                    navigationTarget.getName());
             throw new IllegalStateException(msg, e);
         }
     }
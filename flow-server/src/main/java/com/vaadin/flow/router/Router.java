@@ -183,7 +183,7 @@ public class Router implements Serializable {
         assert ui != null;
         assert location != null;
         assert trigger != null;
-        ui.getSession().checkHasLock();
+        ui.getSession().checkHasUILock(ui);
 
         if (handleNavigationForLocation(ui, location)) {
             ui.getInternals().setLastHandledNavigation(location);
@@ -16,7 +16,8 @@
 package com.vaadin.flow.server;
 
 import java.io.Serializable;
-import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The {@link Attributes} class represents a set of attributes.
@@ -27,7 +28,11 @@ import java.util.HashMap;
  */
 public class Attributes implements Serializable {
 
-    private final HashMap<String, Object> attributes = new HashMap<>();
+    /*
+     * Concurrent since session attributes may be used by different UIs at the
+     * same time when per-UI locking is enabled.
+     */
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
 
     /**
      * Stores a value in this set.
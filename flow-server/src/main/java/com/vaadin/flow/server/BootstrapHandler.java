@@ -23,13 +23,16 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.lang.annotation.Annotation;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -45,6 +48,7 @@ import org.jsoup.nodes.DataNode;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.DocumentType;
 import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
 import org.jsoup.parser.Parser;
 import org.jsoup.parser.Tag;
 import org.jsoup.select.Elements;
@@ -61,6 +65,7 @@ import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.internal.AnnotationReader;
 import com.vaadin.flow.internal.ReflectTools;
 import com.vaadin.flow.internal.UsageStatistics;
+import com.vaadin.flow.server.BootstrapPageSkeleton.Slot;
 import com.vaadin.flow.server.BootstrapUtils.ThemeSettings;
 import com.vaadin.flow.server.communication.AtmospherePushConnection;
 import com.vaadin.flow.server.communication.PushConnectionFactory;
@@ -119,10 +124,36 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
 
     static String clientEngineFile = readClientEngine();
 
+    // Upper bound for the number of different cached bootstrap pages
+    private static final int MAX_CACHED_PAGES = 256;
+
+    private final Map<List<Object>, BootstrapPageSkeleton> pageSkeletons = Collections
+            .synchronizedMap(new SkeletonCache(MAX_CACHED_PAGES));
+
     private static Logger getLogger() {
         return LoggerFactory.getLogger(BootstrapHandler.class.getName());
     }
 
+    /**
+     * Bootstrap page skeletons in access order, evicting the least recently
+     * used skeleton when there are too many.
+     */
+    static class SkeletonCache
+            extends LinkedHashMap<List<Object>, BootstrapPageSkeleton> {
+        private final int maxSize;
+
+        SkeletonCache(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(
+                Map.Entry<List<Object>, BootstrapPageSkeleton> eldest) {
+            return size() > maxSize;
+        }
+    }
+
     /**
      * Provides context information for the bootstrap process.
      */
@@ -401,13 +432,118 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
         ServletHelper.setResponseNoCacheHeaders(response::setHeader,
                 response::setDateHeader);
 
+        if (isBootstrapPageCacheable(context)) {
+            response.setContentType(
+                    ApplicationConstants.CONTENT_TYPE_TEXT_HTML_UTF_8);
+            try (OutputStream out = response.getOutputStream()) {
+                writeCachedBootstrapPage(context, out);
+            }
+            return true;
+        }
+
         Document document = getBootstrapPage(context);
         writeBootstrapPage(response, document.outerHtml());
 
         return true;
     }
 
+    /**
+     * Checks whether the bootstrap page for the given context can be created
+     * from a cached skeleton, i.e. the page does not contain anything that
+     * could change between requests except for the slot contents.
+     *
+     * @param context
+     *            the bootstrap context
+     * @return <code>true</code> if the page can be cached
+     */
+    static boolean isBootstrapPageCacheable(BootstrapContext context) {
+        DeploymentConfiguration configuration = context.getSession()
+                .getConfiguration();
+        VaadinService service = context.getSession().getService();
+        return configuration.isProductionMode()
+                && configuration.isBootstrapPageCacheEnabled()
+                && !service.hasBootstrapListeners()
+                && context.getUI().getChildren()
+                        .noneMatch(PageConfigurator.class::isInstance);
+    }
+
+    /**
+     * Writes the bootstrap page for the given context using a cached skeleton
+     * with the static parts of the page. The skeleton is created and cached if
+     * there is no skeleton for the context. When the cache is full, the least
+     * recently used skeleton is evicted.
+     *
+     * @param context
+     *            the bootstrap context
+     * @param out
+     *            the stream to write the page to
+     * @throws IOException
+     *             if writing fails
+     */
+    void writeCachedBootstrapPage(BootstrapContext context, OutputStream out)
+            throws IOException {
+        List<Object> key = getSkeletonKey(context);
+        BootstrapPageSkeleton skeleton = pageSkeletons.get(key);
+        if (skeleton == null) {
+            skeleton = BootstrapPageSkeleton
+                    .create(getBootstrapPage(context, true).outerHtml());
+            pageSkeletons.put(key, skeleton);
+        }
+        skeleton.write(out, getSlotContents(context));
+    }
+
+    private static List<Object> getSkeletonKey(BootstrapContext context) {
+        WebBrowser browser = context.getSession().getBrowser();
+        Optional<ThemeDefinition> theme = context.getTheme();
+        return Arrays.asList(context.getUI().getClass(),
+                context.pageConfigurationHolder,
+                theme.map(ThemeDefinition::getTheme).orElse(null),
+                theme.map(ThemeDefinition::getVariant).orElse(null),
+                browser.isEs6Supported(), browser.isEs5AdapterNeeded(),
+                context.getPushMode().isEnabled(), getServiceUrl(context),
+                ServletHelper.getContextRootRelativePath(context.getRequest()),
+                context.getUI().getLocale().getLanguage());
+    }
+
+    private static Map<Slot, String> getSlotContents(
+            BootstrapContext context) {
+        Document document = new Document("");
+        document.outputSettings().prettyPrint(false);
+        Element head = document.appendElement("head");
+        Element body = document.appendElement("body");
+
+        setupTitle(head, context);
+
+        JsonObject initialUIDL = getInitialUidl(context.getUI());
+        Map<LoadMode, JsonArray> dependenciesToProcessOnServer = popDependenciesToProcessOnServer(
+                initialUIDL);
+        Element bootstrapScript = getBootstrapScript(initialUIDL, context);
+
+        Map<Slot, String> contents = new EnumMap<>(Slot.class);
+        contents.put(Slot.TITLE, head.html());
+        head.empty();
+
+        applyUserDependencies(head, context, dependenciesToProcessOnServer)
+                .forEach(body::appendChild);
+        contents.put(Slot.HEAD_DEPENDENCIES, head.html());
+        contents.put(Slot.BODY_DEPENDENCIES, body.html());
+
+        head.empty().appendChild(bootstrapScript);
+        contents.put(Slot.BOOTSTRAP_SCRIPT, head.html());
+        return contents;
+    }
+
     static Document getBootstrapPage(BootstrapContext context) {
+        return getBootstrapPage(context, false);
+    }
+
+    /**
+     * Creates the bootstrap page. If a skeleton is created, the per request
+     * parts of the page are replaced with slot markers and bootstrap listeners
+     * are not run.
+     */
+    private static Document getBootstrapPage(BootstrapContext context,
+            boolean skeleton) {
         Document document = new Document("");
         DocumentType doctype = new DocumentType("html", "", "",
                 document.baseUri());
@@ -417,10 +553,17 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
         Element head = html.appendElement("head");
         html.appendElement("body");
 
-        List<Element> dependenciesToInlineInBody = setupDocumentHead(head,
-                context);
-        dependenciesToInlineInBody
-                .forEach(dependency -> document.body().appendChild(dependency));
+        if (skeleton) {
+            setupDocumentHeadSkeleton(head, context);
+            document.body()
+                    .appendChild(BootstrapPageSkeleton
+                            .createMarker(Slot.BODY_DEPENDENCIES));
+        } else {
+            List<Element> dependenciesToInlineInBody = setupDocumentHead(head,
+                    context);
+            dependenciesToInlineInBody.forEach(
+                    dependency -> document.body().appendChild(dependency));
+        }
         setupDocumentBody(document);
 
         document.outputSettings().prettyPrint(false);
@@ -442,6 +585,10 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
 
         setupPwa(document, context);
 
+        if (skeleton) {
+            return document;
+        }
+
         BootstrapPageResponse response = new BootstrapPageResponse(
                 context.getRequest(), context.getSession(),
                 context.getResponse(), document, context.getUI(),
@@ -575,17 +722,32 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
 
     private static List<Element> setupDocumentHead(Element head,
             BootstrapContext context) {
-        setupMetaAndTitle(head, context);
+        setupMeta(head, context);
+        setupTitle(head, context);
         setupCss(head, context);
 
         JsonObject initialUIDL = getInitialUidl(context.getUI());
         Map<LoadMode, JsonArray> dependenciesToProcessOnServer = popDependenciesToProcessOnServer(
                 initialUIDL);
-        setupFrameworkLibraries(head, initialUIDL, context);
+        setupFrameworkLibraries(head,
+                getBootstrapScript(initialUIDL, context), context);
         return applyUserDependencies(head, context,
                 dependenciesToProcessOnServer);
     }
 
+    private static void setupDocumentHeadSkeleton(Element head,
+            BootstrapContext context) {
+        setupMeta(head, context);
+        head.appendChild(BootstrapPageSkeleton.createMarker(Slot.TITLE));
+        setupCss(head, context);
+
+        setupFrameworkLibraries(head,
+                BootstrapPageSkeleton.createMarker(Slot.BOOTSTRAP_SCRIPT),
+                context);
+        head.appendChild(
+                BootstrapPageSkeleton.createMarker(Slot.HEAD_DEPENDENCIES));
+    }
+
     private static List<Element> applyUserDependencies(Element head,
             BootstrapContext context,
             Map<LoadMode, JsonArray> dependenciesToProcessOnServer) {
@@ -634,7 +796,7 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
     }
 
     private static void setupFrameworkLibraries(Element head,
-            JsonObject initialUIDL, BootstrapContext context) {
+            Node bootstrapScript, BootstrapContext context) {
         inlineEs6Collections(head, context);
         appendWebComponentsPolyfills(head, context);
 
@@ -642,7 +804,7 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
             head.appendChild(getPushScript(context));
         }
 
-        head.appendChild(getBootstrapScript(initialUIDL, context));
+        head.appendChild(bootstrapScript);
         head.appendChild(createJavaScriptElement(getClientEngineUrl(context)));
     }
 
@@ -686,8 +848,7 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
                 + "}");
     }
 
-    private static void setupMetaAndTitle(Element head,
-            BootstrapContext context) {
+    private static void setupMeta(Element head, BootstrapContext context) {
         head.appendElement(META_TAG).attr("http-equiv", "Content-Type").attr(
                 CONTENT_ATTRIBUTE,
                 ApplicationConstants.CONTENT_TYPE_TEXT_HTML_UTF_8);
@@ -705,6 +866,9 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
             BootstrapUtils.getMetaTargets(context).forEach((name,content)->head.appendElement(META_TAG)
                     .attr("name",name).attr(CONTENT_ATTRIBUTE,content));
         }
+    }
+
+    private static void setupTitle(Element head, BootstrapContext context) {
         resolvePageTitle(context).ifPresent(title -> {
             if (!title.isEmpty()) {
                 head.appendElement("title").appendText(title);
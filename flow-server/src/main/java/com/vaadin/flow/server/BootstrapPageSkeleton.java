@@ -0,0 +1,121 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jsoup.nodes.Comment;
+import org.jsoup.nodes.Node;
+
+/**
+ * A pre-rendered bootstrap page consisting of static UTF-8 encoded segments
+ * separated by slots for content that is rendered separately for each request.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+final class BootstrapPageSkeleton implements Serializable {
+
+    /**
+     * Parts of the bootstrap page that are different for each request.
+     */
+    enum Slot {
+        TITLE, BOOTSTRAP_SCRIPT, HEAD_DEPENDENCIES, BODY_DEPENDENCIES;
+    }
+
+    private static final String MARKER_PREFIX = "vaadin-bootstrap-slot:";
+
+    private static final Pattern MARKER_PATTERN = Pattern
+            .compile("<!--" + Pattern.quote(MARKER_PREFIX) + "(\\w+)-->");
+
+    private final byte[][] segments;
+    private final Slot[] slots;
+
+    private BootstrapPageSkeleton(byte[][] segments, Slot[] slots) {
+        assert segments.length == slots.length + 1;
+        this.segments = segments;
+        this.slots = slots;
+    }
+
+    /**
+     * Creates a node that marks the position of the given slot in a page that
+     * is passed to {@link #create(String)}.
+     *
+     * @param slot
+     *            the slot to mark
+     * @return a node marking the slot
+     */
+    static Node createMarker(Slot slot) {
+        return new Comment(MARKER_PREFIX + slot.name(), "");
+    }
+
+    /**
+     * Creates a skeleton from the HTML of a page with slot markers.
+     *
+     * @param html
+     *            the HTML of the page, with nodes created by
+     *            {@link #createMarker(Slot)} in place of the slots
+     * @return a new skeleton
+     */
+    static BootstrapPageSkeleton create(String html) {
+        List<byte[]> segments = new ArrayList<>();
+        List<Slot> slots = new ArrayList<>();
+
+        Matcher matcher = MARKER_PATTERN.matcher(html);
+        int start = 0;
+        while (matcher.find()) {
+            segments.add(html.substring(start, matcher.start())
+                    .getBytes(StandardCharsets.UTF_8));
+            slots.add(Slot.valueOf(matcher.group(1)));
+            start = matcher.end();
+        }
+        segments.add(html.substring(start).getBytes(StandardCharsets.UTF_8));
+
+        return new BootstrapPageSkeleton(segments.toArray(new byte[0][]),
+                slots.toArray(new Slot[0]));
+    }
+
+    /**
+     * Writes the page to the given stream, with the given contents in place of
+     * the slots.
+     *
+     * @param out
+     *            the stream to write to
+     * @param slotContents
+     *            the HTML to write in place of each slot
+     * @throws IOException
+     *             if writing fails
+     */
+    void write(OutputStream out, Map<Slot, String> slotContents)
+            throws IOException {
+        for (int i = 0; i < slots.length; i++) {
+            out.write(segments[i]);
+            String content = slotContents.get(slots[i]);
+            if (content != null) {
+                out.write(content.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        out.write(segments[slots.length]);
+    }
+}
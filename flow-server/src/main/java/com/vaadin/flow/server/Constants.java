@@ -91,6 +91,74 @@ public final class Constants implements Serializable {
      */
     public static final String I18N_PROVIDER = "i18n.provider";
 
+    /**
+     * Configuration name for the parameter that determines whether UIDL
+     * responses are written directly to the response stream instead of first
+     * being built in memory.
+     */
+    public static final String SERVLET_PARAMETER_STREAMING_UIDL = "streamingUidl";
+
+    /**
+     * Configuration name for the maximum number of constants that are kept in
+     * the constant pool of each UI before constants that are no longer used
+     * are evicted. The default is <code>0</code>, which means that constants
+     * are never evicted.
+     */
+    public static final String SERVLET_PARAMETER_MAX_CONSTANT_POOL_SIZE = "maxConstantPoolSize";
+
+    /**
+     * Configuration name for the parameter that determines if state tree
+     * changes are sent to the client using the compact encoding described by
+     * {@link com.vaadin.flow.shared.CompactChangeLayout}.
+     */
+    public static final String SERVLET_PARAMETER_COMPACT_CHANGE_ENCODING = "compactChangeEncoding";
+
+    /**
+     * Configuration name for the parameter that determines if each UI is
+     * locked separately instead of locking the whole session when handling
+     * requests for the UI.
+     */
+    public static final String SERVLET_PARAMETER_UI_LOCKING = "uiLocking";
+
+    /**
+     * Configuration name for the parameter that determines if state nodes are
+     * serialized using a compact format instead of default Java
+     * serialization.
+     */
+    public static final String SERVLET_PARAMETER_COMPACT_STATE_SERIALIZATION = "compactStateSerialization";
+
+    /**
+     * Configuration name for the parameter that sets the minimum interval in
+     * milliseconds between automatic pushes to the same UI.
+     */
+    public static final String SERVLET_PARAMETER_PUSH_INTERVAL = "pushInterval";
+
+    /**
+     * Configuration name for the parameter that sets the number of seconds
+     * after which a UI without client requests is passivated out of the
+     * session.
+     */
+    public static final String SERVLET_PARAMETER_UI_PASSIVATION_TIMEOUT = "uiPassivationTimeout";
+
+    /**
+     * Configuration name for the parameter that determines if the durations
+     * of request handling phases are measured.
+     */
+    public static final String SERVLET_PARAMETER_REQUEST_METRICS = "requestMetrics";
+
+    /**
+     * Configuration name for the parameter that determines if pre-rendered
+     * bootstrap page skeletons are cached and reused in production mode.
+     */
+    public static final String SERVLET_PARAMETER_BOOTSTRAP_PAGE_CACHE = "bootstrapPageCache";
+
+    /**
+     * Configuration name for the parameter that sets the maximum number of
+     * uploads that are received concurrently for one session. Additional
+     * uploads are rejected until a running upload has completed.
+     */
+    public static final String SERVLET_PARAMETER_MAX_CONCURRENT_UPLOADS = "maxConcurrentUploads";
+
     private Constants() {
         // prevent instantiation constants class only
     }
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.Serializable;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import elemental.json.Json;
+import elemental.json.JsonObject;
+
+/**
+ * Default {@link RequestMetrics} implementation, which keeps a histogram of
+ * the recorded values of each phase and count in memory.
+ * <p>
+ * Values are counted in buckets whose bounds are powers of two, so percentiles
+ * are approximate: a reported percentile is the upper bound of the bucket
+ * containing it, at most twice the exact value.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+public class HistogramRequestMetrics implements RequestMetrics {
+
+    private final Map<Phase, Histogram> phases = new EnumMap<>(Phase.class);
+    private final Map<Count, Histogram> counts = new EnumMap<>(Count.class);
+
+    /**
+     * A thread safe histogram of non-negative values.
+     */
+    public static final class Histogram implements Serializable {
+
+        // Bucket 0 holds zeros, bucket n values in [2^(n-1), 2^n)
+        private final AtomicLongArray buckets = new AtomicLongArray(
+                Long.SIZE + 1);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        private Histogram() {
+        }
+
+        /**
+         * Records a value. Negative values are recorded as zero.
+         *
+         * @param value
+         *            the value to record
+         */
+        public void record(long value) {
+            long recorded = Math.max(0, value);
+            buckets.incrementAndGet(
+                    Long.SIZE - Long.numberOfLeadingZeros(recorded));
+            count.increment();
+            sum.add(recorded);
+            max.accumulateAndGet(recorded, Math::max);
+        }
+
+        /**
+         * Gets the number of recorded values.
+         *
+         * @return the number of values
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * Gets the sum of the recorded values.
+         *
+         * @return the sum of the values
+         */
+        public long getSum() {
+            return sum.sum();
+        }
+
+        /**
+         * Gets the largest recorded value.
+         *
+         * @return the largest value, or 0 if no values have been recorded
+         */
+        public long getMax() {
+            return max.get();
+        }
+
+        /**
+         * Gets an approximation of the given percentile of the recorded
+         * values.
+         *
+         * @param percentile
+         *            the percentile, between 0 and 100
+         * @return the upper bound of the bucket containing the percentile, or
+         *         0 if no values have been recorded
+         */
+        public long getPercentile(double percentile) {
+            long total = getCount();
+            if (total == 0) {
+                return 0;
+            }
+            long target = Math.max(1,
+                    (long) Math.ceil(total * percentile / 100));
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= target) {
+                    long upperBound = i == 0 ? 0
+                            : i == Long.SIZE ? Long.MAX_VALUE : (1L << i) - 1;
+                    return Math.min(upperBound, getMax());
+                }
+            }
+            return getMax();
+        }
+
+        private JsonObject toJson() {
+            JsonObject json = Json.createObject();
+            long total = getCount();
+            json.put("count", total);
+            json.put("sum", getSum());
+            json.put("mean", total == 0 ? 0 : (double) getSum() / total);
+            json.put("max", getMax());
+            json.put("p50", getPercentile(50));
+            json.put("p90", getPercentile(90));
+            json.put("p99", getPercentile(99));
+            return json;
+        }
+    }
+
+    /**
+     * Creates a new instance with empty histograms.
+     */
+    public HistogramRequestMetrics() {
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, new Histogram());
+        }
+        for (Count count : Count.values()) {
+            counts.put(count, new Histogram());
+        }
+    }
+
+    @Override
+    public void recordPhase(Phase phase, long nanos) {
+        phases.get(phase).record(nanos);
+    }
+
+    @Override
+    public void recordCount(Count count, long value) {
+        counts.get(count).record(value);
+    }
+
+    /**
+     * Gets the histogram of the durations of the given phase.
+     *
+     * @param phase
+     *            the phase, not <code>null</code>
+     * @return the histogram of durations in nanoseconds
+     */
+    public Histogram getHistogram(Phase phase) {
+        return phases.get(phase);
+    }
+
+    /**
+     * Gets the histogram of the values of the given count.
+     *
+     * @param count
+     *            the count, not <code>null</code>
+     * @return the histogram of values
+     */
+    public Histogram getHistogram(Count count) {
+        return counts.get(count);
+    }
+
+    /**
+     * Creates a JSON summary of all histograms, with the number of values,
+     * their sum, mean and maximum, and the 50th, 90th and 99th percentile.
+     * Durations are in nanoseconds.
+     *
+     * @return a JSON object with the summaries of phases and counts
+     */
+    public JsonObject toJson() {
+        JsonObject phasesJson = Json.createObject();
+        phases.forEach(
+                (phase, histogram) -> phasesJson.put(phase.name(),
+                        histogram.toJson()));
+        JsonObject countsJson = Json.createObject();
+        counts.forEach(
+                (count, histogram) -> countsJson.put(count.name(),
+                        histogram.toJson()));
+
+        JsonObject json = Json.createObject();
+        json.put("phases", phasesJson);
+        json.put("counts", countsJson);
+        return json;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An output stream which only passes through a range of the bytes written to
+ * it and discards the rest.
+ * <p>
+ * Closing the stream does not close the underlying stream.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+final class RangeOutputStream extends FilterOutputStream {
+
+    private final long start;
+    private final long end;
+    private long position;
+
+    /**
+     * Creates a new range output stream.
+     *
+     * @param out
+     *            the stream to write the range to, not <code>null</code>
+     * @param start
+     *            the index of the first byte to pass through
+     * @param length
+     *            the number of bytes to pass through
+     */
+    RangeOutputStream(OutputStream out, long start, long length) {
+        super(out);
+        this.start = start;
+        end = length > Long.MAX_VALUE - start ? Long.MAX_VALUE
+                : start + length;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (position >= start && position < end) {
+            out.write(b);
+        }
+        position++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        long from = Math.max(position, start);
+        long to = Math.min(position + len, end);
+        if (from < to) {
+            out.write(b, off + (int) (from - position), (int) (to - from));
+        }
+        position += len;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Creates channels that provide the actual data of a {@link StreamResource}.
+ * <p>
+ * A {@link StreamResource} created with a channel factory copies the data
+ * directly from the channel without taking the session lock for reading. If
+ * the channel is a {@link FileChannel}, the data is transferred using
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}
+ * which lets the platform avoid intermediate copies when possible.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+@FunctionalInterface
+public interface ReadableChannelFactory extends InputStreamFactory {
+
+    /**
+     * Produces a {@link ReadableByteChannel} instance to read resource data.
+     * <p>
+     * This method is called under the Vaadin session lock, the same way as
+     * {@link #createInputStream()}.
+     * <p>
+     * Return value may not be null.
+     *
+     * @return data channel. May not be null.
+     * @throws IOException
+     *             if the channel cannot be opened
+     */
+    ReadableByteChannel createChannel() throws IOException;
+
+    @Override
+    default InputStream createInputStream() {
+        try {
+            return Channels.newInputStream(createChannel());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Channels are by default read without the session lock.
+     */
+    @Override
+    default boolean requiresLock() {
+        return false;
+    }
+
+    /**
+     * Creates a channel factory which reads the file at the given path.
+     *
+     * @param path
+     *            the path of the file to read, not <code>null</code>
+     * @return a channel factory for the file
+     */
+    static ReadableChannelFactory of(Path path) {
+        // Path is not serializable, the URI is
+        URI uri = path.toUri();
+        return () -> FileChannel.open(Paths.get(uri), StandardOpenOption.READ);
+    }
+}
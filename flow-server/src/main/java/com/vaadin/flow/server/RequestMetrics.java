@@ -0,0 +1,131 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.Serializable;
+
+/**
+ * Receives measurements of the phases of handling requests, for exporting
+ * them to a monitoring system.
+ * <p>
+ * Request metrics are enabled using
+ * {@link com.vaadin.flow.function.DeploymentConfiguration#isRequestMetrics()}.
+ * A custom implementation can be provided using the Java
+ * {@link java.util.ServiceLoader} mechanism. Otherwise a
+ * {@link HistogramRequestMetrics} is used. Methods may be called concurrently
+ * from multiple threads and should return quickly.
+ *
+ * @see VaadinService#getRequestMetrics()
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+public interface RequestMetrics extends Serializable {
+
+    /**
+     * A measured phase of handling a request.
+     */
+    enum Phase {
+        /**
+         * Waiting for the session lock.
+         */
+        SESSION_LOCK_WAIT,
+        /**
+         * Reading and parsing the RPC message from the client.
+         */
+        RPC_DECODE,
+        /**
+         * Running the RPC invocations, including the listeners they trigger.
+         */
+        LISTENER_EXECUTION,
+        /**
+         * Running the tasks registered using
+         * {@link com.vaadin.flow.internal.StateTree#beforeClientResponse(com.vaadin.flow.internal.StateNode, com.vaadin.flow.function.SerializableConsumer)}.
+         */
+        BEFORE_CLIENT_RESPONSE,
+        /**
+         * Collecting the changes of the state tree, excluding encoding them.
+         */
+        COLLECT_CHANGES,
+        /**
+         * Encoding the state changes as JSON.
+         */
+        JSON_ENCODE,
+        /**
+         * Converting the complete response message to a string, when the
+         * response is not streamed.
+         */
+        MESSAGE_SERIALIZE,
+        /**
+         * Writing the response to the client. When the response is streamed,
+         * this phase overlaps the collect and encode phases.
+         */
+        RESPONSE_WRITE
+    }
+
+    /**
+     * A counted quantity of handling a request.
+     */
+    enum Count {
+        /**
+         * The number of state nodes with changes sent to the client.
+         */
+        DIRTY_NODES,
+        /**
+         * The number of bytes written in a response.
+         */
+        BYTES_WRITTEN,
+        /**
+         * The number of access tasks pending when a response is created.
+         */
+        PENDING_ACCESS_TASKS
+    }
+
+    /**
+     * Records the duration of a request handling phase.
+     *
+     * @param phase
+     *            the measured phase, not <code>null</code>
+     * @param nanos
+     *            the duration in nanoseconds
+     */
+    void recordPhase(Phase phase, long nanos);
+
+    /**
+     * Records a counted quantity of a request.
+     *
+     * @param count
+     *            the counted quantity, not <code>null</code>
+     * @param value
+     *            the counted value
+     */
+    void recordCount(Count count, long value);
+
+    /**
+     * Gets the request metrics of the service of the given session.
+     *
+     * @param session
+     *            the session, or <code>null</code>
+     * @return the request metrics, or <code>null</code> if metrics are not
+     *         recorded
+     */
+    static RequestMetrics get(VaadinSession session) {
+        if (session == null || session.getService() == null) {
+            return null;
+        }
+        return session.getService().getRequestMetrics();
+    }
+}
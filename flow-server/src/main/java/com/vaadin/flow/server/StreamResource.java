@@ -19,9 +19,16 @@ import javax.servlet.ServletContext;
 
 import com.vaadin.flow.function.ContentTypeResolver;
 
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.Optional;
 
 /**
@@ -46,6 +53,12 @@ public class StreamResource extends AbstractStreamResource {
 
     private ContentTypeResolver resolver = DEFAULT_RESOLVER;
 
+    private long length = -1;
+
+    private long lastModified = -1;
+
+    private String entityTag;
+
     private static class DefaultResolver implements ContentTypeResolver {
 
         @Override
@@ -58,7 +71,9 @@ public class StreamResource extends AbstractStreamResource {
 
     private static class Pipe implements StreamResourceWriter {
 
-        private static final int BUFFER_SIZE = 1024;
+        private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+        private static final int MAX_BUFFER_SIZE = 64 * 1024;
 
         private InputStreamFactory factory;
 
@@ -69,8 +84,31 @@ public class StreamResource extends AbstractStreamResource {
         @Override
         public void accept(OutputStream stream, VaadinSession session)
                 throws IOException {
-            try (InputStream input = createInputStream(session)) {
-                copy(session, input, stream);
+            acceptRange(stream, session, 0, Long.MAX_VALUE);
+        }
+
+        @Override
+        public void acceptRange(OutputStream stream, VaadinSession session,
+                long start, long length) throws IOException {
+            if (factory.requiresLock()) {
+                try (InputStream input = createInputStream(session)) {
+                    skip(session, input, start);
+                    copy(session, input, stream, length);
+                }
+            } else if (factory instanceof ReadableChannelFactory) {
+                try (ReadableByteChannel channel = createChannel(session)) {
+                    copy(channel, stream, start, length);
+                }
+            } else {
+                try (InputStream input = createInputStream(session)) {
+                    if (input instanceof FileInputStream) {
+                        copy(((FileInputStream) input).getChannel(), stream,
+                                start, length);
+                    } else {
+                        skip(session, input, start);
+                        copy(session, input, stream, length);
+                    }
+                }
             }
         }
 
@@ -83,26 +121,124 @@ public class StreamResource extends AbstractStreamResource {
             }
         }
 
+        private ReadableByteChannel createChannel(VaadinSession session)
+                throws IOException {
+            session.lock();
+            try {
+                return ((ReadableChannelFactory) factory).createChannel();
+            } finally {
+                session.unlock();
+            }
+        }
+
         private void copy(VaadinSession session, InputStream source,
-                OutputStream out) throws IOException {
-            byte[] buf = new byte[BUFFER_SIZE];
+                OutputStream out, long length) throws IOException {
+            byte[] buf = new byte[INITIAL_BUFFER_SIZE];
+            long remaining = length;
+            int n;
+            while (remaining > 0 && (n = read(session, source, buf,
+                    (int) Math.min(buf.length, remaining))) > 0) {
+                out.write(buf, 0, n);
+                remaining -= n;
+                buf = growIfFilled(buf, n);
+            }
+        }
+
+        private void copy(ReadableByteChannel source, OutputStream out,
+                long start, long length) throws IOException {
+            if (source instanceof FileChannel) {
+                FileChannel file = (FileChannel) source;
+                WritableByteChannel target = Channels.newChannel(out);
+                long position = file.position() + start;
+                long end = Math.min(file.size(),
+                        length > Long.MAX_VALUE - position ? Long.MAX_VALUE
+                                : position + length);
+                while (position < end) {
+                    long n = file.transferTo(position, end - position,
+                            target);
+                    if (n <= 0) {
+                        // The file has been truncated
+                        break;
+                    }
+                    position += n;
+                }
+                return;
+            }
+
+            if (source instanceof SeekableByteChannel) {
+                SeekableByteChannel seekable = (SeekableByteChannel) source;
+                seekable.position(seekable.position() + start);
+            } else {
+                skip(Channels.newInputStream(source), start);
+            }
+
+            byte[] buf = new byte[INITIAL_BUFFER_SIZE];
+            long remaining = length;
             int n;
-            while ((n = read(session, source, buf)) > 0) {
+            while (remaining > 0 && (n = source.read(ByteBuffer.wrap(buf, 0,
+                    (int) Math.min(buf.length, remaining)))) >= 0) {
                 out.write(buf, 0, n);
+                remaining -= n;
+                buf = growIfFilled(buf, n);
+            }
+        }
+
+        private void skip(VaadinSession session, InputStream source,
+                long count) throws IOException {
+            if (count == 0) {
+                return;
+            }
+            if (factory.requiresLock()) {
+                session.lock();
+                try {
+                    skip(source, count);
+                } finally {
+                    session.unlock();
+                }
+            } else {
+                skip(source, count);
+            }
+        }
+
+        private static void skip(InputStream source, long count)
+                throws IOException {
+            long remaining = count;
+            while (remaining > 0) {
+                long skipped = source.skip(remaining);
+                if (skipped > 0) {
+                    remaining -= skipped;
+                } else if (source.read() < 0) {
+                    // End of stream
+                    return;
+                } else {
+                    remaining--;
+                }
+            }
+        }
+
+        /*
+         * Starts with a small buffer so that small resources stay cheap and
+         * grows it for resources that keep filling it up. With a lock, this
+         * also reduces the number of times the lock is taken.
+         */
+        private static byte[] growIfFilled(byte[] buffer, int bytesRead) {
+            if (bytesRead == buffer.length && buffer.length < MAX_BUFFER_SIZE) {
+                return new byte[buffer.length * 2];
             }
+            return buffer;
         }
 
         private int read(VaadinSession session, InputStream source,
-                byte[] buffer) throws IOException {
+                byte[] buffer, int length) throws IOException {
             if (factory.requiresLock()) {
                 session.lock();
                 try {
-                    return source.read(buffer);
+                    return source.read(buffer, 0, length);
                 } finally {
                     session.unlock();
                 }
             } else {
-                return source.read(buffer);
+                return source.read(buffer, 0, length);
             }
         }
     }
@@ -143,6 +279,11 @@ public class StreamResource extends AbstractStreamResource {
      * {@code name} parameter value will be used in URI (generated when resource
      * is registered) in a way that the {@code name} is the last segment of the
      * path. So this is synthetic file name (not real one).
+     * <p>
+     * Unless {@link InputStreamFactory#requiresLock()} returns {@code true},
+     * the session lock is only held while the stream is created. Data from a
+     * {@link ReadableChannelFactory} or a {@link FileInputStream} is then
+     * transferred directly from the file channel.
      *
      * @param name
      *            resource file name. May not be null.
@@ -213,6 +354,86 @@ public class StreamResource extends AbstractStreamResource {
         return resolver;
     }
 
+    /**
+     * Sets the length of the resource data in bytes.
+     * <p>
+     * When the length is known, it is sent in the <code>Content-Length</code>
+     * header and range requests for the resource are answered with only the
+     * requested part of the data. The length must match the number of bytes
+     * written by the resource writer.
+     *
+     * @param length
+     *            the length of the data in bytes, or -1 if unknown
+     * @return this resource
+     */
+    public StreamResource setLength(long length) {
+        if (length < -1) {
+            throw new IllegalArgumentException(
+                    "Length must be -1 or a non-negative number");
+        }
+        this.length = length;
+        return this;
+    }
+
+    /**
+     * Gets the length of the resource data in bytes.
+     *
+     * @return the length of the data in bytes, or -1 if unknown
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * Sets the time when the resource data was last modified.
+     * <p>
+     * The time is sent in the <code>Last-Modified</code> header and used for
+     * answering conditional requests.
+     *
+     * @param lastModified
+     *            the time in milliseconds since the epoch, or -1 if unknown
+     * @return this resource
+     */
+    public StreamResource setLastModified(long lastModified) {
+        this.lastModified = lastModified;
+        return this;
+    }
+
+    /**
+     * Gets the time when the resource data was last modified.
+     *
+     * @return the time in milliseconds since the epoch, or -1 if unknown
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Sets the entity tag of the resource data.
+     * <p>
+     * The tag is sent in the <code>ETag</code> header and used for answering
+     * conditional requests. It must change whenever the data changes. The tag
+     * should be given including the quotes, e.g. <code>"v1"</code> or
+     * <code>W/"v1"</code> for a weak tag.
+     *
+     * @param entityTag
+     *            the entity tag, or <code>null</code> if there is none
+     * @return this resource
+     */
+    public StreamResource setEntityTag(String entityTag) {
+        this.entityTag = entityTag;
+        return this;
+    }
+
+    /**
+     * Gets the entity tag of the resource data.
+     *
+     * @return the entity tag, or <code>null</code> if there is none
+     */
+    public String getEntityTag() {
+        return entityTag;
+    }
+
     @Override
     public String getName() {
         return fileName;
@@ -47,4 +47,31 @@ public interface StreamResourceWriter extends Serializable {
      *             if an IO error occurred
      */
     void accept(OutputStream stream, VaadinSession session) throws IOException;
+
+    /**
+     * Writes a range of the data to {@code stream} using {@code session} as a
+     * context.
+     * <p>
+     * This method is used for answering HTTP range requests. The default
+     * implementation calls {@link #accept(OutputStream, VaadinSession)} and
+     * discards the bytes outside the range. Implementations which can seek in
+     * their data should override this method.
+     * <p>
+     * The method is not called under the session lock.
+     *
+     * @param stream
+     *            data output stream
+     * @param session
+     *            vaadin session
+     * @param start
+     *            the index of the first byte to write
+     * @param length
+     *            the number of bytes to write
+     * @throws IOException
+     *             if an IO error occurred
+     */
+    default void acceptRange(OutputStream stream, VaadinSession session,
+            long start, long length) throws IOException {
+        accept(new RangeOutputStream(stream, start, length), session);
+    }
 }
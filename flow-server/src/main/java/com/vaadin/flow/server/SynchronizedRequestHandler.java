@@ -17,6 +17,8 @@ package com.vaadin.flow.server;
 
 import java.io.IOException;
 
+import com.vaadin.flow.server.RequestMetrics.Phase;
+
 /**
  * RequestHandler which takes care of locking and unlocking of the VaadinSession
  * automatically. The session is locked before
@@ -35,8 +37,14 @@ public abstract class SynchronizedRequestHandler implements RequestHandler {
             return false;
         }
 
+        long lockStart = System.nanoTime();
         session.lock();
         try {
+            RequestMetrics metrics = RequestMetrics.get(session);
+            if (metrics != null) {
+                metrics.recordPhase(Phase.SESSION_LOCK_WAIT,
+                        System.nanoTime() - lockStart);
+            }
             return synchronizedHandleRequest(session, request, response);
         } finally {
             session.unlock();
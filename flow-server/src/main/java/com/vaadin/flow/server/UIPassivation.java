@@ -0,0 +1,286 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.component.UI;
+
+/**
+ * Keeps the serialized state of UIs that have been passivated out of a
+ * {@link VaadinSession}.
+ * <p>
+ * Each passivated UI is written to its own temporary file in the passivation
+ * directory of the service. References to the session are replaced while
+ * writing and resolved back to the session while reading, so that only the
+ * state of the UI itself is stored. When the session is serialized, the
+ * passivated UIs are written along with it and kept in memory until they are
+ * restored or discarded. The files are deleted when the UIs are restored or
+ * discarded, and at the latest when the service is destroyed.
+ * <p>
+ * All methods must be called while holding the session lock.
+ *
+ * @see com.vaadin.flow.function.DeploymentConfiguration#getUIPassivationTimeout()
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+final class UIPassivation implements Serializable {
+
+    private final Map<Integer, PassivatedUI> passivatedUIs = new HashMap<>();
+
+    /*
+     * UIs that could not be serialized are not tried again.
+     */
+    private final Set<Integer> failedUIs = new HashSet<>();
+
+    /**
+     * Placeholder written instead of the session.
+     */
+    private enum SessionReference {
+        INSTANCE
+    }
+
+    private static class PassivatedUI implements Serializable {
+        private long lastHeartbeatTimestamp;
+        private transient Path file;
+        private transient byte[] data;
+
+        private PassivatedUI(Path file, long lastHeartbeatTimestamp) {
+            this.file = file;
+            this.lastHeartbeatTimestamp = lastHeartbeatTimestamp;
+        }
+
+        private InputStream open() throws IOException {
+            if (file != null) {
+                return new BufferedInputStream(Files.newInputStream(file));
+            }
+            return new ByteArrayInputStream(data);
+        }
+
+        private void discard() {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    getLogger().debug("Could not delete passivated UI file {}",
+                            file, e);
+                }
+                file = null;
+            }
+            data = null;
+        }
+
+        private void writeObject(ObjectOutputStream stream)
+                throws IOException {
+            stream.defaultWriteObject();
+            stream.writeObject(file != null ? Files.readAllBytes(file) : data);
+        }
+
+        private void readObject(ObjectInputStream stream)
+                throws IOException, ClassNotFoundException {
+            stream.defaultReadObject();
+            data = (byte[]) stream.readObject();
+        }
+    }
+
+    private static class UIOutputStream extends ObjectOutputStream {
+        private final VaadinSession session;
+
+        private UIOutputStream(OutputStream out, VaadinSession session)
+                throws IOException {
+            super(out);
+            this.session = session;
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+            return obj == session ? SessionReference.INSTANCE : obj;
+        }
+    }
+
+    private static class UIInputStream extends ObjectInputStream {
+        private final VaadinSession session;
+
+        private UIInputStream(InputStream in, VaadinSession session)
+                throws IOException {
+            super(in);
+            this.session = session;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) {
+            return obj == SessionReference.INSTANCE ? session : obj;
+        }
+    }
+
+    /**
+     * Serializes the given UI to a temporary file. The UI is not removed from
+     * the session.
+     *
+     * @param session
+     *            the session the UI belongs to
+     * @param ui
+     *            the UI to passivate
+     * @return <code>true</code> if the UI was passivated, <code>false</code>
+     *         if it could not be serialized
+     */
+    boolean passivate(VaadinSession session, UI ui) {
+        int uiId = ui.getUIId();
+        Path file = null;
+        try {
+            file = Files.createTempFile(
+                    session.getService().getUIPassivationDirectory(), "ui-",
+                    ".ser");
+            try (ObjectOutputStream out = new UIOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(file)),
+                    session)) {
+                out.writeObject(ui);
+            }
+        } catch (IOException e) {
+            getLogger().warn("Could not passivate UI #{}, keeping it in memory",
+                    uiId, e);
+            failedUIs.add(uiId);
+            if (file != null) {
+                new PassivatedUI(file, 0).discard();
+            }
+            return false;
+        }
+        passivatedUIs.put(uiId, new PassivatedUI(file,
+                ui.getInternals().getLastHeartbeatTimestamp()));
+        return true;
+    }
+
+    /**
+     * Restores a passivated UI and discards its stored state. The restored UI
+     * is not added to the session.
+     *
+     * @param session
+     *            the session the UI belongs to
+     * @param uiId
+     *            the id of the UI to restore
+     * @return the restored UI, or <code>null</code> if no UI with the given id
+     *         has been passivated or it could not be restored
+     */
+    UI restore(VaadinSession session, int uiId) {
+        PassivatedUI passivated = passivatedUIs.remove(uiId);
+        if (passivated == null) {
+            return null;
+        }
+        try (ObjectInputStream in = new UIInputStream(passivated.open(),
+                session)) {
+            return (UI) in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            getLogger().warn("Could not restore passivated UI #{}", uiId, e);
+            return null;
+        } finally {
+            passivated.discard();
+        }
+    }
+
+    /**
+     * Checks whether passivating the UI with the given id has failed before.
+     *
+     * @param uiId
+     *            the UI id
+     * @return <code>true</code> if the UI could not be serialized
+     */
+    boolean hasFailed(int uiId) {
+        return failedUIs.contains(uiId);
+    }
+
+    /**
+     * Checks whether a UI with the given id is passivated.
+     *
+     * @param uiId
+     *            the UI id
+     * @return <code>true</code> if the UI is passivated
+     */
+    boolean isPassivated(int uiId) {
+        return passivatedUIs.containsKey(uiId);
+    }
+
+    /**
+     * Updates the heartbeat timestamp of a passivated UI without restoring it.
+     *
+     * @param uiId
+     *            the UI id
+     * @param timestamp
+     *            the time of the heartbeat in milliseconds since the epoch
+     * @return <code>true</code> if a UI with the given id is passivated,
+     *         <code>false</code> otherwise
+     */
+    boolean setLastHeartbeatTimestamp(int uiId, long timestamp) {
+        PassivatedUI passivated = passivatedUIs.get(uiId);
+        if (passivated == null) {
+            return false;
+        }
+        passivated.lastHeartbeatTimestamp = timestamp;
+        return true;
+    }
+
+    /**
+     * Discards passivated UIs whose last heartbeat is older than the given
+     * time.
+     *
+     * @param heartbeatLimit
+     *            the time in milliseconds since the epoch before which the
+     *            last heartbeat must have occurred for a UI to be discarded
+     */
+    void discardExpired(long heartbeatLimit) {
+        Iterator<PassivatedUI> iterator = passivatedUIs.values().iterator();
+        while (iterator.hasNext()) {
+            PassivatedUI passivated = iterator.next();
+            if (passivated.lastHeartbeatTimestamp < heartbeatLimit) {
+                passivated.discard();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Discards all passivated UIs.
+     */
+    void discardAll() {
+        passivatedUIs.values().forEach(PassivatedUI::discard);
+        passivatedUIs.clear();
+        failedUIs.clear();
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(UIPassivation.class.getName());
+    }
+}
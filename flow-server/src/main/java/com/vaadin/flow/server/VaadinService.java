@@ -27,16 +27,23 @@ import java.io.PrintWriter;
 import java.io.Serializable;
 import java.lang.reflect.Constructor;
 import java.net.URL;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Future;
@@ -56,9 +63,11 @@ import org.slf4j.LoggerFactory;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.internal.DependencyTreeCache;
 import com.vaadin.flow.component.internal.HtmlImportParser;
+import com.vaadin.flow.component.internal.UIInternals;
 import com.vaadin.flow.di.DefaultInstantiator;
 import com.vaadin.flow.di.Instantiator;
 import com.vaadin.flow.function.DeploymentConfiguration;
+import com.vaadin.flow.function.SerializableConsumer;
 import com.vaadin.flow.i18n.I18NProvider;
 import com.vaadin.flow.internal.CurrentInstance;
 import com.vaadin.flow.internal.LocaleUtil;
@@ -67,9 +76,13 @@ import com.vaadin.flow.router.Router;
 import com.vaadin.flow.server.ServletHelper.RequestType;
 import com.vaadin.flow.server.communication.AtmospherePushConnection;
 import com.vaadin.flow.server.communication.HeartbeatHandler;
+import com.vaadin.flow.server.communication.PushConnection;
+import com.vaadin.flow.server.communication.PushScheduler;
 import com.vaadin.flow.server.communication.PwaHandler;
+import com.vaadin.flow.server.communication.RequestMetricsHandler;
 import com.vaadin.flow.server.communication.SessionRequestHandler;
 import com.vaadin.flow.server.communication.StreamRequestHandler;
+import com.vaadin.flow.server.communication.UIBroadcaster;
 import com.vaadin.flow.server.communication.UidlRequestHandler;
 import com.vaadin.flow.server.startup.FakeBrowser;
 import com.vaadin.flow.server.startup.RouteRegistry;
@@ -192,10 +205,18 @@ public abstract class VaadinService implements Serializable {
 
     private Instantiator instantiator;
 
+    private RequestMetrics requestMetrics;
+
     private DependencyTreeCache<String> htmlImportDependencyCache;
 
     private Registration htmlImportDependencyCacheClearRegistration;
 
+    private transient volatile PushScheduler pushScheduler;
+
+    private transient volatile UIBroadcaster uiBroadcaster;
+
+    private transient Path uiPassivationDirectory;
+
     /**
      * Creates a new vaadin service based on a deployment configuration.
      *
@@ -249,6 +270,7 @@ public abstract class VaadinService implements Serializable {
      */
     public void init() throws ServiceException {
         instantiator = createInstantiator();
+        requestMetrics = createRequestMetrics();
 
         List<RequestHandler> handlers = createRequestHandlers();
 
@@ -339,9 +361,58 @@ public abstract class VaadinService implements Serializable {
                 && pwaRegistry.getPwaConfiguration().isEnabled()) {
             handlers.add(new PwaHandler(pwaRegistry));
         }
+        if (requestMetrics instanceof HistogramRequestMetrics
+                && !getDeploymentConfiguration().isProductionMode()) {
+            handlers.add(new RequestMetricsHandler(
+                    (HistogramRequestMetrics) requestMetrics));
+        }
         return handlers;
     }
 
+    /**
+     * Creates the request metrics to use with this service.
+     * <p>
+     * Returns <code>null</code> unless
+     * {@link DeploymentConfiguration#isRequestMetrics() request metrics} are
+     * enabled. A custom implementation is looked up using
+     * {@link ServiceLoader}, and a {@link HistogramRequestMetrics} is used if
+     * none is found.
+     *
+     * @return the request metrics to use, or <code>null</code> if request
+     *         metrics are not recorded
+     * @throws ServiceException
+     *             if there are multiple request metrics implementations
+     */
+    protected RequestMetrics createRequestMetrics() throws ServiceException {
+        if (!getDeploymentConfiguration().isRequestMetrics()) {
+            return null;
+        }
+        List<RequestMetrics> metrics = StreamSupport
+                .stream(ServiceLoader
+                        .load(RequestMetrics.class, getClassLoader())
+                        .spliterator(), false)
+                .collect(Collectors.toList());
+        if (metrics.size() > 1) {
+            throw new ServiceException(
+                    "Cannot init VaadinService because there are multiple request metrics implementations: "
+                            + metrics);
+        }
+        return metrics.isEmpty() ? new HistogramRequestMetrics()
+                : metrics.get(0);
+    }
+
+    /**
+     * Gets the request metrics used by this service.
+     *
+     * @return the request metrics, or <code>null</code> if request metrics are
+     *         not recorded or this service has not yet been initialized
+     *
+     * @see #createRequestMetrics()
+     */
+    public RequestMetrics getRequestMetrics() {
+        return requestMetrics;
+    }
+
     /**
      * Creates an instantiator to use with this service.
      * <p>
@@ -598,6 +669,17 @@ public abstract class VaadinService implements Serializable {
                 .forEach(listener -> listener.modifyBootstrapPage(response));
     }
 
+    /**
+     * Checks whether any {@link BootstrapListener} has been registered.
+     *
+     * @return <code>true</code> if bootstrap pages may be modified by
+     *         listeners, <code>false</code> otherwise
+     */
+    boolean hasBootstrapListeners() {
+        return bootstrapListeners != null
+                && bootstrapListeners.iterator().hasNext();
+    }
+
     /**
      * Handles destruction of the given session. Internally ensures proper
      * locking is done.
@@ -629,6 +711,7 @@ public abstract class VaadinService implements Serializable {
                     session.removeUI(ui);
                 });
             }
+            session.getUIPassivation().discardAll();
             SessionDestroyEvent event = new SessionDestroyEvent(
                     VaadinService.this, session);
             for (SessionDestroyListener listener : sessionDestroyListeners) {
@@ -1147,6 +1230,14 @@ public abstract class VaadinService implements Serializable {
         if (uiIdString != null && session != null) {
             int uiId = Integer.parseInt(uiIdString);
             ui = session.getUIById(uiId);
+            /*
+             * Heartbeats only update the timestamp of a passivated UI, see
+             * HeartbeatHandler
+             */
+            if (ui == null && !ServletHelper.isRequestType(request,
+                    RequestType.HEARTBEAT)) {
+                ui = session.restoreUI(uiId);
+            }
         }
 
         UI.setCurrent(ui);
@@ -1256,6 +1347,7 @@ public abstract class VaadinService implements Serializable {
         if (isSessionActive(session)) {
             closeInactiveUIs(session);
             removeClosedUIs(session);
+            passivateIdleUIs(session);
         } else {
             if (session.getState() == VaadinSessionState.OPEN) {
                 closeSession(session);
@@ -1317,6 +1409,55 @@ public abstract class VaadinService implements Serializable {
         }
     }
 
+    /**
+     * Passivates those UIs in the given session that have not received UIDL
+     * requests within the UI passivation timeout and discards passivated UIs
+     * for which the heartbeat timeout has expired.
+     *
+     * @see DeploymentConfiguration#getUIPassivationTimeout()
+     */
+    private void passivateIdleUIs(VaadinSession session) {
+        long now = System.currentTimeMillis();
+        int heartbeatTimeout = getHeartbeatTimeout();
+        if (heartbeatTimeout >= 0) {
+            session.getUIPassivation()
+                    .discardExpired(now - 1000L * heartbeatTimeout);
+        }
+
+        int timeout = getDeploymentConfiguration().getUIPassivationTimeout();
+        if (timeout < 0 || session.isUiLocking()
+                || !session.getPendingAccessQueue().isEmpty()) {
+            return;
+        }
+        final String sessionId = session.getSession().getId();
+        for (final UI ui : new ArrayList<>(session.getUIs())) {
+            if (isUIIdle(ui, now, 1000L * timeout)
+                    && !session.getUIPassivation().hasFailed(ui.getUIId())
+                    && session.passivateUI(ui)) {
+                getLogger().debug("Passivated idle UI #{} in session {}",
+                        ui.getUIId(), sessionId);
+            }
+        }
+    }
+
+    /**
+     * Checks whether the given UI can be passivated. A UI is idle if no UIDL
+     * request has been received for it within the given timeout and it has
+     * no open push connection, poll interval or pending changes. The UI of the
+     * current request is never idle.
+     */
+    private static boolean isUIIdle(UI ui, long now, long timeout) {
+        if (ui == UI.getCurrent() || ui.isClosing()
+                || ui.getPollInterval() > 0) {
+            return false;
+        }
+        UIInternals internals = ui.getInternals();
+        PushConnection pushConnection = internals.getPushConnection();
+        return now - internals.getLastRequestTimestamp() >= timeout
+                && (pushConnection == null || !pushConnection.isConnected())
+                && !internals.isDirty();
+    }
+
     /**
      * Returns the number of seconds that must pass without a valid heartbeat or
      * UIDL request being received from a UI before that UI is removed from its
@@ -1838,6 +1979,29 @@ public abstract class VaadinService implements Serializable {
         }
     }
 
+    /**
+     * Checks that the current thread doesn't hold the lock of another UI in the
+     * same session as the given UI without also holding the session lock. If
+     * two threads would lock the same two UIs in different order, they could
+     * end up waiting for each other.
+     * <p>
+     * Only relevant when {@link VaadinSession#isUiLocking() UIs are locked
+     * separately}.
+     *
+     * @param ui
+     *            the UI that is about to be locked, not <code>null</code>
+     * @throws IllegalStateException
+     *             if the current thread holds the lock of another UI in the
+     *             same session
+     */
+    public static void verifyNoOtherUILocked(UI ui) {
+        VaadinSession session = ui.getSession();
+        if (session != null && session.isOtherUILocked(ui)) {
+            throw new IllegalStateException(
+                    "Can't access a UI while another UI of the same session is locked by the same thread. This restriction is intended to help avoid deadlocks.");
+        }
+    }
+
     /**
      * Checks whether there might be some {@link VaadinSession} other than the
      * provided one for which the current thread holds a lock. This method might
@@ -1854,7 +2018,12 @@ public abstract class VaadinService implements Serializable {
         if (otherSession == null || otherSession == session) {
             return false;
         }
-        return otherSession.hasLock();
+        if (otherSession.hasLock()) {
+            return true;
+        }
+        UI ui = UI.getCurrent();
+        return ui != null && ui.getSession() == otherSession
+                && otherSession.hasUILock(ui);
     }
 
     /**
@@ -1968,32 +2137,191 @@ public abstract class VaadinService implements Serializable {
             return;
         }
 
-        FutureAccess pendingAccess;
-
         // Dump all current instances, not only the ones dumped by setCurrent
         Map<Class<?>, CurrentInstance> oldInstances = CurrentInstance
                 .getInstances();
         CurrentInstance.setCurrent(session);
         try {
-            while ((pendingAccess = session.getPendingAccessQueue()
-                    .poll()) != null) {
-                if (!pendingAccess.isCancelled()) {
-                    pendingAccess.run();
+            runAccessTasks(session.getPendingAccessQueue());
+        } finally {
+            CurrentInstance.clearAll();
+            CurrentInstance.restoreInstances(oldInstances);
+        }
+    }
+
+    /**
+     * Purges the queue of pending access invocations enqueued with
+     * {@link UI#access(Command)} for a UI that is locked separately from its
+     * session.
+     * <p>
+     * This method is automatically run by the framework at appropriate
+     * situations and is not intended to be used by application developers.
+     *
+     * @see VaadinSession#isUiLocking()
+     *
+     * @param ui
+     *            the UI to purge the queue for
+     */
+    public void runPendingAccessTasks(UI ui) {
+        assert ui.getInternals().hasLock() : "UI must be locked";
 
-                    try {
-                        pendingAccess.get();
+        if (ui.getInternals().getPendingAccessQueue().isEmpty()) {
+            return;
+        }
 
-                    } catch (Exception exception) {
-                        pendingAccess.handleError(exception);
-                    }
-                }
-            }
+        // Dump all current instances, not only the ones dumped by setCurrent
+        Map<Class<?>, CurrentInstance> oldInstances = CurrentInstance
+                .getInstances();
+        CurrentInstance.setCurrent(ui);
+        try {
+            runAccessTasks(ui.getInternals().getPendingAccessQueue());
         } finally {
             CurrentInstance.clearAll();
             CurrentInstance.restoreInstances(oldInstances);
         }
     }
 
+    private static void runAccessTasks(Queue<FutureAccess> queue) {
+        FutureAccess pendingAccess;
+        while ((pendingAccess = queue.poll()) != null) {
+            if (!pendingAccess.isCancelled()) {
+                pendingAccess.run();
+
+                try {
+                    pendingAccess.get();
+
+                } catch (Exception exception) {
+                    pendingAccess.handleError(exception);
+                }
+            }
+        }
+    }
+
+    /**
+     * Pushes pending changes of a UI that uses {@link PushMode#AUTOMATIC
+     * automatic} push when its lock is released.
+     * <p>
+     * If a positive {@link DeploymentConfiguration#getPushInterval() push
+     * interval} is configured, the push is handed over to a
+     * {@link PushScheduler} shared by all UIs of this service. Otherwise the
+     * changes are pushed immediately by the current thread.
+     * <p>
+     * This method is automatically run by the framework at appropriate
+     * situations and is not intended to be used by application developers.
+     *
+     * @param ui
+     *            the UI to push, not <code>null</code>
+     */
+    public void pushAutomatically(UI ui) {
+        int interval = getDeploymentConfiguration().getPushInterval();
+        if (interval <= 0) {
+            ui.push();
+        } else {
+            getPushScheduler().schedule(ui, interval);
+        }
+    }
+
+    private PushScheduler getPushScheduler() {
+        PushScheduler scheduler = pushScheduler;
+        if (scheduler == null) {
+            synchronized (this) {
+                scheduler = pushScheduler;
+                if (scheduler == null) {
+                    scheduler = createPushScheduler();
+                    pushScheduler = scheduler;
+                }
+            }
+        }
+        return scheduler;
+    }
+
+    /**
+     * Creates the push scheduler used for pacing automatic pushes when a
+     * positive {@link DeploymentConfiguration#getPushInterval() push interval}
+     * is configured. Called the first time a push is scheduled.
+     *
+     * @return the push scheduler to use, not <code>null</code>
+     */
+    protected PushScheduler createPushScheduler() {
+        return new PushScheduler();
+    }
+
+    /**
+     * Applies the same change to all the given UIs, for instance to show an
+     * announcement to every user. The change is run for each UI while holding
+     * the lock of its session, and the changes are pushed to UIs using
+     * automatic push mode when the lock is released.
+     * <p>
+     * Compared to calling {@link UI#access(Command)} for each UI, the lock of
+     * each session is only acquired once, different sessions are updated in
+     * parallel by a bounded pool of threads, and JavaScript invocations with
+     * only string, number or boolean parameters as well as new constants are
+     * encoded once and reused for all UIs.
+     * <p>
+     * Exceptions thrown by the change are passed to the error handler of the
+     * session. UIs that have been detached are skipped.
+     *
+     * @param uis
+     *            the UIs to change, not <code>null</code>
+     * @param change
+     *            the change to run for each UI, not <code>null</code>
+     * @return a future that is completed when the change has been applied to
+     *         all UIs
+     */
+    public CompletableFuture<Void> broadcast(Collection<UI> uis,
+            SerializableConsumer<UI> change) {
+        Objects.requireNonNull(uis, "UIs cannot be null");
+        Objects.requireNonNull(change, "Change cannot be null");
+        return getUIBroadcaster().broadcast(uis, change);
+    }
+
+    private UIBroadcaster getUIBroadcaster() {
+        UIBroadcaster broadcaster = uiBroadcaster;
+        if (broadcaster == null) {
+            synchronized (this) {
+                broadcaster = uiBroadcaster;
+                if (broadcaster == null) {
+                    broadcaster = new UIBroadcaster();
+                    uiBroadcaster = broadcaster;
+                }
+            }
+        }
+        return broadcaster;
+    }
+
+    /**
+     * Gets the directory where passivated UIs of this service are stored,
+     * creating it if necessary. The directory is deleted when the service is
+     * destroyed.
+     *
+     * @return the passivation directory, not <code>null</code>
+     * @throws IOException
+     *             if the directory could not be created
+     */
+    synchronized Path getUIPassivationDirectory() throws IOException {
+        if (uiPassivationDirectory == null) {
+            uiPassivationDirectory = Files.createTempDirectory("vaadin-ui-");
+        }
+        return uiPassivationDirectory;
+    }
+
+    private synchronized void deleteUIPassivationDirectory() {
+        if (uiPassivationDirectory == null) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files
+                .newDirectoryStream(uiPassivationDirectory)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(uiPassivationDirectory);
+        } catch (IOException e) {
+            getLogger().warn("Could not delete passivated UIs in {}",
+                    uiPassivationDirectory, e);
+        }
+        uiPassivationDirectory = null;
+    }
+
     /**
      * Adds a service destroy listener that gets notified when this service is
      * destroyed.
@@ -2027,6 +2355,13 @@ public abstract class VaadinService implements Serializable {
      */
     public void destroy() {
         htmlImportDependencyCacheClearRegistration.remove();
+        if (pushScheduler != null) {
+            pushScheduler.shutdown();
+        }
+        if (uiBroadcaster != null) {
+            uiBroadcaster.shutdown();
+        }
+        deleteUIPassivationDirectory();
 
         ServiceDestroyEvent event = new ServiceDestroyEvent(this);
         serviceDestroyListeners
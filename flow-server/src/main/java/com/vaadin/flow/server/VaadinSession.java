@@ -22,7 +22,6 @@ import java.io.Serializable;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.Locale;
@@ -30,10 +29,12 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
 
 import javax.servlet.http.HttpSession;
 import javax.servlet.http.HttpSessionBindingEvent;
@@ -78,32 +79,38 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     /**
      * Configuration for the session.
      */
-    private DeploymentConfiguration configuration;
+    private volatile DeploymentConfiguration configuration;
 
     /**
      * Default locale of the session.
      */
-    private Locale locale = Locale.getDefault();
+    private volatile Locale locale = Locale.getDefault();
 
     /**
      * Session wide error handler which is used by default if an error is left
      * unhandled.
      */
-    private ErrorHandler errorHandler = new DefaultErrorHandler();
+    private volatile ErrorHandler errorHandler = new DefaultErrorHandler();
     private LinkedList<RequestHandler> requestHandlers = new LinkedList<>();
 
     private int nextUIId = 0;
-    private Map<Integer, UI> uIs = new HashMap<>();
+    /*
+     * Concurrent since the lock checks for a UI lock iterate the UIs without
+     * holding the session lock when per-UI locking is enabled.
+     */
+    private Map<Integer, UI> uIs = new ConcurrentHashMap<>();
+
+    private final UIPassivation uiPassivation = new UIPassivation();
 
     protected WebBrowser browser = new WebBrowser();
 
-    private long cumulativeRequestDuration = 0;
+    private volatile long cumulativeRequestDuration = 0;
 
-    private long lastRequestDuration = -1;
+    private volatile long lastRequestDuration = -1;
 
     private long lastRequestTimestamp = System.currentTimeMillis();
 
-    private VaadinSessionState state = VaadinSessionState.OPEN;
+    private volatile VaadinSessionState state = VaadinSessionState.OPEN;
 
     private transient WrappedSession session;
 
@@ -193,7 +200,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return the web browser object
      */
     public WebBrowser getBrowser() {
-        checkHasLock();
+        checkHasSessionOrUILock();
         return browser;
     }
 
@@ -202,7 +209,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      *         milliseconds.
      */
     public long getCumulativeRequestDuration() {
-        checkHasLock();
+        checkHasSessionOrUILock();
         return cumulativeRequestDuration;
     }
 
@@ -224,7 +231,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      *         milliseconds.
      */
     public long getLastRequestDuration() {
-        checkHasLock();
+        checkHasSessionOrUILock();
         return lastRequestDuration;
     }
 
@@ -317,7 +324,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return the deployment configuration
      */
     public DeploymentConfiguration getConfiguration() {
-        checkHasLock();
+        checkHasSessionOrUILock();
         return configuration;
     }
 
@@ -330,7 +337,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return the locale of this session.
      */
     public Locale getLocale() {
-        checkHasLock();
+        checkHasSessionOrUILock();
         return locale;
     }
 
@@ -357,7 +364,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return the current error handler
      */
     public ErrorHandler getErrorHandler() {
-        checkHasLock();
+        checkHasSessionOrUILock();
         return errorHandler;
     }
 
@@ -501,6 +508,94 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         return l.isHeldByCurrentThread();
     }
 
+    /**
+     * Checks if the current thread has exclusive access to the given UI in
+     * this session. Holding the session lock always gives access to the UI.
+     * When UIs are locked separately, holding the lock of the UI is also
+     * enough.
+     *
+     * @see #isUiLocking()
+     *
+     * @param ui
+     *            the UI to check, not <code>null</code>
+     * @return true if the thread has exclusive access to the UI, false
+     *         otherwise
+     */
+    public boolean hasUILock(UI ui) {
+        assert ui != null : "UI cannot be null";
+        return hasLock() || (isUiLocking() && ui.getInternals().hasLock());
+    }
+
+    /**
+     * Checks if the current thread holds the session lock or the lock of any
+     * UI in this session. This is enough for reading session data that is
+     * only written while holding the session lock and that is safe to read
+     * concurrently, such as the configuration or the locale.
+     *
+     * @return true if the thread holds the session lock or a UI lock, false
+     *         otherwise
+     */
+    private boolean hasSessionOrUILock() {
+        if (hasLock()) {
+            return true;
+        }
+        if (isUiLocking()) {
+            for (UI ui : uIs.values()) {
+                if (ui.getInternals().hasLock()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the current thread holds the lock of a UI in this session other
+     * than the given UI without holding the session lock.
+     *
+     * @param ui
+     *            the UI that is about to be locked, not <code>null</code>
+     * @return <code>true</code> if another UI of this session is locked by the
+     *         current thread, <code>false</code> otherwise
+     */
+    boolean isOtherUILocked(UI ui) {
+        if (!isUiLocking() || hasLock()) {
+            return false;
+        }
+        for (UI other : uIs.values()) {
+            if (other != ui && other.getInternals().hasLock()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether each UI in this session is locked separately instead of
+     * locking the whole session when handling requests for the UI.
+     * <p>
+     * When UIs are locked separately, the session lock must always be acquired
+     * before the lock of any UI, never the other way around. This means that
+     * {@link #accessSynchronously(Command)} should not be used while holding
+     * only the lock of a UI, whereas {@link #access(Command)} can be used
+     * freely. Holding the lock of a UI gives access to that UI, see
+     * {@link #hasUILock(UI)}, but not to data owned by the session, such as
+     * attributes or the collection of UIs, which always require the session
+     * lock.
+     * <p>
+     * This method can be called without holding the session lock.
+     *
+     * @see DeploymentConfiguration#isUiLocking()
+     *
+     * @return <code>true</code> if UIs are locked separately,
+     *         <code>false</code> if the session lock is used for all UIs
+     */
+    public boolean isUiLocking() {
+        DeploymentConfiguration deploymentConfiguration = configuration;
+        return deploymentConfiguration != null
+                && deploymentConfiguration.isUiLocking();
+    }
+
     /**
      * Potentially checks whether this session is currently locked by the
      * current thread, and fails with the given message if not.
@@ -515,11 +610,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      *            and the session is not locked
      */
     public void checkHasLock(String message) {
-        if (configuration == null || configuration.isProductionMode()) {
-            assert hasLock() : message;
-        } else if (!hasLock()) {
-            throw new IllegalStateException(message);
-        }
+        checkLock(this::hasLock, message);
     }
 
     /**
@@ -535,6 +626,51 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         checkHasLock(SESSION_NOT_LOCKED_MESSAGE);
     }
 
+    /**
+     * Potentially checks whether the given UI in this session is currently
+     * locked by the current thread, and fails with a standard error message if
+     * not.
+     * <p>
+     * When production mode is enabled, the check is only done if assertions are
+     * also enabled. The check is always done when production mode is not
+     * enabled.
+     *
+     * @see #hasUILock(UI)
+     *
+     * @param ui
+     *            the UI to check, not <code>null</code>
+     */
+    public void checkHasUILock(UI ui) {
+        checkLock(() -> hasUILock(ui), SESSION_NOT_LOCKED_MESSAGE);
+    }
+
+    /**
+     * Checks that the current thread holds the session lock or the lock of
+     * some UI in this session, and fails with the given message if not.
+     *
+     * @param message
+     *            the error message to include when failing
+     */
+    void checkHasSessionOrUILock(String message) {
+        checkLock(this::hasSessionOrUILock, message);
+    }
+
+    /**
+     * Checks that the current thread holds the session lock or the lock of
+     * some UI in this session, and fails with a standard message if not.
+     */
+    void checkHasSessionOrUILock() {
+        checkHasSessionOrUILock(SESSION_NOT_LOCKED_MESSAGE);
+    }
+
+    private void checkLock(BooleanSupplier locked, String message) {
+        if (configuration == null || configuration.isProductionMode()) {
+            assert locked.getAsBoolean() : message;
+        } else if (!locked.getAsBoolean()) {
+            throw new IllegalStateException(message);
+        }
+    }
+
     /**
      * Checks if the current thread has exclusive access to the given
      * WrappedSession.
@@ -568,6 +704,72 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         uIs.remove(ui.getUIId());
     }
 
+    /**
+     * Serializes the given UI out of this session. The UI is removed from the
+     * session without being detached and can later be restored using
+     * {@link #restoreUI(int)}. Any references to the UI instance held outside
+     * the session are no longer connected to the client after this.
+     *
+     * @param ui
+     *            the UI to passivate
+     * @return <code>true</code> if the UI was passivated, <code>false</code>
+     *         if it could not be serialized and was kept in the session
+     */
+    boolean passivateUI(UI ui) {
+        checkHasLock();
+        if (!uiPassivation.passivate(this, ui)) {
+            return false;
+        }
+        uIs.remove(ui.getUIId());
+        return true;
+    }
+
+    /**
+     * Restores a UI that has been passivated using {@link #passivateUI(UI)}
+     * and adds it back to this session.
+     *
+     * @param uiId
+     *            the id of the UI to restore
+     * @return the restored UI, or <code>null</code> if no UI with the given id
+     *         has been passivated or it could not be restored
+     */
+    UI restoreUI(int uiId) {
+        checkHasLock();
+        UI ui = uiPassivation.restore(this, uiId);
+        if (ui != null) {
+            addUI(ui);
+        }
+        return ui;
+    }
+
+    /**
+     * Updates the heartbeat timestamp of a UI that has been passivated out of
+     * this session, without restoring the UI.
+     * <p>
+     * This is meant for framework internal use.
+     *
+     * @param uiId
+     *            the id of the UI
+     * @param timestamp
+     *            the time of the heartbeat in milliseconds since the epoch
+     * @return <code>true</code> if a UI with the given id is passivated,
+     *         <code>false</code> otherwise
+     */
+    public boolean setPassivatedUIHeartbeatTimestamp(int uiId,
+            long timestamp) {
+        checkHasLock();
+        return uiPassivation.setLastHeartbeatTimestamp(uiId, timestamp);
+    }
+
+    /**
+     * Gets the store of UIs passivated out of this session.
+     *
+     * @return the passivated UIs, not <code>null</code>
+     */
+    UIPassivation getUIPassivation() {
+        return uiPassivation;
+    }
+
     /**
      * Gets the {@link Lock} instance that is used for protecting the data of
      * this session from concurrent access.
@@ -655,17 +857,9 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
                 ultimateRelease = true;
                 getService().runPendingAccessTasks(this);
 
-                for (UI ui : getUIs()) {
-                    if (ui.getPushConfiguration()
-                            .getPushMode() == PushMode.AUTOMATIC) {
-                        Map<Class<?>, CurrentInstance> oldCurrent = CurrentInstance
-                                .setCurrent(ui);
-                        try {
-                            ui.push();
-                        } finally {
-                            CurrentInstance.restoreInstances(oldCurrent);
-                        }
-                    }
+                // With per-UI locking, UIs push when their own lock is released
+                if (!isUiLocking()) {
+                    pushAutomaticPushUIs();
                 }
             }
         } finally {
@@ -685,6 +879,21 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         }
     }
 
+    private void pushAutomaticPushUIs() {
+        for (UI ui : getUIs()) {
+            if (ui.getPushConfiguration()
+                    .getPushMode() == PushMode.AUTOMATIC) {
+                Map<Class<?>, CurrentInstance> oldCurrent = CurrentInstance
+                        .setCurrent(ui);
+                try {
+                    getService().pushAutomatically(ui);
+                } finally {
+                    CurrentInstance.restoreInstances(oldCurrent);
+                }
+            }
+        }
+    }
+
     /**
      * Stores a value in this service session. This can be used to associate
      * data with the current user so that it can be retrieved at a later point
@@ -832,7 +1041,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return the current state
      */
     public VaadinSessionState getState() {
-        checkHasLock();
+        checkHasSessionOrUILock();
         return state;
     }
 
@@ -973,7 +1182,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return the csrf token string
      */
     public String getCsrfToken() {
-        checkHasLock();
+        checkHasSessionOrUILock();
         return csrfToken;
     }
 
@@ -984,7 +1193,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return the push connection identifier string
      */
     public String getPushId() {
-        checkHasLock();
+        checkHasSessionOrUILock();
         return pushId;
     }
 
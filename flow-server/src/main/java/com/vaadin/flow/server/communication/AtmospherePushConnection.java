@@ -21,6 +21,8 @@ import java.io.ObjectInputStream;
 import java.io.Reader;
 import java.io.Serializable;
 import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -33,10 +35,11 @@ import org.slf4j.LoggerFactory;
 
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.internal.UsageStatistics;
+import com.vaadin.flow.server.RequestMetrics;
+import com.vaadin.flow.server.RequestMetrics.Count;
+import com.vaadin.flow.server.RequestMetrics.Phase;
 import com.vaadin.flow.shared.communication.PushConstants;
 
-import elemental.json.JsonObject;
-
 /**
  * A {@link PushConnection} implementation using the Atmosphere push support
  * that is by default included in Vaadin.
@@ -51,6 +54,7 @@ public class AtmospherePushConnection implements PushConnection {
     private transient AtmosphereResource resource;
     private transient FragmentedMessage incomingMessage;
     private transient Future<Object> outgoingMessage;
+    private transient boolean resyncPending;
 
     /**
      * Represents a message that can arrive as multiple fragments.
@@ -183,17 +187,48 @@ public class AtmospherePushConnection implements PushConnection {
      *            false if it is a response to a client request.
      */
     public void push(boolean async) {
+        push(async, false);
+    }
+
+    /**
+     * Pushes pending state changes and client RPC calls to the client,
+     * optionally resynchronizing the full UI state. If {@code isConnected()}
+     * is false, defers the push until a connection is established.
+     *
+     * @param async
+     *            True if this push asynchronously originates from the server,
+     *            false if it is a response to a client request.
+     * @param resync
+     *            True if the full state of the UI should be sent to the
+     *            client instead of only the pending changes
+     */
+    public void push(boolean async, boolean resync) {
         if (!isConnected()) {
             if (async && state != State.RESPONSE_PENDING) {
                 state = State.PUSH_PENDING;
             } else {
                 state = State.RESPONSE_PENDING;
             }
+            resyncPending |= resync;
         } else {
             try {
-                JsonObject response = new UidlWriter().createUidl(getUI(),
-                        async);
-                sendMessage("for(;;);[" + response.toJson() + "]");
+                StringWriter message = new StringWriter();
+                message.write("for(;;);[");
+                new UidlWriter().writeUidl(getUI(), async,
+                        resync || resyncPending, message);
+                message.write(']');
+                resyncPending = false;
+                String messageString = message.toString();
+                long start = System.nanoTime();
+                sendMessage(messageString);
+                RequestMetrics metrics = RequestMetrics
+                        .get(getUI().getSession());
+                if (metrics != null) {
+                    metrics.recordPhase(Phase.RESPONSE_WRITE,
+                            System.nanoTime() - start);
+                    metrics.recordCount(Count.BYTES_WRITTEN, messageString
+                            .getBytes(StandardCharsets.UTF_8).length);
+                }
             } catch (Exception e) {
                 throw new RuntimeException("Push failed", e);
             }
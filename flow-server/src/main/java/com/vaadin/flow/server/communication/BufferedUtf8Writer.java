@@ -0,0 +1,218 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * A writer which encodes characters as UTF-8 and writes them to an output
+ * stream through a fixed size buffer that is reused by all writers created on
+ * the same thread.
+ * <p>
+ * The amount of memory allocated for writing is thus independent of the amount
+ * of data written. Closing the writer flushes all pending data to the output
+ * stream but does not close the stream itself.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+final class BufferedUtf8Writer extends Writer {
+
+    static final int BUFFER_SIZE = 16 * 1024;
+
+    private static final ThreadLocal<Buffers> THREAD_BUFFERS = ThreadLocal
+            .withInitial(Buffers::new);
+
+    private static final class Buffers {
+        private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+        private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+        // Same replacement behavior as String.getBytes
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8
+                .newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private boolean inUse;
+
+        private Buffers reset() {
+            chars.clear();
+            bytes.clear();
+            encoder.reset();
+            return this;
+        }
+    }
+
+    private final OutputStream outputStream;
+    private final Buffers buffers;
+    private final boolean threadBuffers;
+    private long bytesWritten;
+    private boolean closed;
+
+    /**
+     * Creates a new writer for the given output stream.
+     *
+     * @param outputStream
+     *            the output stream to write to, not <code>null</code>
+     */
+    BufferedUtf8Writer(OutputStream outputStream) {
+        this.outputStream = Objects.requireNonNull(outputStream);
+
+        Buffers threadLocal = THREAD_BUFFERS.get();
+        if (threadLocal.inUse) {
+            // Nested writing on the same thread, don't share the buffers
+            buffers = new Buffers();
+            threadBuffers = false;
+        } else {
+            threadLocal.inUse = true;
+            buffers = threadLocal.reset();
+            threadBuffers = true;
+        }
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        ensureOpen();
+        CharBuffer chars = buffers.chars;
+        int remaining = len;
+        int offset = off;
+        while (remaining > 0) {
+            int count = Math.min(remaining, chars.remaining());
+            chars.put(cbuf, offset, count);
+            offset += count;
+            remaining -= count;
+            if (!chars.hasRemaining()) {
+                encodeChars(false);
+            }
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        ensureOpen();
+        CharBuffer chars = buffers.chars;
+        int remaining = len;
+        int offset = off;
+        while (remaining > 0) {
+            int count = Math.min(remaining, chars.remaining());
+            chars.put(str, offset, offset + count);
+            offset += count;
+            remaining -= count;
+            if (!chars.hasRemaining()) {
+                encodeChars(false);
+            }
+        }
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        ensureOpen();
+        buffers.chars.put((char) c);
+        if (!buffers.chars.hasRemaining()) {
+            encodeChars(false);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        encodeChars(false);
+        writeBytes();
+        outputStream.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            encodeChars(true);
+            while (buffers.encoder.flush(buffers.bytes).isOverflow()) {
+                writeBytes();
+            }
+            writeBytes();
+            outputStream.flush();
+        } finally {
+            closed = true;
+            if (threadBuffers) {
+                buffers.inUse = false;
+            }
+        }
+    }
+
+    /**
+     * Closes this writer without writing pending data to the output stream.
+     * Data that has already been written to the output stream, i.e. anything
+     * beyond {@link #BUFFER_SIZE} characters, is not affected.
+     */
+    void discard() {
+        if (!closed) {
+            closed = true;
+            if (threadBuffers) {
+                buffers.inUse = false;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of bytes written to the output stream so far.
+     *
+     * @return the number of bytes written
+     */
+    long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    private void encodeChars(boolean endOfInput) throws IOException {
+        CharBuffer chars = buffers.chars;
+        chars.flip();
+        while (true) {
+            CoderResult result = buffers.encoder.encode(chars, buffers.bytes,
+                    endOfInput);
+            if (result.isOverflow()) {
+                writeBytes();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        // Keeps a trailing high surrogate for the next round
+        chars.compact();
+    }
+
+    private void writeBytes() throws IOException {
+        ByteBuffer bytes = buffers.bytes;
+        if (bytes.position() > 0) {
+            outputStream.write(bytes.array(), 0, bytes.position());
+            bytesWritten += bytes.position();
+            bytes.clear();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Writer has been closed");
+        }
+    }
+}
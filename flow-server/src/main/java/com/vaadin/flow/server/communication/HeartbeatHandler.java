@@ -62,9 +62,11 @@ public class HeartbeatHandler extends SynchronizedRequestHandler
     public boolean synchronizedHandleRequest(VaadinSession session,
             VaadinRequest request, VaadinResponse response) throws IOException {
         UI ui = session.getService().findUI(request);
-        if (ui != null) {
-            ui.getInternals()
-                    .setLastHeartbeatTimestamp(System.currentTimeMillis());
+        if (ui != null || isPassivatedUI(session, request)) {
+            if (ui != null) {
+                ui.getInternals().setLastHeartbeatTimestamp(
+                        System.currentTimeMillis());
+            }
             // Ensure that the browser does not cache heartbeat responses.
             // iOS 6 Safari requires this (#10370)
             response.setHeader("Cache-Control", "no-cache");
@@ -79,6 +81,18 @@ public class HeartbeatHandler extends SynchronizedRequestHandler
         return true;
     }
 
+    /**
+     * Updates the heartbeat timestamp of the requested UI if it has been
+     * passivated. A passivated UI is not restored only because of a heartbeat.
+     */
+    private static boolean isPassivatedUI(VaadinSession session,
+            VaadinRequest request) {
+        String uiId = request
+                .getParameter(ApplicationConstants.UI_ID_PARAMETER);
+        return uiId != null && session.setPassivatedUIHeartbeatTimestamp(
+                Integer.parseInt(uiId), System.currentTimeMillis());
+    }
+
     /*
      * (non-Javadoc)
      *
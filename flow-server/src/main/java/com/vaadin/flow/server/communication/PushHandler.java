@@ -29,6 +29,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.UIInternals;
 import com.vaadin.flow.server.ErrorEvent;
 import com.vaadin.flow.server.ServletHelper;
 import com.vaadin.flow.server.SessionExpiredException;
@@ -39,6 +40,7 @@ import com.vaadin.flow.server.VaadinServletRequest;
 import com.vaadin.flow.server.VaadinServletService;
 import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.server.communication.ServerRpcHandler.InvalidUIDLSecurityKeyException;
+import com.vaadin.flow.server.communication.ServerRpcHandler.ResynchronizationRequiredException;
 import com.vaadin.flow.shared.ApplicationConstants;
 import com.vaadin.flow.shared.JsonConstants;
 import com.vaadin.flow.shared.communication.PushMode;
@@ -130,8 +132,14 @@ public class PushHandler {
         assert vaadinRequest != null;
 
         try {
-            new ServerRpcHandler().handleRpc(ui, reader, vaadinRequest);
-            connection.push(false);
+            boolean resync = false;
+            try {
+                new ServerRpcHandler().handleRpc(ui, reader, vaadinRequest);
+            } catch (ResynchronizationRequiredException e) { // NOSONAR
+                // Send the full state to the client
+                resync = true;
+            }
+            connection.push(false, resync);
         } catch (JsonException e) {
             getLogger().error("Error writing JSON to response", e);
             // Refresh on client side
@@ -205,6 +213,7 @@ public class PushHandler {
             }
 
             UI ui = null;
+            UIInternals lockedUi = null;
             session.lock();
             try {
                 ui = service.findUI(vaadinRequest);
@@ -214,6 +223,12 @@ public class PushHandler {
                     sendNotificationAndDisconnect(resource,
                             VaadinService.createUINotFoundJSON());
                 } else {
+                    if (session.isUiLocking()) {
+                        // Only keep the UI locked while running the callback
+                        ui.getInternals().lock();
+                        lockedUi = ui.getInternals();
+                        session.unlock();
+                    }
                     callback.run(resource, ui);
                 }
             } catch (final IOException e) {
@@ -242,7 +257,11 @@ public class PushHandler {
                 callErrorHandler(session, e);
             } finally {
                 try {
-                    session.unlock();
+                    if (lockedUi != null) {
+                        lockedUi.unlock();
+                    } else {
+                        session.unlock();
+                    }
                 } catch (Exception e) {
                     getLogger().warn(
                             "Error while unlocking session", e);
@@ -343,36 +362,16 @@ public class PushHandler {
                 }
             }
 
-            PushMode pushMode = ui.getPushConfiguration().getPushMode();
-            AtmospherePushConnection pushConnection = getConnectionForUI(ui);
-
-            String id = resource.uuid();
-
-            if (pushConnection == null) {
-                getLogger().warn(
-                        "Could not find push connection to close: {} with transport {}",
-                        id, resource.transport());
-            } else {
-                if (!pushMode.isEnabled()) {
-                    /*
-                     * The client is expected to close the connection after push
-                     * mode has been set to disabled.
-                     */
-                    getLogger().debug(
-                            "Connection closed for resource {}", id);
-                } else {
-                    /*
-                     * Unexpected cancel, e.g. if the user closes the browser
-                     * tab.
-                     */
-                    getLogger().debug(
-                            "Connection unexpectedly closed for resource {} with transport {}",
-                            id, resource.transport());
+            if (session.isUiLocking()) {
+                ui.getInternals().lock();
+                try {
+                    connectionLost(ui, resource);
+                } finally {
+                    ui.getInternals().unlock();
                 }
-
-                pushConnection.connectionLost();
+            } else {
+                connectionLost(ui, resource);
             }
-
         } catch (final Exception e) {
             callErrorHandler(session, e);
         } finally {
@@ -386,6 +385,38 @@ public class PushHandler {
         }
     }
 
+    private static void connectionLost(UI ui, AtmosphereResource resource) {
+        PushMode pushMode = ui.getPushConfiguration().getPushMode();
+        AtmospherePushConnection pushConnection = getConnectionForUI(ui);
+
+        String id = resource.uuid();
+
+        if (pushConnection == null) {
+            getLogger().warn(
+                    "Could not find push connection to close: {} with transport {}",
+                    id, resource.transport());
+        } else {
+            if (!pushMode.isEnabled()) {
+                /*
+                 * The client is expected to close the connection after push
+                 * mode has been set to disabled.
+                 */
+                getLogger().debug(
+                        "Connection closed for resource {}", id);
+            } else {
+                /*
+                 * Unexpected cancel, e.g. if the user closes the browser
+                 * tab.
+                 */
+                getLogger().debug(
+                        "Connection unexpectedly closed for resource {} with transport {}",
+                        id, resource.transport());
+            }
+
+            pushConnection.connectionLost();
+        }
+    }
+
     private static UI findUiUsingResource(AtmosphereResource resource,
             Collection<UI> uIs) {
         for (UI ui : uIs) {
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.Serializable;
+import java.time.Clock;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.component.internal.UIInternals;
+import com.vaadin.flow.function.DeploymentConfiguration;
+
+/**
+ * Paces automatic pushes so that each UI is pushed at most once per interval.
+ * <p>
+ * Instead of writing a push message every time the lock of a UI is released,
+ * a push is scheduled to run on a thread of a pool shared by all UIs. Changes
+ * made by all access tasks that run before the scheduled push are sent to the
+ * client in one message. A push is run immediately if the previous scheduled
+ * push of the UI was run at least one interval ago, so the latency of a change
+ * is bounded by the interval.
+ * <p>
+ * The {@link UidlFragmentCache#getCurrent() current fragment cache} of the
+ * thread that schedules a push is made current again when the push is run, so
+ * that UIs changed by a broadcast still share the encoded fragments.
+ * <p>
+ * This class is for internal use by the framework and is used when a positive
+ * {@link DeploymentConfiguration#getPushInterval() push interval} is
+ * configured.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+public class PushScheduler implements Serializable {
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final transient ScheduledExecutorService executor;
+    private final transient Clock clock;
+
+    /**
+     * Creates a new push scheduler with one thread for each available
+     * processor.
+     */
+    public PushScheduler() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new push scheduler with the given number of threads.
+     *
+     * @param threads
+     *            the number of threads used for pushing, greater than 0
+     */
+    public PushScheduler(int threads) {
+        ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(
+                threads, runnable -> {
+                    Thread thread = new Thread(runnable, "vaadin-push-"
+                            + THREAD_COUNTER.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        executor = pool;
+        clock = Clock.systemUTC();
+    }
+
+    /**
+     * Creates a new push scheduler that runs pushes using the given executor
+     * and measures the interval using the given clock.
+     *
+     * @param executor
+     *            the executor to run pushes with, not <code>null</code>
+     * @param clock
+     *            the clock to measure the push interval with, not
+     *            <code>null</code>
+     */
+    PushScheduler(ScheduledExecutorService executor, Clock clock) {
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    /**
+     * Schedules a push of the pending changes of the given UI. Does nothing if
+     * the UI has no pending changes or if a push is already scheduled for it.
+     * <p>
+     * The lock of the UI must be held when calling this method.
+     *
+     * @param ui
+     *            the UI to push, not <code>null</code>
+     * @param interval
+     *            the minimum interval in milliseconds between two scheduled
+     *            pushes of the UI
+     */
+    public void schedule(UI ui, int interval) {
+        UIInternals internals = ui.getInternals();
+        if (internals.isPushScheduled()) {
+            return;
+        }
+
+        internals.runPendingAccessTasks();
+        if (!internals.isDirty()) {
+            return;
+        }
+
+        long delay = internals.getLastScheduledPushTimestamp() + interval
+                - clock.millis();
+        UidlFragmentCache fragmentCache = UidlFragmentCache.getCurrent();
+        internals.setPushScheduled(true);
+        try {
+            executor.schedule(() -> push(ui, fragmentCache),
+                    Math.max(0, delay), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // The service is being destroyed, push directly instead
+            internals.setPushScheduled(false);
+            ui.push();
+        }
+    }
+
+    /**
+     * Stops the threads of this scheduler. Pushes that have been scheduled but
+     * not yet run are discarded.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void push(UI ui, UidlFragmentCache fragmentCache) {
+        UidlFragmentCache.setCurrent(fragmentCache);
+        try {
+            ui.accessSynchronously(() -> {
+                UIInternals internals = ui.getInternals();
+                internals.setPushScheduled(false);
+                internals.setLastScheduledPushTimestamp(clock.millis());
+                if (ui.getPushConfiguration().getPushMode().isEnabled()) {
+                    ui.push();
+                }
+            });
+        } catch (UIDetachedException e) {
+            getLogger().debug("Skipping scheduled push for a detached UI", e);
+        } catch (RuntimeException e) {
+            getLogger().error("Scheduled push failed", e);
+        } finally {
+            UidlFragmentCache.setCurrent(null);
+        }
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(PushScheduler.class.getName());
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.IOException;
+
+import com.vaadin.flow.server.HistogramRequestMetrics;
+import com.vaadin.flow.server.RequestHandler;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinResponse;
+import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.shared.ApplicationConstants;
+
+/**
+ * Serves a JSON summary of the request metrics recorded by a
+ * {@link HistogramRequestMetrics}. The summary is requested by setting the
+ * {@link ApplicationConstants#REQUEST_TYPE_PARAMETER} parameter to
+ * {@value #REQUEST_TYPE}, e.g. <code>?v-r=metrics</code>.
+ * <p>
+ * The handler is only used when request metrics are enabled and the
+ * application is not in production mode.
+ *
+ * @see com.vaadin.flow.function.DeploymentConfiguration#isRequestMetrics()
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+public class RequestMetricsHandler implements RequestHandler {
+
+    /**
+     * The request type of metrics requests.
+     */
+    public static final String REQUEST_TYPE = "metrics";
+
+    private final HistogramRequestMetrics metrics;
+
+    /**
+     * Creates a handler serving the given metrics.
+     *
+     * @param metrics
+     *            the metrics to serve, not <code>null</code>
+     */
+    public RequestMetricsHandler(HistogramRequestMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean handleRequest(VaadinSession session, VaadinRequest request,
+            VaadinResponse response) throws IOException {
+        if (!REQUEST_TYPE.equals(request
+                .getParameter(ApplicationConstants.REQUEST_TYPE_PARAMETER))) {
+            return false;
+        }
+        UidlRequestHandler.commitJsonResponse(response,
+                metrics.toJson().toJson());
+        return true;
+    }
+}
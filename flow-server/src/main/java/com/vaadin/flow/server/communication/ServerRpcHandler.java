@@ -36,8 +36,11 @@ import org.slf4j.LoggerFactory;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.internal.MessageDigestUtil;
 import com.vaadin.flow.server.ErrorEvent;
+import com.vaadin.flow.server.RequestMetrics;
+import com.vaadin.flow.server.RequestMetrics.Phase;
 import com.vaadin.flow.server.VaadinRequest;
 import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.server.communication.rpc.AttachExistingElementRpcHandler;
 import com.vaadin.flow.server.communication.rpc.AttachTemplateChildRpcHandler;
 import com.vaadin.flow.server.communication.rpc.EventRpcHandler;
@@ -216,6 +219,24 @@ public class ServerRpcHandler implements Serializable {
         }
     }
 
+    /**
+     * Exception thrown when the client side state is out of sync with the
+     * server and the client needs to be sent the full state of the UI.
+     *
+     * @author Vaadin Ltd
+     * @since 1.2
+     */
+    public static class ResynchronizationRequiredException
+            extends RuntimeException {
+
+        /**
+         * Default constructor for the exception.
+         */
+        public ResynchronizationRequiredException() {
+            super();
+        }
+    }
+
     /**
      * Reads JSON containing zero or more serialized RPC calls (including legacy
      * variable changes) and executes the calls.
@@ -231,10 +252,26 @@ public class ServerRpcHandler implements Serializable {
      * @throws InvalidUIDLSecurityKeyException
      *             If the received security key does not match the one stored in
      *             the session.
+     * @throws ResynchronizationRequiredException
+     *             If the client requested resynchronization or the message id
+     *             was unexpected, in which case the full UI state should be
+     *             sent to the client.
      */
     public void handleRpc(UI ui, Reader reader, VaadinRequest request)
             throws IOException, InvalidUIDLSecurityKeyException {
-        ui.getSession().setLastRequestTimestamp(System.currentTimeMillis());
+        long now = System.currentTimeMillis();
+        VaadinSession session = ui.getSession();
+        if (session.hasLock()) {
+            session.setLastRequestTimestamp(now);
+        } else {
+            // Only the UI is locked, update the session when it's available
+            session.access(() -> session.setLastRequestTimestamp(
+                    Math.max(now, session.getLastRequestTimestamp())));
+        }
+        ui.getInternals().setLastRequestTimestamp(now);
+
+        RequestMetrics metrics = RequestMetrics.get(ui.getSession());
+        long decodeStart = System.nanoTime();
 
         String changeMessage = getMessage(reader);
 
@@ -244,6 +281,10 @@ public class ServerRpcHandler implements Serializable {
         }
 
         RpcRequest rpcRequest = new RpcRequest(changeMessage, request);
+        if (metrics != null) {
+            metrics.recordPhase(Phase.RPC_DECODE,
+                    System.nanoTime() - decodeStart);
+        }
 
         // Security: double cookie submission pattern unless disabled by
         // property
@@ -287,32 +328,34 @@ public class ServerRpcHandler implements Serializable {
             }
 
             /*
-             * If the reason for ending up here is intermittent, then we should
-             * just issue a full resync since we cannot know the state of the
-             * client engine.
-             *
-             * There are reasons to believe that there are deterministic issues
-             * that trigger this condition, and we'd like to collect more data
-             * to uncover anything such before actually implementing the resync
-             * that would thus hide most symptoms of the actual root cause bugs.
+             * We cannot know the state of the client engine, so the RPCs are
+             * ignored and the client is fully resynchronized instead.
              */
-            String messageStart = changeMessage;
-            if (messageStart.length() > 1000) {
-                messageStart = messageStart.substring(0, 1000);
+            if (getLogger().isWarnEnabled()) {
+                String messageStart = changeMessage;
+                if (messageStart.length() > 1000) {
+                    messageStart = messageStart.substring(0, 1000);
+                }
+                getLogger().warn(
+                        "{} Expected sync id: {}, got {}. Resynchronizing the client. Message start: {}",
+                        message, expectedId, requestId, messageStart);
             }
-            throw new UnsupportedOperationException(
-                    message + " Expected sync id: " + expectedId + ", got "
-                            + requestId + ". Message start: " + messageStart);
+            throw new ResynchronizationRequiredException();
         } else {
             // Message id ok, process RPCs
             ui.getInternals().setLastProcessedClientToServerId(expectedId,
                     messageHash);
+            long executionStart = System.nanoTime();
             handleInvocations(ui, rpcRequest.getRpcInvocationsData());
+            if (metrics != null) {
+                metrics.recordPhase(Phase.LISTENER_EXECUTION,
+                        System.nanoTime() - executionStart);
+            }
         }
 
         if (rpcRequest.isResynchronize()) {
-            // FIXME Implement
-            throw new UnsupportedOperationException("FIXME: Implement resync");
+            getLogger().debug("Resynchronizing the client by its request");
+            throw new ResynchronizationRequiredException();
         }
 
     }
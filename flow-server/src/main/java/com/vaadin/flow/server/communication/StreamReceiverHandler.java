@@ -23,6 +23,11 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.Serializable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.fileupload.FileItemIterator;
 import org.apache.commons.fileupload.FileItemStream;
@@ -32,7 +37,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.internal.StateNode;
+import com.vaadin.flow.server.Command;
 import com.vaadin.flow.server.ErrorEvent;
 import com.vaadin.flow.server.NoInputStreamException;
 import com.vaadin.flow.server.NoOutputStreamException;
@@ -60,7 +68,21 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  */
 public class StreamReceiverHandler implements Serializable {
 
-    private static final int MAX_UPLOAD_BUFFER_SIZE = 4 * 1024;
+    private static final int UPLOAD_BUFFER_SIZE = 64 * 1024;
+
+    private static final int MAX_POOLED_BUFFERS = 32;
+
+    private static final int SC_TOO_MANY_REQUESTS = 429;
+
+    private static final String ACTIVE_UPLOADS_ATTRIBUTE = StreamReceiverHandler.class
+            .getName() + ".activeUploads";
+
+    /*
+     * Upload buffers are reused between requests so that concurrent large
+     * uploads do not allocate a new buffer for each request.
+     */
+    private static final BlockingQueue<byte[]> BUFFER_POOL = new ArrayBlockingQueue<>(
+            MAX_POOLED_BUFFERS);
 
     /* Minimum interval which will be used for streaming progress events. */
     public static final int DEFAULT_STREAMING_PROGRESS_EVENT_INTERVAL_MS = 500;
@@ -107,6 +129,8 @@ public class StreamReceiverHandler implements Serializable {
             VaadinResponse response, StreamReceiver streamReceiver, String uiId,
             String securityKey) throws IOException {
         StateNode source;
+        int maxConcurrentUploads;
+        AtomicInteger activeUploads = null;
 
         session.lock();
         try {
@@ -122,10 +146,26 @@ public class StreamReceiverHandler implements Serializable {
 
             source = streamReceiver.getNode();
 
+            maxConcurrentUploads = getMaxConcurrentUploads(session);
+            if (maxConcurrentUploads > 0) {
+                activeUploads = getActiveUploads(session);
+            }
         } finally {
             session.unlock();
         }
 
+        if (activeUploads != null
+                && activeUploads.incrementAndGet() > maxConcurrentUploads) {
+            activeUploads.decrementAndGet();
+            UI.setCurrent(null);
+            getLogger().warn(
+                    "Rejected upload because the session already has {} concurrent uploads",
+                    maxConcurrentUploads);
+            response.sendError(SC_TOO_MANY_REQUESTS,
+                    "Too many concurrent uploads");
+            return;
+        }
+
         try {
             if (ServletFileUpload
                     .isMultipartContent((HttpServletRequest) request)) {
@@ -138,10 +178,29 @@ public class StreamReceiverHandler implements Serializable {
                         source, getContentLength(request));
             }
         } finally {
+            if (activeUploads != null) {
+                activeUploads.decrementAndGet();
+            }
             UI.setCurrent(null);
         }
     }
 
+    private static int getMaxConcurrentUploads(VaadinSession session) {
+        DeploymentConfiguration configuration = session.getConfiguration();
+        return configuration == null ? 0
+                : configuration.getMaxConcurrentUploads();
+    }
+
+    private static AtomicInteger getActiveUploads(VaadinSession session) {
+        AtomicInteger activeUploads = (AtomicInteger) session
+                .getAttribute(ACTIVE_UPLOADS_ATTRIBUTE);
+        if (activeUploads == null) {
+            activeUploads = new AtomicInteger();
+            session.setAttribute(ACTIVE_UPLOADS_ATTRIBUTE, activeUploads);
+        }
+        return activeUploads;
+    }
+
     /**
      * Method used to stream content from a multipart request to given
      * StreamVariable.
@@ -350,6 +409,8 @@ public class StreamReceiverHandler implements Serializable {
         long totalBytes = 0;
         StreamingStartEventImpl startedEvent = new StreamingStartEventImpl(
                 filename, type, contentLength);
+        byte[] buffer = null;
+        ProgressDispatcher progress = null;
         try {
             boolean listenProgress;
             session.lock();
@@ -371,22 +432,21 @@ public class StreamReceiverHandler implements Serializable {
                 throw new NoInputStreamException();
             }
 
-            final byte[] buffer = new byte[MAX_UPLOAD_BUFFER_SIZE];
-            long lastStreamingEvent = 0;
+            if (listenProgress) {
+                progress = new ProgressDispatcher(session, UI.getCurrent(),
+                        streamVariable, filename, type, contentLength);
+            }
+
+            buffer = acquireBuffer();
             int bytesReadToBuffer;
             do {
                 bytesReadToBuffer = in.read(buffer);
                 if (bytesReadToBuffer > 0) {
                     out.write(buffer, 0, bytesReadToBuffer);
                     totalBytes += bytesReadToBuffer;
-                }
-                if (listenProgress) {
-                    StreamingProgressEventImpl progressEvent = new StreamingProgressEventImpl(
-                            filename, type, contentLength, totalBytes);
-
-                    lastStreamingEvent = updateProgress(session, streamVariable,
-                            progressEvent, lastStreamingEvent,
-                            bytesReadToBuffer);
+                    if (progress != null) {
+                        progress.update(totalBytes);
+                    }
                 }
                 if (streamVariable.isInterrupted()) {
                     throw new UploadInterruptedException();
@@ -399,6 +459,9 @@ public class StreamReceiverHandler implements Serializable {
                     filename, type, totalBytes);
             session.lock();
             try {
+                if (progress != null) {
+                    progress.finish(totalBytes);
+                }
                 streamVariable.streamingFinished(event);
             } finally {
                 session.unlock();
@@ -411,6 +474,7 @@ public class StreamReceiverHandler implements Serializable {
                     filename, type, contentLength, totalBytes, e);
             session.lock();
             try {
+                cancelProgress(progress);
                 streamVariable.streamingFailed(event);
             } finally {
                 session.unlock();
@@ -421,6 +485,7 @@ public class StreamReceiverHandler implements Serializable {
             tryToCloseStream(out);
             session.lock();
             try {
+                cancelProgress(progress);
                 StreamVariable.StreamingErrorEvent event = new StreamingErrorEventImpl(
                         filename, type, contentLength, totalBytes, e);
                 streamVariable.streamingFailed(event);
@@ -430,27 +495,123 @@ public class StreamReceiverHandler implements Serializable {
             } finally {
                 session.unlock();
             }
+        } finally {
+            releaseBuffer(buffer);
         }
         return startedEvent.isDisposed();
     }
 
-    private long updateProgress(VaadinSession session,
-            StreamVariable streamVariable,
-            StreamingProgressEventImpl progressEvent, long lastStreamingEvent,
-            int bytesReadToBuffer) {
-        long now = System.currentTimeMillis();
-        // to avoid excessive session locking and event storms,
-        // events are sent in intervals, or at the end of the file.
-        if (lastStreamingEvent + getProgressEventInterval() <= now
-                || bytesReadToBuffer <= 0) {
-            session.lock();
-            try {
-                streamVariable.onProgress(progressEvent);
-            } finally {
-                session.unlock();
+    private static void cancelProgress(ProgressDispatcher progress) {
+        if (progress != null) {
+            progress.cancel();
+        }
+    }
+
+    private static byte[] acquireBuffer() {
+        byte[] buffer = BUFFER_POOL.poll();
+        return buffer != null ? buffer : new byte[UPLOAD_BUFFER_SIZE];
+    }
+
+    private static void releaseBuffer(byte[] buffer) {
+        if (buffer != null) {
+            BUFFER_POOL.offer(buffer);
+        }
+    }
+
+    /**
+     * Coalesces progress updates of one upload and delivers them to the stream
+     * variable without blocking the thread that receives the upload.
+     * <p>
+     * Progress is dispatched at most once per
+     * {@link StreamReceiverHandler#getProgressEventInterval()} and only if the
+     * previous update has been delivered. The delivered event contains the
+     * number of bytes received at the time of delivery. Updates are delivered
+     * through {@link UI#access(Command)} so that the receiving thread never
+     * waits for the session lock.
+     */
+    private class ProgressDispatcher implements Serializable {
+        private final VaadinSession session;
+        private final UI ui;
+        private final StreamVariable streamVariable;
+        private final String filename;
+        private final String type;
+        private final long contentLength;
+
+        private final AtomicLong bytesReceived = new AtomicLong();
+        private final AtomicBoolean pending = new AtomicBoolean();
+        // Only accessed with the session locked
+        private boolean done;
+        // Only accessed by the receiving thread
+        private long lastDispatch;
+
+        private ProgressDispatcher(VaadinSession session, UI ui,
+                StreamVariable streamVariable, String filename, String type,
+                long contentLength) {
+            this.session = session;
+            this.ui = ui;
+            this.streamVariable = streamVariable;
+            this.filename = filename;
+            this.type = type;
+            this.contentLength = contentLength;
+        }
+
+        /**
+         * Records the number of received bytes and schedules a progress event
+         * if it is time for one.
+         *
+         * @param totalBytes
+         *            the number of bytes received so far
+         */
+        private void update(long totalBytes) {
+            bytesReceived.set(totalBytes);
+            long now = System.currentTimeMillis();
+            if (now - lastDispatch < getProgressEventInterval()
+                    || !pending.compareAndSet(false, true)) {
+                return;
             }
+            lastDispatch = now;
+            Command command = () -> {
+                pending.set(false);
+                if (!done) {
+                    fireProgress(bytesReceived.get());
+                }
+            };
+            if (ui == null) {
+                session.access(command);
+            } else {
+                try {
+                    ui.access(command);
+                } catch (UIDetachedException e) {
+                    getLogger().debug(
+                            "Not sending upload progress to a detached UI", e);
+                }
+            }
+        }
+
+        /**
+         * Fires the final progress event. Must be called with the session
+         * locked.
+         *
+         * @param totalBytes
+         *            the total number of received bytes
+         */
+        private void finish(long totalBytes) {
+            done = true;
+            fireProgress(totalBytes);
+        }
+
+        /**
+         * Prevents any pending progress events from being fired. Must be
+         * called with the session locked.
+         */
+        private void cancel() {
+            done = true;
+        }
+
+        private void fireProgress(long totalBytes) {
+            streamVariable.onProgress(new StreamingProgressEventImpl(filename,
+                    type, contentLength, totalBytes));
         }
-        return now;
     }
 
     /**
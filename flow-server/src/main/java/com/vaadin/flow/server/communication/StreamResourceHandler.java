@@ -16,6 +16,10 @@
 package com.vaadin.flow.server.communication;
 
 import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.vaadin.flow.server.StreamResource;
 import com.vaadin.flow.server.StreamResourceWriter;
@@ -27,6 +31,7 @@ import com.vaadin.flow.server.VaadinSession;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.util.stream.Stream;
 
 /**
  * Handles {@link StreamResource} instances registered in {@link VaadinSession}.
@@ -37,6 +42,8 @@ import java.io.Serializable;
  */
 public class StreamResourceHandler implements Serializable {
 
+    private static final String BYTES_UNIT = "bytes=";
+
     /**
      * Handle sending for a stream resource request.
      * 
@@ -57,6 +64,9 @@ public class StreamResourceHandler implements Serializable {
             throws IOException {
 
         StreamResourceWriter writer;
+        long length;
+        long lastModified;
+        String entityTag;
         session.lock();
         try {
             ServletContext context = ((VaadinServletRequest) request)
@@ -69,12 +79,162 @@ public class StreamResourceHandler implements Serializable {
                 throw new IOException(
                         "Stream resource produces null input stream");
             }
+            length = streamResource.getLength();
+            lastModified = streamResource.getLastModified();
+            entityTag = streamResource.getEntityTag();
         } finally {
             session.unlock();
         }
+
+        if (lastModified >= 0) {
+            // HTTP dates have a precision of one second
+            lastModified -= lastModified % 1000;
+            response.setDateHeader("Last-Modified", lastModified);
+        }
+        if (entityTag != null) {
+            response.setHeader("ETag", entityTag);
+        }
+        if (isNotModified(request, entityTag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long[] range = null;
+        if (length >= 0) {
+            response.setHeader("Accept-Ranges", "bytes");
+            String rangeHeader = request.getHeader("Range");
+            if (rangeHeader != null && "GET".equals(request.getMethod())
+                    && isIfRangeSatisfied(request, entityTag, lastModified)) {
+                range = parseRange(rangeHeader, length);
+            }
+            if (range != null && range.length == 0) {
+                response.setStatus(
+                        HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader("Content-Range", "bytes */" + length);
+                return;
+            }
+            if (range != null) {
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader("Content-Range", "bytes " + range[0] + "-"
+                        + range[1] + "/" + length);
+                response.setHeader("Content-Length",
+                        String.valueOf(range[1] - range[0] + 1));
+            } else {
+                response.setHeader("Content-Length", String.valueOf(length));
+            }
+        }
+
         try (OutputStream outputStream = response.getOutputStream()) {
-            writer.accept(outputStream, session);
+            if (range == null) {
+                writer.accept(outputStream, session);
+            } else {
+                writer.acceptRange(outputStream, session, range[0],
+                        range[1] - range[0] + 1);
+            }
+        }
+    }
+
+    private static boolean isNotModified(VaadinRequest request,
+            String entityTag, long lastModified) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            // If-None-Match takes precedence over If-Modified-Since
+            return entityTag != null
+                    && Stream.of(ifNoneMatch.split(",")).map(String::trim)
+                            .anyMatch(tag -> "*".equals(tag)
+                                    || weakTag(tag).equals(weakTag(entityTag)));
+        }
+        if (lastModified < 0) {
+            return false;
+        }
+        try {
+            return request.getDateHeader("If-Modified-Since") >= lastModified;
+        } catch (IllegalArgumentException e) {
+            getLogger().trace("Unable to parse If-Modified-Since", e);
+            return false;
+        }
+    }
+
+    private static boolean isIfRangeSatisfied(VaadinRequest request,
+            String entityTag, long lastModified) {
+        String ifRange = request.getHeader("If-Range");
+        if (ifRange == null) {
+            return true;
+        }
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // Weak tags are never good enough for combining ranges
+            return entityTag != null && !entityTag.startsWith("W/")
+                    && ifRange.equals(entityTag);
+        }
+        try {
+            return lastModified >= 0
+                    && request.getDateHeader("If-Range") == lastModified;
+        } catch (IllegalArgumentException e) {
+            getLogger().trace("Unable to parse If-Range", e);
+            return false;
+        }
+    }
+
+    private static String weakTag(String entityTag) {
+        return entityTag.startsWith("W/") ? entityTag.substring(2) : entityTag;
+    }
+
+    /**
+     * Parses a byte range header.
+     *
+     * @param header
+     *            the range header value
+     * @param length
+     *            the length of the resource
+     * @return the first and the last byte index of the range, an empty array
+     *         if the range cannot be satisfied, or <code>null</code> if the
+     *         header should be ignored
+     */
+    private static long[] parseRange(String header, long length) {
+        if (!header.startsWith(BYTES_UNIT)) {
+            return null;
+        }
+        String spec = header.substring(BYTES_UNIT.length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0 || spec.indexOf(',') >= 0) {
+            // Multiple ranges are answered with the whole resource
+            return null;
+        }
+        String first = spec.substring(0, dash).trim();
+        String last = spec.substring(dash + 1).trim();
+        try {
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                long suffixLength = Long.parseLong(last);
+                if (suffixLength < 0) {
+                    return null;
+                } else if (suffixLength == 0) {
+                    return new long[0];
+                }
+                start = Math.max(0, length - suffixLength);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+                if (start < 0 || end < start) {
+                    return null;
+                }
+                end = Math.min(end, length - 1);
+            }
+            if (start >= length) {
+                return new long[0];
+            }
+            return new long[] { start, end };
+        } catch (NumberFormatException e) {
+            getLogger().trace("Unable to parse range {}", header, e);
+            return null;
         }
     }
 
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(StreamResourceHandler.class.getName());
+    }
+
 }
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.server.ErrorEvent;
+import com.vaadin.flow.server.VaadinSession;
+
+/**
+ * Applies the same change to many UIs and pushes the results.
+ * <p>
+ * The UIs are grouped by session and each session is handled as one task on a
+ * thread of a bounded pool, so sessions are updated in parallel while the lock
+ * of each session is only acquired once. All tasks of a broadcast share a
+ * {@link UidlFragmentCache}, so that JavaScript invocations and constants that
+ * are the same for all UIs are only encoded once. The cache is also used by
+ * pushes that are deferred by a {@link PushScheduler}.
+ * <p>
+ * This class is for internal use by the framework. Use
+ * {@link com.vaadin.flow.server.VaadinService#broadcast(Collection, SerializableConsumer)}
+ * to broadcast changes.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+public class UIBroadcaster implements Serializable {
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final transient ThreadPoolExecutor executor;
+
+    /**
+     * Creates a new broadcaster with one thread for each available processor.
+     */
+    public UIBroadcaster() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new broadcaster with the given number of threads.
+     *
+     * @param threads
+     *            the maximum number of sessions updated in parallel, greater
+     *            than 0
+     */
+    public UIBroadcaster(int threads) {
+        executor = new ThreadPoolExecutor(threads, threads, 60,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "vaadin-broadcast-"
+                            + THREAD_COUNTER.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Runs the given change for each of the given UIs while holding the lock
+     * of the UI's session, and pushes the changes to UIs using automatic push
+     * mode when the lock is released. UIs using manual push mode should be
+     * pushed by the change. UIs that have been detached are skipped.
+     * <p>
+     * Exceptions thrown by the change are passed to the error handler of the
+     * session and do not prevent the change from being applied to the other
+     * UIs.
+     *
+     * @param uis
+     *            the UIs to change, not <code>null</code>
+     * @param change
+     *            the change to run for each UI, not <code>null</code>
+     * @return a future that is completed when the change has been applied to
+     *         all UIs
+     */
+    public CompletableFuture<Void> broadcast(Collection<UI> uis,
+            SerializableConsumer<UI> change) {
+        Map<VaadinSession, List<UI>> uisBySession = new LinkedHashMap<>();
+        for (UI ui : uis) {
+            VaadinSession session = ui.getSession();
+            if (session != null) {
+                uisBySession.computeIfAbsent(session, s -> new ArrayList<>())
+                        .add(ui);
+            }
+        }
+
+        UidlFragmentCache fragmentCache = new UidlFragmentCache();
+        return CompletableFuture.allOf(uisBySession.entrySet().stream()
+                .map(entry -> CompletableFuture.runAsync(
+                        () -> apply(entry.getKey(), entry.getValue(), change,
+                                fragmentCache),
+                        executor))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Stops the threads of this broadcaster. Sessions that have not yet been
+     * updated are skipped.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static void apply(VaadinSession session, List<UI> uis,
+            SerializableConsumer<UI> change, UidlFragmentCache fragmentCache) {
+        UidlFragmentCache.setCurrent(fragmentCache);
+        try {
+            session.lock();
+            try {
+                for (UI ui : uis) {
+                    apply(session, ui, change);
+                }
+            } finally {
+                // Pushes the changes
+                session.unlock();
+            }
+        } finally {
+            UidlFragmentCache.setCurrent(null);
+        }
+    }
+
+    private static void apply(VaadinSession session, UI ui,
+            SerializableConsumer<UI> change) {
+        try {
+            ui.accessSynchronously(() -> change.accept(ui));
+        } catch (UIDetachedException e) {
+            getLogger().debug("Skipping broadcast to a detached UI", e);
+        } catch (RuntimeException e) {
+            session.getErrorHandler().error(new ErrorEvent(e));
+        }
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(UIBroadcaster.class.getName());
+    }
+}
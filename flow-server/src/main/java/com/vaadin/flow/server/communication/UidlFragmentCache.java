@@ -0,0 +1,118 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.vaadin.flow.component.internal.UIInternals.JavaScriptInvocation;
+import com.vaadin.flow.internal.CurrentInstance;
+
+import elemental.json.JsonValue;
+
+/**
+ * Caches the encoded JSON of UIDL message fragments that are identical for
+ * all recipients, so that a message sent to many UIs only encodes them once.
+ * <p>
+ * Fragments that can be shared are JavaScript invocations whose parameters
+ * are all strings, numbers or booleans, and constants from the constant pool,
+ * which are identified by a hash of their content. Invocations with other
+ * parameters, such as elements, are encoded separately for each UI since the
+ * encoding depends on the state tree of the UI.
+ * <p>
+ * A cache is used when writing UIDL messages while it is set as the current
+ * instance using {@link #setCurrent(UidlFragmentCache)}. Instances are thread
+ * safe.
+ *
+ * @see com.vaadin.flow.server.VaadinService#broadcast(java.util.Collection,
+ *      com.vaadin.flow.function.SerializableConsumer)
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+public final class UidlFragmentCache implements Serializable {
+
+    private final Map<List<Object>, String> invocations = new ConcurrentHashMap<>();
+
+    private final Map<String, String> constants = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the cache for the current thread.
+     *
+     * @return the current cache, or <code>null</code> if fragments are not
+     *         cached
+     */
+    public static UidlFragmentCache getCurrent() {
+        return CurrentInstance.get(UidlFragmentCache.class);
+    }
+
+    /**
+     * Sets the cache for the current thread.
+     *
+     * @param cache
+     *            the cache to use, or <code>null</code> to stop caching
+     *            fragments
+     */
+    public static void setCurrent(UidlFragmentCache cache) {
+        CurrentInstance.set(UidlFragmentCache.class, cache);
+    }
+
+    /**
+     * Gets the encoded JSON of a JavaScript invocation.
+     *
+     * @param invocation
+     *            the invocation to encode
+     * @return the JSON of the encoded invocation
+     */
+    String getInvocationJson(JavaScriptInvocation invocation) {
+        List<Object> key = getKey(invocation);
+        if (key == null) {
+            return UidlWriter.encodeExecuteJavaScript(invocation).toJson();
+        }
+        return invocations.computeIfAbsent(key,
+                k -> UidlWriter.encodeExecuteJavaScript(invocation).toJson());
+    }
+
+    /**
+     * Gets the JSON of a constant from the constant pool.
+     *
+     * @param id
+     *            the id of the constant
+     * @param value
+     *            the value of the constant
+     * @return the JSON of the constant value
+     */
+    String getConstantJson(String id, JsonValue value) {
+        return constants.computeIfAbsent(id, k -> value.toJson());
+    }
+
+    private static List<Object> getKey(JavaScriptInvocation invocation) {
+        List<Object> parameters = invocation.getParameters();
+        List<Object> key = new ArrayList<>(parameters.size() + 1);
+        key.add(invocation.getExpression());
+        for (Object parameter : parameters) {
+            if (!(parameter instanceof String || parameter instanceof Number
+                    || parameter instanceof Boolean)) {
+                return null;
+            }
+            key.add(parameter);
+        }
+        return key;
+    }
+}
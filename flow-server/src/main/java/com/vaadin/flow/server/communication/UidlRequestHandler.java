@@ -27,6 +27,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.RequestMetrics;
+import com.vaadin.flow.server.RequestMetrics.Count;
+import com.vaadin.flow.server.RequestMetrics.Phase;
 import com.vaadin.flow.server.ServletHelper;
 import com.vaadin.flow.server.ServletHelper.RequestType;
 import com.vaadin.flow.server.SessionExpiredHandler;
@@ -36,6 +39,7 @@ import com.vaadin.flow.server.VaadinResponse;
 import com.vaadin.flow.server.VaadinService;
 import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.server.communication.ServerRpcHandler.InvalidUIDLSecurityKeyException;
+import com.vaadin.flow.server.communication.ServerRpcHandler.ResynchronizationRequiredException;
 import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.JsonException;
@@ -72,6 +76,49 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
         return new ServerRpcHandler();
     }
 
+    @Override
+    public boolean handleRequest(VaadinSession session, VaadinRequest request,
+            VaadinResponse response) throws IOException {
+        if (!session.isUiLocking() || !canHandleRequest(request)) {
+            return super.handleRequest(session, request, response);
+        }
+
+        /*
+         * The session is only locked while finding the UI. The UI lock is
+         * acquired before releasing the session lock so that the UI cannot be
+         * detached in between.
+         */
+        UI uI;
+        ServerRpcHandler handler;
+        long lockStart = System.nanoTime();
+        session.lock();
+        try {
+            RequestMetrics metrics = RequestMetrics.get(session);
+            if (metrics != null) {
+                metrics.recordPhase(Phase.SESSION_LOCK_WAIT,
+                        System.nanoTime() - lockStart);
+            }
+            handler = getRpcHandler(session);
+            uI = session.getService().findUI(request);
+            if (uI != null) {
+                uI.getInternals().lock();
+            }
+        } finally {
+            session.unlock();
+        }
+
+        if (uI == null) {
+            commitJsonResponse(response, VaadinService.createUINotFoundJSON());
+            return true;
+        }
+
+        try {
+            return handleUidl(session, handler, uI, request, response);
+        } finally {
+            uI.getInternals().unlock();
+        }
+    }
+
     @Override
     public boolean synchronizedHandleRequest(VaadinSession session,
             VaadinRequest request, VaadinResponse response) throws IOException {
@@ -83,12 +130,30 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
             return true;
         }
 
+        return handleUidl(session, getRpcHandler(session), uI, request,
+                response);
+    }
+
+    private boolean handleUidl(VaadinSession session,
+            ServerRpcHandler handler, UI uI, VaadinRequest request,
+            VaadinResponse response) throws IOException {
+        boolean streaming = session.getConfiguration().isStreamingUidl();
+        boolean resync = false;
         StringWriter stringWriter = new StringWriter();
 
         try {
-            getRpcHandler(session).handleRpc(uI, request.getReader(), request);
+            try {
+                handler.handleRpc(uI, request.getReader(), request);
+            } catch (ResynchronizationRequiredException e) { // NOSONAR
+                // Send the full state to the client
+                resync = true;
+            }
 
-            writeUidl(uI, stringWriter);
+            if (streaming) {
+                streamUidl(uI, response, resync);
+                return true;
+            }
+            writeUidl(uI, stringWriter, resync);
         } catch (JsonException e) {
             getLogger().error("Error writing JSON to response", e);
             // Refresh on client side
@@ -115,14 +180,64 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
         commitJsonResponse(response, json);
     }
 
-    private static void writeUidl(UI ui, Writer writer) throws IOException {
-        JsonObject uidl = new UidlWriter().createUidl(ui, false);
+    private static void writeUidl(UI ui, Writer writer, boolean resync)
+            throws IOException {
+        JsonObject uidl = new UidlWriter().createUidl(ui, false, resync);
 
+        long serializeStart = System.nanoTime();
         // some dirt to prevent cross site scripting
         String responseString = "for(;;);[" + uidl.toJson() + "]";
+        RequestMetrics metrics = RequestMetrics.get(ui.getSession());
+        if (metrics != null) {
+            metrics.recordPhase(Phase.MESSAGE_SERIALIZE,
+                    System.nanoTime() - serializeStart);
+        }
         writer.write(responseString);
     }
 
+    /**
+     * Writes the UIDL response directly to the response output stream. The
+     * content length is not known in advance, so the response is sent without
+     * it.
+     */
+    private static void streamUidl(UI ui, VaadinResponse response,
+            boolean resync) throws IOException {
+        response.setContentType(JsonConstants.JSON_CONTENT_TYPE);
+
+        // Ensure that the browser does not cache UIDL responses.
+        // iOS 6 Safari requires this (#9732)
+        response.setHeader("Cache-Control", "no-cache");
+
+        RequestMetrics metrics = RequestMetrics.get(ui.getSession());
+        long start = System.nanoTime();
+        BufferedUtf8Writer writer = new BufferedUtf8Writer(
+                response.getOutputStream());
+        boolean written = false;
+        try {
+            // some dirt to prevent cross site scripting
+            writer.write("for(;;);[");
+            new UidlWriter().writeUidl(ui, false, resync, writer);
+            writer.write(']');
+            written = true;
+        } finally {
+            if (written) {
+                writer.close();
+            } else {
+                /*
+                 * Nothing has reached the response if preparing the message
+                 * failed, so an error response can still be written.
+                 */
+                writer.discard();
+            }
+        }
+        if (metrics != null) {
+            metrics.recordPhase(Phase.RESPONSE_WRITE,
+                    System.nanoTime() - start);
+            metrics.recordCount(Count.BYTES_WRITTEN,
+                    writer.getBytesWritten());
+        }
+    }
+
     private static final Logger getLogger() {
         return LoggerFactory.getLogger(UidlRequestHandler.class.getName());
     }
@@ -176,6 +291,7 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
         // iOS 6 Safari requires this (#9732)
         response.setHeader("Cache-Control", "no-cache");
 
+        long start = System.nanoTime();
         byte[] b = json.getBytes(UTF_8);
         response.setContentLength(b.length);
 
@@ -183,5 +299,13 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
         outputStream.write(b);
         // NOTE GateIn requires the buffers to be flushed to work
         outputStream.flush();
+
+        RequestMetrics metrics = RequestMetrics
+                .get(VaadinSession.getCurrent());
+        if (metrics != null) {
+            metrics.recordPhase(Phase.RESPONSE_WRITE,
+                    System.nanoTime() - start);
+            metrics.recordCount(Count.BYTES_WRITTEN, b.length);
+        }
     }
 }
@@ -19,11 +19,14 @@ package com.vaadin.flow.server.communication;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -42,14 +45,19 @@ import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.internal.DependencyList;
 import com.vaadin.flow.component.internal.UIInternals;
 import com.vaadin.flow.component.internal.UIInternals.JavaScriptInvocation;
+import com.vaadin.flow.internal.ConstantPool;
 import com.vaadin.flow.internal.JsonCodec;
 import com.vaadin.flow.internal.JsonUtils;
+import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.internal.StateTree;
 import com.vaadin.flow.internal.change.NodeAttachChange;
 import com.vaadin.flow.internal.change.NodeChange;
 import com.vaadin.flow.internal.nodefeature.ComponentMapping;
 import com.vaadin.flow.server.DependencyFilter;
 import com.vaadin.flow.server.DependencyFilter.FilterContext;
+import com.vaadin.flow.server.RequestMetrics;
+import com.vaadin.flow.server.RequestMetrics.Count;
+import com.vaadin.flow.server.RequestMetrics.Phase;
 import com.vaadin.flow.server.SystemMessages;
 import com.vaadin.flow.server.VaadinService;
 import com.vaadin.flow.server.VaadinSession;
@@ -64,6 +72,7 @@ import elemental.json.Json;
 import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 import elemental.json.JsonValue;
+import elemental.json.impl.JsonUtil;
 
 /**
  * Serializes pending server-side changes to UI state to JSON. This includes
@@ -141,8 +150,94 @@ public class UidlWriter implements Serializable {
      * @return JSON object containing the UIDL response
      */
     public JsonObject createUidl(UI ui, boolean async) {
+        return createUidl(ui, async, false);
+    }
+
+    /**
+     * Creates a JSON object containing all pending changes to the given UI.
+     *
+     * @param ui
+     *            The {@link UI} whose changes to write
+     * @param async
+     *            True if this message is sent by the server asynchronously,
+     *            false if it is a response to a client message.
+     * @param resync
+     *            True if the client should be resynchronized, i.e. sent the
+     *            full state of the UI instead of only pending changes
+     * @return JSON object containing the UIDL response
+     */
+    public JsonObject createUidl(UI ui, boolean async, boolean resync) {
         JsonObject response = Json.createObject();
+        try {
+            writeMessage(ui, async, resync, new JsonObjectBuilder(response));
+        } catch (IOException e) {
+            // Building a JSON object doesn't do any I/O
+            throw new UncheckedIOException(e);
+        }
+        return response;
+    }
+
+    /**
+     * Writes a JSON message containing all pending changes to the given UI
+     * directly to the given writer.
+     *
+     * @param ui
+     *            The {@link UI} whose changes to write
+     * @param async
+     *            True if this message is sent by the server asynchronously,
+     *            false if it is a response to a client message.
+     * @param writer
+     *            the writer to write the UIDL message to
+     * @throws IOException
+     *             if writing fails
+     * @see #writeUidl(UI, boolean, boolean, Writer)
+     */
+    public void writeUidl(UI ui, boolean async, Writer writer)
+            throws IOException {
+        writeUidl(ui, async, false, writer);
+    }
+
+    /**
+     * Writes a JSON message containing all pending changes to the given UI
+     * directly to the given writer, without first building the full message
+     * as a {@link JsonObject}.
+     * <p>
+     * The resulting message is equivalent to the JSON representation of
+     * {@link #createUidl(UI, boolean, boolean)}, but state changes are encoded
+     * one at a time while they are written. All code that might run application
+     * logic or fail for other reasons than writing, i.e. pending access tasks,
+     * before client response executions, system messages and dependency
+     * filters, is run before anything is written. If it fails, nothing has been
+     * written and an error response can still be sent instead.
+     *
+     * @param ui
+     *            The {@link UI} whose changes to write
+     * @param async
+     *            True if this message is sent by the server asynchronously,
+     *            false if it is a response to a client message.
+     * @param resync
+     *            True if the client should be resynchronized, i.e. sent the
+     *            full state of the UI instead of only pending changes
+     * @param writer
+     *            the writer to write the UIDL message to
+     * @throws IOException
+     *             if writing fails
+     */
+    public void writeUidl(UI ui, boolean async, boolean resync, Writer writer)
+            throws IOException {
+        JsonObjectWriter response = new JsonObjectWriter(writer,
+                UidlFragmentCache.getCurrent());
+        writeMessage(ui, async, resync, response);
+        response.end();
+    }
 
+    /**
+     * Prepares a message with all pending changes to the given UI and passes
+     * its members to the given output. Everything that might run application
+     * logic is run before the first member is passed to the output.
+     */
+    private void writeMessage(UI ui, boolean async, boolean resync,
+            MessageOutput response) throws IOException {
         UIInternals uiInternals = ui.getInternals();
 
         VaadinSession session = ui.getSession();
@@ -150,7 +245,8 @@ public class UidlWriter implements Serializable {
 
         // Purge pending access calls as they might produce additional changes
         // to write out
-        service.runPendingAccessTasks(session);
+        recordPendingAccessTasks(session, uiInternals);
+        uiInternals.runPendingAccessTasks();
 
         // Paints components
         getLogger().debug("* Creating response to client");
@@ -158,52 +254,75 @@ public class UidlWriter implements Serializable {
         int syncId = service.getDeploymentConfiguration().isSyncIdCheckEnabled()
                 ? uiInternals.getServerSyncId()
                 : -1;
-
-        response.put(ApplicationConstants.SERVER_SYNC_ID, syncId);
         int nextClientToServerMessageId = uiInternals
                 .getLastProcessedClientToServerId() + 1;
-        response.put(ApplicationConstants.CLIENT_TO_SERVER_ID,
-                nextClientToServerMessageId);
+        if (resync) {
+            prepareForResync(uiInternals);
+        }
 
         SystemMessages messages = ui.getSession().getService()
                 .getSystemMessages(ui.getLocale(), null);
 
         JsonObject meta = new MetadataWriter().createMetadata(ui, false, async,
                 messages);
+
+        List<NodeChange> changes = collectChanges(ui);
+
+        Map<LoadMode, JsonArray> dependencies = populateDependencies(
+                uiInternals.getDependencyList(),
+                new ResolveContext(service, session.getBrowser(), null));
+
+        // Nothing is passed to the output before this point
+        response.put(ApplicationConstants.SERVER_SYNC_ID, Json.create(syncId));
+        response.put(ApplicationConstants.CLIENT_TO_SERVER_ID,
+                Json.create(nextClientToServerMessageId));
+        if (resync) {
+            response.put(ApplicationConstants.RESYNCHRONIZE_ID,
+                    Json.create(true));
+        }
         if (meta.keys().length > 0) {
             response.put("meta", meta);
         }
 
-        JsonArray stateChanges = Json.createArray();
-
-        encodeChanges(ui, stateChanges);
+        if (!changes.isEmpty()) {
+            response.putChanges(ui, changes);
+        }
 
-        populateDependencies(response, uiInternals.getDependencyList(),
-                new ResolveContext(service, session.getBrowser(), null));
+        for (Map.Entry<LoadMode, JsonArray> entry : dependencies.entrySet()) {
+            response.put(entry.getKey().name(), entry.getValue());
+        }
 
         if (uiInternals.getConstantPool().hasNewConstants()) {
-            response.put("constants",
+            response.putConstants(
                     uiInternals.getConstantPool().dumpConstants());
         }
-        if (stateChanges.length() != 0) {
-            response.put("changes", stateChanges);
+        JsonArray evictedConstants = uiInternals.getConstantPool()
+                .evictUnreferencedConstants(service.getDeploymentConfiguration()
+                        .getMaxConstantPoolSize(), uiInternals.getStateTree());
+        if (evictedConstants != null) {
+            response.put(JsonConstants.UIDL_KEY_EVICTED_CONSTANTS,
+                    evictedConstants);
         }
 
         List<JavaScriptInvocation> executeJavaScriptList = uiInternals
                 .dumpPendingJavaScriptInvocations();
         if (!executeJavaScriptList.isEmpty()) {
-            response.put(JsonConstants.UIDL_KEY_EXECUTE,
-                    encodeExecuteJavaScriptList(executeJavaScriptList));
+            response.putExecute(executeJavaScriptList);
         }
         if (ui.getSession().getService().getDeploymentConfiguration()
                 .isRequestTiming()) {
             response.put("timings", createPerformanceData(ui));
         }
         uiInternals.incrementServerId();
-        return response;
     }
 
-    private static void populateDependencies(JsonObject response,
+    private static void prepareForResync(UIInternals uiInternals) {
+        getLogger().debug("* Resynchronizing the client");
+        uiInternals.getStateTree().prepareForResync();
+        uiInternals.getConstantPool().prepareForResync();
+    }
+
+    private static Map<LoadMode, JsonArray> populateDependencies(
             DependencyList dependencyList, ResolveContext context) {
         Collection<Dependency> pendingSendToClient = dependencyList
                 .getPendingSendToClient();
@@ -217,12 +336,15 @@ public class UidlWriter implements Serializable {
                     new ArrayList<>(pendingSendToClient), filterContext);
         }
 
-        if (!pendingSendToClient.isEmpty()) {
-            groupDependenciesByLoadMode(pendingSendToClient, context)
-                    .forEach((loadMode, dependencies) -> response
-                            .put(loadMode.name(), dependencies));
+        Map<LoadMode, JsonArray> dependenciesByLoadMode;
+        if (pendingSendToClient.isEmpty()) {
+            dependenciesByLoadMode = Collections.emptyMap();
+        } else {
+            dependenciesByLoadMode = groupDependenciesByLoadMode(
+                    pendingSendToClient, context);
         }
         dependencyList.clearPendingSendToClient();
+        return dependenciesByLoadMode;
     }
 
     private static Map<LoadMode, JsonArray> groupDependenciesByLoadMode(
@@ -302,7 +424,7 @@ public class UidlWriter implements Serializable {
                 .collect(JsonUtils.asArray());
     }
 
-    private static JsonArray encodeExecuteJavaScript(
+    static JsonArray encodeExecuteJavaScript(
             JavaScriptInvocation executeJavaScript) {
         Stream<JsonValue> parametersStream = executeJavaScript.getParameters()
                 .stream().map(JsonCodec::encodeWithTypeInfo);
@@ -316,23 +438,112 @@ public class UidlWriter implements Serializable {
     }
 
     /**
-     * Encodes the state tree changes of the given UI. The executions registered
-     * at
-     * {@link StateTree#beforeClientResponse(com.vaadin.flow.internal.StateNode, com.vaadin.flow.function.SerializableConsumer)}
-     * at evaluated before the changes are encoded.
+     * Encodes the given state tree changes of the given UI.
      *
      * @param ui
      *            the UI
+     * @param changes
+     *            the changes to encode
      * @param stateChanges
      *            a JSON array to put state changes into
+     * @see #collectChanges(UI)
+     */
+    private static void encodeChanges(UI ui, List<NodeChange> changes,
+            JsonArray stateChanges) {
+        ConstantPool constantPool = ui.getInternals().getConstantPool();
+        boolean compact = isCompactChangeEncoding(ui);
+
+        long start = System.nanoTime();
+        for (NodeChange change : changes) {
+            stateChanges.set(stateChanges.length(),
+                    encodeChange(change, constantPool, compact));
+        }
+        recordEncodeTime(ui, start);
+    }
+
+    /**
+     * Writes the given state tree changes of the given UI as a
+     * <code>changes</code> array member of the given response object. Each
+     * change is encoded right before it is written. Nothing is written if there
+     * are no changes.
+     *
+     * @param ui
+     *            the UI
+     * @param changes
+     *            the changes to write
+     * @param response
+     *            the response object to write to
+     * @throws IOException
+     *             if writing fails
+     */
+    private static void writeChanges(UI ui, List<NodeChange> changes,
+            JsonObjectWriter response) throws IOException {
+        if (changes.isEmpty()) {
+            return;
+        }
+        ConstantPool constantPool = ui.getInternals().getConstantPool();
+        boolean compact = isCompactChangeEncoding(ui);
+        Writer writer = response.getWriter();
+
+        long start = System.nanoTime();
+        response.writeKey("changes");
+        writer.write('[');
+        for (int i = 0; i < changes.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(encodeChange(changes.get(i), constantPool, compact)
+                    .toJson());
+        }
+        writer.write(']');
+        recordEncodeTime(ui, start);
+    }
+
+    private static void recordEncodeTime(UI ui, long start) {
+        RequestMetrics metrics = RequestMetrics.get(ui.getSession());
+        if (metrics != null) {
+            metrics.recordPhase(Phase.JSON_ENCODE, System.nanoTime() - start);
+        }
+    }
+
+    private static boolean isCompactChangeEncoding(UI ui) {
+        return ui.getSession().getService().getDeploymentConfiguration()
+                .isCompactChangeEncoding();
+    }
+
+    private static JsonValue encodeChange(NodeChange change,
+            ConstantPool constantPool, boolean compact) {
+        if (compact) {
+            return change.toCompactJson(constantPool);
+        }
+        return change.toJson(constantPool);
+    }
+
+    /**
+     * Collects the state tree changes of the given UI. The executions
+     * registered at
+     * {@link StateTree#beforeClientResponse(com.vaadin.flow.internal.StateNode, com.vaadin.flow.function.SerializableConsumer)}
+     * are evaluated before the changes are collected.
+     *
+     * @param ui
+     *            the UI
+     * @return the collected changes, in the order they should be sent
      * @see StateTree#runExecutionsBeforeClientResponse()
      */
-    private void encodeChanges(UI ui, JsonArray stateChanges) {
+    private List<NodeChange> collectChanges(UI ui) {
         UIInternals uiInternals = ui.getInternals();
         StateTree stateTree = uiInternals.getStateTree();
+        RequestMetrics metrics = RequestMetrics.get(ui.getSession());
 
+        long start = System.nanoTime();
         stateTree.runExecutionsBeforeClientResponse();
+        if (metrics != null) {
+            metrics.recordPhase(Phase.BEFORE_CLIENT_RESPONSE,
+                    System.nanoTime() - start);
+        }
 
+        long collectStart = System.nanoTime();
+        List<NodeChange> changes = new ArrayList<>();
         Set<Class<? extends Component>> componentsWithDependencies = new LinkedHashSet<>();
         stateTree.collectChanges(change -> {
             if (attachesComponent(change)) {
@@ -340,14 +551,44 @@ public class UidlWriter implements Serializable {
                         .ifPresent(component -> addComponentHierarchy(ui,
                                 componentsWithDependencies, component));
             }
-
-            // Encode the actual change
-            stateChanges.set(stateChanges.length(),
-                    change.toJson(uiInternals.getConstantPool()));
+            changes.add(change);
         });
+        if (metrics != null) {
+            metrics.recordPhase(Phase.COLLECT_CHANGES,
+                    System.nanoTime() - collectStart);
+            metrics.recordCount(Count.DIRTY_NODES, countNodes(changes));
+        }
 
         componentsWithDependencies
                 .forEach(uiInternals::addComponentDependencies);
+        return changes;
+    }
+
+    /**
+     * Counts the nodes the given changes belong to. The changes of a node are
+     * collected one after another.
+     */
+    private static int countNodes(List<NodeChange> changes) {
+        int nodes = 0;
+        StateNode lastNode = null;
+        for (NodeChange change : changes) {
+            if (change.getNode() != lastNode) {
+                lastNode = change.getNode();
+                nodes++;
+            }
+        }
+        return nodes;
+    }
+
+    private static void recordPendingAccessTasks(VaadinSession session,
+            UIInternals uiInternals) {
+        RequestMetrics metrics = RequestMetrics.get(session);
+        if (metrics != null) {
+            metrics.recordCount(Count.PENDING_ACCESS_TASKS,
+                    session.isUiLocking()
+                            ? uiInternals.getPendingAccessQueue().size()
+                            : session.getPendingAccessQueue().size());
+        }
     }
 
     private static boolean attachesComponent(NodeChange change) {
@@ -379,4 +620,139 @@ public class UidlWriter implements Serializable {
     private static final Logger getLogger() {
         return LoggerFactory.getLogger(UidlWriter.class.getName());
     }
+
+    /**
+     * Receives the members of a UIDL message.
+     */
+    private interface MessageOutput {
+        void put(String key, JsonValue value) throws IOException;
+
+        void putChanges(UI ui, List<NodeChange> changes) throws IOException;
+
+        void putConstants(JsonObject constants) throws IOException;
+
+        void putExecute(List<JavaScriptInvocation> invocations)
+                throws IOException;
+    }
+
+    /**
+     * Puts the members of a UIDL message into a JSON object.
+     */
+    private static final class JsonObjectBuilder implements MessageOutput {
+        private final JsonObject object;
+
+        private JsonObjectBuilder(JsonObject object) {
+            this.object = object;
+        }
+
+        @Override
+        public void put(String key, JsonValue value) {
+            object.put(key, value);
+        }
+
+        @Override
+        public void putChanges(UI ui, List<NodeChange> changes) {
+            JsonArray stateChanges = Json.createArray();
+            encodeChanges(ui, changes, stateChanges);
+            object.put("changes", stateChanges);
+        }
+
+        @Override
+        public void putConstants(JsonObject constants) {
+            object.put("constants", constants);
+        }
+
+        @Override
+        public void putExecute(List<JavaScriptInvocation> invocations) {
+            object.put(JsonConstants.UIDL_KEY_EXECUTE,
+                    encodeExecuteJavaScriptList(invocations));
+        }
+    }
+
+    /**
+     * Writes the members of a JSON object to a writer one by one. Shared
+     * fragments are taken from the current fragment cache, if there is one.
+     */
+    private static final class JsonObjectWriter implements MessageOutput {
+        private final Writer writer;
+        private final UidlFragmentCache fragmentCache;
+        private boolean empty = true;
+
+        private JsonObjectWriter(Writer writer,
+                UidlFragmentCache fragmentCache) {
+            this.writer = writer;
+            this.fragmentCache = fragmentCache;
+        }
+
+        private Writer getWriter() {
+            return writer;
+        }
+
+        private void writeKey(String key) throws IOException {
+            writer.write(empty ? '{' : ',');
+            empty = false;
+            writer.write(JsonUtil.quote(key));
+            writer.write(':');
+        }
+
+        @Override
+        public void put(String key, JsonValue value) throws IOException {
+            writeKey(key);
+            writer.write(value.toJson());
+        }
+
+        @Override
+        public void putChanges(UI ui, List<NodeChange> changes)
+                throws IOException {
+            writeChanges(ui, changes, this);
+        }
+
+        @Override
+        public void putConstants(JsonObject constants) throws IOException {
+            if (fragmentCache == null) {
+                put("constants", constants);
+                return;
+            }
+            writeKey("constants");
+            writer.write('{');
+            String[] ids = constants.keys();
+            for (int i = 0; i < ids.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(JsonUtil.quote(ids[i]));
+                writer.write(':');
+                writer.write(fragmentCache.getConstantJson(ids[i],
+                        constants.get(ids[i])));
+            }
+            writer.write('}');
+        }
+
+        @Override
+        public void putExecute(List<JavaScriptInvocation> invocations)
+                throws IOException {
+            if (fragmentCache == null) {
+                put(JsonConstants.UIDL_KEY_EXECUTE,
+                        encodeExecuteJavaScriptList(invocations));
+                return;
+            }
+            writeKey(JsonConstants.UIDL_KEY_EXECUTE);
+            writer.write('[');
+            for (int i = 0; i < invocations.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(
+                        fragmentCache.getInvocationJson(invocations.get(i)));
+            }
+            writer.write(']');
+        }
+
+        private void end() throws IOException {
+            if (empty) {
+                writer.write('{');
+            }
+            writer.write('}');
+        }
+    }
 }
@@ -54,7 +54,15 @@ public class EventRpcHandler extends AbstractRpcInvocationHandler {
             eventData = Json.createObject();
         }
 
-        DomEvent event = new DomEvent(Element.get(node), eventType, eventData);
+        int coalescedCount = 1;
+        if (invocationJson.hasKey(JsonConstants.RPC_EVENT_COALESCED_COUNT)) {
+            // Sent by the client, so don't trust it to be a positive count
+            coalescedCount = Math.max(1, (int) invocationJson
+                    .getNumber(JsonConstants.RPC_EVENT_COALESCED_COUNT));
+        }
+
+        DomEvent event = new DomEvent(Element.get(node), eventType, eventData,
+                coalescedCount);
 
         node.getFeature(ElementListenerMap.class).fireEvent(event);
 
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication.rpc;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.internal.ReflectTools;
+
+/**
+ * A method published to the client through {@code @EventHandler} or
+ * {@code @ClientCallable}, resolved once so that it can be invoked repeatedly
+ * without reflective lookups.
+ * <p>
+ * The method is invoked through a method handle and the parameter types
+ * needed for decoding the arguments are read from the method only once.
+ * Instances are only kept in a static cache and are therefore not
+ * serializable.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+final class PublishedMethodInvoker {
+
+    private static final MethodType INVOKER_TYPE = MethodType
+            .methodType(void.class, Object.class, Object[].class);
+
+    // Boxed types in the order of widening primitive conversions
+    private static final List<Class<?>> NUMERIC_TYPES = Arrays.asList(
+            Byte.class, Short.class, Integer.class, Long.class, Float.class,
+            Double.class);
+
+    private final Method method;
+    private final MethodHandle handle;
+    private final Class<?>[] parameterTypes;
+    private final Type[] genericParameterTypes;
+
+    /**
+     * Creates a new invoker for the given method.
+     *
+     * @param method
+     *            the method to invoke, not <code>null</code>
+     */
+    PublishedMethodInvoker(Method method) {
+        this.method = method;
+        parameterTypes = method.getParameterTypes();
+        genericParameterTypes = method.getGenericParameterTypes();
+
+        method.setAccessible(true);
+        try {
+            MethodHandle methodHandle = MethodHandles.lookup()
+                    .unreflect(method).asFixedArity();
+            if (Modifier.isStatic(method.getModifiers())) {
+                methodHandle = MethodHandles.dropArguments(methodHandle, 0,
+                        Object.class);
+            }
+            handle = methodHandle
+                    .asSpreader(Object[].class, parameterTypes.length)
+                    .asType(INVOKER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Gets the method of this invoker.
+     *
+     * @return the method
+     */
+    Method getMethod() {
+        return method;
+    }
+
+    /**
+     * Gets the number of parameters of the method.
+     *
+     * @return the number of parameters
+     */
+    int getParameterCount() {
+        return parameterTypes.length;
+    }
+
+    /**
+     * Gets the type of the parameter with the given index.
+     *
+     * @param index
+     *            the parameter index
+     * @return the parameter type
+     */
+    Class<?> getParameterType(int index) {
+        return parameterTypes[index];
+    }
+
+    /**
+     * Gets the generic type of the parameter with the given index.
+     *
+     * @param index
+     *            the parameter index
+     * @return the generic parameter type
+     */
+    Type getGenericParameterType(int index) {
+        return genericParameterTypes[index];
+    }
+
+    /**
+     * Invokes the method.
+     *
+     * @param instance
+     *            the instance to invoke the method on
+     * @param args
+     *            the decoded arguments, matching the parameter types of the
+     *            method
+     * @throws IllegalArgumentException
+     *             if the instance or the arguments don't match the method,
+     *             like for {@link Method#invoke(Object, Object...)}
+     */
+    void invoke(Object instance, Object[] args) {
+        checkArguments(instance, args);
+        try {
+            handle.invokeExact(instance, args);
+        } catch (Throwable e) {
+            LoggerFactory.getLogger(
+                    PublishedServerEventHandlerRpcHandler.class.getName())
+                    .debug(null, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /*
+     * The method handle would throw ClassCastException for mismatching
+     * arguments, which couldn't be told apart from an exception thrown by the
+     * method itself.
+     */
+    private void checkArguments(Object instance, Object[] args) {
+        if (!Modifier.isStatic(method.getModifiers())
+                && !method.getDeclaringClass().isInstance(instance)) {
+            throw new IllegalArgumentException(
+                    "object is not an instance of declaring class");
+        }
+        if (args.length != parameterTypes.length) {
+            throw new IllegalArgumentException("wrong number of arguments");
+        }
+        for (int i = 0; i < args.length; i++) {
+            if (!isAssignable(parameterTypes[i], args[i])) {
+                throw new IllegalArgumentException("argument type mismatch");
+            }
+        }
+    }
+
+    private static boolean isAssignable(Class<?> type, Object arg) {
+        if (!type.isPrimitive()) {
+            return arg == null || type.isInstance(arg);
+        }
+        if (arg == null) {
+            return false;
+        }
+        Class<?> boxedType = ReflectTools.convertPrimitiveType(type);
+        Class<?> argType = arg.getClass();
+        if (boxedType == argType) {
+            return true;
+        }
+        // Widening primitive conversions are allowed by Method.invoke as well
+        int target = NUMERIC_TYPES.indexOf(boxedType);
+        if (argType == Character.class) {
+            return target >= NUMERIC_TYPES.indexOf(Integer.class);
+        }
+        int source = NUMERIC_TYPES.indexOf(argType);
+        return source >= 0 && target > source;
+    }
+}
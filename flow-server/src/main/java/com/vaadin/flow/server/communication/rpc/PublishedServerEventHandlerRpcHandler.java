@@ -16,18 +16,17 @@
 package com.vaadin.flow.server.communication.rpc;
 
 import java.lang.reflect.Array;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import org.slf4j.LoggerFactory;
-
 import com.vaadin.flow.component.ClientCallable;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.Composite;
@@ -35,6 +34,7 @@ import com.vaadin.flow.component.polymertemplate.EventHandler;
 import com.vaadin.flow.component.polymertemplate.PolymerTemplate;
 import com.vaadin.flow.dom.DisabledUpdateMode;
 import com.vaadin.flow.internal.ReflectTools;
+import com.vaadin.flow.internal.ReflectionCache;
 import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.internal.nodefeature.ClientCallableHandlers;
 import com.vaadin.flow.internal.nodefeature.ComponentMapping;
@@ -63,6 +63,9 @@ public class PublishedServerEventHandlerRpcHandler
 
     private static final Collection<RpcDecoder> DECODERS = loadDecoders();
 
+    private static final ReflectionCache<Component, Map<String, Optional<PublishedMethodInvoker>>> INVOKERS = new ReflectionCache<>(
+            PublishedServerEventHandlerRpcHandler::collectInvokers);
+
     @Override
     public String getRpcType() {
         return JsonConstants.RPC_PUBLISHED_SERVER_EVENT_HANDLER;
@@ -124,9 +127,11 @@ public class PublishedServerEventHandlerRpcHandler
     static void invokeMethod(Component instance, Class<?> clazz,
             String methodName, JsonArray args) {
         assert instance != null;
-        Optional<Method> method = findMethod(instance, clazz, methodName);
-        if (method.isPresent()) {
-            invokeMethod(instance, method.get(), args);
+        Optional<PublishedMethodInvoker> invoker = findInvoker(instance,
+                clazz, methodName);
+        if (invoker.isPresent()) {
+            invoker.get().invoke(instance,
+                    decodeArgs(instance, invoker.get(), args));
         } else if (instance instanceof Composite) {
             Component compositeContent = ((Composite<?>) instance).getContent();
             invokeMethod(compositeContent, compositeContent.getClass(),
@@ -139,58 +144,69 @@ public class PublishedServerEventHandlerRpcHandler
         }
     }
 
-    private static Optional<Method> findMethod(Component instance,
-            Class<?> clazz, String methodName) {
-        List<Method> methods = Stream.of(clazz.getDeclaredMethods())
-                .filter(method -> methodName.equals(method.getName()))
-                .filter(method -> method.isAnnotationPresent(EventHandler.class)
-                        || method.isAnnotationPresent(ClientCallable.class))
-                .collect(Collectors.toList());
-        if (methods.size() > 1) {
+    private static Optional<PublishedMethodInvoker> findInvoker(
+            Component instance, Class<?> clazz, String methodName) {
+        Map<String, Optional<PublishedMethodInvoker>> invokers = INVOKERS
+                .get(clazz.asSubclass(Component.class));
+        if (!invokers.containsKey(methodName)) {
+            return Optional.empty();
+        }
+        Optional<PublishedMethodInvoker> invoker = invokers.get(methodName);
+        if (!invoker.isPresent()) {
             String msg = String.format("Class '%s' contains "
                     + "several event handler method with the same name '%s'",
                     instance.getClass().getName(), methodName);
             throw new IllegalStateException(msg);
-        } else if (methods.size() == 1) {
-            return Optional.of(methods.get(0));
-        } else if (!Component.class.equals(clazz)) {
-            return findMethod(instance, clazz.getSuperclass(), methodName);
-        } else {
-            return Optional.empty();
         }
+        return invoker;
     }
 
-    private static void invokeMethod(Component instance, Method method,
-            JsonArray args) {
-        try {
-            method.setAccessible(true);
-            method.invoke(instance, decodeArgs(instance, method, args));
-        } catch (IllegalAccessException e) {
-            throw new RuntimeException(e);
-        } catch (InvocationTargetException e) {
-            LoggerFactory.getLogger(
-                    PublishedServerEventHandlerRpcHandler.class.getName())
-                    .debug(null, e);
-            throw new RuntimeException(e.getCause());
+    /*
+     * Resolves the published methods of a class and its super classes by name.
+     * A method in a sub class hides methods with the same name in its super
+     * classes. An empty value marks a name used by several published methods
+     * in the same class.
+     */
+    private static Map<String, Optional<PublishedMethodInvoker>> collectInvokers(
+            Class<? extends Component> clazz) {
+        Map<String, Optional<PublishedMethodInvoker>> invokers = new HashMap<>();
+        Class<?> type = clazz;
+        while (type != null) {
+            Map<String, List<Method>> methods = Stream
+                    .of(type.getDeclaredMethods())
+                    .filter(method -> method
+                            .isAnnotationPresent(EventHandler.class)
+                            || method.isAnnotationPresent(ClientCallable.class))
+                    .collect(Collectors.groupingBy(Method::getName));
+            methods.forEach((name, candidates) -> invokers.computeIfAbsent(
+                    name,
+                    key -> candidates.size() > 1 ? Optional.empty()
+                            : Optional.of(new PublishedMethodInvoker(
+                                    candidates.get(0)))));
+            if (Component.class.equals(type)) {
+                break;
+            }
+            type = type.getSuperclass();
         }
+        return invokers;
     }
 
-    private static Object[] decodeArgs(Component instance, Method method,
-            JsonArray argsFromClient) {
-        int methodArgs = method.getParameterCount();
+    private static Object[] decodeArgs(Component instance,
+            PublishedMethodInvoker invoker, JsonArray argsFromClient) {
+        Method method = invoker.getMethod();
+        int methodArgs = invoker.getParameterCount();
         int clientValuesCount = argsFromClient.length();
         JsonArray argValues;
         if (method.isVarArgs()) {
             if (clientValuesCount >= methodArgs - 1) {
-                argValues = unwrapVarArgs(argsFromClient, method);
+                argValues = unwrapVarArgs(argsFromClient, methodArgs);
             } else {
                 String msg = String.format(
                         "The number of received values (%d) is not enough "
                                 + "to call the method '%s' declared in '%s' which "
                                 + "has vararg parameter and the number of arguments %d",
                         argsFromClient.length(), method.getName(),
-                        method.getDeclaringClass().getName(),
-                        method.getParameterCount());
+                        method.getDeclaringClass().getName(), methodArgs);
                 throw new IllegalArgumentException(msg);
             }
         } else {
@@ -201,23 +217,21 @@ public class PublishedServerEventHandlerRpcHandler
                         "The number of received values (%d) is not equal "
                                 + "to the number of arguments (%d) in the method '%s' "
                                 + "declared in '%s'",
-                        argsFromClient.length(), method.getParameterCount(),
-                        method.getName(), method.getDeclaringClass().getName());
+                        argsFromClient.length(), methodArgs, method.getName(),
+                        method.getDeclaringClass().getName());
                 throw new IllegalArgumentException(msg);
             }
         }
-        List<Object> decoded = new ArrayList<>(method.getParameterCount());
-        Class<?>[] methodParameterTypes = method.getParameterTypes();
+        Object[] decoded = new Object[methodArgs];
         for (int i = 0; i < argValues.length(); i++) {
-            Class<?> type = methodParameterTypes[i];
-            decoded.add(decodeArg(instance, method, type, i, argValues.get(i)));
+            decoded[i] = decodeArg(instance, invoker,
+                    invoker.getParameterType(i), i, argValues.get(i));
         }
-        return decoded.toArray(new Object[method.getParameterCount()]);
+        return decoded;
     }
 
     private static JsonArray unwrapVarArgs(JsonArray argsFromClient,
-            Method method) {
-        int paramCount = method.getParameterCount();
+            int paramCount) {
         if (argsFromClient.length() == paramCount) {
             if (argsFromClient.get(paramCount - 1).getType()
                     .equals(JsonType.ARRAY)) {
@@ -240,11 +254,13 @@ public class PublishedServerEventHandlerRpcHandler
         return result;
     }
 
-    private static Object decodeArg(Component instance, Method method,
-            Class<?> type, int index, JsonValue argValue) {
+    private static Object decodeArg(Component instance,
+            PublishedMethodInvoker invoker, Class<?> type, int index,
+            JsonValue argValue) {
         // come up with method to know that it's an id and should be gotten from
         // the model
         assert argValue != null;
+        Method method = invoker.getMethod();
         if (type.isPrimitive() && argValue.getType() == JsonType.NULL) {
             String msg = String.format(
                     "Null values are not allowed for primitive types but "
@@ -255,20 +271,20 @@ public class PublishedServerEventHandlerRpcHandler
                     method.getDeclaringClass().getName());
             throw new IllegalArgumentException(msg);
         } else if (type.isArray()) {
-            return decodeArray(method, type, index, argValue);
+            return decodeArray(invoker, type, index, argValue);
         } else {
             Class<?> convertedType = ReflectTools.convertPrimitiveType(type);
 
             if (isTemplateModelValue(instance, argValue, convertedType)) {
                 return getTemplateItem((PolymerTemplate<?>) instance,
                         (JsonObject) argValue,
-                        method.getGenericParameterTypes()[index]);
+                        invoker.getGenericParameterType(index));
             }
 
-            Optional<RpcDecoder> decoder = getDecoder(argValue, convertedType);
-            if (decoder.isPresent()) {
+            RpcDecoder decoder = getDecoder(argValue, convertedType);
+            if (decoder != null) {
                 try {
-                    return decoder.get().decode(argValue, convertedType);
+                    return decoder.decode(argValue, convertedType);
                 } catch (RpcDecodeException exception) {
                     throw new IllegalArgumentException(exception);
                 }
@@ -281,11 +297,13 @@ public class PublishedServerEventHandlerRpcHandler
         }
     }
 
-    private static Optional<RpcDecoder> getDecoder(JsonValue value,
-            Class<?> type) {
-        return DECODERS.stream()
-                .filter(decoder -> decoder.isApplicable(value, type))
-                .findFirst();
+    private static RpcDecoder getDecoder(JsonValue value, Class<?> type) {
+        for (RpcDecoder decoder : DECODERS) {
+            if (decoder.isApplicable(value, type)) {
+                return decoder;
+            }
+        }
+        return null;
     }
 
     private static boolean isTemplateModelValue(Component instance,
@@ -307,8 +325,9 @@ public class PublishedServerEventHandlerRpcHandler
         return propertyType.modelToApplication(node);
     }
 
-    private static Object decodeArray(Method method, Class<?> type, int index,
-            JsonValue argValue) {
+    private static Object decodeArray(PublishedMethodInvoker invoker,
+            Class<?> type, int index, JsonValue argValue) {
+        Method method = invoker.getMethod();
         if (argValue.getType() != JsonType.ARRAY) {
             String msg = String.format("Class '%s' has the method '%s' "
                     + "whose parameter %d refers to the array type '%s' "
@@ -321,8 +340,8 @@ public class PublishedServerEventHandlerRpcHandler
         JsonArray array = (JsonArray) argValue;
         Object result = Array.newInstance(componentType, array.length());
         for (int i = 0; i < array.length(); i++) {
-            Array.set(result, i, decodeArg(null, method, componentType, index,
-                    array.get(i)));
+            Array.set(result, i, decodeArg(null, invoker, componentType,
+                    index, array.get(i)));
         }
         return result;
     }
@@ -75,40 +75,50 @@ public abstract class AbstractAnnotationValidator implements Serializable {
 
     private List<String> validateAnnotatedClasses(
             Collection<Class<?>> classSet) {
-        List<String> offendingAnnotations = new ArrayList<>();
+        List<Class<?>> annotations = getAnnotations();
+        return StartupValidation
+                .map(classSet, clazz -> validateAnnotatedClass(clazz,
+                        annotations))
+                .stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+
+    private List<String> validateAnnotatedClass(Class<?> clazz,
+            List<Class<?>> annotations) {
+        List<String> offendingAnnotations = new ArrayList<>(2);
 
-        for (Class<?> clazz : classSet) {
-            Route route = clazz.getAnnotation(Route.class);
-            if (route != null) {
-                if (!UI.class.equals(route.layout())) {
-                    offendingAnnotations.add(String.format(NON_PARENT,
-                            clazz.getName(), getClassAnnotations(clazz)));
-                }
-                RouteAlias routeAlias = clazz.getAnnotation(RouteAlias.class);
-                if (routeAlias != null
-                        && !UI.class.equals(routeAlias.layout())) {
-                    offendingAnnotations.add(String.format(NON_PARENT_ALIAS,
-                            clazz.getName(), getClassAnnotations(clazz)));
-                }
-            } else if (!RouterLayout.class.isAssignableFrom(clazz)) {
-                if (!Modifier.isAbstract(clazz.getModifiers())) {
-                    offendingAnnotations.add(String.format(NON_ROUTER_LAYOUT,
-                            clazz.getName(), getClassAnnotations(clazz)));
-                }
-            } else if (RouterLayout.class.isAssignableFrom(clazz)
-                    && clazz.getAnnotation(ParentLayout.class) != null) {
-                offendingAnnotations.add(String.format(MIDDLE_ROUTER_LAYOUT,
-                        clazz.getName(), getClassAnnotations(clazz)));
+        Route route = clazz.getAnnotation(Route.class);
+        if (route != null) {
+            if (!UI.class.equals(route.layout())) {
+                offendingAnnotations.add(String.format(NON_PARENT,
+                        clazz.getName(),
+                        getClassAnnotations(clazz, annotations)));
+            }
+            RouteAlias routeAlias = clazz.getAnnotation(RouteAlias.class);
+            if (routeAlias != null && !UI.class.equals(routeAlias.layout())) {
+                offendingAnnotations.add(String.format(NON_PARENT_ALIAS,
+                        clazz.getName(),
+                        getClassAnnotations(clazz, annotations)));
+            }
+        } else if (!RouterLayout.class.isAssignableFrom(clazz)) {
+            if (!Modifier.isAbstract(clazz.getModifiers())) {
+                offendingAnnotations.add(String.format(NON_ROUTER_LAYOUT,
+                        clazz.getName(),
+                        getClassAnnotations(clazz, annotations)));
             }
+        } else if (RouterLayout.class.isAssignableFrom(clazz)
+                && clazz.getAnnotation(ParentLayout.class) != null) {
+            offendingAnnotations.add(String.format(MIDDLE_ROUTER_LAYOUT,
+                    clazz.getName(), getClassAnnotations(clazz, annotations)));
         }
 
         return offendingAnnotations;
     }
 
-    private String getClassAnnotations(Class<?> clazz) {
+    private String getClassAnnotations(Class<?> clazz,
+            List<Class<?>> annotations) {
         List<String> faultyAnnotations = Stream.of(clazz.getAnnotations())
                 .map(Annotation::annotationType)
-                .filter(getAnnotations()::contains).map(Class::getSimpleName)
+                .filter(annotations::contains).map(Class::getSimpleName)
                 .collect(Collectors.toList());
         return String.join(", ", faultyAnnotations);
     }
@@ -19,7 +19,10 @@ import javax.servlet.annotation.HandlesTypes;
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -47,8 +50,30 @@ import com.vaadin.flow.server.PageConfigurator;
 public abstract class AbstractRouteRegistryInitializer implements Serializable {
     private Class<?> pwaClass = null;
 
+    /*
+     * Layout chains of the route paths resolved while validating the route
+     * classes, reused when validating the PWA class.
+     */
+    private transient Map<Class<?>, Optional<LayoutChain>> routeLayouts;
+
+    /**
+     * The parent layouts of a route or route alias path.
+     */
+    private static final class LayoutChain implements Serializable {
+        private final List<Class<? extends RouterLayout>> parentLayouts;
+        private final Class<? extends RouterLayout> topParentLayout;
+
+        private LayoutChain(Class<?> route, String path) {
+            parentLayouts = RouterUtil.getParentLayouts(route, path);
+            topParentLayout = RouterUtil.getTopParentLayout(route, path);
+        }
+    }
+
     /**
      * Validate the potential route classes stream and return them as a set.
+     * <p>
+     * The classes are validated in parallel and the layout chain of each route
+     * and route alias is resolved only once for all the checks.
      *
      * @param routeClasses
      *            potential route classes
@@ -57,8 +82,11 @@ public abstract class AbstractRouteRegistryInitializer implements Serializable {
     @SuppressWarnings("unchecked")
     protected Set<Class<? extends Component>> validateRouteClasses(
             Stream<Class<?>> routeClasses) {
-        return routeClasses.peek(this::checkForConflictingAnnotations)
-                .filter(this::isApplicableClass)
+        List<Class<?>> classes = routeClasses.collect(Collectors.toList());
+        routeLayouts = new ConcurrentHashMap<>();
+        StartupValidation.checkAll(classes,
+                this::checkForConflictingAnnotations);
+        return classes.stream().filter(this::isApplicableClass)
                 .map(clazz -> (Class<? extends Component>) clazz)
                 .collect(Collectors.toSet());
     }
@@ -88,75 +116,72 @@ public abstract class AbstractRouteRegistryInitializer implements Serializable {
                     route.getName()));
         }
 
+        LayoutChain routeChain = getRouteLayouts(route);
+        List<LayoutChain> aliasChains = Stream
+                .of(route.getAnnotationsByType(RouteAlias.class))
+                .filter(alias -> !UI.class.equals(alias.layout()))
+                .map(alias -> new LayoutChain(route, alias.value()))
+                .collect(Collectors.toList());
+
         /* Validate annotation usage */
         Stream.of(AnnotationValidator.class.getAnnotation(HandlesTypes.class)
                 .value()).forEach(type -> {
                     Class<? extends Annotation> annotation = type
                             .asSubclass(Annotation.class);
 
-                    validateRouteAnnotation(route, annotation);
-
-                    for (RouteAlias alias : route
-                            .getAnnotationsByType(RouteAlias.class)) {
-                        validateRouteAliasAnnotation(route, alias, annotation);
+                    if (routeChain != null) {
+                        validateRouteAnnotation(route, routeChain, annotation);
+                    }
+                    for (LayoutChain aliasChain : aliasChains) {
+                        validateRouteAnnotation(route, aliasChain, annotation);
                     }
                 });
 
         /* Validate PageConfigurator usage */
-        validateRouteImplementation(route, PageConfigurator.class);
-
-        for (RouteAlias alias : route.getAnnotationsByType(RouteAlias.class)) {
-            validateRouteAliasImplementation(route, alias,
+        if (routeChain != null) {
+            validateRouteImplementation(route, routeChain,
+                    PageConfigurator.class);
+        }
+        for (LayoutChain aliasChain : aliasChains) {
+            validateRouteImplementation(route, aliasChain,
                     PageConfigurator.class);
         }
     }
 
-    /* Route validator methods for bootstrap implementations */
-    private void validateRouteImplementation(Class<?> route,
-            Class<?> implementation) {
-        Route annotation = route.getAnnotation(Route.class);
-        if (!UI.class.equals(annotation.layout())) {
-            if (implementation.isAssignableFrom(route)) {
-                throw new InvalidRouteLayoutConfigurationException(String
-                        .format("%s needs to be the top parent layout '%s' not '%s'",
-                                implementation.getSimpleName(),
-                                RouterUtil.getTopParentLayout(route,
-                                        Router.resolve(route, annotation))
-                                        .getName(),
-                                route.getName()));
-            }
-
-            List<Class<? extends RouterLayout>> parentLayouts = RouterUtil
-                    .getParentLayouts(route, Router.resolve(route, annotation));
-            Class<? extends RouterLayout> topParentLayout = RouterUtil
-                    .getTopParentLayout(route,
-                            Router.resolve(route, annotation));
-
-            validateParentImplementation(parentLayouts, topParentLayout,
-                    implementation);
+    /*
+     * Gets the layout chain of the route path, or null if the route has no
+     * parent layout. The result is kept for validating the PWA annotation.
+     */
+    private LayoutChain getRouteLayouts(Class<?> route) {
+        Map<Class<?>, Optional<LayoutChain>> layouts = routeLayouts;
+        if (layouts == null) {
+            return resolveRouteLayouts(route).orElse(null);
         }
+        return layouts.computeIfAbsent(route, this::resolveRouteLayouts)
+                .orElse(null);
     }
 
-    private void validateRouteAliasImplementation(Class<?> route,
-            RouteAlias alias, Class<?> implementation) {
-        if (!UI.class.equals(alias.layout())) {
-            if (PageConfigurator.class.isAssignableFrom(route)) {
-                throw new InvalidRouteLayoutConfigurationException(String
-                        .format("%s needs to be the top parent layout '%s' not '%s'",
-                                implementation.getSimpleName(),
-                                RouterUtil.getTopParentLayout(route,
-                                        alias.value()).getName(),
-                                route.getName()));
-            }
-
-            List<Class<? extends RouterLayout>> parentLayouts = RouterUtil
-                    .getParentLayouts(route, alias.value());
-            Class<? extends RouterLayout> topParentLayout = RouterUtil
-                    .getTopParentLayout(route, alias.value());
+    private Optional<LayoutChain> resolveRouteLayouts(Class<?> route) {
+        Route routeAnnotation = route.getAnnotation(Route.class);
+        if (UI.class.equals(routeAnnotation.layout())) {
+            return Optional.empty();
+        }
+        return Optional.of(
+                new LayoutChain(route, Router.resolve(route, routeAnnotation)));
+    }
 
-            validateParentImplementation(parentLayouts, topParentLayout,
-                    implementation);
+    /* Route validator methods for bootstrap implementations */
+    private void validateRouteImplementation(Class<?> route,
+            LayoutChain chain, Class<?> implementation) {
+        if (implementation.isAssignableFrom(route)) {
+            throw new InvalidRouteLayoutConfigurationException(String.format(
+                    "%s needs to be the top parent layout '%s' not '%s'",
+                    implementation.getSimpleName(),
+                    chain.topParentLayout.getName(), route.getName()));
         }
+
+        validateParentImplementation(chain.parentLayouts,
+                chain.topParentLayout, implementation);
     }
 
     private void validateParentImplementation(
@@ -185,54 +210,17 @@ public abstract class AbstractRouteRegistryInitializer implements Serializable {
     }
 
     /* Route validator methods for bootstrap annotations */
-    private void validateRouteAnnotation(Class<?> route,
+    private void validateRouteAnnotation(Class<?> route, LayoutChain chain,
             Class<? extends Annotation> annotation) {
-        Route routeAnnotation = route.getAnnotation(Route.class);
-        if (!UI.class.equals(routeAnnotation.layout())) {
-            if (route.isAnnotationPresent(annotation)) {
-                throw new InvalidRouteLayoutConfigurationException(String
-                        .format("%s annotation needs to be on the top parent layout '%s' not on '%s'",
-                                annotation.getSimpleName(),
-                                RouterUtil
-                                        .getTopParentLayout(route,
-                                                Router.resolve(route,
-                                                        routeAnnotation))
-                                        .getName(),
-                                route.getName()));
-            }
-
-            List<Class<? extends RouterLayout>> parentLayouts = RouterUtil
-                    .getParentLayouts(route,
-                            Router.resolve(route, routeAnnotation));
-            Class<? extends RouterLayout> topParentLayout = RouterUtil
-                    .getTopParentLayout(route,
-                            Router.resolve(route, routeAnnotation));
-
-            validateParentAnnotation(parentLayouts, topParentLayout,
-                    annotation);
+        if (route.isAnnotationPresent(annotation)) {
+            throw new InvalidRouteLayoutConfigurationException(String.format(
+                    "%s annotation needs to be on the top parent layout '%s' not on '%s'",
+                    annotation.getSimpleName(),
+                    chain.topParentLayout.getName(), route.getName()));
         }
-    }
-
-    private void validateRouteAliasAnnotation(Class<?> route, RouteAlias alias,
-            Class<? extends Annotation> annotation) {
-        if (!UI.class.equals(alias.layout())) {
-            if (route.isAnnotationPresent(annotation)) {
-                throw new InvalidRouteLayoutConfigurationException(String
-                        .format("%s annotation needs to be on the top parent layout '%s' not on '%s'",
-                                annotation.getSimpleName(),
-                                RouterUtil.getTopParentLayout(route,
-                                        alias.value()).getName(),
-                                route.getName()));
-            }
-
-            List<Class<? extends RouterLayout>> parentLayouts = RouterUtil
-                    .getParentLayouts(route, alias.value());
-            Class<? extends RouterLayout> topParentLayout = RouterUtil
-                    .getTopParentLayout(route, alias.value());
 
-            validateParentAnnotation(parentLayouts, topParentLayout,
-                    annotation);
-        }
+        validateParentAnnotation(chain.parentLayouts, chain.topParentLayout,
+                annotation);
     }
 
     private void validateParentAnnotation(
@@ -275,15 +263,13 @@ public abstract class AbstractRouteRegistryInitializer implements Serializable {
             // check and validate route pwa annotation
             validatePwa(route);
 
-            Route routeAnnotation = route.getAnnotation(Route.class);
-            if (!UI.class.equals(routeAnnotation.layout())) {
-                Class<? extends RouterLayout> topParentLayout = RouterUtil
-                        .getTopParentLayout(route,
-                                Router.resolve(route, routeAnnotation));
+            LayoutChain chain = getRouteLayouts(route);
+            if (chain != null) {
                 // check and validate top parent layout pwa annotation
-                validatePwa(topParentLayout);
+                validatePwa(chain.topParentLayout);
             }
         });
+        routeLayouts = null;
         return pwaClass;
     }
 
@@ -109,6 +109,67 @@ public class RouteRegistry implements Serializable {
         }
     }
 
+    /**
+     * A route found for a location, consisting of the route path, the
+     * navigation target and the segments of the location following the route
+     * path.
+     */
+    public static class RouteMatch implements Serializable {
+        private final String path;
+        private final List<String> segments;
+        private final Class<? extends Component> navigationTarget;
+
+        /**
+         * Creates a new route match.
+         *
+         * @param path
+         *            the matched route path, not <code>null</code>
+         * @param segments
+         *            the location segments following the route path, not
+         *            <code>null</code>
+         * @param navigationTarget
+         *            the navigation target for the segments, not
+         *            <code>null</code>
+         */
+        public RouteMatch(String path, List<String> segments,
+                Class<? extends Component> navigationTarget) {
+            assert path != null;
+            assert segments != null;
+            assert navigationTarget != null;
+
+            this.path = path;
+            this.segments = segments;
+            this.navigationTarget = navigationTarget;
+        }
+
+        /**
+         * Gets the matched route path.
+         *
+         * @return the route path, not <code>null</code>
+         */
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * Gets the location segments following the route path.
+         *
+         * @return the remaining segments, not <code>null</code>
+         */
+        public List<String> getSegments() {
+            return segments;
+        }
+
+        /**
+         * Gets the navigation target of the route.
+         *
+         * @return the navigation target, not <code>null</code>
+         */
+        public Class<? extends Component> getNavigationTarget() {
+            return navigationTarget;
+        }
+    }
+
     private AtomicReference<Class<?>> pwaConfigurationClass = new AtomicReference<>();
 
     private static final ThemeDefinition LUMO_CLASS_IF_AVAILABLE = loadLumoClassIfAvailable();
@@ -119,6 +180,7 @@ public class RouteRegistry implements Serializable {
     private final ArrayList<NavigationTargetFilter> routeFilters = new ArrayList<>();
 
     private final AtomicReference<Map<String, RouteTarget>> routes = new AtomicReference<>();
+    private final AtomicReference<RouteTrie> routeTrie = new AtomicReference<>();
     private final AtomicReference<Map<Class<? extends Component>, String>> targetRoutes = new AtomicReference<>();
     private final AtomicReference<Map<Class<? extends Exception>, Class<? extends Component>>> exceptionTargets = new AtomicReference<>();
     private final AtomicReference<List<RouteData>> routeData = new AtomicReference<>();
@@ -437,6 +499,26 @@ public class RouteRegistry implements Serializable {
         return Optional.empty();
     }
 
+    /**
+     * Finds the route for the given location segments.
+     * <p>
+     * The route with the longest path that matches the beginning of the
+     * segments and has a navigation target accepting the remaining segments as
+     * URL parameters is returned.
+     *
+     * @param pathSegments
+     *            the path segments of a location, not {@code null}
+     * @return the matching route, or an empty optional if no route matches
+     */
+    public Optional<RouteMatch> findRoute(List<String> pathSegments) {
+        Objects.requireNonNull(pathSegments, "pathSegments must not be null.");
+        RouteTrie trie = routeTrie.get();
+        if (trie == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(trie.find(pathSegments));
+    }
+
     /**
      * Checks if the registry contains a route to the given path.
      *
@@ -549,6 +631,10 @@ public class RouteRegistry implements Serializable {
             targetRoutesMap.put(navigationTarget, route);
             addRoute(routesMap, navigationTarget, paths);
         }
+        if (!routeTrie.compareAndSet(null, new RouteTrie(routesMap))) {
+            throw new IllegalStateException(
+                    "Route registry has been already initialized");
+        }
         if (!routes.compareAndSet(null,
                 Collections.unmodifiableMap(routesMap))) {
             throw new IllegalStateException(
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.startup;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.server.startup.RouteRegistry.RouteMatch;
+
+/**
+ * An immutable trie of registered routes, keyed by path segment.
+ * <p>
+ * Finding the route for a location only walks the segments of the location
+ * once, without building path strings for each prefix of the location.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+final class RouteTrie implements Serializable {
+
+    private static final class Node implements Serializable {
+        private final Map<String, Node> children = new HashMap<>();
+        private String path;
+        private RouteTarget target;
+    }
+
+    private final Node root = new Node();
+
+    /**
+     * Creates a trie of the given routes.
+     *
+     * @param routes
+     *            a map from route path to route target, not <code>null</code>
+     */
+    RouteTrie(Map<String, RouteTarget> routes) {
+        routes.forEach(this::add);
+    }
+
+    private void add(String path, RouteTarget target) {
+        Node node = root;
+        if (!path.isEmpty()) {
+            for (String segment : path.split("/", -1)) {
+                node = node.children.computeIfAbsent(segment,
+                        key -> new Node());
+            }
+        }
+        node.path = path;
+        node.target = target;
+    }
+
+    /**
+     * Finds the route with the longest path that is a prefix of the given
+     * segments and has a navigation target accepting the remaining segments
+     * as parameters.
+     *
+     * @param segments
+     *            the path segments of a location, not <code>null</code>
+     * @return the matching route, or <code>null</code> if there is none
+     */
+    RouteMatch find(List<String> segments) {
+        int size = segments.size();
+        if (size == 0) {
+            return null;
+        }
+
+        Node[] prefixNodes = new Node[size];
+        Node node = root;
+        for (int i = 0; i < size; i++) {
+            node = node.children.get(segments.get(i));
+            if (node == null) {
+                break;
+            }
+            prefixNodes[i] = node;
+        }
+        boolean emptyFirstSegment = segments.get(0).isEmpty();
+        if (emptyFirstSegment) {
+            // The path of the first segment alone is the empty path
+            prefixNodes[0] = root;
+        }
+
+        for (int i = size - 1; i >= 0; i--) {
+            RouteMatch match = match(prefixNodes[i],
+                    segments.subList(i + 1, size));
+            if (match != null) {
+                return match;
+            }
+        }
+        return emptyFirstSegment ? null : match(root, segments);
+    }
+
+    private static RouteMatch match(Node node, List<String> parameters) {
+        if (node == null || node.target == null) {
+            return null;
+        }
+        Class<? extends Component> navigationTarget = node.target
+                .getTarget(parameters);
+        if (navigationTarget == null) {
+            return null;
+        }
+        return new RouteMatch(node.path, parameters, navigationTarget);
+    }
+}
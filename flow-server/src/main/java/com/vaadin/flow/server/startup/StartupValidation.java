@@ -0,0 +1,97 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.startup;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Helpers for validating the classes found by the servlet container during
+ * startup.
+ * <p>
+ * Validation reflects over every class independently, so the classes are
+ * processed in parallel in the common fork-join pool. Results and failures are
+ * still reported in the iteration order of the given collection so that the
+ * outcome is the same as with sequential validation.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+final class StartupValidation implements Serializable {
+
+    /*
+     * Below this size the overhead of splitting the work is larger than the
+     * gain.
+     */
+    private static final int PARALLEL_THRESHOLD = 16;
+
+    private StartupValidation() {
+        // Static helpers only
+    }
+
+    /**
+     * Runs the given check for every item. If any check throws, the exception
+     * of the first failing item in iteration order is rethrown as is.
+     *
+     * @param items
+     *            the items to check, not <code>null</code>
+     * @param check
+     *            the check to run for each item, not <code>null</code>
+     * @param <T>
+     *            the item type
+     */
+    static <T> void checkAll(Collection<T> items, Consumer<T> check) {
+        Optional<RuntimeException> failure = map(items, item -> {
+            try {
+                check.accept(item);
+                return null;
+            } catch (RuntimeException exception) {
+                return exception;
+            }
+        }).stream().filter(Objects::nonNull).findFirst();
+        if (failure.isPresent()) {
+            throw failure.get();
+        }
+    }
+
+    /**
+     * Applies the given function to every item and collects the results in
+     * the iteration order of the items.
+     *
+     * @param items
+     *            the items to map, not <code>null</code>
+     * @param mapper
+     *            the function to apply, not <code>null</code>
+     * @param <T>
+     *            the item type
+     * @param <R>
+     *            the result type
+     * @return a list of the results, not <code>null</code>
+     */
+    static <T, R> List<R> map(Collection<T> items, Function<T, R> mapper) {
+        if (items.size() < PARALLEL_THRESHOLD) {
+            return items.stream().map(mapper).collect(Collectors.toList());
+        }
+        return items.parallelStream().map(mapper)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.shared;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import elemental.json.JsonValue;
+
+/**
+ * Layouts of state tree changes in the compact change encoding.
+ * <p>
+ * A change in the compact encoding is a JSON array instead of a JSON object.
+ * The first item of the array is the ordinal of the layout, the second item is
+ * the node id and the rest of the items are the values of the keys of the
+ * layout, in order. The type of the change and the names of the keys are thus
+ * not repeated for every change. A change that has no layout is sent as a
+ * regular JSON object, so a changes array may contain both forms.
+ *
+ * @author Vaadin Ltd
+ * @since 1.2
+ */
+public enum CompactChangeLayout {
+    ATTACH(JsonConstants.CHANGE_TYPE_ATTACH),
+
+    DETACH(JsonConstants.CHANGE_TYPE_DETACH),
+
+    PUT(JsonConstants.CHANGE_TYPE_PUT, JsonConstants.CHANGE_FEATURE,
+            JsonConstants.CHANGE_MAP_KEY, JsonConstants.CHANGE_PUT_VALUE),
+
+    PUT_NODE(JsonConstants.CHANGE_TYPE_PUT, JsonConstants.CHANGE_FEATURE,
+            JsonConstants.CHANGE_MAP_KEY, JsonConstants.CHANGE_PUT_NODE_VALUE),
+
+    REMOVE(JsonConstants.CHANGE_TYPE_REMOVE, JsonConstants.CHANGE_FEATURE,
+            JsonConstants.CHANGE_MAP_KEY),
+
+    SPLICE_ADD(JsonConstants.CHANGE_TYPE_SPLICE, JsonConstants.CHANGE_FEATURE,
+            JsonConstants.CHANGE_SPLICE_INDEX,
+            JsonConstants.CHANGE_SPLICE_ADD),
+
+    SPLICE_ADD_NODES(JsonConstants.CHANGE_TYPE_SPLICE,
+            JsonConstants.CHANGE_FEATURE, JsonConstants.CHANGE_SPLICE_INDEX,
+            JsonConstants.CHANGE_SPLICE_ADD_NODES),
+
+    SPLICE_REMOVE(JsonConstants.CHANGE_TYPE_SPLICE,
+            JsonConstants.CHANGE_FEATURE, JsonConstants.CHANGE_SPLICE_INDEX,
+            JsonConstants.CHANGE_SPLICE_REMOVE),
+
+    CLEAR(JsonConstants.CHANGE_TYPE_CLEAR, JsonConstants.CHANGE_FEATURE),
+
+    EMPTY(JsonConstants.CHANGE_TYPE_NOOP, JsonConstants.CHANGE_FEATURE,
+            JsonConstants.CHANGE_FEATURE_TYPE);
+
+    private static final CompactChangeLayout[] LAYOUTS = values();
+
+    private final String type;
+    private final String[] keys;
+
+    CompactChangeLayout(String type, String... keys) {
+        this.type = type;
+        this.keys = keys;
+    }
+
+    /**
+     * Gets the layout with the given ordinal.
+     *
+     * @param ordinal
+     *            the ordinal of the layout, as found in the first item of a
+     *            compact change
+     * @return the layout with the given ordinal
+     */
+    public static CompactChangeLayout get(int ordinal) {
+        return LAYOUTS[ordinal];
+    }
+
+    /**
+     * Converts a change from the compact encoding to the regular JSON object
+     * encoding. Compact changes are meant to be processed as such, this is
+     * mainly useful for debugging and testing.
+     *
+     * @param compact
+     *            the compact change JSON array, not <code>null</code>
+     * @return the change as a JSON object
+     */
+    public static JsonObject expand(JsonArray compact) {
+        CompactChangeLayout layout = get((int) compact.getNumber(0));
+
+        JsonObject change = Json.createObject();
+        change.put(JsonConstants.CHANGE_NODE, compact.getNumber(1));
+        change.put(JsonConstants.CHANGE_TYPE, layout.type);
+        for (int i = 0; i < layout.keys.length; i++) {
+            change.put(layout.keys[i], (JsonValue) compact.get(i + 2));
+        }
+        return change;
+    }
+}
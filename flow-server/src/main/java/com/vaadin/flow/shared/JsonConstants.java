@@ -159,12 +159,25 @@ public class JsonConstants implements Serializable {
      */
     public static final String RPC_EVENT_DATA = "data";
 
+    /**
+     * Key holding the number of browser events that have been coalesced into
+     * an event message sent from the client. Not present if the message
+     * represents only one event.
+     */
+    public static final String RPC_EVENT_COALESCED_COUNT = "coalesced";
+
     /**
      * Key used for data related to
      * {@link Page#executeJavaScript(String, Serializable...)} in UIDL messages.
      */
     public static final String UIDL_KEY_EXECUTE = "execute";
 
+    /**
+     * Key used for the ids of constants that the client should remove from its
+     * constant pool in UIDL messages.
+     */
+    public static final String UIDL_KEY_EVICTED_CONSTANTS = "evictedConstants";
+
     /**
      * Key used to hold the feature id when synchronizing node values.
      */
@@ -295,4 +308,11 @@ public class JsonConstants implements Serializable {
      * Character used for representing {@link DebouncePhase#TRAILING}.
      */
     public static final String EVENT_PHASE_TRAILING = "trailing";
+
+    /**
+     * Key in the event expression settings of a DOM event type marking that
+     * consecutive queued events of the type may be coalesced on the client.
+     */
+    // "with" is a reserved keyword, see EVENT_DATA_PHASE
+    public static final String EVENT_SETTINGS_COALESCE = "with";
 }
@@ -9,7 +9,13 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.hamcrest.CoreMatchers;
 import org.junit.After;
@@ -641,4 +647,172 @@ public class UITest {
         assertTrue(AfterNavigationListeners.get(2) instanceof AfterNavigationListenerThird);
         assertTrue(AfterNavigationListeners.get(3) instanceof AfterNavigationListenerThird);
     }
+
+    private static MockVaadinSession createUiLockingSession()
+            throws ServletException {
+        VaadinServlet servlet = new VaadinServlet();
+        servlet.init(new MockServletConfig());
+
+        MockVaadinSession session = new MockVaadinSession(
+                servlet.getService());
+        DeploymentConfiguration config = Mockito
+                .mock(DeploymentConfiguration.class);
+        Mockito.when(config.isUiLocking()).thenReturn(true);
+
+        session.lock();
+        session.setConfiguration(config);
+        session.unlock();
+        return session;
+    }
+
+    private static UI addUI(MockVaadinSession session, int uiId) {
+        UI ui = new UI();
+        session.lock();
+        try {
+            ui.getInternals().setSession(session);
+            ui.doInit(Mockito.mock(VaadinServletRequest.class), uiId);
+            session.addUI(ui);
+        } finally {
+            session.unlock();
+        }
+        return ui;
+    }
+
+    @Test
+    public void uiLocking_accessSynchronously_onlyUiLocked()
+            throws ServletException {
+        MockVaadinSession session = createUiLockingSession();
+        UI ui = addUI(session, 0);
+
+        ui.accessSynchronously(() -> {
+            Assert.assertTrue(ui.getInternals().hasLock());
+            Assert.assertFalse(((ReentrantLock) session.getLockInstance())
+                    .isHeldByCurrentThread());
+            Assert.assertFalse(session.hasLock());
+            Assert.assertTrue(session.hasUILock(ui));
+        });
+
+        Assert.assertFalse(ui.getInternals().hasLock());
+        Assert.assertFalse(session.hasLock());
+        Assert.assertFalse(session.hasUILock(ui));
+    }
+
+    @Test
+    public void uiLocking_onlyUiLocked_otherUiAndSessionDataNotAccessible()
+            throws ServletException {
+        MockVaadinSession session = createUiLockingSession();
+        UI ui1 = addUI(session, 0);
+        UI ui2 = addUI(session, 1);
+
+        ui1.accessSynchronously(() -> {
+            Assert.assertFalse(session.hasUILock(ui2));
+
+            // UI state and read-only session data are accessible
+            ui1.getElement().setAttribute("foo", "bar");
+            Assert.assertNotNull(session.getConfiguration());
+
+            try {
+                session.setAttribute("foo", "bar");
+                Assert.fail("Session attributes require the session lock");
+            } catch (IllegalStateException expected) {
+                // expected
+            }
+            try {
+                session.getUIs();
+                Assert.fail("Session UIs require the session lock");
+            } catch (IllegalStateException expected) {
+                // expected
+            }
+        });
+
+        // The session lock gives access to all UIs
+        session.lock();
+        try {
+            Assert.assertTrue(session.hasUILock(ui1));
+            Assert.assertTrue(session.hasUILock(ui2));
+        } finally {
+            session.unlock();
+        }
+    }
+
+    @Test
+    public void uiLocking_otherUiAccessedWhileUiLocked()
+            throws ServletException, InterruptedException,
+            ExecutionException, TimeoutException {
+        MockVaadinSession session = createUiLockingSession();
+        UI ui1 = addUI(session, 0);
+        UI ui2 = addUI(session, 1);
+
+        AtomicBoolean ui1Accessed = new AtomicBoolean();
+        AtomicBoolean ui2Accessed = new AtomicBoolean();
+
+        ui1.getInternals().lock();
+        try {
+            CompletableFuture.runAsync(() -> {
+                ui1.access(() -> ui1Accessed.set(true));
+                ui2.accessSynchronously(() -> ui2Accessed.set(true));
+            }).get(5, TimeUnit.SECONDS);
+
+            Assert.assertTrue(ui2Accessed.get());
+            Assert.assertFalse(ui1Accessed.get());
+        } finally {
+            ui1.getInternals().unlock();
+        }
+
+        // Pending tasks are run when the UI lock is released
+        Assert.assertTrue(ui1Accessed.get());
+        Assert.assertTrue(session.getPendingAccessQueue().isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void uiLocking_accessSynchronouslyWhileOtherUiLocked_throws()
+            throws ServletException {
+        MockVaadinSession session = createUiLockingSession();
+        UI ui1 = addUI(session, 0);
+        UI ui2 = addUI(session, 1);
+
+        ui1.accessSynchronously(() -> ui2.accessSynchronously(() -> {
+        }));
+    }
+
+    @Test
+    public void uiLocking_accessSynchronouslyWhileOtherUiAndSessionLocked_run()
+            throws ServletException {
+        MockVaadinSession session = createUiLockingSession();
+        UI ui1 = addUI(session, 0);
+        UI ui2 = addUI(session, 1);
+        AtomicBoolean ui2Accessed = new AtomicBoolean();
+
+        session.lock();
+        try {
+            ui1.accessSynchronously(() -> ui2
+                    .accessSynchronously(() -> ui2Accessed.set(true)));
+        } finally {
+            session.unlock();
+        }
+
+        Assert.assertTrue(ui2Accessed.get());
+    }
+
+    @Test
+    public void uiLocking_sessionLockedByOtherThread_uiAccessed()
+            throws ServletException, InterruptedException,
+            ExecutionException, TimeoutException {
+        MockVaadinSession session = createUiLockingSession();
+        UI ui = addUI(session, 0);
+
+        AtomicBoolean accessed = new AtomicBoolean();
+
+        session.lock();
+        try {
+            CompletableFuture
+                    .runAsync(() -> ui
+                            .accessSynchronously(() -> accessed.set(true)))
+                    .get(5, TimeUnit.SECONDS);
+        } finally {
+            session.unlock();
+        }
+
+        Assert.assertTrue(accessed.get());
+    }
 }
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.polymertemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.jsoup.nodes.Document;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TemplateFileCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final TemplateFileCache cache = new TemplateFileCache();
+
+    private static final Supplier<InputStream> NOT_READ = () -> {
+        throw new AssertionError("Watched file should not be read as a stream");
+    };
+
+    @Test
+    public void watchedFile_parsedOnce() throws IOException {
+        File file = writeFile("foo.html", "<dom-module id='foo'></dom-module>");
+
+        Document document = cache.getDocument("/foo.html",
+                file.toURI().toURL(), NOT_READ);
+
+        Assert.assertEquals(1,
+                document.getElementsByTag("dom-module").size());
+        Assert.assertSame(document, cache.getDocument("/foo.html",
+                file.toURI().toURL(), NOT_READ));
+    }
+
+    @Test(timeout = 30000)
+    public void watchedFile_modified_parsedAgain()
+            throws IOException, InterruptedException {
+        File file = writeFile("foo.html", "<dom-module id='foo'></dom-module>");
+        Document document = cache.getDocument("/foo.html",
+                file.toURI().toURL(), NOT_READ);
+
+        writeFile("foo.html", "<dom-module id='bar'></dom-module>");
+
+        Document modified = document;
+        while (modified == document) {
+            Thread.sleep(50);
+            modified = cache.getDocument("/foo.html", file.toURI().toURL(),
+                    NOT_READ);
+        }
+        Assert.assertEquals("bar",
+                modified.getElementsByTag("dom-module").first().id());
+    }
+
+    @Test
+    public void unwatchedResource_sameContent_parsedOnce() throws IOException {
+        AtomicInteger reads = new AtomicInteger();
+        Supplier<InputStream> content = () -> {
+            reads.incrementAndGet();
+            return stream("<dom-module id='foo'></dom-module>");
+        };
+
+        Document document = cache.getDocument("/foo.html", null, content);
+
+        Assert.assertSame(document,
+                cache.getDocument("/foo.html", null, content));
+        Assert.assertEquals(2, reads.get());
+    }
+
+    @Test
+    public void unwatchedResource_changedContent_parsedAgain()
+            throws IOException {
+        Document document = cache.getDocument("/foo.html", null,
+                () -> stream("<dom-module id='foo'></dom-module>"));
+        Document changed = cache.getDocument("/foo.html", null,
+                () -> stream("<dom-module id='bar'></dom-module>"));
+
+        Assert.assertNotSame(document, changed);
+        Assert.assertEquals("bar",
+                changed.getElementsByTag("dom-module").first().id());
+    }
+
+    @Test
+    public void close_watchedFile_comparedByContent() throws IOException {
+        File file = writeFile("foo.html", "<dom-module id='foo'></dom-module>");
+        Document document = cache.getDocument("/foo.html",
+                file.toURI().toURL(), NOT_READ);
+
+        cache.close();
+
+        Supplier<InputStream> content = () -> {
+            try {
+                return Files.newInputStream(file.toPath());
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        };
+        Document afterClose = cache.getDocument("/foo.html",
+                file.toURI().toURL(), content);
+        Assert.assertNotSame("Cache should be cleared when closed", document,
+                afterClose);
+        Assert.assertSame(afterClose, cache.getDocument("/foo.html",
+                file.toURI().toURL(), content));
+
+        writeFile("foo.html", "<dom-module id='bar'></dom-module>");
+        Assert.assertEquals("bar",
+                cache.getDocument("/foo.html", file.toURI().toURL(), content)
+                        .getElementsByTag("dom-module").first().id());
+    }
+
+    @Test
+    public void missingResource_null() throws IOException {
+        Assert.assertNull(cache.getDocument("/foo.html", null, () -> null));
+    }
+
+    private File writeFile(String name, String content) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(
+                content.getBytes(StandardCharsets.UTF_8));
+    }
+}
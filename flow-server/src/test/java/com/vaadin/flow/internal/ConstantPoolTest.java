@@ -18,10 +18,12 @@ package com.vaadin.flow.internal;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.internal.ConstantPool;
 import com.vaadin.flow.internal.ConstantPoolKey;
 
 import elemental.json.Json;
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 
 public class ConstantPoolTest {
@@ -74,4 +76,89 @@ public class ConstantPoolTest {
         Assert.assertNotEquals(constantId, otherId);
         Assert.assertTrue(constantPool.hasNewConstants());
     }
+
+    @Test
+    public void prepareForResync_sameKeyRegisteredAgain() {
+        ConstantPoolKey reference = new ConstantPoolKey(Json.createObject());
+
+        String constantId = constantPool.getConstantId(reference);
+        constantPool.dumpConstants();
+
+        constantPool.prepareForResync();
+        Assert.assertFalse(constantPool.hasNewConstants());
+
+        Assert.assertEquals(constantId,
+                constantPool.getConstantId(reference));
+        Assert.assertTrue(constantPool.hasNewConstants());
+
+        JsonObject dump = constantPool.dumpConstants();
+        Assert.assertEquals("{}", dump.get(constantId).toJson());
+    }
+
+    @Test
+    public void internedKey_sameInstanceForEqualValue() {
+        ConstantPoolKey key = ConstantPoolKey
+                .intern(Json.parse("{\"interned\":true}"));
+        ConstantPoolKey other = ConstantPoolKey
+                .intern(Json.parse("{\"interned\":true}"));
+
+        Assert.assertSame(key, other);
+        Assert.assertEquals(
+                new ConstantPoolKey(Json.parse("{\"interned\":true}"))
+                        .getId(),
+                key.getId());
+    }
+
+    @Test
+    public void internedKey_manyValues_leastRecentlyUsedEvicted() {
+        ConstantPoolKey first = ConstantPoolKey
+                .intern(Json.parse("{\"first\":true}"));
+        ConstantPoolKey recent = ConstantPoolKey
+                .intern(Json.parse("{\"recent\":true}"));
+
+        for (int i = 0; i < 10000; i++) {
+            ConstantPoolKey.intern(Json.create("value" + i));
+            Assert.assertSame(recent, ConstantPoolKey
+                    .intern(Json.parse("{\"recent\":true}")));
+        }
+
+        Assert.assertNotSame(first,
+                ConstantPoolKey.intern(Json.parse("{\"first\":true}")));
+    }
+
+    @Test
+    public void evictUnreferencedConstants_onlyUnreferencedEvicted() {
+        UI ui = new UI();
+        ui.getElement().addEventListener("click", event -> {
+        });
+        ConstantPool pool = ui.getInternals().getConstantPool();
+        StateTree tree = ui.getInternals().getStateTree();
+        tree.collectChanges(change -> change.toJson(pool));
+
+        String unreferencedId = pool
+                .getConstantId(new ConstantPoolKey(Json.createArray()));
+        pool.dumpConstants();
+
+        JsonArray evicted = pool.evictUnreferencedConstants(1, tree);
+
+        Assert.assertEquals(1, evicted.length());
+        Assert.assertEquals(unreferencedId, evicted.getString(0));
+
+        // The evicted constant is sent again when used again
+        pool.getConstantId(new ConstantPoolKey(Json.createArray()));
+        Assert.assertTrue(pool.hasNewConstants());
+    }
+
+    @Test
+    public void evictUnreferencedConstants_belowLimit_nothingEvicted() {
+        UI ui = new UI();
+        ConstantPool pool = ui.getInternals().getConstantPool();
+        pool.getConstantId(new ConstantPoolKey(Json.createArray()));
+        pool.dumpConstants();
+
+        Assert.assertNull(pool.evictUnreferencedConstants(1,
+                ui.getInternals().getStateTree()));
+        Assert.assertNull(pool.evictUnreferencedConstants(0,
+                ui.getInternals().getStateTree()));
+    }
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.internal.nodefeature.ElementChildrenList;
+
+public class DirtyNodesTest {
+
+    private final StateTree tree = new StateTree(new UI().getInternals(),
+            ElementChildrenList.class);
+
+    private final DirtyNodes dirtyNodes = new DirtyNodes();
+
+    @Test
+    public void add_insertionOrderKept_duplicatesIgnored() {
+        StateNode first = createAttachedNode();
+        StateNode second = createAttachedNode();
+
+        Assert.assertTrue(dirtyNodes.add(second));
+        Assert.assertTrue(dirtyNodes.add(first));
+        Assert.assertFalse(dirtyNodes.add(second));
+
+        Assert.assertEquals(Arrays.asList(second, first), toList());
+    }
+
+    @Test
+    public void clear_canBeReused() {
+        List<StateNode> nodes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            StateNode node = createAttachedNode();
+            nodes.add(node);
+            dirtyNodes.add(node);
+        }
+        dirtyNodes.clear();
+        Assert.assertTrue(dirtyNodes.isEmpty());
+
+        Assert.assertTrue(dirtyNodes.add(nodes.get(42)));
+        Assert.assertEquals(1, dirtyNodes.size());
+    }
+
+    @Test
+    public void add_nodeWithoutId_addedOnceAfterIdAssigned() {
+        StateNode node = StateNodeTest.createEmptyNode("node");
+        Assert.assertEquals(-1, node.getId());
+        Assert.assertTrue(dirtyNodes.add(node));
+
+        StateNodeTest.setParent(node, tree.getRootNode());
+        Assert.assertTrue(node.getId() > 0);
+        Assert.assertFalse(dirtyNodes.add(node));
+
+        Assert.assertEquals(1, dirtyNodes.size());
+    }
+
+    @Test
+    public void addAll_onlyNewNodesReported() {
+        StateNode first = createAttachedNode();
+        StateNode second = createAttachedNode();
+        dirtyNodes.add(first);
+
+        DirtyNodes other = new DirtyNodes();
+        other.add(first);
+        Assert.assertFalse(dirtyNodes.addAll(other));
+
+        other.add(second);
+        Assert.assertTrue(dirtyNodes.addAll(other));
+        Assert.assertEquals(Arrays.asList(first, second), toList());
+    }
+
+    private StateNode createAttachedNode() {
+        StateNode node = StateNodeTest.createEmptyNode("node");
+        StateNodeTest.setParent(node, tree.getRootNode());
+        return node;
+    }
+
+    private List<StateNode> toList() {
+        List<StateNode> list = new ArrayList<>();
+        dirtyNodes.forEach(list::add);
+        return list;
+    }
+}
@@ -75,6 +75,26 @@ public class JsonUtilsTest {
                 JsonUtils.jsonEquals(createTestArray1(), createTestObject1()));
     }
 
+    @Test
+    public void testHashCode_equalValues_sameHashCode() {
+        Assert.assertEquals(JsonUtils.jsonHashCode(createTestObject1()),
+                JsonUtils.jsonHashCode(createTestObject1()));
+        Assert.assertEquals(JsonUtils.jsonHashCode(createTestArray1()),
+                JsonUtils.jsonHashCode(createTestArray1()));
+        Assert.assertEquals(JsonUtils.jsonHashCode(Json.create("foo")),
+                JsonUtils.jsonHashCode(Json.create("foo")));
+
+        JsonObject ab = Json.createObject();
+        ab.put("a", 1);
+        ab.put("b", true);
+        JsonObject ba = Json.createObject();
+        ba.put("b", true);
+        ba.put("a", 1);
+        Assert.assertTrue(JsonUtils.jsonEquals(ab, ba));
+        Assert.assertEquals(JsonUtils.jsonHashCode(ab),
+                JsonUtils.jsonHashCode(ba));
+    }
+
     @Test(expected = AssertionError.class)
     public void testEquals_firstNull_throws() {
         JsonUtils.jsonEquals(null, Json.createNull());
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.flow.internal.OpenHashTable.IntIntMap;
+import com.vaadin.flow.internal.OpenHashTable.IntObjectMap;
+import com.vaadin.flow.internal.OpenHashTable.LongSet;
+import com.vaadin.flow.internal.OpenHashTable.ObjectIntMap;
+
+public class OpenHashTableTest {
+
+    @Test
+    public void longSet_addContainsRemove() {
+        LongSet set = new LongSet();
+        Assert.assertTrue(set.add(5));
+        Assert.assertFalse(set.add(5));
+        Assert.assertTrue(set.contains(5));
+        Assert.assertFalse(set.contains(6));
+        Assert.assertEquals(1, set.size());
+
+        Assert.assertTrue(set.remove(5));
+        Assert.assertFalse(set.remove(5));
+        Assert.assertFalse(set.contains(5));
+        Assert.assertEquals(0, set.size());
+    }
+
+    @Test
+    public void longSet_zeroValue() {
+        LongSet set = new LongSet();
+        Assert.assertFalse(set.contains(0));
+        Assert.assertTrue(set.add(0));
+        Assert.assertFalse(set.add(0));
+        Assert.assertTrue(set.contains(0));
+
+        Set<Long> values = new HashSet<>();
+        set.forEach(values::add);
+        Assert.assertEquals(1, values.size());
+
+        Assert.assertTrue(set.remove(0));
+        Assert.assertFalse(set.contains(0));
+    }
+
+    @Test
+    public void longSet_randomOperations_sameAsHashSet() {
+        LongSet set = new LongSet();
+        Random random = new Random(42);
+        Set<Long> expected = new HashSet<>();
+
+        for (int i = 0; i < 100000; i++) {
+            // Small range to get lots of collisions and removals
+            long value = random.nextInt(2000) * 0x1000000000L;
+            if (random.nextBoolean()) {
+                Assert.assertEquals(expected.add(value), set.add(value));
+            } else {
+                Assert.assertEquals(expected.remove(value), set.remove(value));
+            }
+        }
+
+        Assert.assertEquals(expected.size(), set.size());
+        Set<Long> actual = new HashSet<>();
+        set.forEach(actual::add);
+        Assert.assertEquals(expected, actual);
+
+        set.clear();
+        Assert.assertEquals(0, set.size());
+        Assert.assertFalse(set.contains(expected.iterator().next()));
+    }
+
+    @Test
+    public void intIntMap_randomOperations_sameAsHashMap() {
+        IntIntMap map = new IntIntMap();
+        Random random = new Random(42);
+        Map<Integer, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(2000) - 1000;
+            if (random.nextBoolean()) {
+                map.put(key, i);
+                expected.put(key, i);
+            } else {
+                Integer removed = expected.remove(key);
+                Assert.assertEquals(removed == null ? -1 : removed.intValue(),
+                        map.remove(key, -1));
+            }
+            Assert.assertEquals(expected.containsKey(key),
+                    map.containsKey(key));
+        }
+
+        Assert.assertEquals(expected.size(), map.size());
+        Map<Integer, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        Assert.assertEquals(expected, actual);
+        expected.forEach((key, value) -> Assert.assertEquals(value.intValue(),
+                map.get(key, -1)));
+
+        map.clear();
+        Assert.assertEquals(0, map.size());
+        Assert.assertFalse(
+                map.containsKey(expected.keySet().iterator().next()));
+    }
+
+    @Test
+    public void intObjectMap_randomOperations_sameAsHashMap() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        Random random = new Random(42);
+        Map<Integer, String> expected = new HashMap<>();
+
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(2000) - 1000;
+            if (random.nextBoolean()) {
+                String value = Integer.toString(i);
+                Assert.assertEquals(expected.put(key, value),
+                        map.put(key, value));
+            } else {
+                Assert.assertEquals(expected.remove(key), map.remove(key));
+            }
+            Assert.assertEquals(expected.get(key), map.get(key));
+        }
+
+        Assert.assertEquals(expected.size(), map.size());
+        Map<Integer, String> actual = new HashMap<>();
+        map.forEach(actual::put);
+        Assert.assertEquals(expected, actual);
+
+        map.clear();
+        Assert.assertEquals(0, map.size());
+        Assert.assertFalse(
+                map.containsKey(expected.keySet().iterator().next()));
+    }
+
+    @Test
+    public void objectIntMap_randomOperations_sameAsHashMap() {
+        ObjectIntMap<String> map = new ObjectIntMap<>();
+        Random random = new Random(42);
+        Map<String, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < 100000; i++) {
+            String key = Integer.toString(random.nextInt(2000));
+            if (random.nextBoolean()) {
+                map.put(key, i);
+                expected.put(key, i);
+            } else {
+                Integer removed = expected.remove(key);
+                Assert.assertEquals(removed == null ? -1 : removed.intValue(),
+                        map.remove(key, -1));
+            }
+            Assert.assertEquals(expected.containsKey(key),
+                    map.containsKey(key));
+        }
+
+        Assert.assertEquals(expected.size(), map.size());
+        Map<String, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        Assert.assertEquals(expected, actual);
+
+        map.clear();
+        Assert.assertEquals(0, map.size());
+        Assert.assertFalse(
+                map.containsKey(expected.keySet().iterator().next()));
+    }
+
+    @Test
+    public void objectIntMap_serialized_keysWithIdentityHashCodeFound()
+            throws IOException, ClassNotFoundException {
+        ObjectIntMap<IdentityKey> map = new ObjectIntMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(new IdentityKey(), i);
+        }
+
+        ObjectIntMap<IdentityKey> deserialized = serializeAndDeserialize(map);
+
+        Assert.assertEquals(100, deserialized.size());
+        Map<IdentityKey, Integer> entries = new HashMap<>();
+        deserialized.forEach(entries::put);
+        entries.forEach((key, value) -> Assert.assertEquals(value.intValue(),
+                deserialized.get(key, -1)));
+    }
+
+    private static class IdentityKey implements Serializable {
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T serializeAndDeserialize(T instance)
+            throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(instance);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (T) in.readObject();
+        }
+    }
+}
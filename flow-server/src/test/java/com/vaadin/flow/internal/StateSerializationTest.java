@@ -0,0 +1,197 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.dom.ClassList;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.dom.Style;
+import com.vaadin.flow.function.DeploymentConfiguration;
+import com.vaadin.flow.internal.nodefeature.ElementPropertyMap;
+import com.vaadin.flow.internal.nodefeature.NodeFeatureRegistry;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.tests.util.AlwaysLockedVaadinSession;
+
+public class StateSerializationTest {
+
+    @After
+    public void tearDown() {
+        CurrentInstance.clearAll();
+    }
+
+    @Test
+    public void compactFormat_roundTrip_treeRestored() throws Exception {
+        UI ui = createUI(true, 20);
+        String html = ui.getElement().getOuterHTML();
+
+        UI deserialized = (UI) deserialize(serialize(ui));
+
+        Assert.assertEquals(html, deserialized.getElement().getOuterHTML());
+        Assert.assertEquals("bar",
+                deserialized.getElement().getChild(0).getChild(3)
+                        .getProperty("foo"));
+        assertSameNodeStructure(ui.getInternals().getStateTree(),
+                deserialized.getInternals().getStateTree());
+    }
+
+    @Test
+    public void compactFormat_deserializedTreeCanBeModified()
+            throws Exception {
+        UI ui = createUI(true, 5);
+        UI deserialized = (UI) deserialize(serialize(ui));
+        // The lock is not held after deserialization
+        deserialized.getSession().getLockInstance().lock();
+
+        Element row = deserialized.getElement().getChild(0).getChild(2);
+        row.setAttribute("title", "changed");
+        row.getStyle().set("color", "red");
+        row.appendChild(new Element("b"));
+
+        Assert.assertEquals("changed", row.getAttribute("title"));
+        Assert.assertEquals("red", row.getStyle().get("color"));
+        Assert.assertEquals(2, row.getChildCount());
+        Assert.assertTrue(row.getNode().getFeatureIfInitialized(
+                ElementPropertyMap.class).isPresent());
+    }
+
+    @Test
+    public void compactFormat_referencedFeatures_sameInstancesAfterRoundTrip()
+            throws Exception {
+        UI ui = createUI(true, 5);
+        Element row = ui.getElement().getChild(0).getChild(1);
+        Style style = row.getStyle();
+        ClassList classList = row.getClassList();
+
+        Object[] deserialized = (Object[]) deserialize(
+                serialize(new Object[] { style, ui, classList }));
+        UI deserializedUI = (UI) deserialized[1];
+        deserializedUI.getSession().getLockInstance().lock();
+        ((Style) deserialized[0]).set("color", "red");
+        ((ClassList) deserialized[2]).add("selected");
+
+        Element deserializedRow = deserializedUI.getElement().getChild(0)
+                .getChild(1);
+        Assert.assertEquals("red", deserializedRow.getStyle().get("color"));
+        Assert.assertTrue(deserializedRow.getClassList().contains("row"));
+        Assert.assertTrue(deserializedRow.getClassList().contains("selected"));
+    }
+
+    @Test
+    public void defaultFormat_roundTrip_treeRestored() throws Exception {
+        UI ui = createUI(false, 20);
+        String html = ui.getElement().getOuterHTML();
+
+        UI deserialized = (UI) deserialize(serialize(ui));
+
+        Assert.assertEquals(html, deserialized.getElement().getOuterHTML());
+        assertSameNodeStructure(ui.getInternals().getStateTree(),
+                deserialized.getInternals().getStateTree());
+    }
+
+    @Test
+    public void compactFormat_smallerThanDefaultFormat() throws Exception {
+        int rows = 200;
+        UI defaultUI = createUI(false, rows);
+        UI compactUI = createUI(true, rows);
+
+        byte[] defaultData = serialize(defaultUI);
+        byte[] compactData = serialize(compactUI);
+
+        // The features of the 600 nodes are written without per-object data
+        Assert.assertTrue(
+                "Compact format should be at least 10% smaller than the default format, was "
+                        + compactData.length + " bytes compared to "
+                        + defaultData.length + " bytes",
+                compactData.length < defaultData.length * 0.9);
+    }
+
+    private static UI createUI(boolean compact, int rows) {
+        DeploymentConfiguration configuration = Mockito
+                .mock(DeploymentConfiguration.class);
+        Mockito.when(configuration.isCompactStateSerialization())
+                .thenReturn(compact);
+        VaadinService service = Mockito.mock(VaadinService.class);
+        Mockito.when(service.getDeploymentConfiguration())
+                .thenReturn(configuration);
+
+        UI ui = new UI();
+        ui.getInternals().setSession(new AlwaysLockedVaadinSession(service));
+
+        Element table = new Element("div");
+        for (int i = 0; i < rows; i++) {
+            Element row = new Element("div");
+            row.setAttribute("id", "row-" + i);
+            row.getClassList().add("row");
+            row.setProperty("foo", "bar");
+            row.setProperty("index", i);
+            row.appendChild(new Element("span").setText("Row " + i));
+            table.appendChild(row);
+        }
+        ui.getElement().appendChild(table);
+        // Changes have been sent to the client between requests
+        ui.getInternals().getStateTree().collectChanges(change -> {
+        });
+        return ui;
+    }
+
+    private static void assertSameNodeStructure(StateTree expected,
+            StateTree actual) {
+        StringBuilder expectedNodes = new StringBuilder();
+        StringBuilder actualNodes = new StringBuilder();
+        expected.getRootNode().visitNodeTree(node -> appendNode(expectedNodes,
+                node));
+        actual.getRootNode().visitNodeTree(node -> appendNode(actualNodes,
+                node));
+        Assert.assertEquals(expectedNodes.toString(), actualNodes.toString());
+    }
+
+    private static void appendNode(StringBuilder builder, StateNode node) {
+        builder.append(node.getId()).append(node.isAttached()).append(':');
+        NodeFeatureRegistry.getFeatures().stream()
+                .filter(type -> node.hasFeature(type)
+                        && node.getFeatureIfInitialized(type).isPresent())
+                .mapToInt(NodeFeatureRegistry::getId).sorted()
+                .forEach(id -> builder.append(id).append(','));
+        builder.append('\n');
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] data)
+            throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(data))) {
+            return in.readObject();
+        }
+    }
+}
@@ -553,4 +553,88 @@ public class StateTreeTest {
         Assert.assertTrue(collectedNodes.contains(node3));
     }
 
+    @Test
+    public void collectChanges_dirtyNodesMarkedAgain_collectedAgain() {
+        StateNode node = new StateNode(ElementData.class);
+        tree.getRootNode().getFeature(ElementChildrenList.class).add(0, node);
+
+        List<StateNode> collectedNodes = new ArrayList<>();
+        tree.collectChanges(change -> collectedNodes.add(change.getNode()));
+        Assert.assertTrue(collectedNodes.contains(node));
+        Assert.assertFalse(tree.hasDirtyNodes());
+        collectedNodes.clear();
+
+        tree.collectChanges(change -> collectedNodes.add(change.getNode()));
+        Assert.assertTrue(collectedNodes.isEmpty());
+
+        node.getFeature(ElementData.class).setTag("div");
+        Assert.assertTrue(tree.hasDirtyNodes());
+        tree.collectChanges(change -> collectedNodes.add(change.getNode()));
+        Assert.assertEquals(Collections.singletonList(node), collectedNodes);
+    }
+
+    @Test
+    public void serialize_dirtyNodesPreserved() {
+        StateNode node = StateNodeTest.createEmptyNode("node");
+        StateNodeTest.setParent(node, tree.getRootNode());
+
+        StateTree copy = SerializationUtils
+                .deserialize(SerializationUtils.serialize(tree));
+
+        Set<StateNode> dirtyNodes = copy.collectDirtyNodes();
+        Assert.assertEquals(2, dirtyNodes.size());
+        Assert.assertTrue(dirtyNodes.contains(copy.getRootNode()));
+    }
+
+    @Test
+    public void markAndCollect_nodesMarkedRepeatedly_eachNodeVisitedOncePerCollect() {
+        StateNode rootNode = tree.getRootNode();
+        List<CountingStateNode> nodes = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            CountingStateNode node = new CountingStateNode();
+            rootNode.getFeature(ElementChildrenList.class).add(i, node);
+            nodes.add(node);
+        }
+        tree.collectChanges(change -> {
+        });
+
+        for (int round = 1; round <= 3; round++) {
+            nodes.forEach(StateNode::markAsDirty);
+            nodes.forEach(StateNode::markAsDirty);
+            Assert.assertEquals(nodes.size(),
+                    tree.collectDirtyNodes().size());
+
+            nodes.forEach(StateNode::markAsDirty);
+            tree.collectChanges(change -> {
+            });
+            Assert.assertFalse(tree.hasDirtyNodes());
+
+            for (CountingStateNode node : nodes) {
+                Assert.assertEquals(round + 1, node.activeStateUpdates);
+                Assert.assertEquals(round + 1, node.changeCollections);
+            }
+        }
+    }
+
+    private static class CountingStateNode extends StateNode {
+        private int activeStateUpdates;
+        private int changeCollections;
+
+        private CountingStateNode() {
+            super(ElementData.class);
+        }
+
+        @Override
+        public void updateActiveState() {
+            activeStateUpdates++;
+            super.updateActiveState();
+        }
+
+        @Override
+        public void collectChanges(Consumer<NodeChange> collector) {
+            changeCollections++;
+            super.collectChanges(collector);
+        }
+    }
+
 }
@@ -27,7 +27,10 @@ import org.junit.Test;
 import com.vaadin.flow.dom.DisabledUpdateMode;
 import com.vaadin.flow.dom.DomEvent;
 import com.vaadin.flow.dom.DomEventListener;
+import com.vaadin.flow.dom.DomListenerRegistration;
 import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.internal.ConstantPoolKey;
+import com.vaadin.flow.shared.JsonConstants;
 import com.vaadin.flow.shared.Registration;
 
 import elemental.json.Json;
@@ -173,6 +176,42 @@ public class ElementListenersTest
         Assert.assertEquals(1, eventCount.get());
     }
 
+    @Test
+    public void coalesce_allListenersCoalesce_settingsMarkCoalescing() {
+        DomListenerRegistration first = ns.add("foo", noOp).coalesce();
+        Assert.assertTrue(getEventSettings("foo")
+                .hasKey(JsonConstants.EVENT_SETTINGS_COALESCE));
+
+        DomListenerRegistration second = ns.add("foo", noOp)
+                .addEventData("data");
+        Assert.assertFalse(getEventSettings("foo")
+                .hasKey(JsonConstants.EVENT_SETTINGS_COALESCE));
+
+        second.coalesce();
+        JsonObject settings = getEventSettings("foo");
+        Assert.assertTrue(
+                settings.hasKey(JsonConstants.EVENT_SETTINGS_COALESCE));
+        Assert.assertTrue(settings.hasKey("data"));
+        Assert.assertEquals(Collections.singleton("data"),
+                getExpressions("foo"));
+
+        second.remove();
+        first.remove();
+        Assert.assertFalse(ns.contains("foo"));
+    }
+
+    @Test
+    public void coalescedEvent_listenerGetsCount() {
+        AtomicInteger count = new AtomicInteger();
+        ns.add("foo", event -> count.set(event.getCoalescedCount()))
+                .coalesce();
+
+        ns.fireEvent(new DomEvent(new Element("fake"), "foo",
+                Json.createObject(), 5));
+
+        Assert.assertEquals(5, count.get());
+    }
+
     @Test
     public void serializable() {
         ns.add("click", event -> {
@@ -185,6 +224,13 @@ public class ElementListenersTest
         Assert.assertEquals(Collections.singleton("eventdata"), expressions);
     }
 
+    private JsonObject getEventSettings(String name) {
+        ConstantPoolKey key = (ConstantPoolKey) ns.get(name);
+        JsonObject constantPoolUpdate = Json.createObject();
+        key.export(constantPoolUpdate);
+        return constantPoolUpdate.getObject(key.getId());
+    }
+
     private Set<String> getExpressions(String name) {
         return ns.getExpressions(name);
     }
@@ -15,6 +15,7 @@
  */
 package com.vaadin.flow.router;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -23,6 +24,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.Tag;
 import com.vaadin.flow.router.Location;
 import com.vaadin.flow.router.NavigationState;
 import com.vaadin.flow.router.RouteResolver;
@@ -32,6 +34,36 @@ import com.vaadin.flow.server.InvalidRouteConfigurationException;
 
 public class DefaultRouteResolverTest extends RoutingTestBase {
 
+    @Route("wild")
+    @RouteAlias("foo/wild")
+    @Tag(Tag.DIV)
+    public static class WildcardNavigationTarget extends Component
+            implements HasUrlParameter<String> {
+        @Override
+        public void setParameter(BeforeEvent event,
+                @WildcardParameter String parameter) {
+        }
+    }
+
+    @Route("optional")
+    @Tag(Tag.DIV)
+    public static class OptionalNavigationTarget extends Component
+            implements HasUrlParameter<Integer> {
+        @Override
+        public void setParameter(BeforeEvent event,
+                @OptionalParameter Integer parameter) {
+        }
+    }
+
+    @Route("a.b")
+    @Tag(Tag.DIV)
+    public static class DottedNavigationTarget extends Component
+            implements HasUrlParameter<String> {
+        @Override
+        public void setParameter(BeforeEvent event, String parameter) {
+        }
+    }
+
     private RouteResolver resolver;
 
     @Override
@@ -103,6 +135,58 @@ public class DefaultRouteResolverTest extends RoutingTestBase {
         Assert.assertEquals(null, resolveNavigationState("greeting"));
     }
 
+    @Test
+    public void wildcard_route_and_alias_resolved_with_all_segments()
+            throws InvalidRouteConfigurationException {
+        router.getRegistry()
+                .setNavigationTargets(Stream
+                        .of(FooNavigationTarget.class,
+                                FooBarNavigationTarget.class,
+                                WildcardNavigationTarget.class)
+                        .collect(Collectors.toSet()));
+
+        NavigationState state = resolveNavigationState("wild/a/b/c");
+        Assert.assertEquals(WildcardNavigationTarget.class,
+                state.getNavigationTarget());
+        Assert.assertEquals(Arrays.asList("a", "b", "c"),
+                state.getUrlParameters().get());
+        Assert.assertEquals(Collections.emptyList(),
+                resolveNavigationState("wild").getUrlParameters().get());
+
+        state = resolveNavigationState("foo/wild/x");
+        Assert.assertEquals(WildcardNavigationTarget.class,
+                state.getNavigationTarget());
+        Assert.assertEquals("foo/wild", state.getResolvedPath());
+        Assert.assertEquals(FooBarNavigationTarget.class,
+                resolveNavigationTarget("foo/bar"));
+        Assert.assertNull(resolveNavigationState("foo/other"));
+    }
+
+    @Test
+    public void optional_parameter_route_resolved_with_and_without_parameter()
+            throws InvalidRouteConfigurationException {
+        router.getRegistry().setNavigationTargets(
+                Collections.singleton(OptionalNavigationTarget.class));
+
+        Assert.assertEquals(Collections.singletonList("5"),
+                resolveNavigationState("optional/5").getUrlParameters()
+                        .get());
+        Assert.assertEquals(Collections.emptyList(),
+                resolveNavigationState("optional").getUrlParameters().get());
+        Assert.assertNull(resolveNavigationState("optional/5/6"));
+    }
+
+    @Test
+    public void route_with_regex_characters_resolves_parameters()
+            throws InvalidRouteConfigurationException {
+        router.getRegistry().setNavigationTargets(
+                Collections.singleton(DottedNavigationTarget.class));
+
+        Assert.assertEquals(Collections.singletonList("value"),
+                resolveNavigationState("a.b/value").getUrlParameters().get());
+        Assert.assertNull(resolveNavigationState("axb/value"));
+    }
+
     private Class<? extends Component> resolveNavigationTarget(String path) {
         return resolveNavigationState(path).getNavigationTarget();
     }
@@ -6,6 +6,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
@@ -466,6 +467,76 @@ public class BootstrapHandlerTest {
         assertEquals("noscript", body.child(0).tagName());
     }
 
+    @Test
+    public void cachedBootstrapPage_sameAsRenderedPage() throws IOException {
+        mocks.setProductionMode(true);
+        deploymentConfiguration.setApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_BOOTSTRAP_PAGE_CACHE, "true");
+        BootstrapHandler handler = new BootstrapHandler();
+
+        initUI(testUI);
+        assertTrue(BootstrapHandler.isBootstrapPageCacheable(context));
+        String skeletonCreated = writeCachedBootstrapPage(handler);
+
+        initUI(createSessionUI());
+        String skeletonReused = writeCachedBootstrapPage(handler);
+
+        initUI(createSessionUI());
+        context.getUI().getPage().setTitle("Cached");
+        String rendered = BootstrapHandler.getBootstrapPage(context)
+                .outerHtml();
+
+        assertThat(rendered,
+                CoreMatchers.containsString("<title>Cached</title>"));
+        assertThat(rendered, CoreMatchers.containsString("eager.js"));
+        assertEquals(rendered, skeletonCreated);
+        assertEquals(rendered, skeletonReused);
+    }
+
+    @Test
+    public void skeletonCache_full_leastRecentlyUsedEvicted() {
+        BootstrapHandler.SkeletonCache cache = new BootstrapHandler.SkeletonCache(
+                2);
+        BootstrapPageSkeleton skeleton = BootstrapPageSkeleton
+                .create("<html></html>");
+        List<Object> first = Collections.singletonList("first");
+        List<Object> second = Collections.singletonList("second");
+        List<Object> third = Collections.singletonList("third");
+
+        cache.put(first, skeleton);
+        cache.put(second, skeleton);
+        cache.get(first);
+        cache.put(third, skeleton);
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.containsKey(first));
+        assertFalse(cache.containsKey(second));
+        assertTrue(cache.containsKey(third));
+    }
+
+    @Test
+    public void isBootstrapPageCacheable_developmentMode_notCacheable() {
+        deploymentConfiguration.setApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_BOOTSTRAP_PAGE_CACHE, "true");
+        initUI(testUI);
+
+        assertFalse(BootstrapHandler.isBootstrapPageCacheable(context));
+    }
+
+    private TestUI createSessionUI() {
+        TestUI ui = new TestUI();
+        ui.getInternals().setSession(session);
+        return ui;
+    }
+
+    private String writeCachedBootstrapPage(BootstrapHandler handler)
+            throws IOException {
+        context.getUI().getPage().setTitle("Cached");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        handler.writeCachedBootstrapPage(context, out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
     @Test // #1134
     public void testBody() throws Exception {
         initUI(testUI, createVaadinRequest());
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.Text;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.server.HistogramRequestMetrics.Histogram;
+import com.vaadin.flow.server.RequestMetrics.Count;
+import com.vaadin.flow.server.RequestMetrics.Phase;
+import com.vaadin.flow.server.ServletHelper.RequestType;
+import com.vaadin.flow.server.communication.RequestMetricsHandler;
+import com.vaadin.flow.server.communication.ServerRpcHandler;
+import com.vaadin.flow.server.communication.UidlRequestHandler;
+import com.vaadin.flow.server.communication.UidlWriter;
+import com.vaadin.flow.shared.ApplicationConstants;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+
+import elemental.json.Json;
+import elemental.json.JsonObject;
+
+public class HistogramRequestMetricsTest {
+
+    private MockVaadinServletService service;
+
+    @After
+    public void tearDown() {
+        if (service != null) {
+            service.destroy();
+        }
+        CurrentInstance.clearAll();
+    }
+
+    @Test
+    public void histogram_percentilesBoundedByBuckets() {
+        HistogramRequestMetrics metrics = new HistogramRequestMetrics();
+        for (int i = 1; i <= 100; i++) {
+            metrics.recordPhase(Phase.RPC_DECODE, i);
+        }
+
+        Histogram histogram = metrics.getHistogram(Phase.RPC_DECODE);
+        Assert.assertEquals(100, histogram.getCount());
+        Assert.assertEquals(5050, histogram.getSum());
+        Assert.assertEquals(100, histogram.getMax());
+        // 50 is in the bucket [32, 63]
+        Assert.assertEquals(63, histogram.getPercentile(50));
+        // 99 is in the bucket [64, 127], bounded by the max
+        Assert.assertEquals(100, histogram.getPercentile(99));
+        Assert.assertEquals(1, histogram.getPercentile(0));
+    }
+
+    @Test
+    public void histogram_zerosAndNegativeValues_recordedAsZero() {
+        HistogramRequestMetrics metrics = new HistogramRequestMetrics();
+        metrics.recordCount(Count.DIRTY_NODES, 0);
+        metrics.recordCount(Count.DIRTY_NODES, -5);
+
+        Histogram histogram = metrics.getHistogram(Count.DIRTY_NODES);
+        Assert.assertEquals(2, histogram.getCount());
+        Assert.assertEquals(0, histogram.getSum());
+        Assert.assertEquals(0, histogram.getPercentile(99));
+        Assert.assertEquals(0,
+                metrics.getHistogram(Count.BYTES_WRITTEN).getPercentile(50));
+    }
+
+    @Test
+    public void toJson_containsAllPhasesAndCounts() {
+        HistogramRequestMetrics metrics = new HistogramRequestMetrics();
+        metrics.recordPhase(Phase.SESSION_LOCK_WAIT, 10);
+
+        JsonObject json = metrics.toJson();
+
+        for (Phase phase : Phase.values()) {
+            Assert.assertTrue(json.getObject("phases").hasKey(phase.name()));
+        }
+        for (Count count : Count.values()) {
+            Assert.assertTrue(json.getObject("counts").hasKey(count.name()));
+        }
+        JsonObject lockWait = json.getObject("phases")
+                .getObject(Phase.SESSION_LOCK_WAIT.name());
+        Assert.assertEquals(1, lockWait.getNumber("count"), 0);
+        Assert.assertEquals(10, lockWait.getNumber("max"), 0);
+    }
+
+    @Test
+    public void metricsDisabledByDefault() {
+        service = createService(false);
+
+        Assert.assertNull(service.getRequestMetrics());
+    }
+
+    @Test
+    public void metricsEnabled_histogramAndHandlerUsed() throws IOException {
+        service = createService(true);
+
+        Assert.assertTrue(service
+                .getRequestMetrics() instanceof HistogramRequestMetrics);
+
+        RequestMetricsHandler handler = new RequestMetricsHandler(
+                (HistogramRequestMetrics) service.getRequestMetrics());
+        VaadinRequest request = Mockito.mock(VaadinRequest.class);
+        VaadinResponse response = Mockito.mock(VaadinResponse.class);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+
+        Assert.assertFalse(handler.handleRequest(null, request, response));
+
+        Mockito.when(
+                request.getParameter(ApplicationConstants.REQUEST_TYPE_PARAMETER))
+                .thenReturn(RequestMetricsHandler.REQUEST_TYPE);
+        Assert.assertTrue(handler.handleRequest(null, request, response));
+
+        JsonObject json = Json
+                .parse(new String(out.toByteArray(), StandardCharsets.UTF_8));
+        Assert.assertTrue(json.hasKey("phases"));
+    }
+
+    @Test
+    public void createUidl_phasesAndCountsRecorded() {
+        service = createService(true);
+        MockVaadinSession session = new MockVaadinSession(service);
+        session.lock();
+        try {
+            UI ui = new UI();
+            ui.getInternals().setSession(session);
+            ui.doInit(Mockito.mock(VaadinServletRequest.class),
+                    session.getNextUIid());
+            session.addUI(ui);
+            ui.add(new Text("foo"), new Text("bar"));
+
+            new UidlWriter().createUidl(ui, false);
+        } finally {
+            session.unlock();
+        }
+
+        HistogramRequestMetrics metrics = (HistogramRequestMetrics) service
+                .getRequestMetrics();
+        Assert.assertEquals(1, metrics
+                .getHistogram(Phase.BEFORE_CLIENT_RESPONSE).getCount());
+        Assert.assertEquals(1,
+                metrics.getHistogram(Phase.COLLECT_CHANGES).getCount());
+        Assert.assertEquals(1,
+                metrics.getHistogram(Phase.JSON_ENCODE).getCount());
+        Assert.assertEquals(1,
+                metrics.getHistogram(Count.PENDING_ACCESS_TASKS).getCount());
+        // At least the UI node and the nodes of both texts
+        Assert.assertTrue(
+                metrics.getHistogram(Count.DIRTY_NODES).getMax() >= 3);
+    }
+
+    @Test
+    public void uidlRequest_uiLocking_lockWaitWhileLockedAndSerializeSeparate()
+            throws IOException {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        configuration.setApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_UI_LOCKING, "true");
+        AtomicReference<VaadinSession> session = new AtomicReference<>();
+        AtomicReference<UI> ui = new AtomicReference<>();
+        List<Phase> phases = new ArrayList<>();
+        List<Boolean> lockedWhenLockWaitRecorded = new ArrayList<>();
+        RequestMetrics metrics = new RequestMetrics() {
+            @Override
+            public void recordPhase(Phase phase, long nanos) {
+                phases.add(phase);
+                if (phase == Phase.SESSION_LOCK_WAIT) {
+                    lockedWhenLockWaitRecorded.add(session.get().hasLock());
+                }
+            }
+
+            @Override
+            public void recordCount(Count count, long value) {
+                // Not verified
+            }
+        };
+        service = new MockVaadinServletService(configuration) {
+            @Override
+            protected RequestMetrics createRequestMetrics() {
+                return metrics;
+            }
+
+            @Override
+            public UI findUI(VaadinRequest request) {
+                return ui.get();
+            }
+        };
+        service.init();
+
+        session.set(new MockVaadinSession(service));
+        session.get().lock();
+        try {
+            session.get().setConfiguration(configuration);
+            ui.set(new UI());
+            ui.get().getInternals().setSession(session.get());
+            ui.get().doInit(Mockito.mock(VaadinServletRequest.class), 0);
+            session.get().addUI(ui.get());
+        } finally {
+            session.get().unlock();
+        }
+
+        VaadinRequest request = Mockito.mock(VaadinRequest.class);
+        Mockito.when(
+                request.getParameter(ApplicationConstants.REQUEST_TYPE_PARAMETER))
+                .thenReturn(RequestType.UIDL.getIdentifier());
+        VaadinResponse response = Mockito.mock(VaadinResponse.class);
+        Mockito.when(response.getOutputStream())
+                .thenReturn(new ByteArrayOutputStream());
+        UidlRequestHandler handler = new UidlRequestHandler() {
+            @Override
+            protected ServerRpcHandler createRpcHandler() {
+                return Mockito.mock(ServerRpcHandler.class);
+            }
+        };
+
+        Assert.assertTrue(
+                handler.handleRequest(session.get(), request, response));
+
+        Assert.assertEquals(Collections.singletonList(true),
+                lockedWhenLockWaitRecorded);
+        Assert.assertEquals(1,
+                Collections.frequency(phases, Phase.JSON_ENCODE));
+        Assert.assertEquals(1,
+                Collections.frequency(phases, Phase.MESSAGE_SERIALIZE));
+    }
+
+    private static MockVaadinServletService createService(boolean enabled) {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        if (enabled) {
+            configuration.setApplicationOrSystemProperty(
+                    Constants.SERVLET_PARAMETER_REQUEST_METRICS, "true");
+        }
+        MockVaadinServletService service = new MockVaadinServletService(
+                configuration);
+        service.init();
+        return service;
+    }
+}
@@ -16,12 +16,21 @@
 package com.vaadin.flow.server;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.util.Random;
 
 import javax.servlet.ServletContext;
 
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 
 import com.vaadin.flow.function.ContentTypeResolver;
@@ -29,6 +38,11 @@ import com.vaadin.flow.server.StreamResource;
 
 public class StreamResourceTest {
 
+    private static final int DATA_SIZE = 1024 * 1024;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void getDefaultContentTypeResolver() {
         StreamResource resource = new StreamResource("foo",
@@ -62,6 +76,113 @@ public class StreamResourceTest {
         assertContentType(resource, resource.getContentTypeResolver());
     }
 
+    @Test
+    public void pipe_requiresLock_lockedPerBufferNotPerKilobyte()
+            throws IOException {
+        byte[] data = createData();
+        StreamResource resource = new StreamResource("foo",
+                () -> new ByteArrayInputStream(data));
+        VaadinSession session = Mockito.mock(VaadinSession.class);
+
+        Assert.assertArrayEquals(data, write(resource, session));
+
+        // 8, 16 and 32 KB while growing, then 64 KB reads and the final read
+        int expectedLocks = 1 + 3 + (DATA_SIZE - 56 * 1024) / (64 * 1024)
+                + 1 + 1;
+        Mockito.verify(session, Mockito.times(expectedLocks)).lock();
+        Mockito.verify(session, Mockito.times(expectedLocks)).unlock();
+    }
+
+    @Test
+    public void pipe_noLockRequired_lockedOnlyForCreation() throws IOException {
+        byte[] data = createData();
+        StreamResource resource = new StreamResource("foo",
+                new InputStreamFactory() {
+                    @Override
+                    public InputStream createInputStream() {
+                        return new ByteArrayInputStream(data);
+                    }
+
+                    @Override
+                    public boolean requiresLock() {
+                        return false;
+                    }
+                });
+        VaadinSession session = Mockito.mock(VaadinSession.class);
+
+        Assert.assertArrayEquals(data, write(resource, session));
+        Mockito.verify(session, Mockito.times(1)).lock();
+    }
+
+    @Test
+    public void pipe_fileInputStream_transfersFile() throws IOException {
+        byte[] data = createData();
+        File file = createFile(data);
+        StreamResource resource = new StreamResource("foo",
+                new InputStreamFactory() {
+                    @Override
+                    public InputStream createInputStream() {
+                        try {
+                            return new FileInputStream(file);
+                        } catch (IOException e) {
+                            throw new AssertionError(e);
+                        }
+                    }
+
+                    @Override
+                    public boolean requiresLock() {
+                        return false;
+                    }
+                });
+        VaadinSession session = Mockito.mock(VaadinSession.class);
+
+        Assert.assertArrayEquals(data, write(resource, session));
+        Mockito.verify(session, Mockito.times(1)).lock();
+    }
+
+    @Test
+    public void pipe_pathChannelFactory_transfersFile() throws IOException {
+        byte[] data = createData();
+        File file = createFile(data);
+        StreamResource resource = new StreamResource("foo",
+                ReadableChannelFactory.of(file.toPath()));
+        VaadinSession session = Mockito.mock(VaadinSession.class);
+
+        Assert.assertArrayEquals(data, write(resource, session));
+        Mockito.verify(session, Mockito.times(1)).lock();
+    }
+
+    @Test
+    public void pipe_channelFactory_copiesChannel() throws IOException {
+        byte[] data = createData();
+        ReadableChannelFactory factory = () -> Channels
+                .newChannel(new ByteArrayInputStream(data));
+        StreamResource resource = new StreamResource("foo", factory);
+        VaadinSession session = Mockito.mock(VaadinSession.class);
+
+        Assert.assertArrayEquals(data, write(resource, session));
+        Mockito.verify(session, Mockito.times(1)).lock();
+    }
+
+    private byte[] write(StreamResource resource, VaadinSession session)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        resource.getWriter().accept(out, session);
+        return out.toByteArray();
+    }
+
+    private File createFile(byte[] data) throws IOException {
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), data);
+        return file;
+    }
+
+    private static byte[] createData() {
+        byte[] data = new byte[DATA_SIZE];
+        new Random(42).nextBytes(data);
+        return data;
+    }
+
     private void assertContentType(StreamResource resource,
             ContentTypeResolver resolver) {
         ServletContext context = Mockito.mock(ServletContext.class);
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.Text;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.server.ServletHelper.RequestType;
+import com.vaadin.flow.server.communication.HeartbeatHandler;
+import com.vaadin.flow.shared.ApplicationConstants;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+
+public class UIPassivationTest {
+
+    private MockDeploymentConfiguration configuration;
+    private MockVaadinServletService service;
+    private MockVaadinSession session;
+    private VaadinRequest request;
+
+    private static class NotSerializable {
+    }
+
+    private static class NotSerializableText extends Text {
+        @SuppressWarnings("unused")
+        private final NotSerializable value = new NotSerializable();
+
+        private NotSerializableText() {
+            super("foo");
+        }
+    }
+
+    @Before
+    public void setUp() {
+        configuration = new MockDeploymentConfiguration();
+        service = new MockVaadinServletService(configuration);
+        service.init();
+        session = new MockVaadinSession(service);
+
+        WrappedSession wrappedSession = Mockito.mock(WrappedSession.class);
+        Mockito.when(wrappedSession.getId()).thenReturn("session");
+        Mockito.when(wrappedSession.getAttribute(Mockito.anyString()))
+                .thenAnswer(invocation -> ((String) invocation
+                        .getArguments()[0]).endsWith(".lock")
+                                ? session.getLockInstance()
+                                : session);
+
+        request = Mockito.mock(VaadinRequest.class);
+        Mockito.when(request.getWrappedSession()).thenReturn(wrappedSession);
+
+        session.lock();
+        session.refreshTransients(wrappedSession, service);
+    }
+
+    @After
+    public void tearDown() {
+        session.getUIPassivation().discardAll();
+        session.unlock();
+        service.destroy();
+        CurrentInstance.clearAll();
+    }
+
+    @Test
+    public void idleUI_passivatedAndRestoredWithState() {
+        setPassivationTimeout(0);
+        UI ui = createUI(new Text("foo"));
+        int uiId = ui.getUIId();
+
+        service.cleanupSession(session);
+
+        Assert.assertNull(session.getUIById(uiId));
+        Assert.assertTrue(session.getUIPassivation().isPassivated(uiId));
+
+        UI restored = findUI(uiId);
+
+        Assert.assertNotNull(restored);
+        Assert.assertNotSame(ui, restored);
+        Assert.assertSame(session, restored.getSession());
+        Assert.assertSame(restored, session.getUIById(uiId));
+        Assert.assertEquals("foo", restored.getElement().getTextRecursively());
+        Assert.assertFalse(session.getUIPassivation().isPassivated(uiId));
+    }
+
+    @Test
+    public void passivationDisabledByDefault_uiKeptInSession() {
+        UI ui = createUI();
+
+        service.cleanupSession(session);
+
+        Assert.assertSame(ui, session.getUIById(ui.getUIId()));
+    }
+
+    @Test
+    public void recentRequest_uiKeptInSession() {
+        setPassivationTimeout(60);
+        UI ui = createUI();
+
+        service.cleanupSession(session);
+
+        Assert.assertSame(ui, session.getUIById(ui.getUIId()));
+    }
+
+    @Test
+    public void pendingChanges_uiKeptInSession() {
+        setPassivationTimeout(0);
+        UI ui = createUI(new Text("foo"));
+        ui.getInternals().setLastRequestTimestamp(0);
+        ui.getElement().setProperty("foo", "bar");
+
+        service.cleanupSession(session);
+
+        Assert.assertSame(ui, session.getUIById(ui.getUIId()));
+    }
+
+    @Test
+    public void notSerializable_uiKeptInSession() {
+        setPassivationTimeout(0);
+        UI ui = createUI(new NotSerializableText());
+
+        service.cleanupSession(session);
+
+        Assert.assertSame(ui, session.getUIById(ui.getUIId()));
+        Assert.assertTrue(session.getUIPassivation().hasFailed(ui.getUIId()));
+    }
+
+    @Test
+    public void heartbeatExpired_passivatedUIDiscarded() {
+        setPassivationTimeout(0);
+        configuration.setHeartbeatInterval(1);
+        UI ui = createUI();
+        int uiId = ui.getUIId();
+        ui.getInternals().setLastHeartbeatTimestamp(
+                System.currentTimeMillis() - 2000);
+
+        service.cleanupSession(session);
+        Assert.assertTrue(session.getUIPassivation().isPassivated(uiId));
+
+        session.getUIPassivation()
+                .discardExpired(System.currentTimeMillis() - 1000);
+
+        Assert.assertNull(findUI(uiId));
+    }
+
+    @Test
+    public void heartbeat_passivatedUINotRestored_heartbeatUpdated()
+            throws Exception {
+        setPassivationTimeout(0);
+        configuration.setHeartbeatInterval(1);
+        UI ui = createUI();
+        int uiId = ui.getUIId();
+        ui.getInternals().setLastHeartbeatTimestamp(
+                System.currentTimeMillis() - 2000);
+        service.cleanupSession(session);
+
+        Mockito.when(request
+                .getParameter(ApplicationConstants.REQUEST_TYPE_PARAMETER))
+                .thenReturn(RequestType.HEARTBEAT.getIdentifier());
+        Mockito.when(request
+                .getParameter(ApplicationConstants.UI_ID_PARAMETER))
+                .thenReturn(String.valueOf(uiId));
+        VaadinResponse response = Mockito.mock(VaadinResponse.class);
+        new HeartbeatHandler().synchronizedHandleRequest(session, request,
+                response);
+
+        Mockito.verify(response, Mockito.never())
+                .sendError(Mockito.anyInt(), Mockito.anyString());
+        Assert.assertNull(session.getUIById(uiId));
+        Assert.assertTrue(session.getUIPassivation().isPassivated(uiId));
+
+        session.getUIPassivation()
+                .discardExpired(System.currentTimeMillis() - 1000);
+        Assert.assertTrue(session.getUIPassivation().isPassivated(uiId));
+    }
+
+    @Test
+    public void serviceDestroyed_passivatedUIFilesDeleted() throws Exception {
+        setPassivationTimeout(0);
+        createUI();
+        service.cleanupSession(session);
+        Path directory = service.getUIPassivationDirectory();
+        try (Stream<Path> files = Files.list(directory)) {
+            Assert.assertTrue(files.findAny().isPresent());
+        }
+
+        service.destroy();
+
+        Assert.assertFalse(Files.exists(directory));
+    }
+
+    @Test
+    public void sessionSerialized_passivatedUIRestoredFromMemory()
+            throws Exception {
+        setPassivationTimeout(0);
+        UI ui = createUI(new Text("foo"));
+        int uiId = ui.getUIId();
+        service.cleanupSession(session);
+
+        UIPassivation copy = serializeAndDeserialize(
+                session.getUIPassivation());
+        session.getUIPassivation().discardAll();
+
+        UI restored = copy.restore(session, uiId);
+
+        Assert.assertNotNull(restored);
+        Assert.assertEquals("foo", restored.getElement().getTextRecursively());
+    }
+
+    private void setPassivationTimeout(int seconds) {
+        configuration.setApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_UI_PASSIVATION_TIMEOUT,
+                String.valueOf(seconds));
+    }
+
+    private UI createUI(Component... components) {
+        UI ui = new UI();
+        ui.getInternals().setSession(session);
+        ui.doInit(Mockito.mock(VaadinServletRequest.class),
+                session.getNextUIid());
+        session.addUI(ui);
+        ui.add(components);
+        // Passivation happens at the end of requests for other UIs
+        UI.setCurrent(null);
+        // Changes are sent to the client by the initial response
+        ui.getInternals().getStateTree().collectChanges(change -> {
+        });
+        return ui;
+    }
+
+    private UI findUI(int uiId) {
+        Mockito.when(request
+                .getParameter(ApplicationConstants.UI_ID_PARAMETER))
+                .thenReturn(String.valueOf(uiId));
+        return service.findUI(request);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Serializable> T serializeAndDeserialize(
+            T instance) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(instance);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (T) in.readObject();
+        }
+    }
+}
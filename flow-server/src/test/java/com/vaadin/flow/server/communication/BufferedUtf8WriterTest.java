@@ -0,0 +1,106 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BufferedUtf8WriterTest {
+
+    @Test
+    public void writeLargerThanBuffer_allContentWritten() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; builder.length() < BufferedUtf8Writer.BUFFER_SIZE
+                * 3; i++) {
+            // Mix one, two, three and four byte sequences
+            builder.append("aä€😀").append(i);
+        }
+        String content = builder.toString();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BufferedUtf8Writer writer = new BufferedUtf8Writer(out);
+        // Odd sized chunks to split surrogate pairs between buffer fills
+        for (int i = 0; i < content.length(); i += 7) {
+            writer.write(content, i, Math.min(7, content.length() - i));
+        }
+        writer.close();
+
+        byte[] expected = content.getBytes(StandardCharsets.UTF_8);
+        Assert.assertArrayEquals(expected, out.toByteArray());
+        Assert.assertEquals(expected.length, writer.getBytesWritten());
+    }
+
+    @Test
+    public void close_streamNotClosed() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() throws IOException {
+                Assert.fail("Underlying stream should not be closed");
+            }
+        };
+        try (Writer writer = new BufferedUtf8Writer(out)) {
+            writer.write("foo");
+        }
+        Assert.assertEquals("foo",
+                new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void nestedWriters_independentBuffers() throws IOException {
+        ByteArrayOutputStream outer = new ByteArrayOutputStream();
+        ByteArrayOutputStream inner = new ByteArrayOutputStream();
+        try (Writer outerWriter = new BufferedUtf8Writer(outer)) {
+            outerWriter.write("outer");
+            try (Writer innerWriter = new BufferedUtf8Writer(inner)) {
+                innerWriter.write("inner");
+            }
+            outerWriter.write("-end");
+        }
+        Assert.assertEquals("outer-end",
+                new String(outer.toByteArray(), StandardCharsets.UTF_8));
+        Assert.assertEquals("inner",
+                new String(inner.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test(expected = IOException.class)
+    public void writeAfterClose_throws() throws IOException {
+        Writer writer = new BufferedUtf8Writer(new ByteArrayOutputStream());
+        writer.close();
+        writer.write("foo");
+    }
+
+    @Test
+    public void discard_pendingDataNotWritten() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BufferedUtf8Writer writer = new BufferedUtf8Writer(out);
+        writer.write("foo");
+        writer.discard();
+
+        Assert.assertEquals(0, out.size());
+
+        // The thread buffers are released
+        BufferedUtf8Writer next = new BufferedUtf8Writer(out);
+        next.write("bar");
+        next.close();
+        Assert.assertEquals("bar",
+                new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
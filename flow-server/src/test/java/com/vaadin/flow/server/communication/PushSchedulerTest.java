@@ -0,0 +1,211 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.server.Constants;
+import com.vaadin.flow.server.MockVaadinServletService;
+import com.vaadin.flow.server.MockVaadinSession;
+import com.vaadin.flow.server.VaadinServletRequest;
+import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.shared.communication.PushMode;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+
+public class PushSchedulerTest {
+
+    private MockDeploymentConfiguration configuration;
+    private MockVaadinServletService service;
+    private VaadinSession session;
+    private UI ui;
+    private RecordingPushConnection connection;
+
+    private long now = 1000;
+    private List<Runnable> scheduledPushes = new ArrayList<>();
+    private List<Long> scheduledDelays = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        ScheduledExecutorService executor = Mockito
+                .mock(ScheduledExecutorService.class);
+        Mockito.when(executor.schedule(Mockito.any(Runnable.class),
+                Mockito.anyLong(), Mockito.eq(TimeUnit.MILLISECONDS)))
+                .then(invocation -> {
+                    scheduledPushes.add(invocation.getArgumentAt(0,
+                            Runnable.class));
+                    scheduledDelays
+                            .add(invocation.getArgumentAt(1, Long.class));
+                    return null;
+                });
+        Clock clock = Mockito.mock(Clock.class);
+        Mockito.when(clock.millis()).then(invocation -> now);
+
+        configuration = new MockDeploymentConfiguration();
+        service = new MockVaadinServletService(configuration) {
+            @Override
+            protected PushScheduler createPushScheduler() {
+                return new PushScheduler(executor, clock);
+            }
+        };
+        service.init();
+        session = new MockVaadinSession(service);
+
+        ui = new UI();
+        session.lock();
+        try {
+            ui.getInternals().setSession(session);
+            ui.doInit(Mockito.mock(VaadinServletRequest.class),
+                    session.getNextUIid());
+            ui.getPushConfiguration().setPushMode(PushMode.AUTOMATIC);
+            ui.getInternals()
+                    .setPushConnection(new RecordingPushConnection(ui));
+            session.addUI(ui);
+        } finally {
+            session.unlock();
+        }
+
+        // Start recording after the initial push
+        connection = new RecordingPushConnection(ui);
+        session.lock();
+        try {
+            ui.getInternals().setPushConnection(connection);
+        } finally {
+            session.unlock();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        service.destroy();
+        CurrentInstance.clearAll();
+    }
+
+    @Test
+    public void noPushInterval_pushedByUnlockingThread() {
+        change(1);
+
+        Assert.assertEquals(1, getPushCount());
+        Assert.assertSame(Thread.currentThread(),
+                connection.getPushThreads().get(0));
+        Assert.assertEquals(0, scheduledPushes.size());
+    }
+
+    @Test
+    public void pushInterval_firstChangeScheduledWithoutDelay() {
+        setPushInterval(100);
+
+        change(1);
+
+        Assert.assertEquals(0, getPushCount());
+        Assert.assertEquals(1, scheduledPushes.size());
+        Assert.assertEquals(Long.valueOf(0), scheduledDelays.get(0));
+
+        runScheduledPushes();
+        Assert.assertEquals(1, getPushCount());
+        Assert.assertFalse(isDirty());
+    }
+
+    @Test
+    public void pushInterval_changesWithinIntervalMergedIntoOnePush() {
+        setPushInterval(1000);
+
+        change(0);
+        runScheduledPushes();
+        Assert.assertEquals(1, getPushCount());
+
+        now += 10;
+        for (int i = 1; i <= 50; i++) {
+            change(i);
+        }
+        Assert.assertEquals(1, scheduledPushes.size());
+        Assert.assertEquals(Long.valueOf(990), scheduledDelays.get(0));
+        Assert.assertEquals(1, getPushCount());
+
+        runScheduledPushes();
+        Assert.assertEquals(2, getPushCount());
+        Assert.assertFalse(isDirty());
+    }
+
+    @Test
+    public void pushInterval_changeAfterInterval_scheduledWithoutDelay() {
+        setPushInterval(100);
+
+        change(0);
+        runScheduledPushes();
+
+        now += 150;
+        change(1);
+        Assert.assertEquals(Long.valueOf(0), scheduledDelays.get(0));
+    }
+
+    @Test
+    public void pushInterval_uiWithoutChanges_notPushed() {
+        setPushInterval(10);
+
+        session.lock();
+        session.unlock();
+
+        Assert.assertEquals(0, scheduledPushes.size());
+        Assert.assertEquals(0, getPushCount());
+    }
+
+    private void setPushInterval(int interval) {
+        configuration.setApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_PUSH_INTERVAL,
+                String.valueOf(interval));
+    }
+
+    private void change(int value) {
+        session.lock();
+        try {
+            ui.getElement().setAttribute("value", String.valueOf(value));
+        } finally {
+            session.unlock();
+        }
+    }
+
+    private void runScheduledPushes() {
+        List<Runnable> pushes = new ArrayList<>(scheduledPushes);
+        scheduledPushes.clear();
+        scheduledDelays.clear();
+        pushes.forEach(Runnable::run);
+    }
+
+    private int getPushCount() {
+        return connection.getPushThreads().size();
+    }
+
+    private boolean isDirty() {
+        session.lock();
+        try {
+            return ui.getInternals().isDirty();
+        } finally {
+            session.unlock();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.vaadin.flow.component.UI;
+
+/**
+ * A push connection that records the pushes instead of sending anything to
+ * the client. Pending changes are collected like a real push would do.
+ */
+public class RecordingPushConnection implements PushConnection {
+
+    private final UI ui;
+    private final List<Thread> pushThreads = new CopyOnWriteArrayList<>();
+    private final List<UidlFragmentCache> caches = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a new push connection for the given UI.
+     *
+     * @param ui
+     *            the UI to push
+     */
+    public RecordingPushConnection(UI ui) {
+        this.ui = ui;
+    }
+
+    @Override
+    public void push() {
+        ui.getInternals().getStateTree().collectChanges(change -> {
+        });
+        UidlFragmentCache fragmentCache = UidlFragmentCache.getCurrent();
+        if (fragmentCache != null) {
+            caches.add(fragmentCache);
+        }
+        pushThreads.add(Thread.currentThread());
+    }
+
+    @Override
+    public void disconnect() {
+    }
+
+    @Override
+    public boolean isConnected() {
+        return true;
+    }
+
+    /**
+     * Gets the threads that have run the recorded pushes.
+     *
+     * @return the pushing threads, in push order
+     */
+    public List<Thread> getPushThreads() {
+        return pushThreads;
+    }
+
+    /**
+     * Gets the fragment caches that were current during the recorded pushes.
+     *
+     * @return the fragment caches, in push order
+     */
+    public List<UidlFragmentCache> getFragmentCaches() {
+        return caches;
+    }
+}
@@ -6,21 +6,27 @@ import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.internal.UIInternals;
+import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.internal.StateTree;
+import com.vaadin.flow.server.Command;
 import com.vaadin.flow.server.MockServletConfig;
 import com.vaadin.flow.server.StreamReceiver;
 import com.vaadin.flow.server.StreamResourceRegistry;
 import com.vaadin.flow.server.StreamVariable;
+import com.vaadin.flow.server.StreamVariable.StreamingProgressEvent;
 import com.vaadin.flow.server.VaadinRequest;
 import com.vaadin.flow.server.VaadinResponse;
 import com.vaadin.flow.server.VaadinServlet;
@@ -31,6 +37,7 @@ import com.vaadin.flow.server.communication.StreamReceiverHandler;
 import com.vaadin.flow.server.communication.StreamRequestHandler;
 
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
@@ -245,4 +252,69 @@ public class StreamReceiverHandlerTest {
 
         verifyZeroInteractions(responseOutput);
     }
+
+    @Test
+    public void progressEventsAreCoalescedAndDeliveredThroughUi()
+            throws IOException {
+        byte[] content = new byte[1024 * 1024];
+        inputStream = createInputStream(new String(content));
+        contentLength = String.valueOf(content.length);
+        when(streamVariable.listenProgress()).thenReturn(true);
+        when(ui.access(Mockito.any())).thenAnswer(invocation -> {
+            invocation.getArgumentAt(0, Command.class).execute();
+            return null;
+        });
+
+        handler.handleRequest(session, request, response, streamReceiver,
+                String.valueOf(uiId), expectedSecurityKey);
+
+        // One event when the upload starts and one when it has ended, unless
+        // the test machine is really slow
+        ArgumentCaptor<StreamingProgressEvent> events = ArgumentCaptor
+                .forClass(StreamingProgressEvent.class);
+        verify(streamVariable, Mockito.atMost(4)).onProgress(events.capture());
+        verify(ui, Mockito.atLeastOnce()).access(Mockito.any());
+        Assert.assertEquals(content.length,
+                events.getValue().getBytesReceived());
+        verify(streamVariable).streamingFinished(Mockito.any());
+    }
+
+    @Test
+    public void concurrentUploadLimitReached_uploadRejected()
+            throws IOException {
+        mockMaxConcurrentUploads(1);
+        when(session.getAttribute(Mockito.anyString()))
+                .thenReturn(new AtomicInteger(1));
+
+        handler.handleRequest(session, request, response, streamReceiver,
+                String.valueOf(uiId), expectedSecurityKey);
+
+        verify(response).sendError(Mockito.eq(429), Mockito.anyString());
+        verify(streamVariable, times(0)).streamingStarted(Mockito.any());
+        verifyZeroInteractions(responseOutput);
+    }
+
+    @Test
+    public void concurrentUploadLimitNotReached_uploadReceived()
+            throws IOException {
+        mockMaxConcurrentUploads(2);
+        AtomicInteger activeUploads = new AtomicInteger(1);
+        when(session.getAttribute(Mockito.anyString()))
+                .thenReturn(activeUploads);
+
+        handler.handleRequest(session, request, response, streamReceiver,
+                String.valueOf(uiId), expectedSecurityKey);
+
+        verify(streamVariable).streamingFinished(Mockito.any());
+        verify(responseOutput).close();
+        Assert.assertEquals(1, activeUploads.get());
+    }
+
+    private void mockMaxConcurrentUploads(int maxConcurrentUploads) {
+        DeploymentConfiguration configuration = mock(
+                DeploymentConfiguration.class);
+        when(configuration.getMaxConcurrentUploads())
+                .thenReturn(maxConcurrentUploads);
+        when(session.getConfiguration()).thenReturn(configuration);
+    }
 }
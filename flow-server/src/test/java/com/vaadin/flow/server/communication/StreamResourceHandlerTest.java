@@ -0,0 +1,290 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.server.ReadableChannelFactory;
+import com.vaadin.flow.server.StreamResource;
+import com.vaadin.flow.server.VaadinResponse;
+import com.vaadin.flow.server.VaadinServletRequest;
+import com.vaadin.flow.server.VaadinSession;
+
+public class StreamResourceHandlerTest {
+
+    private static final byte[] DATA = "0123456789"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private static final long LAST_MODIFIED = 1500000000000L;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private StreamResourceHandler handler = new StreamResourceHandler();
+    private VaadinSession session = Mockito.mock(VaadinSession.class);
+    private VaadinServletRequest request = Mockito
+            .mock(VaadinServletRequest.class);
+    private VaadinResponse response = Mockito.mock(VaadinResponse.class);
+    private ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    private StreamResource resource;
+
+    @Before
+    public void setUp() throws IOException {
+        Mockito.when(request.getServletContext())
+                .thenReturn(Mockito.mock(ServletContext.class));
+        Mockito.when(request.getMethod()).thenReturn("GET");
+        Mockito.when(request.getDateHeader(Mockito.anyString()))
+                .thenReturn(-1L);
+        Mockito.when(response.getOutputStream())
+                .thenReturn(new ServletOutputStream() {
+                    @Override
+                    public void write(int b) {
+                        output.write(b);
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                    }
+                });
+
+        resource = new StreamResource("data",
+                () -> new ByteArrayInputStream(DATA)).setLength(DATA.length)
+                        .setLastModified(LAST_MODIFIED)
+                        .setEntityTag("\"v1\"");
+    }
+
+    @Test
+    public void noRange_wholeResourceWithMetadata() throws IOException {
+        handle();
+
+        Assert.assertArrayEquals(DATA, output.toByteArray());
+        Mockito.verify(response).setHeader("Accept-Ranges", "bytes");
+        Mockito.verify(response).setHeader("Content-Length", "10");
+        Mockito.verify(response).setHeader("ETag", "\"v1\"");
+        Mockito.verify(response).setDateHeader("Last-Modified",
+                LAST_MODIFIED);
+        Mockito.verify(response, Mockito.never())
+                .setStatus(Mockito.anyInt());
+    }
+
+    @Test
+    public void unknownLength_rangeIgnored() throws IOException {
+        resource.setLength(-1);
+        setHeader("Range", "bytes=2-4");
+
+        handle();
+
+        Assert.assertArrayEquals(DATA, output.toByteArray());
+        Mockito.verify(response, Mockito.never()).setHeader(
+                Mockito.eq("Accept-Ranges"), Mockito.anyString());
+        Mockito.verify(response, Mockito.never())
+                .setStatus(Mockito.anyInt());
+    }
+
+    @Test
+    public void range_partialContent() throws IOException {
+        setHeader("Range", "bytes=2-4");
+
+        handle();
+
+        assertPartialContent(2, 4);
+    }
+
+    @Test
+    public void openEndedRange_partialContent() throws IOException {
+        setHeader("Range", "bytes=7-");
+
+        handle();
+
+        assertPartialContent(7, 9);
+    }
+
+    @Test
+    public void suffixRange_partialContent() throws IOException {
+        setHeader("Range", "bytes=-3");
+
+        handle();
+
+        assertPartialContent(7, 9);
+    }
+
+    @Test
+    public void rangeBeyondEnd_truncated() throws IOException {
+        setHeader("Range", "bytes=8-100");
+
+        handle();
+
+        assertPartialContent(8, 9);
+    }
+
+    @Test
+    public void unsatisfiableRange_rangeNotSatisfiable() throws IOException {
+        setHeader("Range", "bytes=10-");
+
+        handle();
+
+        Assert.assertEquals(0, output.size());
+        Mockito.verify(response).setStatus(
+                HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        Mockito.verify(response).setHeader("Content-Range", "bytes */10");
+    }
+
+    @Test
+    public void multipleRanges_wholeResource() throws IOException {
+        setHeader("Range", "bytes=0-1,4-5");
+
+        handle();
+
+        Assert.assertArrayEquals(DATA, output.toByteArray());
+        Mockito.verify(response, Mockito.never())
+                .setStatus(Mockito.anyInt());
+    }
+
+    @Test
+    public void invalidRange_wholeResource() throws IOException {
+        setHeader("Range", "bytes=5-2");
+
+        handle();
+
+        Assert.assertArrayEquals(DATA, output.toByteArray());
+    }
+
+    @Test
+    public void ifRangeMatches_partialContent() throws IOException {
+        setHeader("Range", "bytes=2-4");
+        setHeader("If-Range", "\"v1\"");
+
+        handle();
+
+        assertPartialContent(2, 4);
+    }
+
+    @Test
+    public void ifRangeDoesNotMatch_wholeResource() throws IOException {
+        setHeader("Range", "bytes=2-4");
+        setHeader("If-Range", "\"v0\"");
+
+        handle();
+
+        Assert.assertArrayEquals(DATA, output.toByteArray());
+        Mockito.verify(response, Mockito.never())
+                .setStatus(Mockito.anyInt());
+    }
+
+    @Test
+    public void ifNoneMatch_notModified() throws IOException {
+        setHeader("If-None-Match", "\"v0\", W/\"v1\"");
+
+        handle();
+
+        Assert.assertEquals(0, output.size());
+        Mockito.verify(response)
+                .setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+    }
+
+    @Test
+    public void ifNoneMatchDifferent_wholeResource() throws IOException {
+        setHeader("If-None-Match", "\"v0\"");
+        Mockito.when(request.getDateHeader("If-Modified-Since"))
+                .thenReturn(LAST_MODIFIED);
+
+        handle();
+
+        Assert.assertArrayEquals(DATA, output.toByteArray());
+    }
+
+    @Test
+    public void ifModifiedSince_notModified() throws IOException {
+        Mockito.when(request.getDateHeader("If-Modified-Since"))
+                .thenReturn(LAST_MODIFIED);
+
+        handle();
+
+        Assert.assertEquals(0, output.size());
+        Mockito.verify(response)
+                .setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+    }
+
+    @Test
+    public void fileChannelRange_partialContent() throws IOException {
+        File file = temporaryFolder.newFile();
+        Files.write(file.toPath(), DATA);
+        resource = new StreamResource("data",
+                ReadableChannelFactory.of(file.toPath()))
+                        .setLength(DATA.length);
+        setHeader("Range", "bytes=3-5");
+
+        handle();
+
+        assertPartialContent(3, 5);
+        Mockito.verify(session, Mockito.times(2)).lock();
+    }
+
+    @Test
+    public void customWriterRange_partialContent() throws IOException {
+        resource = new StreamResource("data",
+                (stream, session) -> stream.write(DATA))
+                        .setLength(DATA.length);
+        setHeader("Range", "bytes=1-8");
+
+        handle();
+
+        assertPartialContent(1, 8);
+    }
+
+    private void assertPartialContent(int first, int last) {
+        Assert.assertArrayEquals(Arrays.copyOfRange(DATA, first, last + 1),
+                output.toByteArray());
+        Mockito.verify(response)
+                .setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        Mockito.verify(response).setHeader("Content-Range",
+                "bytes " + first + "-" + last + "/" + DATA.length);
+        Mockito.verify(response).setHeader("Content-Length",
+                String.valueOf(last - first + 1));
+    }
+
+    private void setHeader(String name, String value) {
+        Mockito.when(request.getHeader(name)).thenReturn(value);
+    }
+
+    private void handle() throws IOException {
+        handler.handleRequest(session, request, response, resource);
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.server.Constants;
+import com.vaadin.flow.server.MockVaadinServletService;
+import com.vaadin.flow.server.MockVaadinSession;
+import com.vaadin.flow.server.VaadinServletRequest;
+import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.shared.communication.PushMode;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+
+public class UIBroadcasterTest {
+
+    private MockDeploymentConfiguration configuration;
+    private MockVaadinServletService service;
+    private List<RecordingPushConnection> connections = new ArrayList<>();
+    private List<Runnable> scheduledPushes = new CopyOnWriteArrayList<>();
+    private List<Throwable> errors = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        ScheduledExecutorService executor = Mockito
+                .mock(ScheduledExecutorService.class);
+        Mockito.when(executor.schedule(Mockito.any(Runnable.class),
+                Mockito.anyLong(), Mockito.eq(TimeUnit.MILLISECONDS)))
+                .then(invocation -> {
+                    scheduledPushes.add(
+                            invocation.getArgumentAt(0, Runnable.class));
+                    return null;
+                });
+
+        configuration = new MockDeploymentConfiguration();
+        service = new MockVaadinServletService(configuration) {
+            @Override
+            protected PushScheduler createPushScheduler() {
+                return new PushScheduler(executor, Clock.systemUTC());
+            }
+        };
+        service.init();
+    }
+
+    @After
+    public void tearDown() {
+        service.destroy();
+        CurrentInstance.clearAll();
+    }
+
+    @Test
+    public void broadcast_changeAppliedAndPushedToAllUIs() throws Exception {
+        VaadinSession session1 = createSession();
+        VaadinSession session2 = createSession();
+        List<UI> uis = Arrays.asList(createUI(session1), createUI(session1),
+                createUI(session2));
+
+        service.broadcast(uis,
+                ui -> ui.getElement().setProperty("news", "foo"))
+                .get(5, TimeUnit.SECONDS);
+
+        for (UI ui : uis) {
+            Assert.assertEquals("foo", ui.getElement().getProperty("news"));
+        }
+        Assert.assertEquals(3, getPushedCount());
+    }
+
+    @Test
+    public void broadcast_pushInterval_scheduledPushesShareFragmentCache()
+            throws Exception {
+        VaadinSession session1 = createSession();
+        VaadinSession session2 = createSession();
+        List<UI> uis = Arrays.asList(createUI(session1), createUI(session1),
+                createUI(session2));
+        // Set after creating the UIs so that no push is pending
+        configuration.setApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_PUSH_INTERVAL, "100");
+
+        service.broadcast(uis,
+                ui -> ui.getPage().executeJavaScript("news($0)", "foo"))
+                .get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(0, getPushedCount());
+        Assert.assertEquals(3, scheduledPushes.size());
+
+        // Run the pushes on a thread without a current fragment cache
+        scheduledPushes.forEach(Runnable::run);
+
+        Assert.assertEquals(3, getPushedCount());
+        Set<UidlFragmentCache> caches = new HashSet<>();
+        connections.forEach(
+                connection -> caches.addAll(connection.getFragmentCaches()));
+        Assert.assertEquals(1, caches.size());
+    }
+
+    @Test
+    public void broadcast_failingChange_reportedAndOtherUIsChanged()
+            throws Exception {
+        VaadinSession session = createSession();
+        UI failing = createUI(session);
+        UI other = createUI(session);
+
+        service.broadcast(Arrays.asList(failing, other), ui -> {
+            if (ui == failing) {
+                throw new IllegalStateException("foo");
+            }
+            ui.getElement().setProperty("news", "foo");
+        }).get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(1, errors.size());
+        Assert.assertEquals("foo", errors.get(0).getMessage());
+        Assert.assertEquals("foo", other.getElement().getProperty("news"));
+    }
+
+    @Test
+    public void broadcast_detachedUI_skipped() throws Exception {
+        VaadinSession session = createSession();
+        UI attached = createUI(session);
+        UI detached = new UI();
+        List<UI> changed = new ArrayList<>();
+
+        service.broadcast(Arrays.asList(attached, detached), changed::add)
+                .get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(Arrays.asList(attached), changed);
+    }
+
+    private VaadinSession createSession() {
+        VaadinSession session = new MockVaadinSession(service);
+        session.lock();
+        try {
+            session.setErrorHandler(event -> errors.add(event.getThrowable()));
+        } finally {
+            session.unlock();
+        }
+        return session;
+    }
+
+    private UI createUI(VaadinSession session) {
+        UI ui = new UI();
+        session.lock();
+        try {
+            ui.getInternals().setSession(session);
+            ui.doInit(Mockito.mock(VaadinServletRequest.class),
+                    session.getNextUIid());
+            ui.getPushConfiguration().setPushMode(PushMode.AUTOMATIC);
+            ui.getInternals()
+                    .setPushConnection(new RecordingPushConnection(ui));
+            session.addUI(ui);
+        } finally {
+            session.unlock();
+        }
+
+        // Start recording after the initial push
+        RecordingPushConnection connection = new RecordingPushConnection(ui);
+        session.lock();
+        try {
+            ui.getInternals().setPushConnection(connection);
+        } finally {
+            session.unlock();
+        }
+        connections.add(connection);
+        return ui;
+    }
+
+    private long getPushedCount() {
+        return connections.stream().filter(
+                connection -> !connection.getPushThreads().isEmpty())
+                .count();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.Constants;
+import com.vaadin.flow.server.MockVaadinServletService;
+import com.vaadin.flow.server.MockVaadinSession;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinResponse;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinServletRequest;
+import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+
+import elemental.json.JsonException;
+
+public class UidlRequestHandlerTest {
+
+    @Test
+    public void jsonException_streaming_refreshWritten() throws IOException {
+        assertRefreshOnJsonException(true);
+    }
+
+    @Test
+    public void jsonException_notStreaming_refreshWritten()
+            throws IOException {
+        assertRefreshOnJsonException(false);
+    }
+
+    private static void assertRefreshOnJsonException(boolean streaming)
+            throws IOException {
+        MockDeploymentConfiguration configuration = new MockDeploymentConfiguration();
+        configuration.setApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_STREAMING_UIDL,
+                Boolean.toString(streaming));
+        UI ui = new UI();
+        MockVaadinServletService service = new MockVaadinServletService(
+                configuration) {
+            @Override
+            public UI findUI(VaadinRequest request) {
+                return ui;
+            }
+        };
+        service.init();
+
+        VaadinSession session = new MockVaadinSession(service);
+        session.lock();
+        try {
+            session.setConfiguration(configuration);
+            ui.getInternals().setSession(session);
+            ui.doInit(Mockito.mock(VaadinServletRequest.class), 0);
+            session.addUI(ui);
+            ui.getInternals().getStateTree().beforeClientResponse(
+                    ui.getElement().getNode(), context -> {
+                        throw new JsonException("Cannot encode");
+                    });
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            VaadinResponse response = Mockito.mock(VaadinResponse.class);
+            Mockito.when(response.getOutputStream()).thenReturn(out);
+            UidlRequestHandler handler = new UidlRequestHandler() {
+                @Override
+                protected ServerRpcHandler createRpcHandler() {
+                    return Mockito.mock(ServerRpcHandler.class);
+                }
+            };
+
+            Assert.assertTrue(handler.synchronizedHandleRequest(session,
+                    Mockito.mock(VaadinRequest.class), response));
+
+            Assert.assertEquals(
+                    VaadinService.createCriticalNotificationJSON(null, null,
+                            null, null),
+                    new String(out.toByteArray(), StandardCharsets.UTF_8));
+        } finally {
+            session.unlock();
+        }
+    }
+}
@@ -16,12 +16,14 @@
 package com.vaadin.flow.server.communication;
 
 import javax.servlet.http.HttpServletRequest;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -44,10 +46,13 @@ import com.vaadin.flow.internal.JsonUtils;
 import com.vaadin.flow.router.ParentLayout;
 import com.vaadin.flow.router.Route;
 import com.vaadin.flow.router.RouterLayout;
+import com.vaadin.flow.server.Constants;
 import com.vaadin.flow.server.MockServletServiceSessionSetup;
 import com.vaadin.flow.server.VaadinServletRequest;
 import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.shared.ApplicationConstants;
+import com.vaadin.flow.shared.CompactChangeLayout;
+import com.vaadin.flow.shared.JsonConstants;
 import com.vaadin.flow.shared.ui.Dependency;
 import com.vaadin.flow.shared.ui.LoadMode;
 
@@ -61,8 +66,11 @@ import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -390,6 +398,231 @@ public class UidlWriterTest {
         }
     }
 
+    @Test
+    public void writeUidl_sameContentAsCreateUidl() throws Exception {
+        UI createdUi = initializeUIForDependenciesTest(new TestUI());
+        createdUi.add(new ComponentWithAllDependencyTypes());
+        createdUi.getElement().setProperty("text", "\u00e5\u00e4\u00f6");
+        JsonObject created = new UidlWriter().createUidl(createdUi, false);
+        mocks.cleanup();
+
+        UI writtenUi = initializeUIForDependenciesTest(new TestUI());
+        writtenUi.add(new ComponentWithAllDependencyTypes());
+        writtenUi.getElement().setProperty("text", "\u00e5\u00e4\u00f6");
+        StringWriter writer = new StringWriter();
+        new UidlWriter().writeUidl(writtenUi, false, writer);
+        JsonObject written = Json.parse(writer.toString());
+
+        assertTrue(created.hasKey("changes"));
+        assertTrue(JsonUtils.jsonEquals(created, written));
+        assertEquals(createdUi.getInternals().getServerSyncId(),
+                writtenUi.getInternals().getServerSyncId());
+    }
+
+    @Test
+    public void writeUidl_fragmentCache_sameContentAsCreateUidl()
+            throws Exception {
+        UI createdUi = initializeUIForDependenciesTest(new TestUI());
+        addBroadcastContent(createdUi);
+        JsonObject created = new UidlWriter().createUidl(createdUi, false);
+        mocks.cleanup();
+
+        UidlFragmentCache cache = new UidlFragmentCache();
+        JsonObject written = null;
+        for (int i = 0; i < 2; i++) {
+            UI writtenUi = initializeUIForDependenciesTest(new TestUI());
+            addBroadcastContent(writtenUi);
+            StringWriter writer = new StringWriter();
+            UidlFragmentCache.setCurrent(cache);
+            try {
+                new UidlWriter().writeUidl(writtenUi, false, writer);
+            } finally {
+                UidlFragmentCache.setCurrent(null);
+            }
+            written = Json.parse(writer.toString());
+            mocks.cleanup();
+        }
+
+        assertTrue(created.hasKey("constants"));
+        assertTrue(created.getArray(JsonConstants.UIDL_KEY_EXECUTE).toJson()
+                .contains("window.alert"));
+        assertTrue(JsonUtils.jsonEquals(created, written));
+    }
+
+    @Test
+    public void fragmentCache_sharedParameters_encodedOnce() {
+        UidlFragmentCache cache = new UidlFragmentCache();
+
+        String json = cache.getInvocationJson(
+                new JavaScriptInvocation("foo($0, $1)", "bar", 1));
+
+        assertSame(json, cache.getInvocationJson(
+                new JavaScriptInvocation("foo($0, $1)", "bar", 1)));
+        assertNotSame(json, cache.getInvocationJson(
+                new JavaScriptInvocation("foo($0, $1)", "bar", 2)));
+    }
+
+    @Test
+    public void fragmentCache_elementParameter_notShared() {
+        UidlFragmentCache cache = new UidlFragmentCache();
+        Element element = ElementFactory.createDiv();
+
+        String json = cache.getInvocationJson(
+                new JavaScriptInvocation("$0.focus()", element));
+
+        assertNotSame(json, cache.getInvocationJson(
+                new JavaScriptInvocation("$0.focus()", element)));
+    }
+
+    private static void addBroadcastContent(UI ui) {
+        ui.add(new ComponentWithAllDependencyTypes());
+        ui.getElement().addEventListener("click", event -> {
+        }).addEventData("event.button");
+        ui.getPage().executeJavaScript("window.alert($0)", "news");
+        ui.getPage().executeJavaScript("$0.focus()", ui.getElement());
+    }
+
+    @Test
+    public void writeUidl_noChanges_noChangesKey() throws Exception {
+        UI ui = initializeUIForDependenciesTest(new TestUI());
+        UidlWriter uidlWriter = new UidlWriter();
+        uidlWriter.createUidl(ui, false);
+
+        StringWriter writer = new StringWriter();
+        uidlWriter.writeUidl(ui, false, writer);
+        JsonObject written = Json.parse(writer.toString());
+
+        assertFalse(written.hasKey("changes"));
+        assertTrue(written.hasKey(ApplicationConstants.SERVER_SYNC_ID));
+    }
+
+    @Test
+    public void writeUidl_beforeClientResponseThrows_nothingWritten()
+            throws Exception {
+        UI ui = initializeUIForDependenciesTest(new TestUI());
+        ui.add(new ComponentWithAllDependencyTypes());
+        ui.getInternals().getStateTree().beforeClientResponse(
+                ui.getElement().getNode(), context -> {
+                    throw new IllegalStateException("Failed");
+                });
+
+        StringWriter writer = new StringWriter();
+        try {
+            new UidlWriter().writeUidl(ui, false, writer);
+            fail("Exception should be thrown");
+        } catch (IllegalStateException expected) {
+            assertEquals("Failed", expected.getMessage());
+        }
+
+        assertEquals("", writer.toString());
+    }
+
+    @Test
+    public void createUidl_resync_containsFullState() throws Exception {
+        UI ui = initializeUIForDependenciesTest(new TestUI());
+        ui.add(new ComponentWithAllDependencyTypes());
+        ui.getElement().setProperty("text", "foo");
+        UidlWriter uidlWriter = new UidlWriter();
+        JsonObject initial = uidlWriter.createUidl(ui, false);
+        assertFalse(initial.hasKey(ApplicationConstants.RESYNCHRONIZE_ID));
+
+        JsonObject resync = uidlWriter.createUidl(ui, false, true);
+
+        assertTrue(resync.getBoolean(ApplicationConstants.RESYNCHRONIZE_ID));
+        assertEquals(getAttachedNodeIds(initial), getAttachedNodeIds(resync));
+        assertTrue(resync.toJson().contains("\"foo\""));
+        assertEquals(initial.hasKey("constants"), resync.hasKey("constants"));
+
+        JsonObject next = uidlWriter.createUidl(ui, false);
+        assertFalse(next.hasKey("changes"));
+    }
+
+    @Test
+    public void createUidl_resyncAfterDetach_noDetachChange()
+            throws Exception {
+        UI ui = initializeUIForDependenciesTest(new TestUI());
+        ComponentWithAllDependencyTypes component = new ComponentWithAllDependencyTypes();
+        ui.add(component);
+        UidlWriter uidlWriter = new UidlWriter();
+        uidlWriter.createUidl(ui, false);
+        int detachedId = component.getElement().getNode().getId();
+
+        ui.remove(component);
+        JsonObject resync = uidlWriter.createUidl(ui, false, true);
+
+        JsonArray changes = resync.getArray("changes");
+        for (int i = 0; i < changes.length(); i++) {
+            JsonObject change = changes.getObject(i);
+            assertFalse(JsonConstants.CHANGE_TYPE_DETACH
+                    .equals(change.getString(JsonConstants.CHANGE_TYPE)));
+            assertFalse(detachedId == (int) change
+                    .getNumber(JsonConstants.CHANGE_NODE));
+        }
+    }
+
+    @Test
+    public void writeUidl_resync_sameContentAsCreateUidl() throws Exception {
+        UI createdUi = initializeUIForDependenciesTest(new TestUI());
+        createdUi.add(new ComponentWithAllDependencyTypes());
+        new UidlWriter().createUidl(createdUi, false);
+        JsonObject created = new UidlWriter().createUidl(createdUi, false,
+                true);
+        mocks.cleanup();
+
+        UI writtenUi = initializeUIForDependenciesTest(new TestUI());
+        writtenUi.add(new ComponentWithAllDependencyTypes());
+        new UidlWriter().createUidl(writtenUi, false);
+        StringWriter writer = new StringWriter();
+        new UidlWriter().writeUidl(writtenUi, false, true, writer);
+        JsonObject written = Json.parse(writer.toString());
+
+        assertTrue(JsonUtils.jsonEquals(created, written));
+    }
+
+    @Test
+    public void createUidl_compactChangeEncoding_sameChangesWhenExpanded()
+            throws Exception {
+        UI ui = initializeUIForDependenciesTest(new TestUI());
+        ui.add(new ComponentWithAllDependencyTypes());
+        ui.getElement().setProperty("text", "foo");
+        ui.getElement().addEventListener("click", event -> {
+        });
+        JsonArray changes = new UidlWriter().createUidl(ui, false)
+                .getArray("changes");
+        mocks.cleanup();
+
+        UI compactUi = initializeUIForDependenciesTest(new TestUI());
+        mocks.getDeploymentConfiguration().setApplicationOrSystemProperty(
+                Constants.SERVLET_PARAMETER_COMPACT_CHANGE_ENCODING, "true");
+        compactUi.add(new ComponentWithAllDependencyTypes());
+        compactUi.getElement().setProperty("text", "foo");
+        compactUi.getElement().addEventListener("click", event -> {
+        });
+        JsonArray compactChanges = new UidlWriter().createUidl(compactUi, false)
+                .getArray("changes");
+
+        assertEquals(changes.length(), compactChanges.length());
+        assertTrue(compactChanges.toJson().length() < changes.toJson()
+                .length());
+        for (int i = 0; i < changes.length(); i++) {
+            assertTrue(JsonUtils.jsonEquals(changes.getObject(i),
+                    CompactChangeLayout.expand(compactChanges.getArray(i))));
+        }
+    }
+
+    private static Set<Integer> getAttachedNodeIds(JsonObject response) {
+        JsonArray changes = response.getArray("changes");
+        Set<Integer> ids = new HashSet<>();
+        for (int i = 0; i < changes.length(); i++) {
+            JsonObject change = changes.getObject(i);
+            if (JsonConstants.CHANGE_TYPE_ATTACH
+                    .equals(change.getString(JsonConstants.CHANGE_TYPE))) {
+                ids.add((int) change.getNumber(JsonConstants.CHANGE_NODE));
+            }
+        }
+        return ids;
+    }
+
     private void assertInlineDependencies(List<JsonObject> inlineDependencies,
             String expectedPrefix) {
         assertThat("Should have 3 inline dependencies", inlineDependencies,
@@ -61,6 +61,48 @@ public class EventRpcHandlerTest {
         Assert.assertEquals(123, invocationData.get());
     }
 
+    @Test
+    public void testCoalescedElementEvent() throws Exception {
+        TestComponent c = new TestComponent();
+        Element element = c.getElement();
+        UI ui = new UI();
+        ui.add(c);
+        AtomicInteger count = new AtomicInteger(0);
+
+        element.addEventListener("test-event",
+                e -> count.set(e.getCoalescedCount())).coalesce();
+
+        JsonObject invocation = createElementEventInvocation(element,
+                "test-event", null);
+        invocation.put(JsonConstants.RPC_EVENT_COALESCED_COUNT, 3);
+        new EventRpcHandler().handle(ui, invocation);
+        Assert.assertEquals(3, count.get());
+
+        sendElementEvent(element, ui, "test-event", null);
+        Assert.assertEquals(1, count.get());
+    }
+
+    @Test
+    public void testInvalidCoalescedCount_countedAsOneEvent() throws Exception {
+        TestComponent c = new TestComponent();
+        Element element = c.getElement();
+        UI ui = new UI();
+        ui.add(c);
+        AtomicInteger count = new AtomicInteger(0);
+
+        element.addEventListener("test-event",
+                e -> count.set(e.getCoalescedCount())).coalesce();
+
+        for (double invalid : new double[] { 0, -5, Double.NaN }) {
+            count.set(0);
+            JsonObject invocation = createElementEventInvocation(element,
+                    "test-event", null);
+            invocation.put(JsonConstants.RPC_EVENT_COALESCED_COUNT, invalid);
+            new EventRpcHandler().handle(ui, invocation);
+            Assert.assertEquals(1, count.get());
+        }
+    }
+
     private static JsonObject createElementEventInvocation(Element element,
             String eventType, JsonObject eventData) {
         StateNode node = element.getNode();
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication.rpc;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PublishedMethodInvokerTest {
+
+    public static class Target {
+        private long value;
+
+        public void setValue(long value) {
+            this.value = value;
+        }
+
+        public void setText(String text) {
+            // Fails with ClassCastException inside the method
+            Object number = Integer.valueOf(text.length());
+            text = (String) number;
+        }
+    }
+
+    private final Target target = new Target();
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invoke_wrongArgumentType_illegalArgumentException()
+            throws NoSuchMethodException {
+        createInvoker("setValue", long.class).invoke(target,
+                new Object[] { "foo" });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invoke_nullForPrimitive_illegalArgumentException()
+            throws NoSuchMethodException {
+        createInvoker("setValue", long.class).invoke(target,
+                new Object[] { null });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invoke_wrongArgumentCount_illegalArgumentException()
+            throws NoSuchMethodException {
+        createInvoker("setValue", long.class).invoke(target, new Object[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invoke_wrongInstance_illegalArgumentException()
+            throws NoSuchMethodException {
+        createInvoker("setValue", long.class).invoke(new Object(),
+                new Object[] { 1L });
+    }
+
+    @Test
+    public void invoke_wideningConversion_methodInvoked()
+            throws NoSuchMethodException {
+        createInvoker("setValue", long.class).invoke(target,
+                new Object[] { 42 });
+
+        Assert.assertEquals(42, target.value);
+    }
+
+    @Test
+    public void invoke_methodThrowsClassCastException_wrappedCause()
+            throws NoSuchMethodException {
+        try {
+            createInvoker("setText", String.class).invoke(target,
+                    new Object[] { "foo" });
+            Assert.fail("Exception thrown by the method should be rethrown");
+        } catch (IllegalArgumentException e) {
+            Assert.fail("Exception thrown by the method is not an argument "
+                    + "mismatch");
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getCause() instanceof ClassCastException);
+        }
+    }
+
+    private static PublishedMethodInvoker createInvoker(String name,
+            Class<?> parameterType) throws NoSuchMethodException {
+        return new PublishedMethodInvoker(
+                Target.class.getMethod(name, parameterType));
+    }
+}
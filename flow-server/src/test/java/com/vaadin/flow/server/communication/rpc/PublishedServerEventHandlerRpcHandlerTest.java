@@ -190,6 +190,28 @@ public class PublishedServerEventHandlerRpcHandlerTest {
         }
     }
 
+    public static class ComponentWithOverriddenMethod
+            extends MethodWithParameters {
+
+        private int overriddenArg;
+
+        @Override
+        protected void intMethod(int i) {
+            overriddenArg = i;
+        }
+    }
+
+    @Tag(Tag.DIV)
+    public static class ComponentWithStaticMethod extends Component {
+
+        private static int invocations;
+
+        @ClientCallable
+        private static void method(int count) {
+            invocations += count;
+        }
+    }
+
     public static class CompositeOfComponentWithMethod
             extends Composite<ComponentWithMethod> {
     }
@@ -226,6 +248,45 @@ public class PublishedServerEventHandlerRpcHandlerTest {
         Assert.assertTrue(component.isInvoked);
     }
 
+    @Test
+    public void methodIsInvokedRepeatedlyOnDifferentInstances() {
+        JsonArray array = Json.createArray();
+        array.set(0, 1);
+        for (int i = 0; i < 3; i++) {
+            MethodWithParameters component = new MethodWithParameters();
+            array.set(0, i);
+            PublishedServerEventHandlerRpcHandler.invokeMethod(component,
+                    component.getClass(), "intMethod", array);
+
+            Assert.assertEquals(i, component.intArg);
+        }
+    }
+
+    @Test
+    public void overriddenMethodWithoutAnnotation_overridingMethodIsInvoked() {
+        JsonArray array = Json.createArray();
+        array.set(0, 42);
+        ComponentWithOverriddenMethod component = new ComponentWithOverriddenMethod();
+        PublishedServerEventHandlerRpcHandler.invokeMethod(component,
+                component.getClass(), "intMethod", array);
+
+        Assert.assertEquals(42, component.overriddenArg);
+        Assert.assertEquals(0, ((MethodWithParameters) component).intArg);
+    }
+
+    @Test
+    public void staticMethodIsInvoked() {
+        JsonArray array = Json.createArray();
+        array.set(0, 2);
+        ComponentWithStaticMethod component = new ComponentWithStaticMethod();
+        int invocations = ComponentWithStaticMethod.invocations;
+        PublishedServerEventHandlerRpcHandler.invokeMethod(component,
+                component.getClass(), "method", array);
+
+        Assert.assertEquals(invocations + 2,
+                ComponentWithStaticMethod.invocations);
+    }
+
     @Test
     public void methodIsInvokedOnCompositeContent() {
         CompositeOfComponentWithMethod composite = new CompositeOfComponentWithMethod();
@@ -6,6 +6,9 @@ import static com.vaadin.flow.server.startup.AbstractAnnotationValidator.NON_PAR
 import static com.vaadin.flow.server.startup.AbstractAnnotationValidator.NON_PARENT_ALIAS;
 import static com.vaadin.flow.server.startup.AbstractAnnotationValidator.NON_ROUTER_LAYOUT;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -189,6 +192,33 @@ public class AnnotationValidatorTest {
         }
     }
 
+    @Test
+    public void onStartUp_manyClasses_failingAnnotationsReportedInIterationOrder() {
+        List<Class<?>> classes = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            classes.add(ThemeRootViewport.class);
+            classes.add(ThemeViewportWithParent.class);
+            classes.add(NonRoute.class);
+            classes.add(InlineViewportWithParent.class);
+        }
+        try {
+            annotationValidator.validateClasses(classes);
+            Assert.fail("No exception was thrown for faulty setup.");
+        } catch (InvalidApplicationConfigurationException iace) {
+            String expected = String.join("\n",
+                    String.format(NON_PARENT,
+                            ThemeViewportWithParent.class.getName(),
+                            Theme.class.getSimpleName()),
+                    String.format(NON_ROUTER_LAYOUT, NonRoute.class.getName(),
+                            Theme.class.getSimpleName()),
+                    String.format(NON_PARENT,
+                            InlineViewportWithParent.class.getName(),
+                            Inline.class.getSimpleName()));
+            Assert.assertEquals(ERROR_MESSAGE_BEGINNING + String.join("\n",
+                    Collections.nCopies(5, expected)), iace.getMessage());
+        }
+    }
+
     @Test
     public void onStartUp_route_can_not_contain_theme_if_alias_has_parent()
             throws ServletException {
@@ -15,6 +15,7 @@
  */
 package com.vaadin.flow.server.startup;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -341,6 +342,32 @@ public class RouteRegistryInitializerTest {
                 servletContext);
     }
 
+    @Test
+    public void validateRouteClasses_manyClasses_firstFailureInIterationOrderIsThrown() {
+        List<Class<?>> validClasses = Arrays.asList(NavigationTarget.class,
+                NavigationTargetFoo.class, NavigationTargetFoo2.class,
+                NavigationTargetBar.class, NavigationTargetBar2.class,
+                NavigationRootWithParent.class, MiddleParentWithRoute.class,
+                ExtendingPrefix.class, AbsoluteRoute.class,
+                MultiLevelRoute.class, MultiLevelRouteAlias.class,
+                ParameterRoute.class, StringParameterRoute.class,
+                ParentWithDynamicTitle.class, ChildWithDynamicTitle.class,
+                SingleNavigationTarget.class);
+        Assert.assertEquals(validClasses.size(), routeRegistryInitializer
+                .validateRouteClasses(validClasses.stream()).size());
+
+        List<Class<?>> classes = new ArrayList<>(validClasses);
+        classes.add(8, FaultyChildWithDuplicateTitle.class);
+        classes.add(FaultyNavigationTargetWithTitle.class);
+
+        expectedEx.expect(DuplicateNavigationTitleException.class);
+        expectedEx.expectMessage(String.format(
+                "'%s' has a PageTitle annotation, but also implements HasDynamicTitle.",
+                FaultyChildWithDuplicateTitle.class.getName()));
+
+        routeRegistryInitializer.validateRouteClasses(classes.stream());
+    }
+
     @Test
     public void registration_succeeds_for_navigation_target_with_inherited_title_annotation()
             throws ServletException {
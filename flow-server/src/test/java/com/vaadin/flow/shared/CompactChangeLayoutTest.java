@@ -0,0 +1,122 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.shared;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.flow.internal.ConstantPool;
+import com.vaadin.flow.internal.ConstantPoolKey;
+import com.vaadin.flow.internal.JsonUtils;
+import com.vaadin.flow.internal.StateNode;
+import com.vaadin.flow.internal.StateNodeTest;
+import com.vaadin.flow.internal.change.EmptyChange;
+import com.vaadin.flow.internal.change.ListAddChange;
+import com.vaadin.flow.internal.change.ListClearChange;
+import com.vaadin.flow.internal.change.ListRemoveChange;
+import com.vaadin.flow.internal.change.MapPutChange;
+import com.vaadin.flow.internal.change.MapRemoveChange;
+import com.vaadin.flow.internal.change.NodeAttachChange;
+import com.vaadin.flow.internal.change.NodeChange;
+import com.vaadin.flow.internal.change.NodeDetachChange;
+import com.vaadin.flow.internal.nodefeature.AbstractNodeFeatureTest;
+import com.vaadin.flow.internal.nodefeature.ElementChildrenList;
+import com.vaadin.flow.internal.nodefeature.ElementPropertyMap;
+import com.vaadin.flow.internal.nodefeature.NodeFeatureRegistry;
+import com.vaadin.flow.internal.nodefeature.NodeList;
+import com.vaadin.flow.internal.nodefeature.NodeMap;
+import com.vaadin.flow.internal.nodefeature.SynchronizedPropertiesList;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import elemental.json.JsonType;
+import elemental.json.JsonValue;
+
+public class CompactChangeLayoutTest {
+    private NodeMap map = AbstractNodeFeatureTest
+            .createFeature(ElementPropertyMap.class);
+    private NodeList<StateNode> list = AbstractNodeFeatureTest
+            .createFeature(ElementChildrenList.class);
+    private NodeList<String> valueList = AbstractNodeFeatureTest
+            .createFeature(SynchronizedPropertiesList.class);
+
+    @Test
+    public void toCompactJson_allChangeTypes_sameChangeWhenExpanded() {
+        StateNode child = StateNodeTest.createEmptyNode("child");
+        ConstantPoolKey constant = new ConstantPoolKey(
+                Json.parse("{\"foo\":\"bar\"}"));
+
+        NodeChange[] changes = { new NodeAttachChange(child),
+                new NodeDetachChange(child),
+                new MapPutChange(map, "foo", "bar"),
+                new MapPutChange(map, "foo", null),
+                new MapPutChange(map, "foo", constant),
+                new MapPutChange(map, "foo", child),
+                new MapRemoveChange(map, "foo"),
+                new ListAddChange<>(valueList, false, 0,
+                        Arrays.asList("a", "b")),
+                new ListAddChange<>(list, true, 1,
+                        Collections.singletonList(child)),
+                new ListRemoveChange<>(list, 1, child),
+                new ListClearChange<>(list), new EmptyChange(map),
+                new EmptyChange(list) };
+
+        for (NodeChange change : changes) {
+            JsonObject json = change.toJson(new ConstantPool());
+            JsonValue compact = change.toCompactJson(new ConstantPool());
+
+            Assert.assertSame(json.toJson(), JsonType.ARRAY,
+                    compact.getType());
+            Assert.assertTrue(json.toJson(),
+                    compact.toJson().length() < json.toJson().length());
+            Assert.assertTrue(json.toJson(), JsonUtils.jsonEquals(json,
+                    CompactChangeLayout.expand((JsonArray) compact)));
+        }
+    }
+
+    @Test
+    public void toCompactJson_putChange_layoutOrdinalAndValuesInOrder() {
+        MapPutChange change = new MapPutChange(map, "foo", Boolean.TRUE);
+
+        JsonValue compact = change.toCompactJson(new ConstantPool());
+
+        Assert.assertEquals("[" + CompactChangeLayout.PUT.ordinal() + ","
+                + change.getNode().getId() + ","
+                + NodeFeatureRegistry.getId(ElementPropertyMap.class)
+                + ",\"foo\",true]", compact.toJson());
+    }
+
+    @Test
+    public void toCompactJson_changeWithoutLayout_regularJsonObject() {
+        StateNode node = StateNodeTest.createEmptyNode("node");
+        NodeChange change = new NodeChange(node) {
+            @Override
+            protected void populateJson(JsonObject json,
+                    ConstantPool constantPool) {
+                json.put(JsonConstants.CHANGE_TYPE, "custom");
+            }
+        };
+
+        JsonValue compact = change.toCompactJson(new ConstantPool());
+
+        Assert.assertSame(JsonType.OBJECT, compact.getType());
+        Assert.assertTrue(JsonUtils.jsonEquals(change.toJson(null), compact));
+    }
+}